@@ -0,0 +1,166 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate Limit 엔진 벤치마크 (token-bucket, gcra, sliding-log)
+ * 판정 처리량은 JMH로 측정하고, 시작 시 엔진별로 다음 항목을 한 번 측정하여 출력
+ * - 판정당 Redis 명령 수 (INFO commandstats 증가량, EVALSHA 포함)
+ * - 키당 메모리 (버스트 용량만큼 요청한 뒤 MEMORY USAGE 합계 / 식별자 수)
+ * - 버스트 부하 정확도 (100ms마다 용량의 1/4씩 3초간 요청, 허용 수와 이론 허용량 및 임의 1초 구간 최대 허용 수 비교)
+ *
+ * 실행: REDIS_HOST, REDIS_PORT(기본 localhost:6379)의 빈 Redis를 대상으로 ./gradlew jmh
+ * 벤치마크가 만든 키(bench:*)는 종료 시 삭제
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RateLimitEngineBenchmark {
+
+    private static final int KEY_COUNT = 1000;
+    private static final int REPLENISH_RATE = 100;
+    private static final int BURST_CAPACITY = 200;
+
+    @Param({TokenBucketRateLimitEngine.NAME, GcraRateLimitEngine.NAME, SlidingLogRateLimitEngine.NAME})
+    private String engineName;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisClient statsClient;
+    private StatefulRedisConnection<String, String> statsConnection;
+    private RateLimitEngine engine;
+    private EngineRateLimiter.Config config;
+    private String[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        String host = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+        int port = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        ReactiveStringRedisTemplate redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+        statsClient = RedisClient.create("redis://" + host + ":" + port);
+        statsConnection = statsClient.connect();
+
+        engine = switch (engineName) {
+            case TokenBucketRateLimitEngine.NAME -> new TokenBucketRateLimitEngine(redisTemplate);
+            case GcraRateLimitEngine.NAME -> new GcraRateLimitEngine(redisTemplate);
+            default -> new SlidingLogRateLimitEngine(redisTemplate);
+        };
+        config = new EngineRateLimiter.Config()
+                .setEngine(engineName)
+                .setReplenishRate(REPLENISH_RATE)
+                .setBurstCapacity(BURST_CAPACITY);
+        ids = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            ids[i] = "bench:" + engineName + ":" + i;
+        }
+
+        report();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RedisCommands<String, String> redis = statsConnection.sync();
+        List<String> keys = redis.keys("*bench:*");
+        if (!keys.isEmpty()) {
+            redis.del(keys.toArray(new String[0]));
+        }
+        statsConnection.close();
+        statsClient.shutdown();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public boolean decide() {
+        String id = ids[next++ % KEY_COUNT];
+        return engine.check(id, config).block().isAllowed();
+    }
+
+    private void report() throws InterruptedException {
+        RedisCommands<String, String> redis = statsConnection.sync();
+
+        // 판정당 Redis 명령 수 (첫 INFO 호출 1회 제외)
+        int decisions = KEY_COUNT;
+        long before = commandCalls(redis.info("commandstats"));
+        for (String id : ids) {
+            engine.check(id, config).block();
+        }
+        long after = commandCalls(redis.info("commandstats"));
+        double commandsPerDecision = (double) (after - before - 1) / decisions;
+
+        // 키당 메모리 (식별자마다 버스트 용량만큼 요청한 상태)
+        for (String id : ids) {
+            for (int i = 1; i < BURST_CAPACITY; i++) {
+                engine.check(id, config).block();
+            }
+        }
+        long memory = 0;
+        for (String key : redis.keys("*bench:" + engineName + ":*")) {
+            Long usage = redis.memoryUsage(key);
+            memory += usage != null ? usage : 0;
+        }
+
+        // 버스트 부하 정확도
+        String id = "bench:" + engineName + ":accuracy";
+        List<Long> allowedAt = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int burst = 0; burst < 30; burst++) {
+            for (int i = 0; i < BURST_CAPACITY / 4; i++) {
+                if (engine.check(id, config).block().isAllowed()) {
+                    allowedAt.add(System.nanoTime());
+                }
+            }
+            Thread.sleep(100);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        long ideal = BURST_CAPACITY + Math.round(REPLENISH_RATE * elapsedSeconds);
+
+        System.out.printf("%n[%s] Redis 명령/판정=%.2f, 키당 메모리=%d bytes, 허용=%d (이론 %d), 1초 구간 최대 허용=%d%n",
+                engineName, commandsPerDecision, memory / KEY_COUNT, allowedAt.size(), ideal, maxInWindow(allowedAt));
+    }
+
+    private static long commandCalls(String commandStats) {
+        long calls = 0;
+        for (String line : commandStats.split("\r?\n")) {
+            int start = line.indexOf("calls=");
+            if (line.startsWith("cmdstat_") && start >= 0) {
+                int end = line.indexOf(',', start);
+                calls += Long.parseLong(line.substring(start + 6, end));
+            }
+        }
+        return calls;
+    }
+
+    private static int maxInWindow(List<Long> timestamps) {
+        int max = 0;
+        int from = 0;
+        for (int to = 0; to < timestamps.size(); to++) {
+            while (timestamps.get(to) - timestamps.get(from) >= TimeUnit.SECONDS.toNanos(1)) {
+                from++;
+            }
+            max = Math.max(max, to - from + 1);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.APIGatewaySvc.util;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.example.APIGatewaySvc.service.BlockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 차단 응답 작성 벤치마크
+ * 기존 String.format 방식과 BlockedResponseWriter의 처리량 및 할당량 비교
+ *
+ * 실행: ./gradlew jmh (gc 프로파일러의 gc.alloc.rate.norm 값으로 요청당 할당 바이트 비교)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlockedResponseWriterBenchmark {
+
+    private NettyDataBufferFactory bufferFactory;
+    private BlockService.BlockInfo temporaryBlock;
+    private BlockService.BlockInfo permanentBlock;
+    private String requestId;
+
+    @Setup
+    public void setUp() {
+        bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+        temporaryBlock = new BlockService.BlockInfo("IP", "Automated scraping detected", Instant.now().plusSeconds(3600));
+        permanentBlock = new BlockService.BlockInfo("API_KEY", "Leaked key", null);
+        requestId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public int legacyStringFormat() {
+        return release(legacyEncode(temporaryBlock));
+    }
+
+    @Benchmark
+    public int preEncodedWriter() {
+        return release(BlockedResponseWriter.encode(bufferFactory, temporaryBlock, requestId, System.currentTimeMillis()));
+    }
+
+    @Benchmark
+    public int preEncodedWriterPermanent() {
+        return release(BlockedResponseWriter.encode(bufferFactory, permanentBlock, requestId, System.currentTimeMillis()));
+    }
+
+    /**
+     * 기존 BlockCheckFilter.createBlockedResponse 구현
+     */
+    private DataBuffer legacyEncode(BlockService.BlockInfo blockInfo) {
+        String expiresAtStr = blockInfo.getExpiresAt() != null ?
+            "\"" + blockInfo.getExpiresAt().atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME) + "\"" :
+            "null";
+
+        String jsonResponse = String.format(
+            "{\"success\":false,\"data\":null,\"error\":{\"code\":\"BLOCKED\",\"message\":\"%s\",\"details\":{\"type\":\"%s\",\"reason\":\"%s\",\"expiresAt\":%s}},\"meta\":{\"requestId\":\"%s\",\"timestamp\":\"%s\",\"durationMs\":0}}",
+            blockInfo.getType() + " 차단됨",
+            blockInfo.getType(),
+            blockInfo.getReason().replace("\\", "\\\\").replace("\"", "\\\""),
+            expiresAtStr,
+            UUID.randomUUID(),
+            Instant.now().atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+        );
+
+        return bufferFactory.wrap(jsonResponse.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int release(DataBuffer buffer) {
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+}
@@ -1,12 +1,11 @@
 package org.example.APIGatewaySvc.config;
 
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
+import org.example.APIGatewaySvc.security.JwtSubjectResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import reactor.core.publisher.Mono;
 
 /**
@@ -22,6 +21,14 @@ import reactor.core.publisher.Mono;
 @Configuration
 public class KeyResolverConfig {
 
+    private final JwtSubjectResolver jwtSubjectResolver;
+    private final ClientIdentityResolver clientIdentityResolver;
+
+    public KeyResolverConfig(JwtSubjectResolver jwtSubjectResolver, ClientIdentityResolver clientIdentityResolver) {
+        this.jwtSubjectResolver = jwtSubjectResolver;
+        this.clientIdentityResolver = clientIdentityResolver;
+    }
+
     /**
      * 사용자 ID 기반 Key Resolver
      * JWT 토큰의 sub 클레임(사용자 ID)을 우선 사용하고, 
@@ -34,23 +41,14 @@ public class KeyResolverConfig {
     public KeyResolver userKeyResolver() {
         return exchange -> {
             // Spring Security Context에서 인증 정보 추출 시도
-            return exchange.getPrincipal()
-                    .cast(JwtAuthenticationToken.class)
-                    .map(JwtAuthenticationToken::getToken)
-                    .map(Jwt::getSubject)  // JWT sub 클레임 (사용자 ID)
+            return jwtSubjectResolver.authenticatedSubject()  // JWT sub 클레임 (사용자 ID)
                     .filter(sub -> sub != null && !sub.trim().isEmpty())
                     .map(sub -> "user:" + sub)  // 사용자 ID 기반 키
                     .cast(String.class)
                     .switchIfEmpty(
-                            // 인증되지 않은 경우 IP 기반 키 사용
-                            Mono.fromCallable(() -> {
-                                String clientIP = getClientIP(exchange);
-                                String key = "ip:" + clientIP;
-                                System.out.println("Rate Limit Key: " + key); // 디버깅용 로그
-                                return key;
-                            })
-                    )
-                    .doOnNext(key -> System.out.println("Final Rate Limit Key: " + key)); // 디버깅용 로그
+                            // 인증되지 않은 경우 IP 기반 키 사용 (신뢰 프록시 헤더 반영, ClientIdentityResolver)
+                            Mono.fromCallable(() -> "ip:" + clientIdentityResolver.clientIp(exchange))
+                    );
         };
     }
 
@@ -62,77 +60,6 @@ public class KeyResolverConfig {
      */
     @Bean("ipKeyResolver")
     public KeyResolver ipKeyResolver() {
-        return exchange -> Mono.fromCallable(() -> {
-            String clientIP = getClientIP(exchange);
-            return "ip:" + clientIP;
-        });
-    }
-
-    /**
-     * 클라이언트 실제 IP 주소 추출
-     * Proxy/Load Balancer 환경을 고려하여 정확한 클라이언트 IP 확인
-     * Rate Limit 우회 방지를 위해 신뢰할 수 있는 헤더만 사용
-     * 
-     * @param exchange ServerWebExchange 웹 교환 객체
-     * @return String 클라이언트 IP 주소
-     */
-    private String getClientIP(org.springframework.web.server.ServerWebExchange exchange) {
-        // X-Forwarded-For 헤더 확인 (프록시 환경)
-        String xForwardedFor = exchange.getRequest().getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.trim().isEmpty()) {
-            // 첫 번째 IP만 사용 (실제 클라이언트 IP)
-            String firstIP = xForwardedFor.split(",")[0].trim();
-            if (isValidIP(firstIP)) {
-                return firstIP;
-            }
-        }
-        
-        // X-Real-IP 헤더 확인 (Nginx 등)
-        String xRealIP = exchange.getRequest().getHeaders().getFirst("X-Real-IP");
-        if (xRealIP != null && !xRealIP.trim().isEmpty() && isValidIP(xRealIP)) {
-            return xRealIP;
-        }
-        
-        // CF-Connecting-IP 헤더 확인 (Cloudflare)
-        String cfConnectingIP = exchange.getRequest().getHeaders().getFirst("CF-Connecting-IP");
-        if (cfConnectingIP != null && !cfConnectingIP.trim().isEmpty() && isValidIP(cfConnectingIP)) {
-            return cfConnectingIP;
-        }
-        
-        // 직접 연결된 클라이언트 IP (RemoteAddress)
-        if (exchange.getRequest().getRemoteAddress() != null) {
-            return exchange.getRequest().getRemoteAddress().getAddress().getHostAddress();
-        }
-        
-        // 기본값 (IP 확인 불가능한 경우)
-        return "unknown";
-    }
-
-    /**
-     * IP 주소 형식 검증
-     * 잘못된 형식의 IP나 내부망 IP 등을 필터링
-     * 
-     * @param ip IP 주소 문자열
-     * @return boolean 유효한 IP 주소 여부
-     */
-    private boolean isValidIP(String ip) {
-        if (ip == null || ip.trim().isEmpty()) {
-            return false;
-        }
-        
-        // 기본 IP 형식 검증 (간단한 패턴)
-        String ipPattern = "^((25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$";
-        if (!ip.matches(ipPattern)) {
-            return false;
-        }
-        
-        // 개발 환경에서는 로컬호스트도 허용
-        // 운영 환경에서는 아래 조건을 활성화하여 사설망 IP 제외
-        // return !ip.startsWith("127.") && 
-        //        !ip.startsWith("10.") && 
-        //        !ip.startsWith("192.168.") &&
-        //        !ip.matches("^172\\.(1[6-9]|2[0-9]|3[0-1])\\..*");
-        
-        return true; // 개발 환경: 모든 유효한 IP 형식 허용
+        return exchange -> Mono.fromCallable(() -> "ip:" + clientIdentityResolver.clientIp(exchange));
     }
-}
\ No newline at end of file
+}
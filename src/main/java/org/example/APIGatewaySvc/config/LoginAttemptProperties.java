@@ -0,0 +1,203 @@
+package org.example.APIGatewaySvc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 로그인 실패 제한 정책 설정 (라우트 그룹별)
+ * 라우트 metadata의 login-attempt-group 값으로 그룹을 선택하고, 지정하지 않은 라우트는 default 그룹 사용
+ *
+ * 예시:
+ * login-attempt:
+ *   groups:
+ *     default:
+ *       user-max-attempts: 5
+ *       window: 15m
+ *     admin:
+ *       user-max-attempts: 3
+ *       block-duration: 1h
+ */
+@Component
+@ConfigurationProperties(prefix = "login-attempt")
+public class LoginAttemptProperties {
+
+    public static final String DEFAULT_GROUP = "default";
+
+    private Map<String, Policy> groups = new HashMap<>();
+
+    private HeavyHitters heavyHitters = new HeavyHitters();
+
+    private DistinctUsers distinctUsers = new DistinctUsers();
+
+    public Map<String, Policy> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, Policy> groups) {
+        this.groups = groups;
+    }
+
+    public HeavyHitters getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    public void setHeavyHitters(HeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    public DistinctUsers getDistinctUsers() {
+        return distinctUsers;
+    }
+
+    public void setDistinctUsers(DistinctUsers distinctUsers) {
+        this.distinctUsers = distinctUsers;
+    }
+
+    /**
+     * 그룹 정책 조회 (없는 그룹이면 default 그룹, default도 없으면 기본값)
+     */
+    public Policy getPolicy(String group) {
+        Policy policy = group != null ? groups.get(group) : null;
+        if (policy == null) {
+            policy = groups.get(DEFAULT_GROUP);
+        }
+        return policy != null ? policy : Policy.DEFAULTS;
+    }
+
+    /**
+     * 정의된 그룹 이름 (default 포함)
+     */
+    public Set<String> getGroupNames() {
+        Map<String, Policy> names = new HashMap<>(groups);
+        names.putIfAbsent(DEFAULT_GROUP, Policy.DEFAULTS);
+        return names.keySet();
+    }
+
+    /**
+     * 슬라이딩 윈도우 실패 제한 및 반복 위반자 차단 기간 정책
+     */
+    public static class Policy {
+
+        static final Policy DEFAULTS = new Policy();
+
+        /** 윈도우 내 사용자별 최대 실패 횟수 */
+        private int userMaxAttempts = 5;
+
+        /** 윈도우 내 IP별 최대 실패 횟수 */
+        private int ipMaxAttempts = 10;
+
+        /** 슬라이딩 윈도우 길이 */
+        private Duration window = Duration.ofMinutes(15);
+
+        /** 첫 위반 시 차단 기간 */
+        private Duration blockDuration = Duration.ofMinutes(30);
+
+        /** 반복 위반 시 차단 기간 상한 */
+        private Duration maxBlockDuration = Duration.ofHours(24);
+
+        /** 반복 위반마다 차단 기간에 곱하는 배수 */
+        private double backoffMultiplier = 2.0;
+
+        /** 위반 횟수를 기억하는 기간 (마지막 위반 기준) */
+        private Duration offenseTtl = Duration.ofHours(24);
+
+        public int getUserMaxAttempts() { return userMaxAttempts; }
+        public void setUserMaxAttempts(int userMaxAttempts) { this.userMaxAttempts = userMaxAttempts; }
+        public int getIpMaxAttempts() { return ipMaxAttempts; }
+        public void setIpMaxAttempts(int ipMaxAttempts) { this.ipMaxAttempts = ipMaxAttempts; }
+        public Duration getWindow() { return window; }
+        public void setWindow(Duration window) { this.window = window; }
+        public Duration getBlockDuration() { return blockDuration; }
+        public void setBlockDuration(Duration blockDuration) { this.blockDuration = blockDuration; }
+        public Duration getMaxBlockDuration() { return maxBlockDuration; }
+        public void setMaxBlockDuration(Duration maxBlockDuration) { this.maxBlockDuration = maxBlockDuration; }
+        public double getBackoffMultiplier() { return backoffMultiplier; }
+        public void setBackoffMultiplier(double backoffMultiplier) { this.backoffMultiplier = backoffMultiplier; }
+        public Duration getOffenseTtl() { return offenseTtl; }
+        public void setOffenseTtl(Duration offenseTtl) { this.offenseTtl = offenseTtl; }
+    }
+
+    /**
+     * 노드 로컬 실패 IP / 대역 상위 빈도 탐지 설정 (Count-Min Sketch + Space-Saving 상위 K)
+     * 구간(window)마다 새로 집계하며, 임계값을 넘은 상위 대상만 Redis 차단으로 승격
+     */
+    public static class HeavyHitters {
+
+        private boolean enabled = true;
+
+        /** 집계 구간 길이 */
+        private Duration window = Duration.ofMinutes(1);
+
+        /** Count-Min Sketch 허용 오차 비율 (구간 내 전체 실패 횟수 대비) */
+        private double epsilon = 0.001;
+
+        /** Count-Min Sketch 오차 보장 확률 */
+        private double confidence = 0.99;
+
+        /** 상위 K 추적 용량 (IP, 대역 각각) */
+        private int capacity = 100;
+
+        /** 구간 내 IP별 차단 임계값 */
+        private int ipThreshold = 100;
+
+        /** 구간 내 /24 대역별 차단 임계값 */
+        private int subnetThreshold = 300;
+
+        /** 승격 차단 기간 */
+        private Duration blockDuration = Duration.ofHours(1);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public Duration getWindow() { return window; }
+        public void setWindow(Duration window) { this.window = window; }
+        public double getEpsilon() { return epsilon; }
+        public void setEpsilon(double epsilon) { this.epsilon = epsilon; }
+        public double getConfidence() { return confidence; }
+        public void setConfidence(double confidence) { this.confidence = confidence; }
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+        public int getIpThreshold() { return ipThreshold; }
+        public void setIpThreshold(int ipThreshold) { this.ipThreshold = ipThreshold; }
+        public int getSubnetThreshold() { return subnetThreshold; }
+        public void setSubnetThreshold(int subnetThreshold) { this.subnetThreshold = subnetThreshold; }
+        public Duration getBlockDuration() { return blockDuration; }
+        public void setBlockDuration(Duration blockDuration) { this.blockDuration = blockDuration; }
+    }
+
+    /**
+     * IP / 대역별 고유 사용자 수 기반 크리덴셜 스터핑 탐지 설정 (Redis HyperLogLog)
+     * 한 IP에서 여러 사용자로 실패하면 실패 횟수 임계값보다 먼저, 더 길게 차단
+     */
+    public static class DistinctUsers {
+
+        private boolean enabled = true;
+
+        /** 고유 사용자 집계 기간 (첫 실패 기준) */
+        private Duration window = Duration.ofHours(1);
+
+        /** IP별 고유 사용자 수 차단 임계값 */
+        private int ipThreshold = 20;
+
+        /** /24 대역별 고유 사용자 수 차단 임계값 */
+        private int subnetThreshold = 50;
+
+        /** 차단 기간 */
+        private Duration blockDuration = Duration.ofHours(6);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public Duration getWindow() { return window; }
+        public void setWindow(Duration window) { this.window = window; }
+        public int getIpThreshold() { return ipThreshold; }
+        public void setIpThreshold(int ipThreshold) { this.ipThreshold = ipThreshold; }
+        public int getSubnetThreshold() { return subnetThreshold; }
+        public void setSubnetThreshold(int subnetThreshold) { this.subnetThreshold = subnetThreshold; }
+        public Duration getBlockDuration() { return blockDuration; }
+        public void setBlockDuration(Duration blockDuration) { this.blockDuration = blockDuration; }
+    }
+}
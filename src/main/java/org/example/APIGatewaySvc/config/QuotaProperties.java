@@ -0,0 +1,219 @@
+package org.example.APIGatewaySvc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 장기 할당량(일/월) 정책 설정 (요금제별)
+ * 요금제는 JWT plan 클레임으로 선택하고, 클레임이 없거나 정의되지 않은 요금제면 default-plan 사용
+ * 한도 0은 해당 수준/기간 제한 없음
+ * API 키 수준은 X-Api-Key 헤더 값이 JWT api-key-claim 클레임(문자열 또는 목록)에 포함된 경우에만 적용
+ * (게이트웨이는 키를 직접 검증할 수 없으므로, 토큰에 묶이지 않은 키로 다른 고객의 할당량을 소진하거나 키를 바꿔가며 회피하지 못하도록)
+ *
+ * 예시:
+ * quota:
+ *   default-plan: free
+ *   plans:
+ *     free:
+ *       api-key:
+ *         daily: 1000
+ *         monthly: 20000
+ *       tenant:
+ *         daily: 5000
+ *     pro:
+ *       api-key:
+ *         daily: 100000
+ *       plan:
+ *         monthly: 50000000   # 요금제 전체 합계
+ */
+@Component
+@ConfigurationProperties(prefix = "quota")
+public class QuotaProperties {
+
+    private boolean enabled = true;
+
+    /** 노드 로컬 카운터를 Redis에 반영하는 주기 */
+    private Duration syncInterval = Duration.ofSeconds(1);
+
+    /** 한 번에 동시 호출하는 Redis 스크립트 수 */
+    private int maxBatch = 200;
+
+    /** 노드가 수준(API 키 / 테넌트 / 요금제)별로 추적하는 카운터 수 상한 (초과 시 해당 수준의 새 식별자는 할당량 미적용) */
+    private int maxKeys = 100_000;
+
+    private String apiKeyHeader = "X-Api-Key";
+
+    /** 요청자에게 발급된 API 키를 담은 JWT 클레임 (헤더 키가 이 클레임에 없으면 API 키 수준 미적용) */
+    private String apiKeyClaim = "api_keys";
+
+    private String tenantClaim = "tenant_id";
+
+    private String planClaim = "plan";
+
+    private String defaultPlan = "free";
+
+    private Map<String, Plan> plans = new HashMap<>();
+
+    /**
+     * 요금제 조회 (없는 요금제면 default-plan, default-plan도 없으면 제한 없음)
+     */
+    public Plan getPlan(String name) {
+        Plan plan = name != null ? plans.get(name) : null;
+        if (plan == null) {
+            plan = plans.get(defaultPlan);
+        }
+        return plan != null ? plan : Plan.UNLIMITED;
+    }
+
+    /**
+     * 요금제 이름 정규화 (정의되지 않은 요금제는 default-plan)
+     */
+    public String resolvePlanName(String name) {
+        return name != null && plans.containsKey(name) ? name : defaultPlan;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setSyncInterval(Duration syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public void setMaxBatch(int maxBatch) {
+        this.maxBatch = maxBatch;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public String getApiKeyHeader() {
+        return apiKeyHeader;
+    }
+
+    public void setApiKeyHeader(String apiKeyHeader) {
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    public String getApiKeyClaim() {
+        return apiKeyClaim;
+    }
+
+    public void setApiKeyClaim(String apiKeyClaim) {
+        this.apiKeyClaim = apiKeyClaim;
+    }
+
+    public String getTenantClaim() {
+        return tenantClaim;
+    }
+
+    public void setTenantClaim(String tenantClaim) {
+        this.tenantClaim = tenantClaim;
+    }
+
+    public String getPlanClaim() {
+        return planClaim;
+    }
+
+    public void setPlanClaim(String planClaim) {
+        this.planClaim = planClaim;
+    }
+
+    public String getDefaultPlan() {
+        return defaultPlan;
+    }
+
+    public void setDefaultPlan(String defaultPlan) {
+        this.defaultPlan = defaultPlan;
+    }
+
+    public Map<String, Plan> getPlans() {
+        return plans;
+    }
+
+    public void setPlans(Map<String, Plan> plans) {
+        this.plans = plans;
+    }
+
+    /**
+     * 요금제별 수준(API 키, 테넌트, 요금제 전체) 한도
+     */
+    public static class Plan {
+
+        static final Plan UNLIMITED = new Plan();
+
+        private Limits apiKey = new Limits();
+        private Limits tenant = new Limits();
+        private Limits plan = new Limits();
+
+        public Limits getApiKey() {
+            return apiKey;
+        }
+
+        public void setApiKey(Limits apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        public Limits getTenant() {
+            return tenant;
+        }
+
+        public void setTenant(Limits tenant) {
+            this.tenant = tenant;
+        }
+
+        public Limits getPlan() {
+            return plan;
+        }
+
+        public void setPlan(Limits plan) {
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * 기간별 한도 (0이면 제한 없음)
+     */
+    public static class Limits {
+
+        private long daily;
+        private long monthly;
+
+        public long getDaily() {
+            return daily;
+        }
+
+        public void setDaily(long daily) {
+            this.daily = daily;
+        }
+
+        public long getMonthly() {
+            return monthly;
+        }
+
+        public void setMonthly(long monthly) {
+            this.monthly = monthly;
+        }
+    }
+}
@@ -1,10 +1,27 @@
 package org.example.APIGatewaySvc.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.APIGatewaySvc.filter.CostRateLimitGatewayFilterFactory;
+import org.example.APIGatewaySvc.ratelimit.CostRateLimiter;
+import org.example.APIGatewaySvc.ratelimit.EngineRateLimiter;
+import org.example.APIGatewaySvc.ratelimit.GcraRateLimitEngine;
+import org.example.APIGatewaySvc.ratelimit.HybridRateLimiter;
+import org.example.APIGatewaySvc.ratelimit.RateLimitFallback;
+import org.example.APIGatewaySvc.ratelimit.RateLimitEngine;
+import org.example.APIGatewaySvc.ratelimit.SlidingLogRateLimitEngine;
+import org.example.APIGatewaySvc.ratelimit.TokenBucketRateLimitEngine;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Spring Cloud Gateway Rate Limiting 설정
@@ -15,6 +32,11 @@ import org.springframework.context.annotation.Primary;
  * - Redis Cluster 지원 (분산 환경)
  * - 서비스별 다른 Rate Limit 정책 적용 가능
  * - 실시간 Rate Limit 상태 모니터링
+ * - 라우트는 *HybridRateLimiter 빈 사용 (노드 로컬 버킷 + Redis 전역 버킷 임대, 임대당 Redis 호출 1회)
+ *   RedisRateLimiter 빈은 요청마다 Redis를 호출하는 기존 방식이 필요한 라우트용으로 유지
+ * - engineRateLimiter: 라우트 args(engine-rate-limiter.engine)로 판정 엔진(token-bucket, gcra, sliding-log) 선택
+ * - CostRateLimit 필터: 요청/응답 크기 또는 업스트림 사용량 헤더에 비례한 비용 차감 (AI 라우트)
+ * - Redis 장애 시 Hybrid/Engine Rate Limiter는 노드 로컬 토큰 버킷으로 전환 (RateLimitFallback, rate-limit.fallback.*)
  */
 @Configuration
 @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
@@ -30,6 +52,36 @@ public class RateLimitConfig {
     @Value("${rate-limit.default.requested-tokens:1}")
     private int defaultRequestedTokens;
 
+    @Value("${rate-limit.engine.default:gcra}")
+    private String defaultEngine;
+
+    @Value("${rate-limit.hybrid.lease-tokens:0}")
+    private int leaseTokens;
+
+    @Value("${rate-limit.hybrid.lease-ttl:1s}")
+    private Duration leaseTtl;
+
+    @Value("${rate-limit.hybrid.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${rate-limit.fallback.enabled:true}")
+    private boolean fallbackEnabled;
+
+    @Value("${rate-limit.fallback.expected-nodes:1}")
+    private int fallbackExpectedNodes;
+
+    @Value("${rate-limit.fallback.failure-threshold:3}")
+    private int fallbackFailureThreshold;
+
+    @Value("${rate-limit.fallback.slow-call-threshold:25ms}")
+    private Duration fallbackSlowCallThreshold;
+
+    @Value("${rate-limit.fallback.probe-interval:1s}")
+    private Duration fallbackProbeInterval;
+
+    @Value("${rate-limit.fallback.table-size:65536}")
+    private int fallbackTableSize;
+
     /**
      * 기본 Redis Rate Limiter 설정
      * Token Bucket 알고리즘을 사용한 Rate Limiting
@@ -100,4 +152,158 @@ public class RateLimitConfig {
         );
     }
 
-}
\ No newline at end of file
+    /**
+     * Redis 장애 시 로컬 판정 전환기 (Hybrid/Engine Rate Limiter 공용, 모드 게이지 gateway.ratelimit.mode)
+     *
+     * @return RateLimitFallback 로컬 판정 전환기
+     */
+    @Bean
+    public RateLimitFallback rateLimitFallback(RedisHealthTracker redisHealthTracker, MeterRegistry meterRegistry) {
+        RateLimitFallback fallback = new RateLimitFallback(redisHealthTracker, meterRegistry);
+        fallback.setExpectedNodes(fallbackExpectedNodes);
+        fallback.setFailureThreshold(fallbackFailureThreshold);
+        fallback.setSlowCallThreshold(fallbackSlowCallThreshold);
+        fallback.setProbeInterval(fallbackProbeInterval);
+        fallback.setTableSize(fallbackTableSize);
+        return fallback;
+    }
+
+    /**
+     * 기본 Hybrid Rate Limiter (defaultRedisRateLimiter와 같은 정책)
+     *
+     * @return HybridRateLimiter 기본 Rate Limiter
+     */
+    @Bean("defaultHybridRateLimiter")
+    public HybridRateLimiter defaultHybridRateLimiter(ReactiveRedisTemplate<String, String> redisTemplate,
+                                                      RedisHealthTracker redisHealthTracker,
+                                                      MeterRegistry meterRegistry,
+                                                      RateLimitFallback rateLimitFallback,
+                                                      ConfigurationService configurationService) {
+        return hybridRateLimiter("defaultHybridRateLimiter", 5, 10, 1,
+                redisTemplate, redisHealthTracker, meterRegistry, rateLimitFallback, configurationService);
+    }
+
+    /**
+     * 사용자 서비스용 Hybrid Rate Limiter (userServiceRateLimiter와 같은 정책)
+     *
+     * @return HybridRateLimiter 사용자 서비스용 Rate Limiter
+     */
+    @Bean("userServiceHybridRateLimiter")
+    public HybridRateLimiter userServiceHybridRateLimiter(ReactiveRedisTemplate<String, String> redisTemplate,
+                                                          RedisHealthTracker redisHealthTracker,
+                                                          MeterRegistry meterRegistry,
+                                                          RateLimitFallback rateLimitFallback,
+                                                          ConfigurationService configurationService) {
+        return hybridRateLimiter("userServiceHybridRateLimiter", 20, 40, 1,
+                redisTemplate, redisHealthTracker, meterRegistry, rateLimitFallback, configurationService);
+    }
+
+    /**
+     * AI 서비스용 Hybrid Rate Limiter (aiServiceRateLimiter와 같은 정책)
+     *
+     * @return HybridRateLimiter AI 서비스용 Rate Limiter
+     */
+    @Bean("aiServiceHybridRateLimiter")
+    public HybridRateLimiter aiServiceHybridRateLimiter(ReactiveRedisTemplate<String, String> redisTemplate,
+                                                        RedisHealthTracker redisHealthTracker,
+                                                        MeterRegistry meterRegistry,
+                                                        RateLimitFallback rateLimitFallback,
+                                                        ConfigurationService configurationService) {
+        return hybridRateLimiter("aiServiceHybridRateLimiter", 5, 10, 2,
+                redisTemplate, redisHealthTracker, meterRegistry, rateLimitFallback, configurationService);
+    }
+
+    /**
+     * 관리 서비스용 Hybrid Rate Limiter (managementServiceRateLimiter와 같은 정책)
+     *
+     * @return HybridRateLimiter 관리 서비스용 Rate Limiter
+     */
+    @Bean("managementServiceHybridRateLimiter")
+    public HybridRateLimiter managementServiceHybridRateLimiter(ReactiveRedisTemplate<String, String> redisTemplate,
+                                                                RedisHealthTracker redisHealthTracker,
+                                                                MeterRegistry meterRegistry,
+                                                                RateLimitFallback rateLimitFallback,
+                                                                ConfigurationService configurationService) {
+        return hybridRateLimiter("managementServiceHybridRateLimiter", 15, 30, 1,
+                redisTemplate, redisHealthTracker, meterRegistry, rateLimitFallback, configurationService);
+    }
+
+    private HybridRateLimiter hybridRateLimiter(String name, int replenishRate, long burstCapacity, int requestedTokens,
+                                                ReactiveRedisTemplate<String, String> redisTemplate,
+                                                RedisHealthTracker redisHealthTracker,
+                                                MeterRegistry meterRegistry,
+                                                RateLimitFallback rateLimitFallback,
+                                                ConfigurationService configurationService) {
+        HybridRateLimiter.Config config = new HybridRateLimiter.Config()
+                .setReplenishRate(replenishRate)
+                .setBurstCapacity(burstCapacity)
+                .setRequestedTokens(requestedTokens)
+                .setLeaseTokens(leaseTokens)
+                .setLeaseTtl(leaseTtl);
+        HybridRateLimiter rateLimiter = new HybridRateLimiter(name, config, redisTemplate, redisHealthTracker, meterRegistry,
+                configurationService);
+        rateLimiter.setMaxKeys(maxKeys);
+        if (fallbackEnabled) {
+            rateLimiter.setLocalFallback(rateLimitFallback);
+        }
+        return rateLimiter;
+    }
+
+    @Bean
+    public TokenBucketRateLimitEngine tokenBucketRateLimitEngine(ReactiveRedisTemplate<String, String> redisTemplate) {
+        return new TokenBucketRateLimitEngine(redisTemplate);
+    }
+
+    @Bean
+    public GcraRateLimitEngine gcraRateLimitEngine(ReactiveRedisTemplate<String, String> redisTemplate) {
+        return new GcraRateLimitEngine(redisTemplate);
+    }
+
+    @Bean
+    public SlidingLogRateLimitEngine slidingLogRateLimitEngine(ReactiveRedisTemplate<String, String> redisTemplate) {
+        return new SlidingLogRateLimitEngine(redisTemplate);
+    }
+
+    /**
+     * 라우트별 엔진 선택 Rate Limiter
+     * 라우트 args에 engine-rate-limiter.* 설정이 없으면 rate-limit.default.* 값과 rate-limit.engine.default 엔진 사용
+     *
+     * @return EngineRateLimiter 엔진 선택 Rate Limiter
+     */
+    @Bean("engineRateLimiter")
+    public EngineRateLimiter engineRateLimiter(List<RateLimitEngine> engines, RedisHealthTracker redisHealthTracker,
+                                               MeterRegistry meterRegistry, ConfigurationService configurationService,
+                                               RateLimitFallback rateLimitFallback) {
+        EngineRateLimiter.Config config = new EngineRateLimiter.Config()
+                .setEngine(defaultEngine)
+                .setReplenishRate(defaultReplenishRate)
+                .setBurstCapacity(defaultBurstCapacity)
+                .setRequestedTokens(defaultRequestedTokens);
+        EngineRateLimiter rateLimiter = new EngineRateLimiter(engines, config, redisHealthTracker, meterRegistry,
+                configurationService);
+        if (fallbackEnabled) {
+            rateLimiter.setLocalFallback(rateLimitFallback);
+        }
+        return rateLimiter;
+    }
+
+    @Bean
+    public CostRateLimiter costRateLimiter(ReactiveRedisTemplate<String, String> redisTemplate,
+                                           RedisHealthTracker redisHealthTracker) {
+        return new CostRateLimiter(redisTemplate, redisHealthTracker);
+    }
+
+    /**
+     * 비용 가중 Rate Limit 필터 (라우트 필터 이름 CostRateLimit)
+     * 키 리졸버를 지정하지 않은 라우트는 기본(@Primary) 키 리졸버 사용
+     *
+     * @return CostRateLimitGatewayFilterFactory 비용 가중 Rate Limit 필터 팩토리
+     */
+    @Bean
+    public CostRateLimitGatewayFilterFactory costRateLimitGatewayFilterFactory(CostRateLimiter costRateLimiter,
+                                                                               KeyResolver keyResolver,
+                                                                               MeterRegistry meterRegistry) {
+        return new CostRateLimitGatewayFilterFactory(costRateLimiter, keyResolver, meterRegistry);
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.example.APIGatewaySvc.controller;
+
+import org.example.APIGatewaySvc.service.BlockMetrics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 최근 거부가 많은 차단 식별자 조회 actuator 엔드포인트
+ * GET /actuator/hotblocks?limit=20
+ *
+ * 응답 항목의 count는 추정 거부 횟수(실제 이상)이며, error는 최대 과대 추정치
+ */
+@Component
+@Endpoint(id = "hotblocks")
+public class HotBlocksEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final BlockMetrics blockMetrics;
+
+    public HotBlocksEndpoint(BlockMetrics blockMetrics) {
+        this.blockMetrics = blockMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> hotBlocks(@Nullable Integer limit) {
+        int effectiveLimit = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+        return blockMetrics.hotIdentifiers(effectiveLimit);
+    }
+}
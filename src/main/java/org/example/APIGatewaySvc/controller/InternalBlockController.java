@@ -8,31 +8,48 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.APIGatewaySvc.dto.BulkBlockRequestDTO;
+import org.example.APIGatewaySvc.service.BlockService;
+import org.example.APIGatewaySvc.util.IpPrefixTrie;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Tag(name = "Block Management", description = "사용자/IP/API키 차단 관리 API")
 @RestController
 @RequestMapping("/internal/block")
 public class InternalBlockController {
-
+    
     private final ReactiveRedisTemplate<String, String> redisTemplate;
-
-    public InternalBlockController(ReactiveRedisTemplate<String, String> redisTemplate) {
+    private final BlockService blockService;
+    
+    private static final int MAX_LIST_LIMIT = 1000;
+    
+    @Value("${block.bulk.batch-size:1000}")
+    private int bulkBatchSize = 1000;
+    
+    public InternalBlockController(ReactiveRedisTemplate<String, String> redisTemplate,
+                                   BlockService blockService) {
         this.redisTemplate = redisTemplate;
+        this.blockService = blockService;
     }
-
+    
     @Operation(
         summary = "사용자/IP/API키 차단"
     )
@@ -68,7 +85,7 @@ public class InternalBlockController {
         @Parameter(description = "차단 타입 (user, ip, key)", example = "user", required = true) 
         @PathVariable String type,
         
-        @Parameter(description = "차단할 대상 ID", example = "user123", required = true)
+        @Parameter(description = "차단할 대상 ID (ip 타입은 10.0.0.0/8 형식의 CIDR 대역 가능)", example = "user123", required = true)
         @RequestParam String id,
         
         @Parameter(description = "TTL 초 단위 (미지정시 영구차단)", example = "3600")
@@ -80,19 +97,16 @@ public class InternalBlockController {
         if (!isValidType(type)) {
             return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid block type. Must be one of: user, ip, key")));
         }
+        if (!isValidId(type, id)) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid CIDR: " + id)));
+        }
         
-        String key = "blocked:" + type + ":" + id;
         String blockValue = reason != null ? reason : "Blocked by admin";
+        Duration duration = ttlSeconds != null && ttlSeconds > 0 ? Duration.ofSeconds(ttlSeconds) : null;
         
-        // Redis에 키 설정 (TTL과 함께)
-        Mono<Boolean> setResult;
-        if (ttlSeconds != null && ttlSeconds > 0) {
-            setResult = redisTemplate.opsForValue().set(key, blockValue, Duration.ofSeconds(ttlSeconds));
-        } else {
-            setResult = redisTemplate.opsForValue().set(key, blockValue);
-        }
-        
-        return setResult.map(success -> {
+        // Redis에 키 설정 후 모든 게이트웨이 노드의 로컬 차단 캐시 무효화
+        return blockService.block(type, id, duration, blockValue)
+            .map(success -> {
             if (success) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
@@ -109,7 +123,94 @@ public class InternalBlockController {
             }
         });
     }
-
+    
+    @Operation(
+        summary = "대량 차단/해제",
+        description = "NDJSON 형식으로 한 줄에 하나씩 차단/해제 요청을 받아 배치 단위로 처리하고, 요청별 결과를 NDJSON으로 스트리밍합니다."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "처리 결과 (요청 순서와 동일, 한 줄에 하나)",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                examples = @ExampleObject(value = """
+                    {"index":0,"op":"block","type":"ip","id":"203.0.113.7","success":true}
+                    {"index":1,"op":"unblock","type":"user","id":"user123","success":false,"error":"Block not found"}
+                    """)
+            )
+        )
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> bulk(@RequestBody Flux<BulkBlockRequestDTO> requests) {
+        // 요청 스트림을 배치 단위로 끊어 처리하므로 전체 요청을 메모리에 올리지 않음
+        return requests.index()
+            .buffer(bulkBatchSize)
+            .concatMap(this::applyBulkBatch);
+    }
+    
+    private Flux<Map<String, Object>> applyBulkBatch(List<Tuple2<Long, BulkBlockRequestDTO>> batch) {
+        List<Map<String, Object>> results = new ArrayList<>(batch.size());
+        List<BlockService.BulkOperation> operations = new ArrayList<>(batch.size());
+        List<Map<String, Object>> pending = new ArrayList<>(batch.size());
+        
+        for (Tuple2<Long, BulkBlockRequestDTO> indexed : batch) {
+            BulkBlockRequestDTO request = indexed.getT2();
+            String op = request.getOp() != null ? request.getOp() : "block";
+            
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", indexed.getT1());
+            result.put("op", op);
+            result.put("type", request.getType());
+            result.put("id", request.getId());
+            results.add(result);
+            
+            String error = validateBulkRequest(op, request);
+            if (error != null) {
+                result.put("success", false);
+                result.put("error", error);
+                continue;
+            }
+            
+            if ("block".equals(op)) {
+                Long ttlSeconds = request.getTtlSeconds();
+                Duration duration = ttlSeconds != null && ttlSeconds > 0 ? Duration.ofSeconds(ttlSeconds) : null;
+                String reason = request.getReason() != null ? request.getReason() : "Blocked by admin";
+                operations.add(BlockService.BulkOperation.block(request.getType(), request.getId(), duration, reason));
+            } else {
+                operations.add(BlockService.BulkOperation.unblock(request.getType(), request.getId()));
+            }
+            pending.add(result);
+        }
+        
+        return blockService.applyBulk(operations)
+            .flatMapIterable(bulkResults -> {
+                for (int i = 0; i < bulkResults.size(); i++) {
+                    BlockService.BulkResult bulkResult = bulkResults.get(i);
+                    Map<String, Object> result = pending.get(i);
+                    result.put("success", bulkResult.isSuccess());
+                    if (!bulkResult.isSuccess()) {
+                        result.put("error", bulkResult.getError());
+                    }
+                }
+                return results;
+            });
+    }
+    
+    private String validateBulkRequest(String op, BulkBlockRequestDTO request) {
+        if (!"block".equals(op) && !"unblock".equals(op)) {
+            return "Invalid op. Must be one of: block, unblock";
+        }
+        if (!isValidType(request.getType())) {
+            return "Invalid block type. Must be one of: user, ip, key";
+        }
+        String id = request.getId();
+        if (id == null || id.isBlank() || id.chars().anyMatch(Character::isISOControl)) {
+            return "Invalid id";
+        }
+        if (!isValidId(request.getType(), id)) {
+            return "Invalid CIDR: " + id;
+        }
+        return null;
+    }
+    
     @Operation(summary = "차단 해제", description = "지정된 타입과 ID의 차단을 해제합니다.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "차단 해제 성공"),
@@ -123,11 +224,14 @@ public class InternalBlockController {
         if (!isValidType(type)) {
             return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid unblock type. Must be one of: user, ip, key")));
         }
+        if (!isValidId(type, id)) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid CIDR: " + id)));
+        }
         
-        String key = "blocked:" + type + ":" + id;
-        
-        return redisTemplate.delete(key).map(deleted -> {
-            if (deleted > 0) {
+        // 해제 후 모든 게이트웨이 노드의 로컬 차단 캐시 무효화
+        return blockService.unblock(type, id)
+            .map(deleted -> {
+            if (deleted) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
                 response.put("message", String.format("Successfully unblocked %s: %s", type, id));
@@ -139,8 +243,18 @@ public class InternalBlockController {
             }
         });
     }
-
-    @Operation(summary = "차단 목록 조회", description = "지정된 타입의 모든 차단 목록을 조회합니다.")
+    
+    @Operation(summary = "대역 차단 해제", description = "CIDR 대역 차단을 해제합니다. (예: DELETE /internal/block/ip/10.0.0.0/8)")
+    @DeleteMapping("/{type}/{address}/{prefixLength}")
+    public Mono<ResponseEntity<Map<String, Object>>> unblockRange(
+        @Parameter(description = "차단 타입", example = "ip") @PathVariable String type,
+        @Parameter(description = "대역 주소", example = "10.0.0.0") @PathVariable String address,
+        @Parameter(description = "프리픽스 길이", example = "8") @PathVariable int prefixLength) {
+        return unblock(type, address + "/" + prefixLength);
+    }
+    
+    @Operation(summary = "차단 목록 조회", description = "지정된 타입의 차단 목록을 커서 기반으로 페이지 단위 조회합니다. "
+        + "응답의 nextCursor로 다음 페이지를 요청하며, \"0\"이면 마지막 페이지입니다. ip 타입은 첫 페이지에 CIDR 대역 차단도 포함합니다.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "조회 성공",
             content = @Content(mediaType = "application/json",
@@ -148,7 +262,8 @@ public class InternalBlockController {
                     {
                       "success": true,
                       "type": "user",
-                      "count": 2,
+                      "count": 1,
+                      "nextCursor": "1536",
                       "blocked": [
                         {
                           "id": "user123",
@@ -160,46 +275,62 @@ public class InternalBlockController {
                     """)
             )
         ),
-        @ApiResponse(responseCode = "400", description = "잘못된 타입")
+        @ApiResponse(responseCode = "400", description = "잘못된 타입 또는 커서")
     })
     @GetMapping("/{type}")
     public Mono<ResponseEntity<Map<String, Object>>> listBlocked(
-        @Parameter(description = "차단 타입", example = "user") @PathVariable String type) {
+        @Parameter(description = "차단 타입", example = "user") @PathVariable String type,
+        @Parameter(description = "이전 응답의 nextCursor (첫 페이지는 0)", example = "0")
+        @RequestParam(defaultValue = "0") String cursor,
+        @Parameter(description = "페이지 크기 (근사치, 최대 1000)", example = "100")
+        @RequestParam(defaultValue = "100") int limit) {
         if (!isValidType(type)) {
             return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid type. Must be one of: user, ip, key")));
         }
+        if (cursor.isEmpty() || !cursor.chars().allMatch(Character::isDigit)) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid cursor: " + cursor)));
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIST_LIMIT));
         
-        String pattern = "blocked:" + type + ":*";
+        // 대역 차단은 별도 해시에 저장되므로 첫 페이지에만 포함
+        Mono<List<Map<String, Object>>> rangeBlocks = "ip".equals(type) && "0".equals(cursor)
+            ? blockService.listRangeBlocks().map(this::toBlockEntry).collectList()
+            : Mono.just(List.of());
         
-        return redisTemplate.keys(pattern)
-            .flatMap(key -> 
-                redisTemplate.opsForValue().get(key)
-                    .zipWith(redisTemplate.getExpire(key))
-                    .map(tuple -> {
-                        Map<String, Object> blockInfo = new HashMap<>();
-                        String id = key.substring(key.lastIndexOf(":") + 1);
-                        blockInfo.put("id", id);
-                        blockInfo.put("reason", tuple.getT1());
-                        Duration ttl = tuple.getT2();
-                        if (!ttl.isNegative() && !ttl.isZero()) {
-                            blockInfo.put("expiresAt", Instant.now().plus(ttl).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-                        } else {
-                            blockInfo.put("expiresAt", null);
-                        }
-                        return blockInfo;
-                    })
-            )
-            .collectList()
-            .map(blockedList -> {
+        return blockService.listBlocks(type, cursor, pageSize)
+            .zipWith(rangeBlocks)
+            .map(tuple -> {
+                List<Map<String, Object>> blockedList = new ArrayList<>(tuple.getT2());
+                tuple.getT1().getEntries().forEach(entry -> blockedList.add(toBlockEntry(entry)));
+                
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
                 response.put("type", type);
                 response.put("blocked", blockedList);
                 response.put("count", blockedList.size());
+                response.put("nextCursor", tuple.getT1().getNextCursor());
                 return ResponseEntity.ok(response);
             });
     }
-
+    
+    @Operation(summary = "차단 목록 인덱스 재구성", description = "기존 차단 키를 SCAN하여 목록 인덱스를 다시 채웁니다. (인덱스 도입 이전 차단 이관용)")
+    @PostMapping("/{type}/reindex")
+    public Mono<ResponseEntity<Map<String, Object>>> rebuildIndex(
+        @Parameter(description = "차단 타입", example = "user") @PathVariable String type) {
+        if (!isValidType(type)) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid type. Must be one of: user, ip, key")));
+        }
+        
+        return blockService.rebuildIndex(type)
+            .map(indexed -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("type", type);
+                response.put("indexed", indexed);
+                return ResponseEntity.ok(response);
+            });
+    }
+    
     @Operation(summary = "차단 상태 확인", description = "특정 대상의 차단 상태를 확인합니다.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "조회 성공",
@@ -235,44 +366,61 @@ public class InternalBlockController {
         if (!isValidType(type)) {
             return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid type. Must be one of: user, ip, key")));
         }
+        if (!isValidId(type, id)) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Invalid CIDR: " + id)));
+        }
         
-        String key = "blocked:" + type + ":" + id;
-        
-        return redisTemplate.hasKey(key)
-            .flatMap(exists -> {
-                if (!exists) {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", true);
-                    response.put("blocked", false);
-                    response.put("type", type);
-                    response.put("id", id);
-                    return Mono.just(ResponseEntity.ok(response));
-                }
-                
-                return redisTemplate.opsForValue().get(key)
-                    .zipWith(redisTemplate.getExpire(key))
-                    .map(tuple -> {
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("success", true);
-                        response.put("blocked", true);
-                        response.put("type", type);
-                        response.put("id", id);
-                        response.put("reason", tuple.getT1());
-                        Duration ttl = tuple.getT2();
-                        if (!ttl.isNegative() && !ttl.isZero()) {
-                            response.put("expiresAt", Instant.now().plus(ttl).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-                        } else {
-                            response.put("expiresAt", null);
-                        }
-                        return ResponseEntity.ok(response);
-                    });
-            });
+        // 필터와 동일한 스크립트 기반 조회 경로 사용 (관리 API는 로컬 캐시를 거치지 않음)
+        return blockService.lookupBlock(type, id)
+            .map(blockInfo -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("blocked", true);
+                response.put("type", type);
+                response.put("id", id);
+                response.put("reason", blockInfo.getReason());
+                response.put("expiresAt", blockInfo.getExpiresAt() != null
+                    ? blockInfo.getExpiresAt().atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+                    : null);
+                return ResponseEntity.ok(response);
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("blocked", false);
+                response.put("type", type);
+                response.put("id", id);
+                return ResponseEntity.ok(response);
+            }));
     }
-
+    
+    @Operation(summary = "대역 차단 상태 확인", description = "CIDR 대역 차단 상태를 확인합니다. (예: GET /internal/block/ip/10.0.0.0/8)")
+    @GetMapping("/{type}/{address}/{prefixLength}")
+    public Mono<ResponseEntity<Map<String, Object>>> checkRangeBlocked(
+        @Parameter(description = "차단 타입", example = "ip") @PathVariable String type,
+        @Parameter(description = "대역 주소", example = "10.0.0.0") @PathVariable String address,
+        @Parameter(description = "프리픽스 길이", example = "8") @PathVariable int prefixLength) {
+        return checkBlocked(type, address + "/" + prefixLength);
+    }
+    
     private boolean isValidType(String type) {
         return "user".equals(type) || "ip".equals(type) || "key".equals(type);
     }
-
+    
+    private boolean isValidId(String type, String id) {
+        return !BlockService.isCidr(type, id) || IpPrefixTrie.Cidr.parse(id) != null;
+    }
+    
+    private Map<String, Object> toBlockEntry(Map.Entry<String, BlockService.BlockInfo> entry) {
+        Map<String, Object> blockInfo = new HashMap<>();
+        blockInfo.put("id", entry.getKey());
+        blockInfo.put("reason", entry.getValue().getReason());
+        blockInfo.put("expiresAt", entry.getValue().getExpiresAt() != null
+            ? entry.getValue().getExpiresAt().atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+            : null);
+        return blockInfo;
+    }
+    
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> error = new HashMap<>();
         error.put("success", false);
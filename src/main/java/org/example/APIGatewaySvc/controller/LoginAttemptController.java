@@ -67,7 +67,7 @@ public class LoginAttemptController {
                 response.put("userId", stats.getUserId());
                 response.put("currentAttempts", stats.getCurrentAttempts());
                 response.put("remainingAttempts", stats.getRemainingAttempts());
-                response.put("maxAttempts", 5);
+                response.put("maxAttempts", loginAttemptService.getMaxAttempts());
                 response.put("windowExpiry", stats.getWindowExpiry());
                 response.put("blocked", stats.isBlocked());
                 return ResponseEntity.ok(response);
@@ -103,12 +103,51 @@ public class LoginAttemptController {
                 response.put("success", true);
                 response.put("ipAddress", ipAddress);
                 response.put("currentAttempts", attempts);
-                response.put("maxAttempts", 10);
-                response.put("remainingAttempts", Math.max(0, 10 - attempts));
+                response.put("maxAttempts", loginAttemptService.getMaxIpAttempts());
+                response.put("remainingAttempts", Math.max(0, loginAttemptService.getMaxIpAttempts() - attempts));
                 return ResponseEntity.ok(response);
             });
     }
     
+    @Operation(
+        summary = "로그인 실패 상위 IP / 대역 조회",
+        description = """
+            게이트웨이 노드 메모리에서 집계한 로그인 실패 상위 IP와 /24 대역을 조회합니다.
+            
+            ### 응답 정보
+            - **current / previous**: 현재 / 직전 집계 구간
+            - **estimate**: 구간 내 실패 횟수 추정값 (Count-Min Sketch, 실제보다 크거나 같음)
+            - **guaranteed**: 구간 내 보장 실패 횟수 (상위 K 추적의 카운트 - 오차, 실제보다 작거나 같음)
+            - guaranteed가 임계값(ipThreshold, subnetThreshold)에 도달한 대상은 Redis 차단으로 승격됩니다
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "조회 성공",
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = """
+                    {
+                      "window": "PT1M",
+                      "ipThreshold": 100,
+                      "subnetThreshold": 300,
+                      "current": {
+                        "startedAt": "2024-01-15T10:30:00Z",
+                        "ips": [{"id": "203.0.113.7", "estimate": 120, "guaranteed": 120}],
+                        "subnets": [{"id": "203.0.113.0/24", "estimate": 342, "guaranteed": 338}]
+                      },
+                      "previous": null
+                    }
+                    """)
+            )
+        )
+    })
+    @GetMapping("/top-offenders")
+    public Mono<ResponseEntity<Map<String, Object>>> getTopOffenders(
+        @Parameter(description = "구간별 최대 항목 수", example = "20")
+        @RequestParam(defaultValue = "20") int limit) {
+        
+        return Mono.fromCallable(() -> ResponseEntity.ok(loginAttemptService.getTopOffenders(Math.max(1, limit))));
+    }
+    
     @Operation(
         summary = "로그인 시도 횟수 초기화",
         description = """
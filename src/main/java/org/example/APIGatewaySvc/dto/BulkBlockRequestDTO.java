@@ -0,0 +1,51 @@
+package org.example.APIGatewaySvc.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 대량 차단/해제 요청 한 줄 (NDJSON)
+ *
+ * 예시:
+ * {"op":"block","type":"ip","id":"203.0.113.7","ttlSeconds":3600,"reason":"Credential stuffing"}
+ * {"op":"unblock","type":"ip","id":"10.0.0.0/8"}
+ *
+ * 구조:
+ * - op: block 또는 unblock (생략 시 block)
+ * - type: user, ip, key
+ * - id: 대상 ID (ip 타입은 CIDR 대역 가능)
+ * - ttlSeconds: 차단 기간 초 단위 (생략 시 영구차단, block에만 적용)
+ * - reason: 차단 사유 (block에만 적용)
+ */
+@Setter
+@Getter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulkBlockRequestDTO {
+
+    @JsonProperty("op")
+    private String op;
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("ttlSeconds")
+    private Long ttlSeconds;
+
+    @JsonProperty("reason")
+    private String reason;
+
+    public BulkBlockRequestDTO() {}
+
+    public BulkBlockRequestDTO(String op, String type, String id, Long ttlSeconds, String reason) {
+        this.op = op;
+        this.type = type;
+        this.id = id;
+        this.ttlSeconds = ttlSeconds;
+        this.reason = reason;
+    }
+}
@@ -1,4 +1,5 @@
 package org.example.APIGatewaySvc.exception;
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
 import org.example.APIGatewaySvc.util.ProblemDetailsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,12 @@ public class GlobalErrorWebExceptionHandler implements ErrorWebExceptionHandler
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalErrorWebExceptionHandler.class);
 
+    private final ClientIdentityResolver clientIdentityResolver;
+
+    public GlobalErrorWebExceptionHandler(ClientIdentityResolver clientIdentityResolver) {
+        this.clientIdentityResolver = clientIdentityResolver;
+    }
+
     /**
      * 모든 예외를 처리하여 적절한 HTTP 응답으로 변환
      * 
@@ -216,7 +223,7 @@ public class GlobalErrorWebExceptionHandler implements ErrorWebExceptionHandler
     private void logError(Throwable ex, String requestId, ServerWebExchange exchange) {
         String path = exchange.getRequest().getPath().value();
         String method = exchange.getRequest().getMethod().name();
-        String clientIP = getClientIP(exchange);
+        String clientIP = clientIdentityResolver.clientIp(exchange);
         
         if (ex instanceof AuthenticationException || ex instanceof AccessDeniedException) {
             // 인증/인가 오류는 INFO 레벨 (정상적인 보안 동작)
@@ -229,26 +236,4 @@ public class GlobalErrorWebExceptionHandler implements ErrorWebExceptionHandler
                 method, path, clientIP, requestId, ex);
         }
     }
-
-    /**
-     * 클라이언트 IP 주소 추출
-     * Proxy/Load Balancer 환경을 고려한 실제 클라이언트 IP 확인
-     * 
-     * @param exchange ServerWebExchange 웹 교환 객체
-     * @return String 클라이언트 IP 주소
-     */
-    private String getClientIP(ServerWebExchange exchange) {
-        String xForwardedFor = exchange.getRequest().getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIP = exchange.getRequest().getHeaders().getFirst("X-Real-IP");
-        if (xRealIP != null && !xRealIP.isEmpty()) {
-            return xRealIP;
-        }
-        
-        return exchange.getRequest().getRemoteAddress() != null ? 
-            exchange.getRequest().getRemoteAddress().getAddress().getHostAddress() : "unknown";
-    }
 }
\ No newline at end of file
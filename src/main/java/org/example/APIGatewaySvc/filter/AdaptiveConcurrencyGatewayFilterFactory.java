@@ -0,0 +1,278 @@
+package org.example.APIGatewaySvc.filter;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.APIGatewaySvc.ratelimit.AdaptiveConcurrencyLimiter;
+import org.example.APIGatewaySvc.util.ProblemDetailsUtil;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+/**
+ * 라우트별 적응형 동시성 제한 필터 (AdaptiveConcurrency)
+ * 처리 중 요청 수를 AdaptiveConcurrencyLimiter 한도로 제한하고, 한도에 도달하면 업스트림을 호출하지 않고 즉시 503 반환
+ * 느린 업스트림에 요청이 무한정 쌓여 서킷 브레이커가 열릴 때까지 지연이 커지는 것을 막음
+ *
+ * 사용 예 (RequestRateLimiter 다음, CircuitBreaker 앞):
+ * <pre>
+ * - name: AdaptiveConcurrency
+ *   args:
+ *     algorithm: GRADIENT     # 또는 AIMD
+ *     initial-limit: 20
+ *     max-limit: 200
+ * </pre>
+ *
+ * 처리 시간 표본:
+ * - 응답 완료 시 처리 시간으로 한도 갱신, 5xx 응답(업스트림 타임아웃 후 서킷 브레이커 fallback 포함)과 오류는 실패로 반영
+ * - 서킷이 열려 업스트림을 호출하지 않은 응답(CallNotPermittedException)은 업스트림 지연과 무관하므로 슬롯만 반환
+ *   (실패로 반영하면 서킷이 열려 있는 동안 한도가 최소값까지 내려감)
+ * - 클라이언트 취소는 지연을 알 수 없으므로 슬롯만 반환
+ *
+ * 메트릭: gateway.concurrency.limit, gateway.concurrency.inflight, gateway.concurrency.rejected (route 태그)
+ * 한도는 라우트 ID별로 유지되므로 라우트 갱신(refresh) 후에도 학습한 한도를 이어서 사용
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private static final String REQUEST_ID_HEADER = "X-Request-ID";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        RouteLimiter routeLimiter = limiters.compute(routeId, (id, existing) ->
+                existing != null && existing.config.equals(config) ? existing : newRouteLimiter(id, config, existing));
+
+        return (exchange, chain) -> {
+            AdaptiveConcurrencyLimiter limiter = routeLimiter.limiter;
+            int inFlight = limiter.tryAcquire();
+            if (inFlight < 0) {
+                routeLimiter.rejected.increment();
+                return reject(exchange);
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doOnSuccess(done -> complete(exchange, limiter, start, inFlight, null))
+                    .doOnError(e -> complete(exchange, limiter, start, inFlight, e))
+                    .doOnCancel(limiter::onIgnore);
+        };
+    }
+
+    private static void complete(ServerWebExchange exchange, AdaptiveConcurrencyLimiter limiter, long start,
+                                 int inFlight, Throwable error) {
+        if (isShortCircuited(error) || isShortCircuited(exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR))) {
+            limiter.onIgnore();
+            return;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        boolean dropped = error != null || (status != null && status.is5xxServerError());
+        limiter.onSample(System.nanoTime() - start, inFlight, dropped);
+    }
+
+    /**
+     * 서킷이 열려 업스트림을 호출하지 않은 경우 (fallback 없이 503으로 감싼 경우 포함)
+     */
+    private static boolean isShortCircuited(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallNotPermittedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RouteLimiter newRouteLimiter(String routeId, Config config, RouteLimiter existing) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config.getAlgorithm(),
+                config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                config.getLatencyThreshold().toNanos(), config.getBackoffRatio(), config.getTolerance(),
+                config.getSmoothing());
+        if (existing != null) {
+            // 설정이 바뀐 경우 메트릭은 그대로 두고 제한기만 교체 (게이지는 RouteLimiter를 통해 새 제한기를 읽음)
+            existing.config = config;
+            existing.limiter = limiter;
+            return existing;
+        }
+        RouteLimiter routeLimiter = new RouteLimiter(config, limiter, Counter.builder("gateway.concurrency.rejected")
+                .tag("route", routeId)
+                .description("동시성 한도 초과로 거부한 요청 수")
+                .register(meterRegistry));
+        Gauge.builder("gateway.concurrency.limit", routeLimiter, r -> r.limiter.getLimit())
+                .tag("route", routeId)
+                .description("라우트별 현재 동시성 한도")
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", routeLimiter, r -> r.limiter.getInFlight())
+                .tag("route", routeId)
+                .description("라우트별 처리 중 요청 수")
+                .register(meterRegistry);
+        return routeLimiter;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().set("Retry-After", "1");
+        String requestId = exchange.getResponse().getHeaders().getFirst(REQUEST_ID_HEADER);
+        return ProblemDetailsUtil.writeServiceUnavailableResponse(exchange.getResponse(),
+                requestId != null ? requestId : "unknown", "Upstream concurrency limit reached");
+    }
+
+    AdaptiveConcurrencyLimiter limiter(String routeId) {
+        RouteLimiter routeLimiter = limiters.get(routeId);
+        return routeLimiter != null ? routeLimiter.limiter : null;
+    }
+
+    private static final class RouteLimiter {
+        private volatile Config config;
+        private volatile AdaptiveConcurrencyLimiter limiter;
+        private final Counter rejected;
+
+        RouteLimiter(Config config, AdaptiveConcurrencyLimiter limiter, Counter rejected) {
+            this.config = config;
+            this.limiter = limiter;
+            this.rejected = rejected;
+        }
+    }
+
+    /**
+     * 동시성 제한 설정
+     */
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private AdaptiveConcurrencyLimiter.Algorithm algorithm = AdaptiveConcurrencyLimiter.Algorithm.GRADIENT;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private Duration latencyThreshold = Duration.ofSeconds(1);
+        private double backoffRatio = 0.9;
+        private double tolerance = 1.5;
+        private double smoothing = 0.2;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public AdaptiveConcurrencyLimiter.Algorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public Config setAlgorithm(AdaptiveConcurrencyLimiter.Algorithm algorithm) {
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public Config setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public Config setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public Config setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /** AIMD: 이 시간보다 느린 응답은 실패로 간주 */
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public Config setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /** 실패 시 한도 감소 비율 */
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public Config setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /** GRADIENT: 기준선 대비 허용하는 지연 증가 배수 */
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public Config setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /** GRADIENT: 새 한도 반영 비율 */
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public Config setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Config)) {
+                return false;
+            }
+            Config other = (Config) o;
+            return initialLimit == other.initialLimit && minLimit == other.minLimit && maxLimit == other.maxLimit
+                    && Double.compare(backoffRatio, other.backoffRatio) == 0
+                    && Double.compare(tolerance, other.tolerance) == 0
+                    && Double.compare(smoothing, other.smoothing) == 0
+                    && algorithm == other.algorithm && Objects.equals(latencyThreshold, other.latencyThreshold);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(algorithm, initialLimit, minLimit, maxLimit, latencyThreshold, backoffRatio,
+                    tolerance, smoothing);
+        }
+    }
+}
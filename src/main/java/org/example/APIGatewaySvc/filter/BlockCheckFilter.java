@@ -1,173 +1,126 @@
 package org.example.APIGatewaySvc.filter;
 
+import org.example.APIGatewaySvc.security.ClientIdentity;
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
+import org.example.APIGatewaySvc.security.JwtSubjectResolver;
+import org.example.APIGatewaySvc.service.BlockMetrics;
+import org.example.APIGatewaySvc.service.BlockService;
+import org.example.APIGatewaySvc.service.BlockService.BlockInfo;
+import org.example.APIGatewaySvc.service.RedisFailurePolicy;
+import org.example.APIGatewaySvc.util.BlockedResponseWriter;
+import org.example.APIGatewaySvc.util.ProblemDetailsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.server.reactive.ServerHttpResponse;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.ReactiveSecurityContextHolder;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import java.util.function.Function;
 
 // 요청이 백엔드로 전달되기 전에 차단 여부를 확인하는 필터
 // 차단 필터
-// - IP, API 키, 사용자 ID를 Redis에서 조회하여 차단 여부 결정
+// - IP, API 키, 사용자 ID를 BlockService(로컬 캐시 → Redis Lua 스크립트)에서 한 번에 조회하여 차단 여부 결정
 // - 차단된 경우 403 Forbidden 응답 반환
 // - 차단되지 않은 경우 다음 필터로 요청 전달
+// - 거부 건수와 최근 거부가 많은 식별자는 BlockMetrics에 기록
+// - Redis 호출 기한 초과/서킷 개방 시 gateway.redis.failure-policy.block-check 정책에 따라 통과, 503 거부, 로컬 상태 판정
 @Component
 public class BlockCheckFilter implements GlobalFilter, Ordered {
 
-    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private static final Logger log = LoggerFactory.getLogger(BlockCheckFilter.class);
 
-    public BlockCheckFilter(ReactiveRedisTemplate<String, String> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    private static final String REQUEST_ID_HEADER = "X-Request-ID";
+
+    @Value("${gateway.redis.failure-policy.block-check:LAST_KNOWN}")
+    private RedisFailurePolicy failurePolicy = RedisFailurePolicy.LAST_KNOWN;
+
+    private final BlockService blockService;
+    private final BlockMetrics blockMetrics;
+    private final JwtSubjectResolver jwtSubjectResolver;
+    private final ClientIdentityResolver clientIdentityResolver;
+
+    public BlockCheckFilter(BlockService blockService, BlockMetrics blockMetrics, JwtSubjectResolver jwtSubjectResolver,
+                            ClientIdentityResolver clientIdentityResolver) {
+        this.blockService = blockService;
+        this.blockMetrics = blockMetrics;
+        this.jwtSubjectResolver = jwtSubjectResolver;
+        this.clientIdentityResolver = clientIdentityResolver;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         
-        // 1. IP 추출 (X-Forwarded-For 헤더 고려)
-        String ip = getClientIpAddress(exchange);
-        
-        // 2. API 키 추출 (예시: 'X-Api-Key' 헤더)
-        String apiKey = exchange.getRequest().getHeaders().getFirst("X-Api-Key");
+        // 1. IP / API 키 추출 (신뢰 프록시 X-Forwarded-For 반영, 'X-Api-Key' 헤더)
+        ClientIdentity identity = clientIdentityResolver.resolve(exchange);
+        String ip = identity.getIp();
+        String apiKey = identity.getApiKey();
         
         // 3. 사용자 ID 추출 (JWT claim)
-        Mono<String> userIdMono = ReactiveSecurityContextHolder.getContext()
-                .map(securityContext -> {
-                    Authentication authentication = securityContext.getAuthentication();
-                    if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
-                        Jwt jwt = (Jwt) authentication.getPrincipal();
-                        return jwt.getClaimAsString("sub");
-                    }
-                    return "";
-                })
+        Mono<String> userIdMono = jwtSubjectResolver.authenticatedSubject()
                 .defaultIfEmpty("");
 
-        // Redis 차단 목록 조회 (병렬 처리로 성능 최적화)
-        return userIdMono.flatMap(userId -> {
-            // TTL 기반 차단 확인
-            Mono<BlockInfo> ipBlockInfo = checkBlockWithTTL("blocked:ip:" + ip, "IP");
-            Mono<BlockInfo> apiKeyBlockInfo = apiKey != null ? 
-                checkBlockWithTTL("blocked:key:" + apiKey, "API_KEY") : 
-                Mono.just(BlockInfo.notBlocked());
-            Mono<BlockInfo> userBlockInfo = !userId.isEmpty() ? 
-                checkBlockWithTTL("blocked:user:" + userId, "USER") : 
-                Mono.just(BlockInfo.notBlocked());
-
-            return Mono.zip(ipBlockInfo, apiKeyBlockInfo, userBlockInfo)
-                .flatMap(tuple -> {
-                    BlockInfo ipBlock = tuple.getT1();
-                    BlockInfo apiKeyBlock = tuple.getT2();
-                    BlockInfo userBlock = tuple.getT3();
-                    
-                    // 차단된 것이 있는지 확인
-                    BlockInfo blockedInfo = null;
-                    if (ipBlock.isBlocked()) blockedInfo = ipBlock;
-                    else if (apiKeyBlock.isBlocked()) blockedInfo = apiKeyBlock;
-                    else if (userBlock.isBlocked()) blockedInfo = userBlock;
-                    
-                    if (blockedInfo != null) {
-                        return createBlockedResponse(exchange.getResponse(), blockedInfo);
-                    }
-                    return chain.filter(exchange);
-                });
-        });
+        // 차단 목록 조회 (로컬 캐시 적중 시 Redis 호출 없음, 미스 시 단일 스크립트 호출)
+        // IP → API 키 → 사용자 순으로 첫 번째 차단 정보 사용
+        // 조회 결과를 다음 동작으로 변환한 뒤 실행하여, 조회 오류만 장애 정책으로 처리하고 하위 필터 오류는 그대로 전파
+        return userIdMono.flatMap(userId -> blockService.findFirstBlock(ip, apiKey, userId)
+            .map(blockInfo -> createBlockedResponse(exchange, blockInfo, ip, apiKey, userId))
+            .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+            .onErrorResume(e -> Mono.just(handleLookupFailure(exchange, chain, ip, apiKey, userId, e)))
+            .flatMap(Function.identity()));
     }
 
-    private String getClientIpAddress(ServerWebExchange exchange) {
-        String xForwardedFor = exchange.getRequest().getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = exchange.getRequest().getHeaders().getFirst("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+    private Mono<Void> handleLookupFailure(ServerWebExchange exchange, GatewayFilterChain chain,
+                                           String ip, String apiKey, String userId, Throwable error) {
+        log.debug("Block lookup unavailable, applying {} policy: {}", failurePolicy, error.toString());
+        switch (failurePolicy) {
+            case FAIL_OPEN:
+                return chain.filter(exchange);
+            case FAIL_CLOSED:
+                return ProblemDetailsUtil.writeServiceUnavailableResponse(exchange.getResponse(),
+                    getRequestId(exchange), "Block list is temporarily unavailable");
+            default:
+                return blockService.findLastKnownBlock(ip, apiKey, userId)
+                    .map(blockInfo -> createBlockedResponse(exchange, blockInfo, ip, apiKey, userId))
+                    .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                    .flatMap(Function.identity());
         }
-        
-        return exchange.getRequest().getRemoteAddress() != null ? 
-            exchange.getRequest().getRemoteAddress().getAddress().getHostAddress() : "unknown";
     }
 
-    private Mono<BlockInfo> checkBlockWithTTL(String key, String type) {
-        return redisTemplate.hasKey(key)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.just(BlockInfo.notBlocked());
-                }
-                
-                // TTL 확인
-                return redisTemplate.getExpire(key)
-                    .map(ttl -> {
-                        if (!ttl.isNegative() && !ttl.isZero()) {
-                            // TTL이 있는 경우 만료시간 계산
-                            Instant expiresAt = Instant.now().plus(ttl);
-                            return new BlockInfo(true, type, "Temporarily blocked", expiresAt);
-                        } else {
-                            // 영구 차단
-                            return new BlockInfo(true, type, "Permanently blocked", null);
-                        }
-                    });
-            });
+    private Mono<Void> createBlockedResponse(ServerWebExchange exchange, BlockInfo blockInfo,
+                                             String ip, String apiKey, String userId) {
+        blockMetrics.recordRejection(blockInfo.getType(), blockedIdentifier(blockInfo, ip, apiKey, userId),
+            blockInfo.getReason());
+        // 고정 JSON 조각은 미리 인코딩된 바이트를 사용하고 가변 필드만 기록
+        return BlockedResponseWriter.write(exchange.getResponse(), blockInfo, getRequestId(exchange));
     }
 
-    private static class BlockInfo {
-        private final boolean blocked;
-        private final String type;
-        private final String reason;
-        private final Instant expiresAt;
-        
-        public BlockInfo(boolean blocked, String type, String reason, Instant expiresAt) {
-            this.blocked = blocked;
-            this.type = type;
-            this.reason = reason;
-            this.expiresAt = expiresAt;
+    private static String blockedIdentifier(BlockInfo blockInfo, String ip, String apiKey, String userId) {
+        if (blockInfo.getType() == null) {
+            return null;
         }
-        
-        public static BlockInfo notBlocked() {
-            return new BlockInfo(false, null, null, null);
+        switch (blockInfo.getType()) {
+            case "IP":
+                return ip;
+            case "API_KEY":
+                return apiKey;
+            case "USER":
+                return userId;
+            default:
+                return null;
         }
-        
-        public boolean isBlocked() { return blocked; }
-        public String getType() { return type; }
-        public String getReason() { return reason; }
-        public Instant getExpiresAt() { return expiresAt; }
     }
 
-    private Mono<Void> createBlockedResponse(ServerHttpResponse response, BlockInfo blockInfo) {
-        response.setStatusCode(HttpStatus.FORBIDDEN);
-        response.getHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
-
-        // 상세한 차단 정보를 포함한 JSON 응답 생성
-        String expiresAtStr = blockInfo.getExpiresAt() != null ? 
-            "\"" + blockInfo.getExpiresAt().atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME) + "\"" : 
-            "null";
-            
-        String jsonResponse = String.format(
-            "{\"success\":false,\"data\":null,\"error\":{\"code\":\"BLOCKED\",\"message\":\"%s\",\"details\":{\"type\":\"%s\",\"reason\":\"%s\",\"expiresAt\":%s}},\"meta\":{\"requestId\":\"%s\",\"timestamp\":\"%s\",\"durationMs\":0}}",
-            blockInfo.getType() + " 차단됨",
-            blockInfo.getType(),
-            blockInfo.getReason(),
-            expiresAtStr,
-            UUID.randomUUID(),
-            Instant.now().atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
-        );
-        
-        DataBuffer buffer = response.bufferFactory().wrap(jsonResponse.getBytes(StandardCharsets.UTF_8));
-        return response.writeWith(Mono.just(buffer));
+    private String getRequestId(ServerWebExchange exchange) {
+        // RequestIdFilter가 응답 헤더에 설정한 추적 ID를 재사용
+        String requestId = exchange.getResponse().getHeaders().getFirst(REQUEST_ID_HEADER);
+        if (requestId == null) {
+            requestId = exchange.getRequest().getHeaders().getFirst(REQUEST_ID_HEADER);
+        }
+        return requestId;
     }
 
     @Override
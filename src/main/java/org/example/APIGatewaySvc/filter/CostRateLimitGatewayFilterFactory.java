@@ -0,0 +1,342 @@
+package org.example.APIGatewaySvc.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.APIGatewaySvc.ratelimit.CostRateLimiter;
+import org.example.APIGatewaySvc.ratelimit.RateLimitEngine;
+import org.example.APIGatewaySvc.util.ProblemDetailsUtil;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 비용 가중 Rate Limit 필터 (CostRateLimit)
+ * 요청마다 고정 토큰을 차감하는 RequestRateLimiter 대신, 요청/응답 크기(또는 업스트림 사용량 헤더)에 비례한 비용을 차감
+ * 큰 프롬프트나 긴 응답을 보내는 식별자가 같은 할당량에서 작은 요청을 보내는 식별자보다 빨리 소진됨
+ *
+ * 사용 예 (RequestRateLimiter 대신):
+ * <pre>
+ * - name: CostRateLimit
+ *   args:
+ *     key-resolver: "#{@userKeyResolver}"
+ *     replenish-rate: 5          # 초당 보충 비용 단위
+ *     burst-capacity: 10
+ *     min-cost: 2                # 요청당 최소 비용
+ *     bytes-per-unit: 4096       # 비용 1단위 = 요청 + 응답 4KB
+ *     usage-header: X-Usage-Tokens   # 선택, 업스트림이 보고한 사용량으로 정산
+ *     usage-per-unit: 1000           # 사용량 헤더 값 1000 = 비용 1단위
+ * </pre>
+ *
+ * 처리 흐름:
+ * 1. 요청 전: Content-Length로 추정한 비용(최소 min-cost, 최대 burst-capacity)을 선차감, 부족하면 429
+ *    (Content-Length가 없는 스트리밍 요청은 min-cost로 시작하고 실제 전송 바이트로 정산)
+ * 2. 응답 후: 사용량 헤더가 있으면 그 값, 없으면 실제 요청 + 응답 바이트 수로 비용을 계산하여 차이를 정산
+ *    (추가 차감분이 남은 토큰보다 크면 빚으로 남아 다음 요청이 거부됨, 정산은 응답을 지연시키지 않음)
+ *
+ * 응답 헤더는 RedisRateLimiter와 같은 이름(요청당 토큰 = 추정 비용)을 사용하므로 RateLimitHeadersFilter가 그대로 처리
+ * Redis 호출 실패 시 RedisRateLimiter와 같이 허용 (남은 토큰 -1, 정산 생략)
+ *
+ * 메트릭: gateway.ratelimit.cost.decisions (route, result), gateway.ratelimit.cost.units (route, 정산된 실제 비용)
+ */
+public class CostRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<CostRateLimitGatewayFilterFactory.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(CostRateLimitGatewayFilterFactory.class);
+
+    private static final String REQUEST_ID_HEADER = "X-Request-ID";
+    private static final String EMPTY_KEY = "____EMPTY_KEY__";
+
+    // Redis 장애로 판정하지 못한 경우 (허용, 남은 토큰 -1)
+    private static final RateLimitEngine.Decision UNAVAILABLE = new RateLimitEngine.Decision(true, -1, 0);
+
+    private final CostRateLimiter costRateLimiter;
+    private final KeyResolver defaultKeyResolver;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public CostRateLimitGatewayFilterFactory(CostRateLimiter costRateLimiter, KeyResolver defaultKeyResolver,
+                                             MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.costRateLimiter = costRateLimiter;
+        this.defaultKeyResolver = defaultKeyResolver;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        validate(config);
+        KeyResolver keyResolver = config.getKeyResolver() != null ? config.getKeyResolver() : defaultKeyResolver;
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+
+        return (exchange, chain) -> keyResolver.resolve(exchange)
+                .defaultIfEmpty(EMPTY_KEY)
+                .flatMap(key -> {
+                    if (EMPTY_KEY.equals(key)) {
+                        // deny-empty-key: false 와 같이 키가 없으면 제한하지 않음
+                        return chain.filter(exchange);
+                    }
+                    String id = routeId + "." + key;
+                    long contentLength = exchange.getRequest().getHeaders().getContentLength();
+                    long estimate = config.estimate(contentLength);
+                    return costRateLimiter.acquire(id, config.getReplenishRate(), config.getBurstCapacity(), estimate)
+                            .onErrorResume(e -> {
+                                log.debug("Cost rate limit check failed for {}: {}", id, e.toString());
+                                return Mono.just(UNAVAILABLE);
+                            })
+                            .flatMap(decision -> {
+                                addHeaders(exchange.getResponse().getHeaders(), config, estimate, decision.getRemaining());
+                                if (decision == UNAVAILABLE) {
+                                    counter(routeId, "failed").increment();
+                                    return chain.filter(exchange);
+                                }
+                                if (!decision.isAllowed()) {
+                                    counter(routeId, "denied").increment();
+                                    return reject(exchange, decision);
+                                }
+                                counter(routeId, "allowed").increment();
+                                return meter(exchange, chain, config, routeId, id, contentLength, estimate);
+                            });
+                });
+    }
+
+    /**
+     * 요청/응답 본문 바이트 수를 세면서 전달하고, 완료 시 실제 비용으로 정산
+     */
+    private Mono<Void> meter(ServerWebExchange exchange, GatewayFilterChain chain, Config config, String routeId,
+                             String id, long contentLength, long estimate) {
+        AtomicLong requestBytes = new AtomicLong();
+        AtomicLong responseBytes = new AtomicLong();
+
+        ServerHttpRequestDecorator request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return super.getBody().doOnNext(buffer -> requestBytes.addAndGet(buffer.readableByteCount()));
+            }
+        };
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return super.writeWith(Flux.from(body)
+                        .doOnNext(buffer -> responseBytes.addAndGet(buffer.readableByteCount())));
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                // 스트리밍 응답 (text/event-stream 등)
+                return super.writeAndFlushWith(Flux.from(body).map(part -> Flux.from(part)
+                        .doOnNext(buffer -> responseBytes.addAndGet(buffer.readableByteCount()))));
+            }
+        };
+
+        return chain.filter(exchange.mutate().request(request).response(response).build())
+                .doFinally(signal -> {
+                    long bytes = Math.max(contentLength, requestBytes.get()) + responseBytes.get();
+                    long actual = config.actualCost(bytes, exchange.getResponse().getHeaders());
+                    summary(routeId).record(actual);
+                    settle(id, config, actual - estimate);
+                });
+    }
+
+    private void settle(String id, Config config, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        costRateLimiter.settle(id, config.getReplenishRate(), config.getBurstCapacity(), delta)
+                .subscribe(null, e -> log.debug("Cost rate limit settlement failed for {}: {}", id, e.toString()));
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, RateLimitEngine.Decision decision) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (decision.getRetryAfterMillis() + 999) / 1000)));
+        String requestId = headers.getFirst(REQUEST_ID_HEADER);
+        return ProblemDetailsUtil.writeCustomResponse(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS,
+                "Rate limit exceeded", "Request cost exceeds the remaining quota. Please try again later",
+                requestId != null ? requestId : "unknown");
+    }
+
+    private void addHeaders(HttpHeaders headers, Config config, long estimate, long remaining) {
+        headers.set(RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining));
+        headers.set(RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.set(RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        headers.set(RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(estimate));
+    }
+
+    private void validate(Config config) {
+        if (config.getReplenishRate() <= 0 || config.getBurstCapacity() <= 0 || config.getMinCost() <= 0
+                || config.getBytesPerUnit() <= 0 || config.getUsagePerUnit() <= 0) {
+            throw new IllegalArgumentException("Cost rate limit values must be positive: " + config);
+        }
+        if (config.getMinCost() > config.getBurstCapacity()) {
+            throw new IllegalArgumentException("Cost rate limit min cost must not exceed burst capacity: " + config);
+        }
+    }
+
+    private Counter counter(String routeId, String result) {
+        return counters.computeIfAbsent(routeId + "|" + result, k -> Counter.builder("gateway.ratelimit.cost.decisions")
+                .tag("route", routeId).tag("result", result)
+                .description("비용 가중 Rate Limit 판정 수")
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary summary(String routeId) {
+        return summaries.computeIfAbsent(routeId, k -> DistributionSummary.builder("gateway.ratelimit.cost.units")
+                .tag("route", routeId)
+                .description("요청별 정산된 비용 단위")
+                .register(meterRegistry));
+    }
+
+    /**
+     * 비용 가중 Rate Limit 설정
+     */
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private KeyResolver keyResolver;
+        private int replenishRate = 5;
+        private long burstCapacity = 10;
+        private long minCost = 1;
+        private long bytesPerUnit = 4096;
+        private String usageHeader;
+        private long usagePerUnit = 1;
+
+        /**
+         * 요청 전 추정 비용 (Content-Length 기준, 최소 min-cost, 최대 burst-capacity)
+         * 용량보다 비싼 요청도 버킷이 가득 차면 통과하고, 나머지는 정산 시 빚으로 반영
+         * @param contentLength 요청 Content-Length (없으면 -1)
+         */
+        long estimate(long contentLength) {
+            long units = contentLength > 0 ? ceilDiv(contentLength, bytesPerUnit) : 0;
+            return Math.min(burstCapacity, Math.max(minCost, units));
+        }
+
+        /**
+         * 응답 후 실제 비용 (사용량 헤더가 있으면 그 값, 없으면 요청 + 응답 바이트 수 기준, 최소 min-cost)
+         */
+        long actualCost(long bytes, HttpHeaders responseHeaders) {
+            long units = -1;
+            if (usageHeader != null) {
+                String usage = responseHeaders.getFirst(usageHeader);
+                if (usage != null) {
+                    try {
+                        units = ceilDiv(Math.max(0, Long.parseLong(usage.trim())), usagePerUnit);
+                    } catch (NumberFormatException e) {
+                        log.debug("Ignoring invalid usage header {}: {}", usageHeader, usage);
+                    }
+                }
+            }
+            if (units < 0) {
+                units = ceilDiv(bytes, bytesPerUnit);
+            }
+            return Math.max(minCost, units);
+        }
+
+        private static long ceilDiv(long value, long divisor) {
+            return (value + divisor - 1) / divisor;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public KeyResolver getKeyResolver() {
+            return keyResolver;
+        }
+
+        public Config setKeyResolver(KeyResolver keyResolver) {
+            this.keyResolver = keyResolver;
+            return this;
+        }
+
+        /** 초당 보충 비용 단위 */
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public long getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(long burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        /** 요청당 최소 비용 */
+        public long getMinCost() {
+            return minCost;
+        }
+
+        public Config setMinCost(long minCost) {
+            this.minCost = minCost;
+            return this;
+        }
+
+        /** 비용 1단위에 해당하는 요청 + 응답 바이트 수 */
+        public long getBytesPerUnit() {
+            return bytesPerUnit;
+        }
+
+        public Config setBytesPerUnit(long bytesPerUnit) {
+            this.bytesPerUnit = bytesPerUnit;
+            return this;
+        }
+
+        /** 업스트림 사용량 헤더 이름 (없으면 바이트 수로 정산) */
+        public String getUsageHeader() {
+            return usageHeader;
+        }
+
+        public Config setUsageHeader(String usageHeader) {
+            this.usageHeader = usageHeader;
+            return this;
+        }
+
+        /** 비용 1단위에 해당하는 사용량 헤더 값 */
+        public long getUsagePerUnit() {
+            return usagePerUnit;
+        }
+
+        public Config setUsagePerUnit(long usagePerUnit) {
+            this.usagePerUnit = usagePerUnit;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Config{replenishRate=" + replenishRate + ", burstCapacity=" + burstCapacity + ", minCost=" + minCost
+                    + ", bytesPerUnit=" + bytesPerUnit + ", usageHeader=" + usageHeader
+                    + ", usagePerUnit=" + usagePerUnit + "}";
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.APIGatewaySvc.filter;
 
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
+import org.example.APIGatewaySvc.security.JwtSubjectResolver;
 import org.example.APIGatewaySvc.service.GatewayLogService;
 import org.example.APIGatewaySvc.util.SecurityMaskingUtil;
 import org.slf4j.Logger;
@@ -9,10 +11,6 @@ import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.ReactiveSecurityContextHolder;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
@@ -36,9 +34,14 @@ public class GatewayLoggingFilter implements GlobalFilter, Ordered {
     private static final String REQUEST_SIZE_KEY = "requestSize";
     
     private final GatewayLogService logService;
+    private final JwtSubjectResolver jwtSubjectResolver;
+    private final ClientIdentityResolver clientIdentityResolver;
 
-    public GatewayLoggingFilter(GatewayLogService logService) {
+    public GatewayLoggingFilter(GatewayLogService logService, JwtSubjectResolver jwtSubjectResolver,
+                                ClientIdentityResolver clientIdentityResolver) {
         this.logService = logService;
+        this.jwtSubjectResolver = jwtSubjectResolver;
+        this.clientIdentityResolver = clientIdentityResolver;
     }
 
     @Override
@@ -95,7 +98,7 @@ public class GatewayLoggingFilter implements GlobalFilter, Ordered {
             ServerHttpRequest request = exchange.getRequest();
             
             // 클라이언트 IP 추출
-            String clientIp = getClientIpAddress(exchange);
+            String clientIp = clientIdentityResolver.clientIp(exchange);
             
             // 라우트 ID 추출
             String routeId = extractRouteId(exchange);
@@ -106,24 +109,8 @@ public class GatewayLoggingFilter implements GlobalFilter, Ordered {
             // 헤더 정보 수집 (민감 정보는 서비스에서 마스킹)
             Map<String, String> headers = collectImportantHeaders(request);
             
-            // 사용자 ID 추출 (동기적 처리)
-            String userId = null;
-            try {
-                userId = ReactiveSecurityContextHolder.getContext()
-                    .cast(SecurityContext.class)
-                    .map(securityContext -> {
-                        Authentication authentication = securityContext.getAuthentication();
-                        if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
-                            return ((Jwt) authentication.getPrincipal()).getClaimAsString("sub");
-                        }
-                        return null;
-                    })
-                    .onErrorReturn(null)
-                    .block(); // 동기적으로 처리
-            } catch (Exception e) {
-                logger.debug("Cannot extract user ID: {}", e.getMessage());
-                userId = null;
-            }
+            // 사용자 ID 추출 (Authorization 헤더 토큰의 sub, 토큰 해시 캐시 사용)
+            String userId = jwtSubjectResolver.fromAuthorizationHeader(exchange);
             
             // GatewayLogService를 통해 로그 전송
             logService.logRequestStart(
@@ -190,26 +177,6 @@ public class GatewayLoggingFilter implements GlobalFilter, Ordered {
         }
     }
 
-    /**
-     * 클라이언트 IP 주소 추출
-     */
-    private String getClientIpAddress(ServerWebExchange exchange) {
-        ServerHttpRequest request = exchange.getRequest();
-        
-        String xForwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.trim().isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeaders().getFirst("X-Real-IP");
-        if (xRealIp != null && !xRealIp.trim().isEmpty()) {
-            return xRealIp.trim();
-        }
-        
-        return request.getRemoteAddress() != null ? 
-            request.getRemoteAddress().getAddress().getHostAddress() : "unknown";
-    }
-
     /**
      * 라우트 ID 추출
      */
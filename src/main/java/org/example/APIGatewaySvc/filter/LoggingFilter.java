@@ -1,5 +1,6 @@
 package org.example.APIGatewaySvc.filter;
 
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
 import org.example.APIGatewaySvc.util.SecurityMaskingUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,12 @@ public class LoggingFilter implements WebFilter {
         "set-cookie"
     );
 
+    private final ClientIdentityResolver clientIdentityResolver;
+
+    public LoggingFilter(ClientIdentityResolver clientIdentityResolver) {
+        this.clientIdentityResolver = clientIdentityResolver;
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
@@ -56,7 +63,7 @@ public class LoggingFilter implements WebFilter {
         long startTime = System.currentTimeMillis();
         
         // 요청 로깅
-        logRequest(request);
+        logRequest(request, clientIdentityResolver.clientIp(exchange));
         
         return chain.filter(exchange)
                 .doOnSuccess(aVoid -> {
@@ -74,12 +81,11 @@ public class LoggingFilter implements WebFilter {
     /**
      * 요청 정보 로깅 (민감한 정보 마스킹)
      */
-    private void logRequest(ServerHttpRequest request) {
+    private void logRequest(ServerHttpRequest request, String remoteAddress) {
         try {
             String method = request.getMethod().name();
             String path = request.getPath().value();
             String queryString = request.getURI().getQuery();
-            String remoteAddress = getRemoteAddress(request);
             
             // 헤더 정보 (민감한 헤더 마스킹)
             StringBuilder headers = new StringBuilder();
@@ -169,27 +175,4 @@ public class LoggingFilter implements WebFilter {
             log.warn("에러 로깅 중 오류 발생: {}", e.getMessage());
         }
     }
-
-    /**
-     * 원격 주소 추출 (프록시 고려)
-     */
-    private String getRemoteAddress(ServerHttpRequest request) {
-        // X-Forwarded-For 헤더 확인 (프록시/로드밸런서 환경)
-        String xForwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.trim().isEmpty()) {
-            // 첫 번째 IP 주소 반환
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        // X-Real-IP 헤더 확인
-        String xRealIP = request.getHeaders().getFirst("X-Real-IP");
-        if (xRealIP != null && !xRealIP.trim().isEmpty()) {
-            return xRealIP.trim();
-        }
-        
-        // 직접 연결 주소
-        return request.getRemoteAddress() != null 
-            ? request.getRemoteAddress().getAddress().getHostAddress() 
-            : "unknown";
-    }
 }
\ No newline at end of file
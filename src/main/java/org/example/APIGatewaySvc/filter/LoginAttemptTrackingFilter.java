@@ -1,29 +1,49 @@
 package org.example.APIGatewaySvc.filter;
 
+import org.example.APIGatewaySvc.config.LoginAttemptProperties;
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
+import org.example.APIGatewaySvc.security.JwtSubjectResolver;
+import org.example.APIGatewaySvc.service.LoginAttemptBookkeeper;
 import org.example.APIGatewaySvc.service.LoginAttemptService;
+import org.example.APIGatewaySvc.service.LoginFailureCoalescer;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.ReactiveSecurityContextHolder;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * JWT 인증 결과를 추적하여 로그인 실패를 모니터링하는 필터
- * 인증 실패 시 LoginAttemptService를 통해 실패 횟수를 추적하고 필요시 차단 처리
+ * 인증 실패 시 LoginFailureCoalescer에 실패를 합산하고, 노드별로 모아 Redis에 반영하여 필요시 차단 처리
+ * 실패 제한 정책은 라우트 metadata의 login-attempt-group 값으로 선택 (없으면 default 그룹)
+ * 응답 경로에서는 Redis를 호출하지 않고, Redis 쓰기(성공 시 실패 횟수 초기화, 상위 실패 대상 차단)는
+ * LoginAttemptBookkeeper 대기열로 넘겨 응답 완료를 기다리게 하지 않음
  */
 @Component
 public class LoginAttemptTrackingFilter implements GlobalFilter, Ordered {
     
+    static final String GROUP_METADATA_KEY = "login-attempt-group";
+    
     private final LoginAttemptService loginAttemptService;
+    private final LoginFailureCoalescer loginFailureCoalescer;
+    private final LoginAttemptBookkeeper loginAttemptBookkeeper;
+    private final JwtSubjectResolver jwtSubjectResolver;
+    private final ClientIdentityResolver clientIdentityResolver;
     
-    public LoginAttemptTrackingFilter(LoginAttemptService loginAttemptService) {
+    public LoginAttemptTrackingFilter(LoginAttemptService loginAttemptService, LoginFailureCoalescer loginFailureCoalescer,
+                                      LoginAttemptBookkeeper loginAttemptBookkeeper, JwtSubjectResolver jwtSubjectResolver,
+                                      ClientIdentityResolver clientIdentityResolver) {
         this.loginAttemptService = loginAttemptService;
+        this.loginFailureCoalescer = loginFailureCoalescer;
+        this.loginAttemptBookkeeper = loginAttemptBookkeeper;
+        this.jwtSubjectResolver = jwtSubjectResolver;
+        this.clientIdentityResolver = clientIdentityResolver;
     }
     
     @Override
@@ -36,117 +56,53 @@ public class LoginAttemptTrackingFilter implements GlobalFilter, Ordered {
         }
         
         // 클라이언트 IP 추출
-        String clientIp = getClientIpAddress(exchange);
+        String clientIp = clientIdentityResolver.clientIp(exchange);
         
         return chain.filter(exchange)
             .then(Mono.defer(() -> {
-                // 응답이 401 Unauthorized인 경우 인증 실패로 간주
+                // 응답이 401 Unauthorized인 경우 인증 실패로 간주 (노드 메모리에 합산, Redis 호출 없음)
                 if (exchange.getResponse().getStatusCode() == HttpStatus.UNAUTHORIZED) {
                     return handleAuthenticationFailure(exchange, clientIp);
                 }
                 
-                // 인증 성공 시 성공 처리
-                return ReactiveSecurityContextHolder.getContext()
-                    .map(securityContext -> securityContext.getAuthentication())
-                    .cast(JwtAuthenticationToken.class)
-                    .map(auth -> auth.getToken())
-                    .map(jwt -> jwt.getClaimAsString("sub"))
-                    .filter(userId -> userId != null && !userId.isEmpty())
-                    .flatMap(userId -> loginAttemptService.recordLoginSuccess(userId))
+                // 인증 성공 시 성공 처리 (실패 기록이 있는 사용자만 대기열에서 초기화)
+                return jwtSubjectResolver.authenticatedSubject()
+                    .doOnNext(loginAttemptBookkeeper::successRecorded)
                     .onErrorResume(e -> Mono.empty()) // 에러 시 무시
                     .then();
             }));
     }
     
     private Mono<Void> handleAuthenticationFailure(ServerWebExchange exchange, String clientIp) {
-        // JWT 토큰에서 사용자 ID 추출 시도
-        String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
+        // JWT 토큰에서 사용자 ID 추출 시도 (추출하지 못하면 IP만 추적)
+        String userId = jwtSubjectResolver.fromAuthorizationHeader(exchange);
         
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            return extractUserIdFromToken(token)
-                .flatMap(userId -> {
-                    // 사용자별 실패 추적
-                    Mono<Boolean> userBlocked = loginAttemptService.recordLoginFailure(userId, clientIp);
-                    // IP별 실패 추적
-                    Mono<Boolean> ipBlocked = loginAttemptService.recordIpLoginFailure(clientIp);
-                    
-                    return Mono.zip(userBlocked, ipBlocked)
-                        .doOnNext(tuple -> {
-                            boolean userWasBlocked = tuple.getT1();
-                            boolean ipWasBlocked = tuple.getT2();
-                            
-                            if (userWasBlocked) {
-                                logBlockEvent("USER", userId, "로그인 실패 횟수 초과");
-                            }
-                            if (ipWasBlocked) {
-                                logBlockEvent("IP", clientIp, "로그인 실패 횟수 초과");
-                            }
-                        })
-                        .then();
-                })
-                .onErrorResume(e -> {
-                    // 토큰 파싱 실패 시 IP만 추적
-                    return loginAttemptService.recordIpLoginFailure(clientIp)
-                        .doOnNext(blocked -> {
-                            if (blocked) {
-                                logBlockEvent("IP", clientIp, "로그인 실패 횟수 초과 (토큰 파싱 실패)");
-                            }
-                        })
-                        .then();
-                });
-        }
+        // 사용자별, IP별 실패를 라우트 그룹 정책으로 합산 (차단 이벤트는 Redis 반영 시 LoginFailureCoalescer가 기록)
+        String group = resolveGroup(exchange);
+        loginFailureCoalescer.record(group, userId != null ? userId : "", clientIp);
+        loginAttemptBookkeeper.failureRecorded(userId);
         
-        // Authorization 헤더가 없는 경우 IP만 추적
-        return loginAttemptService.recordIpLoginFailure(clientIp)
-            .doOnNext(blocked -> {
-                if (blocked) {
-                    logBlockEvent("IP", clientIp, "로그인 실패 횟수 초과 (인증 헤더 없음)");
-                }
-            })
-            .then();
-    }
-    
-    private Mono<String> extractUserIdFromToken(String token) {
-        try {
-            // JWT 토큰을 파싱하여 사용자 ID 추출
-            // 실제 구현에서는 JwtDecoder를 사용해야 하지만, 
-            // 여기서는 간단히 base64 디코딩으로 처리
-            String[] parts = token.split("\\.");
-            if (parts.length >= 2) {
-                String payload = new String(java.util.Base64.getUrlDecoder().decode(parts[1]));
-                // JSON 파싱하여 sub 클레임 추출 (간단한 문자열 매칭 사용)
-                if (payload.contains("\"sub\"")) {
-                    int subIndex = payload.indexOf("\"sub\"");
-                    int colonIndex = payload.indexOf(":", subIndex);
-                    int startQuoteIndex = payload.indexOf("\"", colonIndex);
-                    int endQuoteIndex = payload.indexOf("\"", startQuoteIndex + 1);
-                    
-                    if (startQuoteIndex != -1 && endQuoteIndex != -1) {
-                        return Mono.just(payload.substring(startQuoteIndex + 1, endQuoteIndex));
-                    }
-                }
-            }
-        } catch (Exception e) {
-            // 파싱 실패 시 빈 값 반환
+        // 실패 상위 IP / 대역 집계 (임계값에 처음 도달한 대상만 대기열에서 Redis 차단으로 승격)
+        List<String> heavyHitters = loginAttemptService.observeFailingClient(clientIp);
+        if (!heavyHitters.isEmpty()) {
+            loginAttemptBookkeeper.submit(LoginAttemptBookkeeper.PROMOTION,
+                () -> loginAttemptService.promoteHeavyHitters(heavyHitters));
         }
-        
         return Mono.empty();
     }
     
-    private String getClientIpAddress(ServerWebExchange exchange) {
-        String xForwardedFor = exchange.getRequest().getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = exchange.getRequest().getHeaders().getFirst("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+    /**
+     * 라우트 metadata에서 로그인 실패 제한 그룹 조회
+     */
+    private String resolveGroup(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route != null) {
+            Object group = route.getMetadata().get(GROUP_METADATA_KEY);
+            if (group != null) {
+                return group.toString();
+            }
         }
-        
-        return exchange.getRequest().getRemoteAddress() != null ? 
-            exchange.getRequest().getRemoteAddress().getAddress().getHostAddress() : "unknown";
+        return LoginAttemptProperties.DEFAULT_GROUP;
     }
     
     private boolean isPublicPath(String path) {
@@ -162,12 +118,6 @@ public class LoginAttemptTrackingFilter implements GlobalFilter, Ordered {
                path.startsWith("/webjars/");
     }
     
-    private void logBlockEvent(String type, String identifier, String reason) {
-        System.out.println(String.format("[BLOCK EVENT] Type: %s, ID: %s, Reason: %s, Time: %s", 
-            type, identifier, reason, java.time.Instant.now()));
-        // 실제 구현에서는 적절한 로깅 프레임워크 사용 권장
-    }
-    
     @Override
     public int getOrder() {
         // BlockCheckFilter 다음에 실행되도록 설정
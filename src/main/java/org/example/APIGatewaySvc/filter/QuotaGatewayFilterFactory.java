@@ -0,0 +1,120 @@
+package org.example.APIGatewaySvc.filter;
+
+import org.example.APIGatewaySvc.config.QuotaProperties;
+import org.example.APIGatewaySvc.service.QuotaManager;
+import org.example.APIGatewaySvc.util.ProblemDetailsUtil;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * 장기 할당량 필터 (Quota)
+ * API 키(X-Api-Key 헤더), 테넌트(JWT tenant_id 클레임), 요금제(JWT plan 클레임)별 일/월 할당량을 QuotaManager로 판정
+ * 초과 시 업스트림을 호출하지 않고 429와 Retry-After(기간 초기화까지 남은 초) 반환
+ *
+ * 사용 예 (초 단위 버스트를 제한하는 RequestRateLimiter / CostRateLimit 다음):
+ * <pre>
+ * - Quota
+ * </pre>
+ *
+ * 응답 헤더 (X-RateLimit-* 와 함께, 가장 빡빡한 수준/기간 기준):
+ * - X-Quota-Limit: 기간 할당량
+ * - X-Quota-Remaining: 남은 요청 수
+ * - X-Quota-Reset: 할당량이 초기화되는 시간 (Unix timestamp, 초)
+ * - X-Quota-Scope: 판정 기준 수준/기간 (예: api-key/day, tenant/month)
+ *
+ * API 키와 테넌트가 모두 없는 요청은 할당량을 적용하지 않음
+ * API 키 헤더는 게이트웨이에서 검증할 수 없으므로 인증된(JWT) 요청에서, 토큰의 api-key-claim 클레임에
+ * 포함된 키일 때만 사용 (다른 고객의 키로 그 할당량을 소진하거나 임의 키로 바꿔가며 한도를 회피하지 못하도록)
+ * 클레임에 없는 키는 API 키 수준만 적용하지 않고 테넌트 / 요금제 할당량은 그대로 판정
+ */
+@Component
+public class QuotaGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    public static final String QUOTA_LIMIT_HEADER = "X-Quota-Limit";
+    public static final String QUOTA_REMAINING_HEADER = "X-Quota-Remaining";
+    public static final String QUOTA_RESET_HEADER = "X-Quota-Reset";
+    public static final String QUOTA_SCOPE_HEADER = "X-Quota-Scope";
+
+    private static final String REQUEST_ID_HEADER = "X-Request-ID";
+
+    private final QuotaManager quotaManager;
+    private final QuotaProperties quotaProperties;
+
+    public QuotaGatewayFilterFactory(QuotaManager quotaManager, QuotaProperties quotaProperties) {
+        super(Object.class);
+        this.quotaManager = quotaManager;
+        this.quotaProperties = quotaProperties;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> ReactiveSecurityContextHolder.getContext()
+                .flatMap(securityContext -> Mono.justOrEmpty(jwtOf(securityContext.getAuthentication())))
+                .map(jwt -> quotaManager.tryAcquire(
+                        boundApiKey(jwt, exchange.getRequest().getHeaders().getFirst(quotaProperties.getApiKeyHeader())),
+                        jwt.getClaimAsString(quotaProperties.getTenantClaim()),
+                        jwt.getClaimAsString(quotaProperties.getPlanClaim())))
+                .switchIfEmpty(Mono.fromSupplier(() -> quotaManager.tryAcquire(null, null, null)))
+                .flatMap(decision -> {
+                    if (decision.isLimited()) {
+                        addHeaders(exchange.getResponse().getHeaders(), decision);
+                    }
+                    if (!decision.isAllowed()) {
+                        return reject(exchange, decision);
+                    }
+                    return chain.filter(exchange);
+                });
+    }
+
+    /**
+     * 토큰에 발급 키로 묶인 경우에만 헤더의 API 키 반환 (클레임은 문자열 또는 목록)
+     */
+    String boundApiKey(Jwt jwt, String apiKey) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return null;
+        }
+        Object claim = jwt.getClaims().get(quotaProperties.getApiKeyClaim());
+        if (claim instanceof Collection) {
+            return ((Collection<?>) claim).contains(apiKey) ? apiKey : null;
+        }
+        return apiKey.equals(claim) ? apiKey : null;
+    }
+
+    private static Jwt jwtOf(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken) {
+            return ((JwtAuthenticationToken) authentication).getToken();
+        }
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
+            return (Jwt) authentication.getPrincipal();
+        }
+        return null;
+    }
+
+    private static void addHeaders(HttpHeaders headers, QuotaManager.Decision decision) {
+        headers.set(QUOTA_LIMIT_HEADER, String.valueOf(decision.getLimit()));
+        headers.set(QUOTA_REMAINING_HEADER, String.valueOf(decision.getRemaining()));
+        headers.set(QUOTA_RESET_HEADER, String.valueOf(decision.getResetEpochSeconds()));
+        headers.set(QUOTA_SCOPE_HEADER, decision.getScope());
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, QuotaManager.Decision decision) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        long retryAfter = decision.getResetEpochSeconds() - System.currentTimeMillis() / 1000;
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter)));
+        String requestId = headers.getFirst(REQUEST_ID_HEADER);
+        return ProblemDetailsUtil.writeCustomResponse(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS,
+                "Quota exceeded", "The " + decision.getScope() + " quota has been exhausted",
+                requestId != null ? requestId : "unknown");
+    }
+}
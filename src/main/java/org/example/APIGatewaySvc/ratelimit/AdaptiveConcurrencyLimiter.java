@@ -0,0 +1,216 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 관측한 응답 지연으로 동시 처리 한도를 조정하는 라우트별 동시성 제한기
+ * 업스트림이 느려지면 한도를 줄여 대기열이 쌓이지 않게 하고, 지연이 기준선으로 돌아오면 한도를 늘림
+ *
+ * 한도는 표본 창(현재 한도만큼의 응답, 최소 MIN_WINDOW_SAMPLES개 = 대략 왕복 1회분)마다 한 번 갱신
+ * (응답마다 갱신하면 같은 혼잡을 겪은 요청들이 한꺼번에 한도를 여러 번 줄이거나 늘림)
+ *
+ * 알고리즘:
+ * - AIMD: 창에 실패(5xx, 오류)가 있거나 평균 지연이 latencyThreshold 초과 시 한도 * backoffRatio,
+ *   그 외에는 한도의 절반 이상 사용한 경우 +1
+ * - GRADIENT: Netflix concurrency-limits Gradient 방식
+ *   무부하 지연(minRtt) * tolerance / 창 평균 지연 비율(0.5~1.0)로 한도를 줄이고,
+ *   sqrt(한도)만큼 여유를 더해 지연이 기준선 근처일 때 한도가 늘어나도록 함 (smoothing으로 완만하게 반영)
+ *   실패 시에는 AIMD와 같이 backoffRatio 적용
+ * - 두 방식 모두 한도의 절반 미만만 사용 중이면 한도를 늘리지 않음 (부하가 없을 때 한도가 무한히 커지는 것 방지)
+ *
+ * GRADIENT의 무부하 지연 측정 (Envoy adaptive concurrency 방식):
+ * 평상시 지연으로 기준선을 잡으면 대기열 지연이 기준선에 섞여 한도가 계속 늘어나므로,
+ * 한도를 현재 한도의 PROBE_RATIO(최소 PROBE_LIMIT)로 낮춰 PROBE_SAMPLES개 응답의 평균 지연을 minRtt로 삼고
+ * 측정이 끝나면 이전 한도로 복원
+ * - 시작 시 한 번, 이후 PROBE_INTERVAL_SAMPLES 표본마다 측정
+ * - 주기 측정은 최대 동시 처리 수가 측정 한도 이하인 한가한 창까지 미뤄 측정 중 거부(503)가 나지 않게 하고,
+ *   PROBE_MAX_DELAY_SAMPLES 표본 동안 한가한 창이 없을 때만 부하 중에 측정
+ *
+ * 한도 갱신은 응답 완료 시에만 일어나므로 synchronized로 처리하고, 요청 경로(tryAcquire)는 CAS만 사용
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Algorithm {
+        AIMD, GRADIENT
+    }
+
+    // 한도 갱신 창의 최소 표본 수
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    // 무부하 지연 측정 동시성 (현재 한도 대비 비율, 최소값), 표본 수, 측정 주기와 한가한 창을 기다리는 최대 표본 수
+    static final double PROBE_RATIO = 0.5;
+    static final int PROBE_LIMIT = 3;
+    static final int PROBE_SAMPLES = 50;
+    static final int PROBE_INTERVAL_SAMPLES = 5000;
+    static final int PROBE_MAX_DELAY_SAMPLES = 4 * PROBE_INTERVAL_SAMPLES;
+
+    private final Algorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+
+    // 현재 표본 창
+    private int windowSamples;
+    private long windowRttSum;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    // 무부하 지연 측정 (GRADIENT)
+    private boolean probing;
+    private int probeSamples;
+    private long probeRttSum;
+    private int samplesSinceProbe;
+    private long minRtt;
+
+    public AdaptiveConcurrencyLimiter(Algorithm algorithm, int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdNanos, double backoffRatio, double tolerance,
+                                      double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limit bounds must satisfy 1 <= min <= max: min="
+                    + minLimit + ", max=" + maxLimit);
+        }
+        this.algorithm = algorithm;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        if (algorithm == Algorithm.GRADIENT) {
+            startProbe();
+        }
+    }
+
+    /**
+     * 처리 슬롯 획득
+     * @return 이 요청을 포함한 처리 중 요청 수, 한도에 도달했으면 -1
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * 처리 완료 (한도 갱신)
+     * @param rttNanos 처리 시간
+     * @param inFlightAtStart tryAcquire가 반환한 처리 중 요청 수
+     * @param dropped 업스트림 실패 여부 (5xx, 오류, 업스트림을 호출하지 않은 응답은 onIgnore로 처리)
+     */
+    public void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        update(Math.max(1, rttNanos), inFlightAtStart, dropped);
+    }
+
+    /**
+     * 한도 갱신 없이 슬롯 반환 (클라이언트 취소 등 지연을 알 수 없는 경우)
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (probing) {
+            probe(rttNanos, inFlightAtStart);
+            return;
+        }
+        windowRttSum += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        windowDropped |= dropped;
+        if (++windowSamples < Math.max(MIN_WINDOW_SAMPLES, limit)) {
+            return;
+        }
+        long averageRtt = windowRttSum / windowSamples;
+        int peakInFlight = windowMaxInFlight;
+        boolean appLimited = peakInFlight * 2 < estimatedLimit;
+        boolean failed = windowDropped;
+        samplesSinceProbe += windowSamples;
+        resetWindow();
+
+        double next;
+        if (failed || (algorithm == Algorithm.AIMD && averageRtt > latencyThresholdNanos)) {
+            next = estimatedLimit * backoffRatio;
+        } else if (algorithm == Algorithm.AIMD) {
+            next = appLimited ? estimatedLimit : estimatedLimit + 1;
+        } else {
+            next = gradient(averageRtt, appLimited);
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+
+        if (algorithm == Algorithm.GRADIENT && samplesSinceProbe >= PROBE_INTERVAL_SAMPLES
+                && (peakInFlight <= probeLimit() || samplesSinceProbe >= PROBE_MAX_DELAY_SAMPLES)) {
+            startProbe();
+        }
+    }
+
+    private double gradient(long averageRtt, boolean appLimited) {
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * minRtt / averageRtt));
+        if (gradient >= 1.0 && appLimited) {
+            return estimatedLimit;
+        }
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        return estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+    }
+
+    private void startProbe() {
+        probing = true;
+        probeSamples = 0;
+        probeRttSum = 0;
+        limit = Math.min(limit, probeLimit());
+    }
+
+    private int probeLimit() {
+        return Math.max(minLimit, Math.max(PROBE_LIMIT, (int) (estimatedLimit * PROBE_RATIO)));
+    }
+
+    private void probe(long rttNanos, int inFlightAtStart) {
+        // 측정 시작 전에 한도보다 많이 들어온 요청은 대기열 지연이 섞이므로 제외
+        if (inFlightAtStart > limit) {
+            return;
+        }
+        probeRttSum += rttNanos;
+        if (++probeSamples < PROBE_SAMPLES) {
+            return;
+        }
+        minRtt = probeRttSum / probeSamples;
+        probing = false;
+        samplesSinceProbe = 0;
+        resetWindow();
+        limit = (int) estimatedLimit;
+    }
+
+    private void resetWindow() {
+        windowSamples = 0;
+        windowRttSum = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 비용 가중 토큰 버킷 (CostRateLimit 필터에서 사용)
+ * 요청마다 고정 토큰을 차감하는 RedisRateLimiter와 달리, 요청 전에 추정 비용을 차감하고
+ * 응답 후 실제 비용과의 차이를 같은 버킷에 정산 (추가 차감 또는 환급)
+ *
+ * - acquire: 남은 토큰이 비용 이상이면 차감하여 허용
+ * - settle: 차이를 무조건 반영, 실제 비용이 추정보다 크면 버킷 용량만큼까지 빚(음수 토큰)을 허용하여
+ *   비싼 요청을 보낸 식별자가 빚을 갚을 때까지 다음 요청이 거부됨
+ *
+ * Redis 키: rate_limit_cost:{식별자} (해시 하나, scripts/rate_limit_cost.lua)
+ * Redis 호출은 RedisHealthTracker로 기한과 서킷 브레이커 적용, 실패 처리는 호출하는 쪽에서 결정
+ */
+public class CostRateLimiter {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> COST_SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("scripts/rate_limit_cost.lua"), List.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RedisHealthTracker redisHealthTracker;
+
+    public CostRateLimiter(ReactiveRedisTemplate<String, String> redisTemplate, RedisHealthTracker redisHealthTracker) {
+        this.redisTemplate = redisTemplate;
+        this.redisHealthTracker = redisHealthTracker;
+    }
+
+    /**
+     * 추정 비용 선차감
+     * @param id 라우트와 Rate Limit 키를 합친 식별자
+     * @param cost 추정 비용 (버킷 용량 이하)
+     */
+    public Mono<RateLimitEngine.Decision> acquire(String id, int replenishRate, long burstCapacity, long cost) {
+        return execute(id, replenishRate, burstCapacity, cost, false);
+    }
+
+    /**
+     * 실제 비용과 추정 비용의 차이 정산
+     * @param delta 실제 비용 - 추정 비용 (음수면 환급)
+     */
+    public Mono<RateLimitEngine.Decision> settle(String id, int replenishRate, long burstCapacity, long delta) {
+        return execute(id, replenishRate, burstCapacity, delta, true);
+    }
+
+    private Mono<RateLimitEngine.Decision> execute(String id, int replenishRate, long burstCapacity, long cost,
+                                                   boolean settle) {
+        List<String> args = List.of(
+                String.valueOf(replenishRate),
+                String.valueOf(burstCapacity),
+                String.valueOf(cost),
+                settle ? "1" : "0");
+        return redisHealthTracker.protect(redisTemplate.execute(COST_SCRIPT, List.of(key(id)), args)
+                        .<List<Long>>reduce(new ArrayList<>(), (all, part) -> {
+                            all.addAll(part);
+                            return all;
+                        }))
+                .map(result -> new RateLimitEngine.Decision(result.get(0) == 1L, result.get(1), result.get(2)));
+    }
+
+    static String key(String id) {
+        // Redis Cluster에서 해시 태그로 슬롯 고정
+        return "rate_limit_cost:{" + id + "}";
+    }
+}
@@ -0,0 +1,261 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 라우트별로 판정 알고리즘(RateLimitEngine)을 선택하는 Rate Limiter
+ *
+ * 라우트 설정 (RequestRateLimiter 필터 args, RedisRateLimiter의 redis-rate-limiter.* 와 같은 방식):
+ * <pre>
+ * rate-limiter: "#{@engineRateLimiter}"
+ * engine-rate-limiter.engine: sliding-log
+ * engine-rate-limiter.replenish-rate: 5
+ * engine-rate-limiter.burst-capacity: 10
+ * engine-rate-limiter.requested-tokens: 2
+ * engine-rate-limiter.window: 2s        # sliding-log 전용, 생략 시 버스트 용량 / 보충량
+ * </pre>
+ * 라우트 설정이 없으면 기본 설정(rate-limit.engine.*) 사용
+ * 엔진 이름과 한도는 라우트 args를 바인딩할 때 검증하므로, 잘못된 설정은 요청마다 500을 내는 대신 라우트 적재가 실패
+ * (라우트 갱신이면 이전 라우트와 설정 유지)
+ *
+ * 응답 헤더는 RedisRateLimiter와 같은 이름을 사용하므로 RateLimitHeadersFilter가 그대로 처리
+ * Redis 호출 실패 시 RedisRateLimiter와 같이 허용 (남은 토큰 -1)
+ * RateLimitFallback을 설정하면 Redis 장애 시 노드 로컬 토큰 버킷으로 판정 (한도 / 예상 노드 수)
+ */
+public class EngineRateLimiter extends AbstractRateLimiter<EngineRateLimiter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineRateLimiter.class);
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "engine-rate-limiter";
+
+    private final Map<String, RateLimitEngine> engines = new HashMap<>();
+    private final Config defaultConfig;
+    private final RedisHealthTracker redisHealthTracker;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private RateLimitFallback localFallback;
+    private LocalTokenBucketTable localTable;
+
+    public EngineRateLimiter(List<RateLimitEngine> engines, Config defaultConfig, RedisHealthTracker redisHealthTracker,
+                             MeterRegistry meterRegistry, ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        for (RateLimitEngine engine : engines) {
+            this.engines.put(engine.getName(), engine);
+        }
+        this.defaultConfig = validate(defaultConfig);
+        this.redisHealthTracker = redisHealthTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = loadConfiguration(routeId);
+        RateLimitEngine engine = engines.get(config.getEngine());
+        String key = routeId + "." + id;
+
+        RateLimitFallback fallback = localFallback;
+        RateLimitEngine.Decision local = null;
+        if (fallback != null) {
+            long now = System.nanoTime();
+            if (!fallback.useRedis(now)) {
+                return Mono.just(localResponse(fallback, key, config, now));
+            }
+            // 로컬 판정에서 복귀 직후: 장애 중 쓴 로컬 토큰이 다시 찰 때까지 로컬 판정도 통과해야 허용
+            local = fallback.settle(localTable, key, config.getReplenishRate(), config.getBurstCapacity(),
+                    config.getRequestedTokens(), now);
+            if (local != null && !local.isAllowed()) {
+                return Mono.just(new Response(false, headers(config, local.getRemaining())));
+            }
+        }
+        RateLimitEngine.Decision handover = local;
+
+        Mono<RateLimitEngine.Decision> call = redisHealthTracker.protect(engine.check(key, config));
+        return (fallback != null ? fallback.track(call) : call)
+                .map(decision -> {
+                    counter(config.getEngine(), decision.isAllowed() ? "allowed" : "denied").increment();
+                    return new Response(decision.isAllowed(), headers(config, decision.getRemaining()));
+                })
+                .onErrorResume(e -> {
+                    counter(config.getEngine(), "failed").increment();
+                    log.debug("Rate limit engine '{}' failed for route {}: {}", config.getEngine(), routeId, e.toString());
+                    if (fallback == null) {
+                        // Redis 호출 실패 시 허용 (RedisRateLimiter와 동일)
+                        return Mono.just(new Response(true, headers(config, -1)));
+                    }
+                    if (handover != null) {
+                        return Mono.just(new Response(true, headers(config, handover.getRemaining())));
+                    }
+                    return Mono.just(localResponse(fallback, key, config, System.nanoTime()));
+                });
+    }
+
+    private Response localResponse(RateLimitFallback fallback, String key, Config config, long now) {
+        RateLimitEngine.Decision decision = localDecision(fallback, key, config, now);
+        return new Response(decision.isAllowed(), headers(config, decision.getRemaining()));
+    }
+
+    private RateLimitEngine.Decision localDecision(RateLimitFallback fallback, String key, Config config, long now) {
+        return fallback.tryAcquire(localTable, key, config.getReplenishRate(), config.getBurstCapacity(),
+                config.getRequestedTokens(), now);
+    }
+
+    /**
+     * Redis 장애 시 노드 로컬 판정 사용 (설정하지 않으면 Redis 호출 실패 시 허용)
+     */
+    public void setLocalFallback(RateLimitFallback localFallback) {
+        this.localTable = localFallback.newTable();
+        this.localFallback = localFallback;
+    }
+
+    /**
+     * 라우트 args 바인딩 후 검증 (실패 시 이전 설정을 되돌리고 IllegalArgumentException으로 라우트 적재 중단)
+     */
+    @Override
+    public void onApplicationEvent(FilterArgsEvent event) {
+        String routeId = event.getRouteId();
+        Config previous = getConfig().get(routeId);
+        super.onApplicationEvent(event);
+        Config bound = getConfig().get(routeId);
+        if (bound == null || bound == previous) {
+            return;
+        }
+        try {
+            validate(bound);
+        } catch (IllegalArgumentException e) {
+            if (previous != null) {
+                getConfig().put(routeId, previous);
+            } else {
+                getConfig().remove(routeId);
+            }
+            throw new IllegalArgumentException("Invalid " + CONFIGURATION_PROPERTY_NAME + " args for route '"
+                    + routeId + "': " + e.getMessage(), e);
+        }
+    }
+
+    Config loadConfiguration(String routeId) {
+        Config routeConfig = getConfig().get(routeId);
+        return routeConfig != null ? routeConfig : defaultConfig;
+    }
+
+    /**
+     * 엔진 이름과 보충량/용량 확인 (기본 설정은 빈 생성 시, 라우트 설정은 args 바인딩 시)
+     */
+    private Config validate(Config config) {
+        if (!engines.containsKey(config.getEngine())) {
+            throw new IllegalArgumentException("Unknown rate limit engine '" + config.getEngine()
+                    + "', available: " + engines.keySet());
+        }
+        if (config.getReplenishRate() <= 0 || config.getBurstCapacity() <= 0 || config.getRequestedTokens() <= 0) {
+            throw new IllegalArgumentException("Rate limit replenish rate, burst capacity and requested tokens must be positive: "
+                    + config);
+        }
+        return config;
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put(RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining));
+        headers.put(RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        headers.put(RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+        return headers;
+    }
+
+    private Counter counter(String engine, String result) {
+        return counters.computeIfAbsent(engine + "|" + result, k -> Counter.builder("gateway.ratelimit.engine.decisions")
+                .tag("engine", engine).tag("result", result)
+                .description("엔진별 Rate Limit 판정 수")
+                .register(meterRegistry));
+    }
+
+    /**
+     * 라우트별 Rate Limit 설정
+     */
+    public static class Config {
+
+        private String engine = GcraRateLimitEngine.NAME;
+        private int replenishRate;
+        private long burstCapacity = 1;
+        private int requestedTokens = 1;
+        private Duration window;
+
+        /** 판정 엔진 이름 (token-bucket, gcra, sliding-log) */
+        public String getEngine() {
+            return engine;
+        }
+
+        public Config setEngine(String engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public long getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(long burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+
+        /** sliding-log window (window마다 버스트 용량만큼 허용) */
+        public Duration getWindow() {
+            return window;
+        }
+
+        public Config setWindow(Duration window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * window 설정이 없으면 버스트 용량 / 보충량 (토큰 버킷과 같은 장기 평균 속도)
+         */
+        Duration windowOrDefault() {
+            if (window != null) {
+                return window;
+            }
+            return Duration.ofMillis(Math.max(1, (long) Math.ceil(burstCapacity * 1000.0 / replenishRate)));
+        }
+
+        @Override
+        public String toString() {
+            return "Config{engine=" + engine + ", replenishRate=" + replenishRate + ", burstCapacity=" + burstCapacity
+                    + ", requestedTokens=" + requestedTokens + ", window=" + window + "}";
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.util.List;
+
+/**
+ * GCRA 엔진 (토큰 버킷과 같은 보충량/용량 의미, 키 하나에 타임스탬프 하나)
+ * 판정마다 GET 1회, 허용 시 SET 1회 (거부 시 쓰기 없음)
+ */
+public class GcraRateLimitEngine extends ScriptRateLimitEngine {
+
+    public static final String NAME = "gcra";
+
+    public GcraRateLimitEngine(ReactiveRedisTemplate<String, String> redisTemplate) {
+        super(redisTemplate, "scripts/rate_limit_gcra.lua");
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    List<String> keys(String id) {
+        return List.of("rate_limit_gcra:{" + id + "}");
+    }
+
+    @Override
+    List<String> args(EngineRateLimiter.Config config) {
+        return List.of(String.valueOf(config.getReplenishRate()), String.valueOf(config.getBurstCapacity()),
+                String.valueOf(config.getRequestedTokens()));
+    }
+}
@@ -0,0 +1,579 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 노드 로컬 토큰 버킷 + Redis 전역 버킷 임대(lease) 방식 Rate Limiter
+ * RedisRateLimiter처럼 요청마다 Lua 스크립트를 호출하지 않고, 전역 버킷에서 토큰 묶음을 임대받아 노드에서 차감
+ *
+ * 동작 방식:
+ * - 임대받은 토큰이 남아 있고 임대가 유효하면 Redis 호출 없이 로컬에서 허용
+ * - 토큰이 부족하거나 임대가 만료되면 남은 토큰을 반납하면서 새 임대분을 받음 (키별 단일 요청, 동시 요청은 결과 공유)
+ * - 전역 버킷이 비어 있으면 최소 임대량이 쌓일 때까지 로컬에서 거부 (거부 요청마다 Redis를 호출하지 않음)
+ * - 만료된 임대의 남은 토큰과 오래 쓰지 않은 키는 주기적으로 반납 후 정리
+ * - 로컬 버킷 수가 maxKeys에 도달하면 새 키는 버킷을 만들지 않고 요청마다 필요한 토큰만 전역 버킷에서 차감
+ *   (다음 정리 전까지 처음 보는 키가 몰려도 메모리가 늘지 않도록)
+ *
+ * 라우트 설정 (RequestRateLimiter 필터 args, RedisRateLimiter의 redis-rate-limiter.* 와 같은 방식):
+ * <pre>
+ * rate-limiter: "#{@userServiceHybridRateLimiter}"
+ * hybrid-rate-limiter.replenish-rate: 20
+ * hybrid-rate-limiter.burst-capacity: 40
+ * hybrid-rate-limiter.requested-tokens: 1
+ * hybrid-rate-limiter.lease-tokens: 10   # 생략 시 용량의 1/4
+ * hybrid-rate-limiter.lease-ttl: 1s
+ * </pre>
+ * 라우트 설정이 없으면 빈 생성 시 기본 설정 사용, 한도는 라우트 args를 바인딩할 때 검증 (EngineRateLimiter와 동일)
+ *
+ * 오차 범위:
+ * - 임대된 토큰은 전역 버킷에서 이미 차감되었으므로 평상시 클러스터 전체 허용량은 전역 버킷을 넘지 않음
+ * - 임대 중 Redis 키가 유실되면(만료, 장애 조치) 노드 수 * 임대량만큼 초과 허용될 수 있음
+ * - 다른 노드가 쥐고 있는 토큰은 임대 만료 전까지 쓸 수 없으므로, 최대 노드 수 * 임대량만큼 덜 허용될 수 있음
+ * - Redis 호출 실패 시 RedisRateLimiter와 같이 허용 (남은 토큰 -1)
+ *   RateLimitFallback을 설정하면 노드 로컬 토큰 버킷으로 판정 (한도 / 예상 노드 수, 이미 임대받은 토큰은 계속 사용)
+ */
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(HybridRateLimiter.class);
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+    static final String KEY_PREFIX = "rate_limit_lease:";
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> LEASE_SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("scripts/rate_limit_lease.lua"), List.class);
+
+    private final String name;
+    private final Config defaultConfig;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RedisHealthTracker redisHealthTracker;
+    private final Map<String, LeasedBucket> buckets = new ConcurrentHashMap<>();
+
+    private int maxKeys = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(1);
+
+    private final Counter localAllowed;
+    private final Counter localDenied;
+    private final Counter leaseAllowed;
+    private final Counter leaseDenied;
+    private final Counter leaseCalls;
+    private final Counter leaseFailures;
+
+    private RateLimitFallback localFallback;
+    private LocalTokenBucketTable localTable;
+
+    private Disposable sweepTask;
+
+    /**
+     * @param name 메트릭 태그용 Rate Limiter 이름 (빈 이름)
+     * @param defaultConfig 라우트별 설정이 없을 때 사용할 설정
+     * @param configurationService 라우트 args(hybrid-rate-limiter.*) 바인딩용
+     */
+    public HybridRateLimiter(String name, Config defaultConfig, ReactiveRedisTemplate<String, String> redisTemplate,
+                             RedisHealthTracker redisHealthTracker, MeterRegistry meterRegistry,
+                             ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.name = name;
+        this.defaultConfig = validate(defaultConfig);
+        this.redisTemplate = redisTemplate;
+        this.redisHealthTracker = redisHealthTracker;
+        this.localAllowed = decisionCounter(meterRegistry, "local", "allowed");
+        this.localDenied = decisionCounter(meterRegistry, "local", "denied");
+        this.leaseAllowed = decisionCounter(meterRegistry, "lease", "allowed");
+        this.leaseDenied = decisionCounter(meterRegistry, "lease", "denied");
+        this.leaseCalls = Counter.builder("gateway.ratelimit.hybrid.leases")
+                .tag("limiter", name).tag("result", "ok")
+                .description("전역 버킷 임대 Redis 호출 수")
+                .register(meterRegistry);
+        this.leaseFailures = Counter.builder("gateway.ratelimit.hybrid.leases")
+                .tag("limiter", name).tag("result", "failed")
+                .description("전역 버킷 임대 Redis 호출 수")
+                .register(meterRegistry);
+        Gauge.builder("gateway.ratelimit.hybrid.keys", buckets, Map::size)
+                .tag("limiter", name)
+                .description("노드 로컬 버킷 수")
+                .register(meterRegistry);
+    }
+
+    private Counter decisionCounter(MeterRegistry meterRegistry, String source, String result) {
+        return Counter.builder("gateway.ratelimit.hybrid.decisions")
+                .tag("limiter", name).tag("source", source).tag("result", result)
+                .description("Rate Limit 판정 수 (local: Redis 호출 없음, lease: 임대 후 판정)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        sweepTask = Flux.interval(Duration.ofSeconds(1), Duration.ofSeconds(1), Schedulers.parallel())
+                .subscribe(tick -> sweep());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweepTask != null) {
+            sweepTask.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = loadConfiguration(routeId);
+        String key = KEY_PREFIX + "{" + routeId + "." + id + "}";
+        LeasedBucket bucket = bucketFor(key);
+
+        if (bucket != null) {
+            Decision local = bucket.tryAcquire(config.getRequestedTokens(), System.nanoTime());
+            if (local != null) {
+                (local.allowed ? localAllowed : localDenied).increment();
+                return Mono.just(response(config, local));
+            }
+        }
+
+        RateLimitFallback fallback = localFallback;
+        RateLimitEngine.Decision handover = null;
+        if (fallback != null) {
+            long now = System.nanoTime();
+            if (!fallback.useRedis(now)) {
+                return Mono.just(localResponse(fallback, key, config, now));
+            }
+            // 로컬 판정에서 복귀 직후: 장애 중 쓴 로컬 토큰이 다시 찰 때까지 로컬 판정도 통과해야 허용
+            handover = fallback.settle(localTable, key, config.getReplenishRate(), config.getBurstCapacity(),
+                    config.getRequestedTokens(), now);
+            if (handover != null && !handover.isAllowed()) {
+                return Mono.just(new Response(false, headers(config, handover.getRemaining())));
+            }
+        }
+        RateLimitEngine.Decision localHandover = handover;
+
+        Mono<Decision> decided = bucket != null
+                ? bucket.leaseOnce(() -> lease(key, config, bucket))
+                        .filter(leased -> leased)
+                        .map(leased -> bucket.acquireAfterLease(config.getRequestedTokens(), System.nanoTime()))
+                : acquireDirect(key, config);
+        return decided
+                .map(decision -> {
+                    (decision.allowed ? leaseAllowed : leaseDenied).increment();
+                    return response(config, decision);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    if (fallback == null) {
+                        // Redis 호출 실패 시 허용 (RedisRateLimiter와 동일)
+                        return new Response(true, headers(config, -1));
+                    }
+                    return localHandover != null
+                            ? new Response(true, headers(config, localHandover.getRemaining()))
+                            : localResponse(fallback, key, config, System.nanoTime());
+                }));
+    }
+
+    /**
+     * 키의 로컬 버킷 (버킷 수가 maxKeys에 도달했으면 새 키는 null)
+     */
+    private LeasedBucket bucketFor(String key) {
+        LeasedBucket bucket = buckets.get(key);
+        if (bucket != null || buckets.size() >= maxKeys) {
+            return bucket;
+        }
+        return buckets.computeIfAbsent(key, k -> new LeasedBucket());
+    }
+
+    /**
+     * 로컬 버킷 없이 요청 토큰만 전역 버킷에서 차감
+     * @return 판정 결과 (Redis 호출 실패 시 empty)
+     */
+    private Mono<Decision> acquireDirect(String key, Config config) {
+        return callLeaseScript(key, config, 0, config.getRequestedTokens(), config.getRequestedTokens())
+                .map(result -> new Decision(result.get(0) > 0, result.get(1)))
+                .onErrorResume(e -> {
+                    leaseFailures.increment();
+                    log.debug("Rate limit lease failed for {}: {}", key, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 남은 토큰을 반납하고 새 임대분 요청
+     * @return 임대 성공 여부 (Redis 호출 실패 시 false)
+     */
+    private Mono<Boolean> lease(String key, Config config, LeasedBucket bucket) {
+        long returned = bucket.takeRemaining();
+        return callLeaseScript(key, config, returned, config.leaseSize(), config.getRequestedTokens())
+                .map(result -> {
+                    long now = System.nanoTime();
+                    bucket.leased(result.get(0), result.get(1), now + config.getLeaseTtl().toNanos(),
+                            result.get(2) > 0 ? now + TimeUnit.MILLISECONDS.toNanos(result.get(2)) : 0);
+                    return true;
+                })
+                .onErrorResume(e -> {
+                    // 반납하지 못한 토큰은 로컬에 되돌림
+                    bucket.restore(returned, System.nanoTime() + config.getLeaseTtl().toNanos());
+                    leaseFailures.increment();
+                    log.debug("Rate limit lease failed for {}: {}", key, e.toString());
+                    return Mono.just(false);
+                });
+    }
+
+    private Mono<List<Long>> callLeaseScript(String key, Config config, long returned, long desired, long minimum) {
+        if (!redisHealthTracker.isAvailable()) {
+            return Mono.error(new IllegalStateException("Redis circuit is open"));
+        }
+        List<String> args = List.of(
+                String.valueOf(config.getReplenishRate()),
+                String.valueOf(config.getBurstCapacity()),
+                String.valueOf(returned),
+                String.valueOf(desired),
+                String.valueOf(minimum),
+                String.valueOf(config.keyTtl().toMillis()));
+        Mono<List<Long>> call = redisHealthTracker.protect(redisTemplate.execute(LEASE_SCRIPT, List.of(key), args)
+                .<List<Long>>reduce(new ArrayList<>(), (all, part) -> {
+                    all.addAll(part);
+                    return all;
+                }));
+        RateLimitFallback fallback = localFallback;
+        return (fallback != null ? fallback.track(call) : call)
+                .doOnNext(result -> leaseCalls.increment());
+    }
+
+    /**
+     * 만료된 임대의 남은 토큰 반납 및 오래 쓰지 않은 키 정리
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        // 키 수가 상한에 도달하면 최근 1초간 쓰지 않은 키까지 정리
+        long idleNanos = buckets.size() >= maxKeys ? TimeUnit.SECONDS.toNanos(1) : idleTimeout.toNanos();
+        Iterator<Map.Entry<String, LeasedBucket>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, LeasedBucket> entry = iterator.next();
+            LeasedBucket bucket = entry.getValue();
+            boolean idle = now - bucket.lastAccess > idleNanos;
+            if (!bucket.isExpired(now) && !idle) {
+                continue;
+            }
+            long returned = bucket.takeExpired(now, idle);
+            if (idle && bucket.isDrained()) {
+                iterator.remove();
+            }
+            if (returned > 0) {
+                returnTokens(entry.getKey(), returned);
+            }
+        }
+    }
+
+    private void returnTokens(String key, long returned) {
+        // 반납 시점 설정은 키에서 알 수 없으므로 기본 설정의 보충량과 용량 사용 (상한 적용 목적)
+        callLeaseScript(key, defaultConfig, returned, 0, 0)
+                .subscribe(null, e -> {
+                    leaseFailures.increment();
+                    log.debug("Rate limit token return failed for {}: {}", key, e.toString());
+                });
+    }
+
+    private Response localResponse(RateLimitFallback fallback, String key, Config config, long now) {
+        RateLimitEngine.Decision decision = localDecision(fallback, key, config, now);
+        return new Response(decision.isAllowed(), headers(config, decision.getRemaining()));
+    }
+
+    private RateLimitEngine.Decision localDecision(RateLimitFallback fallback, String key, Config config, long now) {
+        return fallback.tryAcquire(localTable, key, config.getReplenishRate(), config.getBurstCapacity(),
+                config.getRequestedTokens(), now);
+    }
+
+    private Response response(Config config, Decision decision) {
+        return new Response(decision.allowed, headers(config, decision.remaining));
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put(RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining));
+        headers.put(RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        headers.put(RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+        return headers;
+    }
+
+    /**
+     * 라우트 args 바인딩 후 검증 (실패 시 이전 설정을 되돌리고 IllegalArgumentException으로 라우트 적재 중단)
+     */
+    @Override
+    public void onApplicationEvent(FilterArgsEvent event) {
+        String routeId = event.getRouteId();
+        Config previous = getConfig().get(routeId);
+        super.onApplicationEvent(event);
+        Config bound = getConfig().get(routeId);
+        if (bound == null || bound == previous) {
+            return;
+        }
+        try {
+            validate(bound);
+        } catch (IllegalArgumentException e) {
+            if (previous != null) {
+                getConfig().put(routeId, previous);
+            } else {
+                getConfig().remove(routeId);
+            }
+            throw new IllegalArgumentException("Invalid " + CONFIGURATION_PROPERTY_NAME + " args for route '"
+                    + routeId + "': " + e.getMessage(), e);
+        }
+    }
+
+    Config loadConfiguration(String routeId) {
+        Config routeConfig = getConfig().get(routeId);
+        return routeConfig != null ? routeConfig : defaultConfig;
+    }
+
+    /**
+     * 보충량/용량/임대 설정 확인 (기본 설정은 빈 생성 시, 라우트 설정은 args 바인딩 시)
+     */
+    private static Config validate(Config config) {
+        if (config.getReplenishRate() <= 0 || config.getBurstCapacity() <= 0 || config.getRequestedTokens() <= 0) {
+            throw new IllegalArgumentException("Rate limit replenish rate, burst capacity and requested tokens must be positive: "
+                    + config);
+        }
+        if (config.getLeaseTokens() < 0 || config.getLeaseTtl() == null || config.getLeaseTtl().isNegative()
+                || config.getLeaseTtl().isZero()) {
+            throw new IllegalArgumentException("Rate limit lease tokens must not be negative and lease TTL must be positive: "
+                    + config);
+        }
+        return config;
+    }
+
+    Config getDefaultConfig() {
+        return defaultConfig;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Redis 장애 시 노드 로컬 판정 사용 (설정하지 않으면 Redis 호출 실패 시 허용)
+     */
+    public void setLocalFallback(RateLimitFallback localFallback) {
+        this.localTable = localFallback.newTable();
+        this.localFallback = localFallback;
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * 로컬 판정 결과
+     */
+    static final class Decision {
+        final boolean allowed;
+        final long remaining;
+
+        Decision(boolean allowed, long remaining) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * 키별 임대 토큰 상태 (키 하나에 대한 동시 요청만 경합하므로 synchronized 사용)
+     */
+    static final class LeasedBucket {
+        private long tokens;
+        private long leaseExpiresAt;
+        private long deniedUntil; // 0이면 거부 캐시 없음
+        private long globalRemaining;
+        private Mono<Boolean> pendingLease;
+        private volatile long lastAccess = System.nanoTime();
+
+        /**
+         * 임대 토큰으로 판정 (임대가 필요하면 null)
+         */
+        synchronized Decision tryAcquire(int requested, long now) {
+            lastAccess = now;
+            if (now - leaseExpiresAt < 0 && tokens >= requested) {
+                tokens -= requested;
+                return new Decision(true, tokens + globalRemaining);
+            }
+            if (deniedUntil != 0 && now - deniedUntil < 0) {
+                return new Decision(false, tokens + globalRemaining);
+            }
+            return null;
+        }
+
+        /**
+         * 임대 직후 판정 (임대분을 다른 요청이 먼저 썼으면 거부)
+         */
+        synchronized Decision acquireAfterLease(int requested, long now) {
+            if (now - leaseExpiresAt < 0 && tokens >= requested) {
+                tokens -= requested;
+                return new Decision(true, tokens + globalRemaining);
+            }
+            return new Decision(false, tokens + globalRemaining);
+        }
+
+        /**
+         * 진행 중인 임대가 있으면 그 결과를 공유하고, 없으면 새로 시작
+         */
+        synchronized Mono<Boolean> leaseOnce(Supplier<Mono<Boolean>> leaser) {
+            if (pendingLease == null) {
+                pendingLease = Mono.defer(leaser)
+                        .doFinally(signal -> clearPending())
+                        .cache();
+            }
+            return pendingLease;
+        }
+
+        private synchronized void clearPending() {
+            pendingLease = null;
+        }
+
+        synchronized long takeRemaining() {
+            long remaining = tokens;
+            tokens = 0;
+            leaseExpiresAt = 0;
+            return remaining;
+        }
+
+        synchronized void leased(long granted, long globalRemaining, long expiresAt, long deniedUntil) {
+            this.tokens += granted;
+            this.globalRemaining = globalRemaining;
+            this.leaseExpiresAt = expiresAt;
+            this.deniedUntil = deniedUntil;
+        }
+
+        synchronized void restore(long returned, long expiresAt) {
+            this.tokens += returned;
+            if (returned > 0) {
+                this.leaseExpiresAt = expiresAt;
+            }
+        }
+
+        synchronized boolean isExpired(long now) {
+            return tokens > 0 && now - leaseExpiresAt >= 0;
+        }
+
+        /**
+         * 만료되었거나(또는 정리 대상인) 임대의 남은 토큰 회수
+         */
+        synchronized long takeExpired(long now, boolean force) {
+            if (pendingLease != null || (!force && now - leaseExpiresAt < 0)) {
+                return 0;
+            }
+            long remaining = tokens;
+            tokens = 0;
+            leaseExpiresAt = 0;
+            return remaining;
+        }
+
+        synchronized boolean isDrained() {
+            return tokens == 0 && pendingLease == null;
+        }
+    }
+
+    /**
+     * Rate Limit 설정 (RedisRateLimiter.Config와 같은 의미의 보충량, 용량, 요청당 토큰에 임대 설정 추가)
+     */
+    public static class Config {
+
+        private int replenishRate;
+        private long burstCapacity = 1;
+        private int requestedTokens = 1;
+        private int leaseTokens;
+        private Duration leaseTtl = Duration.ofSeconds(1);
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public long getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(long burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+
+        /** 한 번에 임대할 토큰 수 (0이면 용량의 1/4, 최소 요청당 토큰) */
+        public int getLeaseTokens() {
+            return leaseTokens;
+        }
+
+        public Config setLeaseTokens(int leaseTokens) {
+            this.leaseTokens = leaseTokens;
+            return this;
+        }
+
+        /** 임대 유효 기간 (만료 시 남은 토큰 반납) */
+        public Duration getLeaseTtl() {
+            return leaseTtl;
+        }
+
+        public Config setLeaseTtl(Duration leaseTtl) {
+            this.leaseTtl = leaseTtl;
+            return this;
+        }
+
+        long leaseSize() {
+            long size = leaseTokens > 0 ? leaseTokens : burstCapacity / 4;
+            return Math.max(size, requestedTokens);
+        }
+
+        /**
+         * 전역 버킷 키 만료 시간 (빈 버킷이 가득 찰 때까지의 시간 * 2 + 임대 기간)
+         */
+        Duration keyTtl() {
+            long fillMillis = replenishRate > 0 ? (long) Math.ceil(burstCapacity * 1000.0 / replenishRate) : 60_000L;
+            return Duration.ofMillis(fillMillis * 2 + leaseTtl.toMillis());
+        }
+
+        @Override
+        public String toString() {
+            return "Config{replenishRate=" + replenishRate + ", burstCapacity=" + burstCapacity
+                    + ", requestedTokens=" + requestedTokens + ", leaseTokens=" + leaseTokens
+                    + ", leaseTtl=" + leaseTtl + "}";
+        }
+    }
+}
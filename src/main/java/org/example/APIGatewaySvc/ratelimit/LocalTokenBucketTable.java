@@ -0,0 +1,152 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Redis 장애 시 노드 로컬 판정용 토큰 버킷 테이블 (RateLimitFallback을 쓰는 Rate Limiter마다 하나)
+ * 키마다 객체를 만들지 않고 고정 크기 배열 슬롯에 GCRA 도달 예정 시각(TAT) 하나만 저장하여 CAS로 갱신 (잠금 없음)
+ *
+ * 동작 방식:
+ * - 보충량 r, 용량 b이면 요청 토큰마다 TAT를 1/r초 미루고, TAT - 현재가 b/r초를 넘지 않으면 허용 (토큰 버킷과 같은 결과)
+ * - 슬롯은 키 해시로 선택하고, 다른 키가 쓰고 있으면 이웃 슬롯 PROBES개까지 탐색
+ * - TAT가 지난 슬롯은 가득 찬 버킷(= 새 버킷)과 같으므로 다른 키가 그대로 재사용
+ * - 재사용할 슬롯이 없으면 TAT가 가장 이른 슬롯을 공유 (두 키의 한도가 합쳐져 더 엄격해지는 쪽으로 오차)
+ * - Redis 복귀 후 정산(tryAcquireIfIndebted)은 로컬 판정 중 한도를 쓴 키만 확인하며, 정산 기한(debtDeadline)은
+ *   로컬 판정(tryAcquire)으로만 늘어나므로 복귀 후 트래픽이 계속되어도 최대 용량 / 보충량 뒤에 끝남
+ */
+final class LocalTokenBucketTable {
+
+    static final int PROBES = 8;
+
+    private final int mask;
+    private final AtomicLongArray fingerprints;
+    private final AtomicLongArray tats;
+    private final long origin = System.nanoTime();
+    private final AtomicLong debtDeadline = new AtomicLong();
+
+    /**
+     * @param size 슬롯 수 (2의 거듭제곱으로 올림)
+     */
+    LocalTokenBucketTable(int size) {
+        int capacity = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(size, PROBES) - 1));
+        this.mask = capacity - 1;
+        this.fingerprints = new AtomicLongArray(capacity);
+        this.tats = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * 토큰 차감 시도 (로컬 판정, 정산 기한 갱신)
+     * @param now System.nanoTime()
+     */
+    RateLimitEngine.Decision tryAcquire(String key, double replenishRate, double burstCapacity, int requested, long now) {
+        long elapsed = now - origin;
+        return acquire(slot(fingerprint(key), elapsed), replenishRate, burstCapacity, requested, elapsed, true);
+    }
+
+    /**
+     * Redis 복귀 후 정산: 로컬 판정 중 쓴 토큰이 아직 다시 차지 않은 키만 차감 시도 (정산 기한은 늘리지 않음)
+     * @return 확인할 필요가 없는 키면 null
+     */
+    RateLimitEngine.Decision tryAcquireIfIndebted(String key, double replenishRate, double burstCapacity, int requested,
+                                                  long now) {
+        long elapsed = now - origin;
+        int slot = find(fingerprint(key));
+        if (slot < 0 || tats.get(slot) <= elapsed) {
+            return null;
+        }
+        return acquire(slot, replenishRate, burstCapacity, requested, elapsed, false);
+    }
+
+    private RateLimitEngine.Decision acquire(int slot, double replenishRate, double burstCapacity, int requested,
+                                             long elapsed, boolean extendDeadline) {
+        long interval = Math.max(1L, (long) Math.ceil(TimeUnit.SECONDS.toNanos(1) / replenishRate));
+        long tolerance = (long) (interval * burstCapacity);
+        long increment = interval * requested;
+        while (true) {
+            long tat = tats.get(slot);
+            long base = Math.max(tat, elapsed);
+            long newTat = base + increment;
+            if (newTat - elapsed > tolerance) {
+                long remaining = Math.max(0, (tolerance - (base - elapsed)) / interval);
+                long retryAfterNanos = newTat - elapsed - tolerance;
+                return new RateLimitEngine.Decision(false, remaining,
+                        Math.max(1, TimeUnit.NANOSECONDS.toMillis(retryAfterNanos)));
+            }
+            if (tats.compareAndSet(slot, tat, newTat)) {
+                if (extendDeadline) {
+                    debtDeadline.accumulateAndGet(newTat, Math::max);
+                }
+                return new RateLimitEngine.Decision(true, (tolerance - (newTat - elapsed)) / interval, 0);
+            }
+        }
+    }
+
+    /**
+     * 로컬 판정으로 쓴 토큰이 아직 다시 차지 않은 버킷이 있을 수 있으면 true
+     * (마지막 로컬 판정 시점의 버킷이 모두 다시 찰 때까지, 정산 중 차감으로는 늘어나지 않음)
+     */
+    boolean hasDebt(long now) {
+        return debtDeadline.get() > now - origin;
+    }
+
+    private int find(long fingerprint) {
+        int start = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+        for (int i = 0; i < PROBES; i++) {
+            int index = (start + i) & mask;
+            if (fingerprints.get(index) == fingerprint) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int slot(long fingerprint, long elapsed) {
+        int start = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+        while (true) {
+            int reusable = -1;
+            int earliest = start;
+            for (int i = 0; i < PROBES; i++) {
+                int index = (start + i) & mask;
+                long current = fingerprints.get(index);
+                if (current == fingerprint) {
+                    return index;
+                }
+                long tat = tats.get(index);
+                if (tat <= elapsed) {
+                    if (reusable < 0) {
+                        reusable = index;
+                    }
+                } else if (tat < tats.get(earliest)) {
+                    earliest = index;
+                }
+            }
+            if (reusable < 0) {
+                return earliest;
+            }
+            long previous = fingerprints.get(reusable);
+            if (tats.get(reusable) <= elapsed && fingerprints.compareAndSet(reusable, previous, fingerprint)) {
+                return reusable;
+            }
+            // 다른 키가 먼저 차지했으면 다시 탐색
+        }
+    }
+
+    /**
+     * 64비트 키 해시 (FNV-1a + murmur3 fmix64, 0은 빈 슬롯 표시로 사용)
+     */
+    static long fingerprint(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash != 0 ? hash : 1;
+    }
+}
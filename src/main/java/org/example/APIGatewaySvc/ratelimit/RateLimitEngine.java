@@ -0,0 +1,55 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Rate Limit 판정 알고리즘 (EngineRateLimiter가 라우트 설정의 엔진 이름으로 선택)
+ *
+ * 구현:
+ * - token-bucket: Spring Cloud Gateway RedisRateLimiter와 같은 스크립트 (키 2개)
+ * - gcra: 키 하나에 타임스탬프 하나만 저장하는 GCRA
+ * - sliding-log: 요청 시각 기록 기반의 엄격한 할당량
+ */
+public interface RateLimitEngine {
+
+    /**
+     * application.yml에서 엔진을 선택할 때 쓰는 이름
+     */
+    String getName();
+
+    /**
+     * 요청 허용 여부 판정
+     * @param id 라우트와 Rate Limit 키를 합친 식별자 (Redis 키에 사용)
+     * @param config 라우트별 Rate Limit 설정
+     */
+    Mono<Decision> check(String id, EngineRateLimiter.Config config);
+
+    /**
+     * 판정 결과
+     */
+    final class Decision {
+        private final boolean allowed;
+        private final long remaining;
+        private final long retryAfterMillis;
+
+        public Decision(boolean allowed, long remaining, long retryAfterMillis) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        /** 남은 토큰 수 */
+        public long getRemaining() {
+            return remaining;
+        }
+
+        /** 다시 허용될 때까지 남은 시간 (허용 시 0, 알 수 없으면 0) */
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis 장애 시 Rate Limiter 로컬 판정 전환기 (HybridRateLimiter, EngineRateLimiter 공용)
+ * Redis 호출 실패 시 모두 허용하던 동작 대신, 각 노드가 한도 / expected-nodes 만큼만 로컬에서 허용
+ *
+ * 모드:
+ * - REDIS: 평소처럼 Redis로 판정하면서 호출 결과와 지연 시간 기록
+ * - LOCAL: 호출 실패 또는 지연(slow-call-threshold 초과)이 failure-threshold회 연속되거나 redisCb 서킷이 열리면 전환
+ *   Redis를 호출하지 않고 LocalTokenBucketTable로 판정, probe-interval마다 요청 하나만 Redis로 보내 복구 확인
+ * - 복구 확인 요청이 정상 응답하면 REDIS로 복귀
+ *
+ * 복귀 후 정산:
+ * - 장애 중 Redis 전역 버킷은 차감 없이 가득 찼으므로, 로컬 한도를 소진한 키가 복귀 즉시 전체 버스트를 다시 받지 않도록
+ *   장애 중 쓴 로컬 토큰이 아직 다시 차지 않은 키는 로컬 판정과 Redis 판정을 함께 통과해야 허용
+ * - 정산은 마지막 로컬 판정 시점의 버킷이 다시 찰 때(최대 용량 / 보충량) 끝나며, 복귀 후 트래픽으로 늘어나지 않음
+ *
+ * 메트릭: gateway.ratelimit.mode (0 REDIS, 1 LOCAL), gateway.ratelimit.mode.transitions, gateway.ratelimit.fallback.decisions
+ */
+public class RateLimitFallback {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFallback.class);
+
+    public enum Mode {
+        REDIS, LOCAL
+    }
+
+    private final RedisHealthTracker redisHealthTracker;
+
+    private int expectedNodes = 1;
+    private int failureThreshold = 3;
+    private long slowCallNanos = Duration.ofMillis(25).toNanos();
+    private long probeIntervalNanos = Duration.ofSeconds(1).toNanos();
+    private int tableSize = 65_536;
+
+    private volatile Mode mode = Mode.REDIS;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong nextProbeAt = new AtomicLong();
+
+    private final Counter toLocal;
+    private final Counter toRedis;
+    private final Counter localAllowed;
+    private final Counter localDenied;
+
+    public RateLimitFallback(RedisHealthTracker redisHealthTracker, MeterRegistry meterRegistry) {
+        this.redisHealthTracker = redisHealthTracker;
+        this.toLocal = transitionCounter(meterRegistry, "local");
+        this.toRedis = transitionCounter(meterRegistry, "redis");
+        this.localAllowed = decisionCounter(meterRegistry, "allowed");
+        this.localDenied = decisionCounter(meterRegistry, "denied");
+        Gauge.builder("gateway.ratelimit.mode", this, fallback -> fallback.mode.ordinal())
+                .description("Rate Limit 판정 모드 (0: Redis, 1: 노드 로컬)")
+                .register(meterRegistry);
+    }
+
+    private static Counter transitionCounter(MeterRegistry meterRegistry, String to) {
+        return Counter.builder("gateway.ratelimit.mode.transitions")
+                .tag("to", to)
+                .description("Rate Limit 판정 모드 전환 수")
+                .register(meterRegistry);
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.ratelimit.fallback.decisions")
+                .tag("result", result)
+                .description("노드 로컬 Rate Limit 판정 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Redis로 판정할지 여부 (LOCAL 모드에서는 복구 확인 요청만 true)
+     */
+    public boolean useRedis(long now) {
+        if (mode == Mode.REDIS) {
+            if (redisHealthTracker.isAvailable()) {
+                return true;
+            }
+            enterLocal("circuit open", now);
+        }
+        long probeAt = nextProbeAt.get();
+        return now - probeAt >= 0 && nextProbeAt.compareAndSet(probeAt, now + probeIntervalNanos);
+    }
+
+    /**
+     * Redis 호출 결과와 지연 시간 기록
+     */
+    public <T> Mono<T> track(Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(result -> onSuccess(System.nanoTime() - start))
+                    .doOnError(e -> onFailure("error: " + e.getClass().getSimpleName()));
+        });
+    }
+
+    private void onSuccess(long latencyNanos) {
+        if (latencyNanos > slowCallNanos) {
+            onFailure("slow call: " + latencyNanos / 1_000_000 + "ms");
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (mode == Mode.LOCAL) {
+            synchronized (this) {
+                if (mode == Mode.LOCAL) {
+                    mode = Mode.REDIS;
+                    toRedis.increment();
+                    log.info("Redis recovered, rate limiting back to Redis mode");
+                }
+            }
+        }
+    }
+
+    private void onFailure(String reason) {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            enterLocal(reason, System.nanoTime());
+        }
+    }
+
+    private void enterLocal(String reason, long now) {
+        if (mode == Mode.LOCAL) {
+            return;
+        }
+        synchronized (this) {
+            if (mode == Mode.REDIS) {
+                nextProbeAt.set(now + probeIntervalNanos);
+                mode = Mode.LOCAL;
+                toLocal.increment();
+                log.warn("Rate limiting switched to local fallback mode ({}), enforcing 1/{} of each limit per node",
+                        reason, expectedNodes);
+            }
+        }
+    }
+
+    /**
+     * 노드 로컬 판정 (한도 / expected-nodes, 최소 요청당 토큰)
+     */
+    RateLimitEngine.Decision tryAcquire(LocalTokenBucketTable table, String key, int replenishRate,
+                                        long burstCapacity, int requestedTokens, long now) {
+        double rate = (double) replenishRate / expectedNodes;
+        double capacity = Math.max(requestedTokens, (double) burstCapacity / expectedNodes);
+        RateLimitEngine.Decision decision = table.tryAcquire(key, rate, capacity, requestedTokens, now);
+        (decision.isAllowed() ? localAllowed : localDenied).increment();
+        return decision;
+    }
+
+    /**
+     * Redis 복귀 후 정산 판정 (장애 중 로컬 토큰을 쓴 키만, 확인할 필요가 없으면 null)
+     */
+    RateLimitEngine.Decision settle(LocalTokenBucketTable table, String key, int replenishRate,
+                                    long burstCapacity, int requestedTokens, long now) {
+        if (!table.hasDebt(now)) {
+            return null;
+        }
+        double rate = (double) replenishRate / expectedNodes;
+        double capacity = Math.max(requestedTokens, (double) burstCapacity / expectedNodes);
+        RateLimitEngine.Decision decision = table.tryAcquireIfIndebted(key, rate, capacity, requestedTokens, now);
+        if (decision != null) {
+            (decision.isAllowed() ? localAllowed : localDenied).increment();
+        }
+        return decision;
+    }
+
+    LocalTokenBucketTable newTable() {
+        return new LocalTokenBucketTable(tableSize);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** 클러스터 노드 수 (로컬 판정 시 한도를 이 값으로 나눔) */
+    public void setExpectedNodes(int expectedNodes) {
+        this.expectedNodes = Math.max(1, expectedNodes);
+    }
+
+    /** LOCAL 모드로 전환하는 연속 실패(지연 포함) 횟수 */
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+    }
+
+    /** 이 시간을 넘긴 Redis 응답은 실패로 간주 */
+    public void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallNanos = slowCallThreshold.toNanos();
+    }
+
+    /** LOCAL 모드에서 복구 확인 요청 간격 */
+    public void setProbeInterval(Duration probeInterval) {
+        this.probeIntervalNanos = probeInterval.toNanos();
+    }
+
+    /** Rate Limiter별 로컬 버킷 테이블 슬롯 수 */
+    public void setTableSize(int tableSize) {
+        this.tableSize = tableSize;
+    }
+}
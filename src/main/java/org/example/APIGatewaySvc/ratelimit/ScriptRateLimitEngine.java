@@ -0,0 +1,43 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lua 스크립트 한 번으로 판정하는 엔진 공통 구현
+ * 스크립트는 {허용 여부(1/0), 남은 토큰 수[, 재시도까지 남은 시간(ms)]}를 반환
+ */
+abstract class ScriptRateLimitEngine implements RateLimitEngine {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RedisScript<List<Long>> script;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ScriptRateLimitEngine(ReactiveRedisTemplate<String, String> redisTemplate, String scriptPath) {
+        this.redisTemplate = redisTemplate;
+        this.script = (RedisScript) RedisScript.of(new ClassPathResource(scriptPath), List.class);
+    }
+
+    @Override
+    public Mono<Decision> check(String id, EngineRateLimiter.Config config) {
+        return redisTemplate.execute(script, keys(id), args(config))
+                .<List<Long>>reduce(new ArrayList<>(), (all, part) -> {
+                    all.addAll(part);
+                    return all;
+                })
+                .map(result -> new Decision(result.get(0) == 1L, result.get(1),
+                        result.size() > 2 ? result.get(2) : 0));
+    }
+
+    /**
+     * 스크립트 KEYS (Redis Cluster에서 같은 슬롯이 되도록 id를 해시 태그로 감쌈)
+     */
+    abstract List<String> keys(String id);
+
+    abstract List<String> args(EngineRateLimiter.Config config);
+}
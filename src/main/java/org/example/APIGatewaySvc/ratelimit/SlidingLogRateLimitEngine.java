@@ -0,0 +1,34 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.util.List;
+
+/**
+ * 슬라이딩 윈도우 로그 엔진 (임의의 window 구간에서 버스트 용량을 넘지 않는 엄격한 할당량)
+ * 허용한 요청마다 정렬 집합에 기록을 남기므로 키당 메모리는 버스트 용량에 비례
+ */
+public class SlidingLogRateLimitEngine extends ScriptRateLimitEngine {
+
+    public static final String NAME = "sliding-log";
+
+    public SlidingLogRateLimitEngine(ReactiveRedisTemplate<String, String> redisTemplate) {
+        super(redisTemplate, "scripts/rate_limit_sliding_log.lua");
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    List<String> keys(String id) {
+        return List.of("rate_limit_log:{" + id + "}");
+    }
+
+    @Override
+    List<String> args(EngineRateLimiter.Config config) {
+        return List.of(String.valueOf(config.getBurstCapacity()), String.valueOf(config.windowOrDefault().toMillis()),
+                String.valueOf(config.getRequestedTokens()));
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.util.List;
+
+/**
+ * 토큰 버킷 엔진 (RedisRateLimiter와 같은 Spring Cloud Gateway 내장 스크립트)
+ * 남은 토큰과 마지막 보충 시각을 키 2개에 저장하며, 판정마다 GET 2회 + SETEX 2회
+ */
+public class TokenBucketRateLimitEngine extends ScriptRateLimitEngine {
+
+    public static final String NAME = "token-bucket";
+
+    public TokenBucketRateLimitEngine(ReactiveRedisTemplate<String, String> redisTemplate) {
+        super(redisTemplate, "META-INF/scripts/request_rate_limiter.lua");
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    List<String> keys(String id) {
+        String prefix = "request_rate_limiter.{" + id + "}";
+        return List.of(prefix + ".tokens", prefix + ".timestamp");
+    }
+
+    @Override
+    List<String> args(EngineRateLimiter.Config config) {
+        // 세 번째 인자(현재 시각)를 비우면 스크립트가 Redis TIME 사용
+        return List.of(String.valueOf(config.getReplenishRate()), String.valueOf(config.getBurstCapacity()), "",
+                String.valueOf(config.getRequestedTokens()));
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.APIGatewaySvc.security;
+
+/**
+ * 요청 클라이언트 식별 정보 (ClientIdentityResolver가 요청마다 한 번 계산하여 exchange 속성에 보관)
+ * JWT 사용자 ID는 보안 컨텍스트에서 비동기로 조회하므로 JwtSubjectResolver를 사용
+ */
+public final class ClientIdentity {
+
+    /** exchange 속성 이름 */
+    public static final String ATTRIBUTE = ClientIdentity.class.getName();
+
+    public static final String UNKNOWN_IP = "unknown";
+
+    private final String ip;
+    private final String apiKey;
+
+    public ClientIdentity(String ip, String apiKey) {
+        this.ip = ip;
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * 클라이언트 IP (신뢰 프록시 헤더를 반영하여 정규화한 주소, 확인할 수 없으면 "unknown")
+     */
+    public String getIp() {
+        return ip;
+    }
+
+    /**
+     * X-Api-Key 헤더 값 (없으면 null)
+     */
+    public String getApiKey() {
+        return apiKey;
+    }
+}
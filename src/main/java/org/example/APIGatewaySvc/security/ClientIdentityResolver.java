@@ -0,0 +1,89 @@
+package org.example.APIGatewaySvc.security;
+
+import org.example.APIGatewaySvc.util.ForwardedForParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * 클라이언트 IP / API 키 식별을 한곳에서 처리하는 컴포넌트
+ * BlockCheckFilter, LoginAttemptTrackingFilter, GatewayLoggingFilter, LoggingFilter, KeyResolverConfig,
+ * GlobalErrorWebExceptionHandler가 공유하며, 요청마다 한 번만 계산하여 exchange 속성(ClientIdentity.ATTRIBUTE)에 보관
+ *
+ * 클라이언트 IP 판정:
+ * - 직접 연결한 주소가 신뢰 프록시(gateway.client-ip.trusted-proxies)가 아니면 그 주소를 그대로 사용 (헤더 무시)
+ * - 신뢰 프록시면 X-Forwarded-For를 오른쪽부터 거슬러 올라가 신뢰 프록시가 아닌 첫 주소 사용 (ForwardedForParser)
+ * - X-Forwarded-For가 없거나 유효한 항목이 없으면 X-Real-IP, CF-Connecting-IP, 직접 연결 주소 순
+ * - 헤더 주소는 정규화된 표기로 반환하여 같은 주소의 다른 표기로 Rate Limit / 차단을 우회하지 못하게 함
+ */
+@Component
+public class ClientIdentityResolver {
+
+    static final String DEFAULT_TRUSTED_PROXIES =
+            "127.0.0.0/8,::1/128,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,fc00::/7";
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    private static final String X_REAL_IP = "X-Real-IP";
+    private static final String CF_CONNECTING_IP = "CF-Connecting-IP";
+    private static final String API_KEY_HEADER = "X-Api-Key";
+
+    private volatile ForwardedForParser forwardedForParser =
+            new ForwardedForParser(List.of(DEFAULT_TRUSTED_PROXIES.split(",")));
+
+    @Value("${gateway.client-ip.trusted-proxies:" + DEFAULT_TRUSTED_PROXIES + "}")
+    void setTrustedProxies(List<String> trustedProxies) {
+        this.forwardedForParser = new ForwardedForParser(trustedProxies);
+    }
+
+    /**
+     * 요청 클라이언트 식별 정보 (같은 요청에서 다시 호출하면 보관된 결과 반환)
+     */
+    public ClientIdentity resolve(ServerWebExchange exchange) {
+        Object cached = exchange.getAttributes().get(ClientIdentity.ATTRIBUTE);
+        if (cached instanceof ClientIdentity) {
+            return (ClientIdentity) cached;
+        }
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        ClientIdentity identity = new ClientIdentity(clientIp(exchange, headers), headers.getFirst(API_KEY_HEADER));
+        exchange.getAttributes().put(ClientIdentity.ATTRIBUTE, identity);
+        return identity;
+    }
+
+    /**
+     * 클라이언트 IP (resolve(exchange).getIp())
+     */
+    public String clientIp(ServerWebExchange exchange) {
+        return resolve(exchange).getIp();
+    }
+
+    private String clientIp(ServerWebExchange exchange, HttpHeaders headers) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        InetAddress remote = remoteAddress != null ? remoteAddress.getAddress() : null;
+        if (remote == null) {
+            return ClientIdentity.UNKNOWN_IP;
+        }
+        ForwardedForParser parser = forwardedForParser;
+        if (!parser.isTrusted(remote)) {
+            return remote.getHostAddress();
+        }
+        String ip = null;
+        String forwardedFor = headers.getFirst(X_FORWARDED_FOR);
+        if (forwardedFor != null) {
+            // 보통 프록시가 한 줄에 이어 붙이므로 한 줄만 파싱, 여러 줄이면 마지막 줄부터 거슬러 올라감
+            List<String> lines = headers.get(X_FORWARDED_FOR);
+            ip = lines != null && lines.size() > 1 ? parser.clientAddress(lines) : parser.clientAddress(forwardedFor);
+        }
+        if (ip == null) {
+            ip = ForwardedForParser.normalize(headers.getFirst(X_REAL_IP));
+        }
+        if (ip == null) {
+            ip = ForwardedForParser.normalize(headers.getFirst(CF_CONNECTING_IP));
+        }
+        return ip != null ? ip : remote.getHostAddress();
+    }
+}
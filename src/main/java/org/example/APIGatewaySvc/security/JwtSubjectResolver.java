@@ -0,0 +1,155 @@
+package org.example.APIGatewaySvc.security;
+
+import org.example.APIGatewaySvc.util.JwtSubjectExtractor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 요청 사용자 ID(JWT sub 클레임) 조회를 한곳에서 처리하는 컴포넌트
+ * BlockCheckFilter, GatewayLoggingFilter, LoginAttemptTrackingFilter, KeyResolverConfig.userKeyResolver가 공유
+ *
+ * 조회 방식:
+ * - authenticatedSubject(): Spring Security가 검증한 JWT의 sub (차단 판정, Rate Limit 키 등 인증 결과가 필요한 곳)
+ * - fromAuthorizationHeader(): Authorization 헤더 토큰을 JwtSubjectExtractor로 직접 파싱한 sub (서명 검증 전 값)
+ *   인증 실패(401) 추적, 요청 로그처럼 보안 컨텍스트가 없거나 동기 조회가 필요한 곳에서 사용
+ * - 헤더 파싱 결과는 토큰 해시 기준 LRU 캐시에 보관하여 같은 토큰을 반복 파싱하지 않음
+ *   (토큰 원문은 보관하지 않음, 해시는 서명 구간이 있는 토큰 끝 HASH_CHARS글자와 토큰 길이로 계산)
+ *   서명 값은 토큰마다 사실상 무작위이므로 끝 32글자(약 192비트)로 토큰을 구분하며, 캐시된 sub도 서명 검증 전 값이므로
+ *   서명 구간을 복사한 위조 토큰이 얻을 수 있는 것은 헤더 파싱과 같은 수준의 미검증 값뿐
+ */
+@Component
+public class JwtSubjectResolver {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final int SEGMENTS = 16;
+    private static final int HASH_CHARS = 32;
+
+    @Value("${gateway.jwt-subject.cache-size:4096}")
+    private int cacheSize = 4096;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public JwtSubjectResolver() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * 보안 컨텍스트의 인증된 JWT에서 sub 조회
+     * @return sub 값, 인증 정보가 없으면 empty
+     */
+    public Mono<String> authenticatedSubject() {
+        return ReactiveSecurityContextHolder.getContext()
+                .flatMap(securityContext -> Mono.justOrEmpty(subjectOf(securityContext.getAuthentication())));
+    }
+
+    /**
+     * Authorization 헤더의 Bearer 토큰에서 sub 추출 (서명 검증 전 값)
+     * @return sub 값, 헤더가 없거나 형식이 잘못되었으면 null
+     */
+    public String fromAuthorizationHeader(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        // 캐시 적중 시 토큰 부분 문자열을 만들지 않음
+        return lookup(authHeader, BEARER_PREFIX.length());
+    }
+
+    /**
+     * JWT 문자열에서 sub 추출 (캐시 사용)
+     */
+    public String fromToken(String token) {
+        return token != null ? lookup(token, 0) : null;
+    }
+
+    /**
+     * value의 offset 이후 토큰에 대한 sub 조회 (캐시 미스 시에만 파싱)
+     */
+    private String lookup(String value, int offset) {
+        int length = value.length() - offset;
+        if (length <= 0) {
+            return null;
+        }
+        long hash = hash(value, length);
+        Segment segment = segments[(int) (hash >>> 60)];
+        synchronized (segment) {
+            CachedSubject cached = segment.get(hash);
+            if (cached != null && cached.length == length) {
+                return cached.subject;
+            }
+        }
+        String subject = JwtSubjectExtractor.extractSubject(offset == 0 ? value : value.substring(offset));
+        if (subject != null) {
+            synchronized (segment) {
+                segment.put(hash, new CachedSubject(length, subject));
+            }
+        }
+        return subject;
+    }
+
+    private static String subjectOf(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken) {
+            return ((JwtAuthenticationToken) authentication).getToken().getClaimAsString("sub");
+        }
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
+            return ((Jwt) authentication.getPrincipal()).getClaimAsString("sub");
+        }
+        return null;
+    }
+
+    /**
+     * 토큰 끝 HASH_CHARS글자의 64비트 해시 (FNV-1a + MurmurHash3 finalizer, 토큰 길이 포함)
+     */
+    private static long hash(String value, int tokenLength) {
+        long h = 0xcbf29ce484222325L ^ tokenLength;
+        for (int i = value.length() - Math.min(tokenLength, HASH_CHARS); i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 캐시 구간 (접근 순서 LRU, 구간마다 cacheSize / SEGMENTS개, 구간 자체로 동기화)
+     */
+    private final class Segment extends LinkedHashMap<Long, CachedSubject> {
+
+        private static final long serialVersionUID = 1L;
+
+        Segment() {
+            super(64, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedSubject> eldest) {
+            return size() > Math.max(1, cacheSize / SEGMENTS);
+        }
+    }
+
+    private static final class CachedSubject {
+        private final int length;
+        private final String subject;
+
+        CachedSubject(int length, String subject) {
+            this.length = length;
+            this.subject = subject;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package org.example.APIGatewaySvc.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.APIGatewaySvc.util.CountingBloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 차단 식별자 Bloom Filter 사전 검사
+ * 전체 차단 목록(수십만 건의 IP 등)은 로컬 캐시에 담을 수 없으므로,
+ * 노드별 Counting Bloom Filter로 "확실히 차단되지 않음"을 판정하여 Redis 조회를 생략
+ *
+ * 동작 방식:
+ * - 기동 시 및 주기적으로 Redis SCAN(blocked:*)으로 전체 재구성
+ * - 차단 시 로컬에 즉시 추가하고, 다른 노드에는 Pub/Sub으로 추가/삭제 이벤트 전파
+ * - 삭제는 실제 키가 삭제된 경우에만, Pub/Sub 메시지로 노드마다 정확히 한 번 적용
+ * - 재구성 중 들어온 추가/삭제는 순서대로 모아 두었다가 교체 직전 새 필터에 다시 적용
+ *   (SCAN이 이미 읽었는지 알 수 없는 키의 삭제는 건너뛰어 오탐으로만 남김)
+ * - 재구성 완료 전이거나 구독이 끊겼던 경우에는 항상 "있을 수도 있음"으로 판정 (미탐 방지)
+ * - TTL 만료된 차단은 필터에 남아 오탐이 되지만 주기적 재구성으로 정리됨
+ * - 로컬 스냅샷(BlockListSnapshot)으로는 채우지 않음: 스냅샷 이후 추가된 차단을 알 수 없으므로
+ *   "확실히 차단되지 않음" 판정은 Redis 기준 첫 재구성 완료 후에만 사용
+ */
+@Component
+public class BlockBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockBloomFilter.class);
+
+    public static final String UPDATE_CHANNEL = "gateway:block:filter";
+    private static final String ADD_PREFIX = "+";
+    private static final String REMOVE_PREFIX = "-";
+    private static final String MESSAGE_SEPARATOR = "\n";
+
+    @Value("${block.bloom.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${block.bloom.expected-insertions:500000}")
+    private long expectedInsertions = 500_000;
+
+    @Value("${block.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${block.bloom.rebuild-interval:10m}")
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private volatile CountingBloomFilter current;
+    private volatile CountingBloomFilter building;
+    private volatile boolean ready = false;
+
+    // 재구성 중 들어온 이벤트 (this로 동기화)
+    private final List<String> pendingEvents = new ArrayList<>();
+    private final Set<String> pendingKeys = new HashSet<>();
+    private final Set<String> scannedPendingKeys = new HashSet<>();
+
+    private Disposable subscription;
+    private Disposable rebuildTask;
+
+    public BlockBloomFilter(ReactiveRedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // 구독이 (재)연결되면 그 사이 놓친 삭제/추가가 있을 수 있으므로 재구성 전까지 필터를 사용하지 않음
+        subscription = redisTemplate.listenToChannel(UPDATE_CHANNEL)
+                .doOnSubscribe(s -> {
+                    ready = false;
+                    rebuild().subscribe();
+                })
+                .map(ReactiveSubscription.Message::getMessage)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Block filter subscription lost, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe(this::applyUpdate);
+
+        rebuildTask = Flux.interval(rebuildInterval, rebuildInterval, Schedulers.boundedElastic())
+                .concatMap(tick -> rebuild())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (rebuildTask != null) {
+            rebuildTask.dispose();
+        }
+    }
+
+    /**
+     * @param key Redis 차단 키 (예: blocked:ip:1.2.3.4)
+     * @return false면 확실히 차단되지 않음, true면 Redis 확인 필요
+     */
+    public boolean mightBeBlocked(String key) {
+        CountingBloomFilter filter = current;
+        if (!ready || filter == null) {
+            return true;
+        }
+        return filter.mightContain(key);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 차단 키 추가 (현재 노드에 즉시 반영 후 다른 노드에 전파)
+     */
+    public Mono<Void> added(String key) {
+        addLocal(key);
+        return publish(ADD_PREFIX + key);
+    }
+
+    /**
+     * 차단 키 삭제 전파 (자신을 포함한 모든 노드가 메시지 수신 시 한 번만 삭제)
+     * 실제로 삭제된 키에 대해서만 호출해야 함
+     */
+    public Mono<Void> removed(String key) {
+        return publish(REMOVE_PREFIX + key);
+    }
+
+    /**
+     * 대량 추가/삭제 전파 (줄바꿈으로 구분한 단일 메시지)
+     * @param added 추가된 키
+     * @param removed 실제로 삭제된 키
+     */
+    public Mono<Void> changedAll(Collection<String> added, Collection<String> removed) {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return Mono.empty();
+        }
+        StringBuilder message = new StringBuilder();
+        for (String key : added) {
+            addLocal(key);
+            message.append(ADD_PREFIX).append(key).append(MESSAGE_SEPARATOR);
+        }
+        for (String key : removed) {
+            message.append(REMOVE_PREFIX).append(key).append(MESSAGE_SEPARATOR);
+        }
+        return publish(message.substring(0, message.length() - 1));
+    }
+
+    /**
+     * Redis SCAN으로 필터 재구성
+     * 재구성 도중 들어온 추가/삭제 이벤트는 현재 필터에 바로 반영하고, 새 필터에는 교체 직전 순서대로 다시 적용
+     */
+    public Mono<Void> rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        CountingBloomFilter next = new CountingBloomFilter(expectedInsertions, falsePositiveRate);
+        synchronized (this) {
+            building = next;
+        }
+        long startTime = System.currentTimeMillis();
+
+        return redisTemplate.scan(ScanOptions.scanOptions().match("blocked:*").count(1000).build())
+                .filter(BlockBloomFilter::isIdentifierKey)
+                .doOnNext(key -> addScanned(next, key))
+                .count()
+                .doOnNext(count -> {
+                    int replayed = swap(next);
+                    if (count > expectedInsertions) {
+                        log.warn("Block filter holds {} keys, exceeding expected {} (false-positive rate will rise)",
+                                count, expectedInsertions);
+                    }
+                    log.info("Block filter rebuilt: {} keys, {} updates replayed, {} KB, {} ms",
+                            count, replayed, next.sizeInBytes() / 1024, System.currentTimeMillis() - startTime);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Block filter rebuild failed, keeping previous state: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> {
+                    synchronized (this) {
+                        building = null;
+                        clearPending();
+                    }
+                    rebuilding.set(false);
+                })
+                .then();
+    }
+
+    void applyUpdate(String message) {
+        if (message.indexOf('\n') >= 0) {
+            for (String line : message.split(MESSAGE_SEPARATOR)) {
+                applyUpdate(line);
+            }
+        } else if (message.startsWith(ADD_PREFIX)) {
+            addLocal(message.substring(ADD_PREFIX.length()));
+        } else if (message.startsWith(REMOVE_PREFIX)) {
+            removeLocal(message.substring(REMOVE_PREFIX.length()));
+        }
+    }
+
+    private synchronized void addLocal(String key) {
+        CountingBloomFilter filter = current;
+        if (filter != null) {
+            filter.add(key);
+        }
+        bufferIfBuilding(ADD_PREFIX, key);
+    }
+
+    private synchronized void removeLocal(String key) {
+        CountingBloomFilter filter = current;
+        if (filter != null) {
+            filter.remove(key);
+        }
+        bufferIfBuilding(REMOVE_PREFIX, key);
+    }
+
+    private void bufferIfBuilding(String prefix, String key) {
+        if (building != null) {
+            pendingEvents.add(prefix + key);
+            pendingKeys.add(key);
+        }
+    }
+
+    /**
+     * SCAN 결과 추가 (이미 이벤트가 들어온 키는 SCAN이 읽었다는 사실을 기록)
+     */
+    private synchronized void addScanned(CountingBloomFilter next, String key) {
+        next.add(key);
+        if (pendingKeys.contains(key)) {
+            scannedPendingKeys.add(key);
+        }
+    }
+
+    /**
+     * 모아 둔 이벤트를 새 필터에 순서대로 적용한 뒤 교체
+     * 삭제는 새 필터가 그 키를 담고 있을 때(SCAN 또는 앞선 추가 이벤트)만 적용하여 카운터를 잘못 줄이지 않음
+     * @return 다시 적용한 이벤트 수
+     */
+    private synchronized int swap(CountingBloomFilter next) {
+        Map<String, Integer> held = new HashMap<>();
+        for (String key : scannedPendingKeys) {
+            held.put(key, 1);
+        }
+        for (String event : pendingEvents) {
+            String key = event.substring(1);
+            if (event.startsWith(ADD_PREFIX)) {
+                next.add(key);
+                held.merge(key, 1, Integer::sum);
+            } else if (held.getOrDefault(key, 0) > 0) {
+                next.remove(key);
+                held.merge(key, -1, Integer::sum);
+            }
+        }
+        int replayed = pendingEvents.size();
+        current = next;
+        ready = true;
+        building = null;
+        clearPending();
+        return replayed;
+    }
+
+    private void clearPending() {
+        pendingEvents.clear();
+        pendingKeys.clear();
+        scannedPendingKeys.clear();
+    }
+
+    private Mono<Void> publish(String message) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return redisTemplate.convertAndSend(UPDATE_CHANNEL, message)
+                .onErrorResume(e -> {
+                    // 발행 실패 시 다른 노드는 다음 재구성 때 수렴
+                    log.warn("Failed to publish block filter update: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static boolean isIdentifierKey(String key) {
+        return key.startsWith(BlockService.IP_KEY_PREFIX)
+                || key.startsWith(BlockService.API_KEY_KEY_PREFIX)
+                || key.startsWith(BlockService.USER_KEY_PREFIX);
+    }
+}
@@ -0,0 +1,317 @@
+package org.example.APIGatewaySvc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 차단 판정 로컬 캐시 (Near-Cache)
+ * BlockCheckFilter가 매 요청마다 Redis를 조회하지 않도록 차단 판정 결과를 노드 메모리에 보관
+ *
+ * 주요 기능:
+ * - 차단 결과뿐 아니라 "차단되지 않음" 결과도 캐싱 (네거티브 캐싱)
+ * - 최대 크기 제한 및 항목별 TTL 적용 (차단 만료 시간을 넘기지 않음)
+ * - Redis Pub/Sub 채널을 통한 전체 게이트웨이 노드 캐시 무효화
+ * - 키별 무효화 세대: Redis 조회 시작 시점의 세대(stamp)를 받아 두고, 조회가 끝나기 전에 무효화가 도착했으면
+ *   결과를 캐싱하지 않음 (무효화 전에 읽은 판정이 무효화 뒤에 저장되어 TTL 동안 남는 것 방지)
+ * - Micrometer를 통한 hit/miss/eviction 메트릭 노출
+ */
+@Component
+public class BlockDecisionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockDecisionCache.class);
+
+    public static final String INVALIDATION_CHANNEL = "gateway:block:invalidate";
+    private static final String CACHE_NAME = "blockDecisions";
+    private static final String MESSAGE_SEPARATOR = "\n";
+    // 무효화 세대 슬롯 수 (키 해시로 공유, 같은 슬롯의 다른 키 무효화는 캐싱을 한 번 건너뛰게 할 뿐 정확성에는 영향 없음)
+    private static final int GENERATION_STRIPES = 4096;
+
+    @Value("${block.cache.max-size:100000}")
+    private int maxSize = 100_000;
+
+    @Value("${block.cache.blocked-ttl:60s}")
+    private Duration blockedTtl = Duration.ofSeconds(60);
+
+    @Value("${block.cache.not-blocked-ttl:10s}")
+    private Duration notBlockedTtl = Duration.ofSeconds(10);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final Map<String, Decision> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean trimming = new AtomicBoolean(false);
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    private Disposable subscription;
+
+    public BlockDecisionCache(ReactiveRedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.hitCounter = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("차단 판정 캐시 적중 횟수")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("차단 판정 캐시 미스 횟수")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("cache.evictions")
+                .tag("cache", CACHE_NAME)
+                .description("크기 제한으로 제거된 차단 판정 캐시 항목 수")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", entries, Map::size)
+                .tag("cache", CACHE_NAME)
+                .description("차단 판정 캐시 항목 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 다른 노드에서 발행한 무효화 메시지 구독
+     * 구독이 끊겼다가 다시 연결되면 그 사이 놓친 메시지가 있을 수 있으므로 캐시 전체를 비움
+     */
+    @PostConstruct
+    public void subscribe() {
+        subscription = redisTemplate.listenToChannel(INVALIDATION_CHANNEL)
+                .doOnSubscribe(s -> clear())
+                .map(ReactiveSubscription.Message::getMessage)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Block invalidation subscription lost, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe(this::evictMessage);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * 캐시 조회
+     * @param key Redis 차단 키 (예: blocked:ip:1.2.3.4)
+     * @return 캐시된 판정 (없거나 만료되었으면 null)
+     */
+    public Decision get(String key) {
+        Decision decision = entries.get(key);
+        if (decision == null) {
+            missCounter.increment();
+            return null;
+        }
+        if (decision.isExpired(System.currentTimeMillis())) {
+            // 만료 항목은 Redis 장애 시 마지막으로 알려진 판정으로 쓰기 위해 덮어쓰거나 크기 정리될 때까지 유지
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return decision;
+    }
+
+    /**
+     * 캐시 TTL과 무관하게 마지막으로 알려진 판정 조회 (Redis 장애 시 LAST_KNOWN 정책용)
+     * 차단 자체의 만료 시간이 지난 차단 판정은 반환하지 않음
+     * @return 마지막 판정 (없으면 null)
+     */
+    public Decision getLastKnown(String key) {
+        Decision decision = entries.get(key);
+        if (decision == null || (decision.isBlocked() && decision.getBlockInfo().getExpiresAt() != null
+                && decision.getBlockInfo().getExpiresAt().toEpochMilli() <= System.currentTimeMillis())) {
+            return null;
+        }
+        return decision;
+    }
+
+    /**
+     * 키의 현재 무효화 세대 (Redis 조회 전에 받아 두고 결과를 캐싱할 때 전달)
+     */
+    public long stamp(String key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * 차단 판정 캐싱 (차단 만료 시간 이후로는 캐싱하지 않음)
+     */
+    public void putBlocked(String key, BlockService.BlockInfo blockInfo) {
+        putBlocked(key, blockInfo, stamp(key));
+    }
+
+    /**
+     * 차단 판정 캐싱 (stamp 이후 무효화가 있었으면 캐싱하지 않음)
+     */
+    public void putBlocked(String key, BlockService.BlockInfo blockInfo, long stamp) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + blockedTtl.toMillis();
+        if (blockInfo.getExpiresAt() != null) {
+            expiresAt = Math.min(expiresAt, blockInfo.getExpiresAt().toEpochMilli());
+        }
+        put(key, new Decision(blockInfo, expiresAt), stamp);
+    }
+
+    /**
+     * "차단되지 않음" 판정 캐싱
+     */
+    public void putNotBlocked(String key) {
+        putNotBlocked(key, stamp(key));
+    }
+
+    /**
+     * "차단되지 않음" 판정 캐싱 (stamp 이후 무효화가 있었으면 캐싱하지 않음)
+     */
+    public void putNotBlocked(String key, long stamp) {
+        put(key, new Decision(null, System.currentTimeMillis() + notBlockedTtl.toMillis()), stamp);
+    }
+
+    /**
+     * 현재 노드의 캐시 항목만 제거 (세대를 먼저 올려 진행 중인 조회 결과가 다시 저장되지 않게 함)
+     */
+    public void evictLocal(String key) {
+        generations.incrementAndGet(stripe(key));
+        entries.remove(key);
+    }
+
+    /**
+     * 현재 노드의 캐시를 즉시 제거하고 다른 모든 노드에 무효화 메시지 발행
+     * 발행 실패는 차단/해제 자체를 실패시키지 않음 (다른 노드는 TTL 만료로 수렴)
+     */
+    public Mono<Void> invalidate(String key) {
+        evictLocal(key);
+        return redisTemplate.convertAndSend(INVALIDATION_CHANNEL, key)
+                .onErrorResume(e -> {
+                    log.warn("Failed to publish block invalidation for {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * 여러 키를 한 번에 무효화 (대량 차단/해제용, 줄바꿈으로 구분한 단일 메시지 발행)
+     */
+    public Mono<Void> invalidateAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Mono.empty();
+        }
+        keys.forEach(this::evictLocal);
+        return redisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join(MESSAGE_SEPARATOR, keys))
+                .onErrorResume(e -> {
+                    log.warn("Failed to publish batched block invalidation ({} keys): {}", keys.size(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    public void clear() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictMessage(String message) {
+        if (message.indexOf('\n') < 0) {
+            evictLocal(message);
+            return;
+        }
+        for (String key : message.split(MESSAGE_SEPARATOR)) {
+            evictLocal(key);
+        }
+    }
+
+    private void put(String key, Decision decision, long stamp) {
+        int stripe = stripe(key);
+        if (generations.get(stripe) != stamp) {
+            return;
+        }
+        entries.put(key, decision);
+        // 확인과 저장 사이에 무효화가 끼어들었으면 방금 저장한 항목을 되돌림
+        if (generations.get(stripe) != stamp) {
+            entries.remove(key, decision);
+            return;
+        }
+        if (entries.size() > maxSize) {
+            trim();
+        }
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * 크기 제한 초과 시 최대 크기의 90%까지 정리: 만료 항목, "차단되지 않음" 항목, 나머지 항목 순
+     * LRU가 아니며 같은 단계 안에서는 ConcurrentHashMap 순회 순서(사실상 임의)로 제거
+     * (접근 순서를 기록하려면 조회마다 쓰기가 필요하므로, TTL이 짧은 캐시에서는 임의 제거로 충분하다고 판단하고
+     *  다시 조회하면 Redis까지 가야 하는 차단 판정을 가능한 한 남김)
+     */
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(decision -> decision.isExpired(now));
+
+            int target = (int) (maxSize * 0.9);
+            evictUntil(target, false);
+            evictUntil(target, true);
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private void evictUntil(int target, boolean includeBlocked) {
+        Iterator<Decision> iterator = entries.values().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            Decision decision = iterator.next();
+            if (includeBlocked || !decision.isBlocked()) {
+                iterator.remove();
+                evictionCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * 캐시된 차단 판정
+     */
+    public static final class Decision {
+        private final BlockService.BlockInfo blockInfo;
+        private final long expiresAtMillis;
+
+        Decision(BlockService.BlockInfo blockInfo, long expiresAtMillis) {
+            this.blockInfo = blockInfo;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public boolean isBlocked() { return blockInfo != null; }
+        public BlockService.BlockInfo getBlockInfo() { return blockInfo; }
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.APIGatewaySvc.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.APIGatewaySvc.util.BlockSnapshotFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 차단 목록 로컬 스냅샷
+ * 새로 기동한 노드가 캐시가 빈 상태로 모든 차단 확인을 Redis로 보내지 않도록,
+ * 주기적으로 차단 목록(ID, CIDR 대역, 만료 시간, 사유)을 메모리 매핑 파일에 기록하고 기동 시 적재
+ *
+ * 기동 시:
+ * - 스냅샷 파일을 읽어 CIDR 트라이와 차단 판정 캐시(차단 판정만)를 채움 (Redis 호출 없음)
+ * - Bloom Filter는 채우지 않음: 스냅샷 이후 추가된 차단(로그인 실패 자동 차단 등)을 "차단되지 않음"으로
+ *   판정하지 않도록, 스냅샷에 없는 식별자는 Bloom Filter 첫 재구성 완료 전까지 Redis로 확인
+ * - 이후 CIDR 재적재가 Redis 기준으로 교체하고,
+ *   캐시에 넣은 차단 판정은 백그라운드에서 MGET으로 확인하여 해제된 항목을 제거
+ * - block.snapshot.max-age보다 오래된 스냅샷은 사용하지 않음
+ * - 기본 경로(java.io.tmpdir)는 컨테이너 재시작 시 사라지므로, 효과를 보려면 block.snapshot.path를
+ *   재기동 후에도 유지되는 볼륨(PersistentVolume, hostPath 등)으로 지정해야 함
+ *
+ * 기록:
+ * - block.snapshot.interval마다 타입별 인덱스(blocked:index:*)를 ZSCAN하고 사유는 MGET으로 일괄 조회
+ */
+@Component
+public class BlockListSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockListSnapshot.class);
+
+    private static final String[] TYPES = {"user", "ip", "key"};
+    private static final int BATCH_SIZE = 1000;
+
+    @Value("${block.snapshot.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${block.snapshot.path:${java.io.tmpdir}/gateway-block-snapshot.bin}")
+    private String path = System.getProperty("java.io.tmpdir") + "/gateway-block-snapshot.bin";
+
+    @Value("${block.snapshot.interval:5m}")
+    private Duration interval = Duration.ofMinutes(5);
+
+    @Value("${block.snapshot.max-age:1h}")
+    private Duration maxAge = Duration.ofHours(1);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final BlockDecisionCache blockDecisionCache;
+    private final CidrBlockList cidrBlockList;
+
+    private Disposable writeTask;
+    private Disposable reconcileTask;
+
+    public BlockListSnapshot(ReactiveRedisTemplate<String, String> redisTemplate, BlockDecisionCache blockDecisionCache,
+                             CidrBlockList cidrBlockList) {
+        this.redisTemplate = redisTemplate;
+        this.blockDecisionCache = blockDecisionCache;
+        this.cidrBlockList = cidrBlockList;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        List<String> cachedKeys = load();
+        if (!cachedKeys.isEmpty()) {
+            reconcileTask = reconcile(cachedKeys).subscribe();
+        }
+        writeTask = Flux.interval(interval, interval, Schedulers.boundedElastic())
+                .concatMap(tick -> write())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writeTask != null) {
+            writeTask.dispose();
+        }
+        if (reconcileTask != null) {
+            reconcileTask.dispose();
+        }
+    }
+
+    /**
+     * 스냅샷 파일 적재
+     * @return 차단 판정 캐시에 넣은 키 목록 (백그라운드 확인 대상)
+     */
+    public List<String> load() {
+        long startTime = System.currentTimeMillis();
+        BlockSnapshotFile.Snapshot snapshot;
+        try {
+            snapshot = BlockSnapshotFile.read(snapshotPath());
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable block snapshot {}: {}", path, e.getMessage());
+            return List.of();
+        }
+        if (snapshot == null) {
+            return List.of();
+        }
+        long age = startTime - snapshot.getCreatedAtMillis();
+        if (age > maxAge.toMillis()) {
+            log.info("Ignoring block snapshot older than {} (age {} s)", maxAge, age / 1000);
+            return List.of();
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<Map.Entry<String, BlockService.BlockInfo>> ranges = new ArrayList<>();
+        for (BlockSnapshotFile.Record record : snapshot.getRecords()) {
+            if (record.isExpired(startTime)) {
+                continue;
+            }
+            Instant expiresAt = record.getExpiresAtMillis() > 0 ? Instant.ofEpochMilli(record.getExpiresAtMillis()) : null;
+            if (record.getKind() == BlockSnapshotFile.KIND_CIDR) {
+                ranges.add(Map.entry(record.getId(), new BlockService.BlockInfo("IP", record.getReason(), expiresAt)));
+                continue;
+            }
+            String type = toType(record.getKind());
+            if (type == null) {
+                continue;
+            }
+            String key = "blocked:" + type + ":" + record.getId();
+            keys.add(key);
+            blockDecisionCache.putBlocked(key, new BlockService.BlockInfo(toBlockType(type), record.getReason(), expiresAt));
+        }
+        cidrBlockList.seed(ranges);
+
+        log.info("Block snapshot loaded: {} ids, {} ranges, age {} s, {} ms",
+                keys.size(), ranges.size(), age / 1000, System.currentTimeMillis() - startTime);
+        return keys;
+    }
+
+    /**
+     * 현재 차단 목록을 스냅샷 파일로 기록
+     * @return 기록한 항목 수 (실패 시 0)
+     */
+    public Mono<Integer> write() {
+        long now = System.currentTimeMillis();
+        Flux<BlockSnapshotFile.Record> ranges = cidrBlockList.list()
+                .map(entry -> new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_CIDR, entry.getKey(),
+                        toMillis(entry.getValue().getExpiresAt()), entry.getValue().getReason()));
+
+        return Flux.fromArray(TYPES)
+                .concatMap(type -> scanType(type, now))
+                .concatWith(ranges)
+                .collectList()
+                .flatMap(records -> Mono.fromCallable(() -> BlockSnapshotFile.write(snapshotPath(), now, records))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .doOnNext(count -> log.debug("Block snapshot written: {} entries", count))
+                .onErrorResume(e -> {
+                    log.warn("Failed to write block snapshot: {}", e.getMessage());
+                    return Mono.just(0);
+                });
+    }
+
+    /**
+     * 타입별 인덱스를 ZSCAN하여 만료되지 않은 차단 항목 조회 (사유는 배치 단위 MGET)
+     */
+    private Flux<BlockSnapshotFile.Record> scanType(String type, long now) {
+        byte kind = toKind(type);
+        String prefix = "blocked:" + type + ":";
+        return redisTemplate.opsForZSet()
+                .scan(BlockService.INDEX_KEY_PREFIX + type, ScanOptions.scanOptions().count(BATCH_SIZE).build())
+                .filter(tuple -> tuple.getScore() == null || tuple.getScore() > now)
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> {
+                    List<String> keys = new ArrayList<>(batch.size());
+                    for (ZSetOperations.TypedTuple<String> tuple : batch) {
+                        keys.add(prefix + tuple.getValue());
+                    }
+                    return redisTemplate.opsForValue().multiGet(keys)
+                            .flatMapIterable(reasons -> {
+                                List<BlockSnapshotFile.Record> records = new ArrayList<>(batch.size());
+                                for (int i = 0; i < batch.size(); i++) {
+                                    String reason = reasons.get(i);
+                                    if (reason == null) {
+                                        continue;
+                                    }
+                                    Double score = batch.get(i).getScore();
+                                    long expiresAt = score == null || score.isInfinite() ? 0 : score.longValue();
+                                    records.add(new BlockSnapshotFile.Record(kind, batch.get(i).getValue(), expiresAt, reason));
+                                }
+                                return records;
+                            });
+                });
+    }
+
+    /**
+     * 스냅샷에서 캐시에 넣은 차단 판정을 Redis와 대조하여, 스냅샷 이후 해제된 항목 제거
+     */
+    private Mono<Void> reconcile(List<String> keys) {
+        return Flux.fromIterable(keys)
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> redisTemplate.opsForValue().multiGet(batch)
+                        .doOnNext(reasons -> {
+                            for (int i = 0; i < batch.size(); i++) {
+                                if (reasons.get(i) == null) {
+                                    blockDecisionCache.evictLocal(batch.get(i));
+                                }
+                            }
+                        }))
+                .onErrorResume(e -> {
+                    // 확인하지 못한 항목은 캐시 TTL 만료로 정리됨
+                    log.warn("Block snapshot reconciliation failed: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Path snapshotPath() {
+        return Paths.get(path);
+    }
+
+    private static long toMillis(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : 0;
+    }
+
+    private static byte toKind(String type) {
+        switch (type) {
+            case "user": return BlockSnapshotFile.KIND_USER;
+            case "ip": return BlockSnapshotFile.KIND_IP;
+            default: return BlockSnapshotFile.KIND_API_KEY;
+        }
+    }
+
+    private static String toType(byte kind) {
+        switch (kind) {
+            case BlockSnapshotFile.KIND_USER: return "user";
+            case BlockSnapshotFile.KIND_IP: return "ip";
+            case BlockSnapshotFile.KIND_API_KEY: return "key";
+            default: return null;
+        }
+    }
+
+    private static String toBlockType(String type) {
+        switch (type) {
+            case "user": return "USER";
+            case "ip": return "IP";
+            default: return "API_KEY";
+        }
+    }
+}
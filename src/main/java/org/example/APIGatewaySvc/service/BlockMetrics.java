@@ -0,0 +1,217 @@
+package org.example.APIGatewaySvc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.example.APIGatewaySvc.util.SpaceSavingTopK;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 차단 경로 계측
+ * 차단 확인이 게이트웨이 지연 시간에 주는 영향과 거부 현황을 확인하기 위한 메트릭
+ *
+ * 메트릭:
+ * - gateway.block.lookup (Timer): 차단 조회 지연 시간
+ *   - identifiers: 조회한 식별자 조합 (ip, ip+key, ip+key+user 등)
+ *   - cache: hit (CIDR 트라이/판정 캐시/Bloom Filter로 로컬 판정), miss (Redis 스크립트 호출)
+ * - gateway.block.rejections (Counter): 차단으로 거부한 요청 수
+ *   - type: IP, API_KEY, USER
+ *   - reason: 차단 사유 (처음 block.metrics.max-reasons개까지, 이후는 other)
+ *
+ * 최근 거부가 많은 식별자는 Space-Saving 상위 K 추적으로 집계하여 actuator 엔드포인트(hotblocks)로 노출
+ * (block.metrics.hot-window 단위로 현재/직전 구간을 교체)
+ */
+@Component
+public class BlockMetrics {
+
+    private static final String[] IDENTIFIER_NAMES = {"ip", "key", "user"};
+    private static final String OTHER_REASON = "other";
+    private static final int MAX_REASON_LENGTH = 64;
+
+    static final int IP = 1;
+    static final int API_KEY = 2;
+    static final int USER = 4;
+
+    @Value("${block.metrics.max-reasons:50}")
+    private int maxReasons = 50;
+
+    @Value("${block.metrics.hot-capacity:100}")
+    private int hotCapacity = 100;
+
+    @Value("${block.metrics.hot-window:5m}")
+    private Duration hotWindow = Duration.ofMinutes(5);
+
+    private final MeterRegistry meterRegistry;
+    private final Timer[] lookupTimers = new Timer[16];
+    private final Map<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+
+    private volatile HotWindow currentHot;
+    private volatile HotWindow previousHot;
+
+    public BlockMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        // 태그 조합이 고정되어 있으므로 미리 등록하여 요청 경로에서 레지스트리 조회를 피함
+        for (int identifiers = 0; identifiers < 8; identifiers++) {
+            lookupTimers[identifiers * 2] = lookupTimer(identifiers, "hit");
+            lookupTimers[identifiers * 2 + 1] = lookupTimer(identifiers, "miss");
+        }
+        this.currentHot = new HotWindow(System.currentTimeMillis(), hotCapacity);
+    }
+
+    @PostConstruct
+    public void init() {
+        currentHot = new HotWindow(System.currentTimeMillis(), hotCapacity);
+        previousHot = null;
+    }
+
+    /**
+     * 차단 조회 지연 시간 기록
+     * @param identifiers 조회한 식별자 비트 조합 (IP | API_KEY | USER)
+     * @param cacheHit Redis 호출 없이 판정했는지 여부
+     * @param startNanos System.nanoTime() 기준 조회 시작 시각
+     */
+    void recordLookup(int identifiers, boolean cacheHit, long startNanos) {
+        lookupTimers[identifiers * 2 + (cacheHit ? 0 : 1)].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 차단으로 거부한 요청 기록
+     * @param type 차단 타입 (IP, API_KEY, USER)
+     * @param id 거부된 식별자 (IP 주소, API 키, 사용자 ID)
+     * @param reason 차단 사유
+     */
+    public void recordRejection(String type, String id, String reason) {
+        if (type == null) {
+            type = "UNKNOWN";
+        }
+        rejectionCounter(type, reason).increment();
+        if (id != null) {
+            hotWindow(System.currentTimeMillis()).topK.add(type + ":" + id);
+        }
+    }
+
+    /**
+     * 최근 거부가 많은 식별자 (API 키는 마스킹)
+     * @param limit 구간별 최대 항목 수
+     */
+    public Map<String, Object> hotIdentifiers(int limit) {
+        long now = System.currentTimeMillis();
+        HotWindow current = hotWindow(now);
+        HotWindow previous = previousHot;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("window", hotWindow.toString());
+        result.put("capacity", hotCapacity);
+        result.put("current", describe(current, limit));
+        result.put("previous", previous != null ? describe(previous, limit) : null);
+        return result;
+    }
+
+    private HotWindow hotWindow(long now) {
+        HotWindow current = currentHot;
+        if (now - current.startedAtMillis < hotWindow.toMillis()) {
+            return current;
+        }
+        synchronized (this) {
+            current = currentHot;
+            if (now - current.startedAtMillis >= hotWindow.toMillis()) {
+                // 한 구간 이상 거부가 없었다면 직전 구간도 비어 있는 것으로 봄
+                previousHot = now - current.startedAtMillis < hotWindow.toMillis() * 2 ? current : null;
+                current = new HotWindow(now, hotCapacity);
+                currentHot = current;
+            }
+            return current;
+        }
+    }
+
+    private Counter rejectionCounter(String type, String reason) {
+        String reasonTag = reason == null || reason.isEmpty() ? "unknown"
+                : reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+        Counter counter = rejectionCounters.get(type + "|" + reasonTag);
+        if (counter != null) {
+            return counter;
+        }
+        // 관리자가 입력하는 자유 형식 사유로 시계열이 무한히 늘지 않도록 고유 사유 수 제한
+        if (rejectionCounters.size() >= maxReasons) {
+            reasonTag = OTHER_REASON;
+        }
+        String tag = reasonTag;
+        return rejectionCounters.computeIfAbsent(type + "|" + tag, k -> Counter.builder("gateway.block.rejections")
+                .tag("type", type).tag("reason", tag)
+                .description("차단으로 거부한 요청 수")
+                .register(meterRegistry));
+    }
+
+    private Timer lookupTimer(int identifiers, String cache) {
+        return Timer.builder("gateway.block.lookup")
+                .tag("identifiers", identifierTag(identifiers)).tag("cache", cache)
+                .description("차단 조회 지연 시간")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofMillis(500))
+                .register(meterRegistry);
+    }
+
+    static String identifierTag(int identifiers) {
+        if (identifiers == 0) {
+            return "none";
+        }
+        StringBuilder tag = new StringBuilder();
+        for (int i = 0; i < IDENTIFIER_NAMES.length; i++) {
+            if ((identifiers & (1 << i)) != 0) {
+                if (tag.length() > 0) {
+                    tag.append('+');
+                }
+                tag.append(IDENTIFIER_NAMES[i]);
+            }
+        }
+        return tag.toString();
+    }
+
+    private static Map<String, Object> describe(HotWindow window, int limit) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (SpaceSavingTopK.Entry<String> entry : window.topK.top(limit)) {
+            String item = entry.getItem();
+            int separator = item.indexOf(':');
+            String type = item.substring(0, separator);
+            String id = item.substring(separator + 1);
+
+            Map<String, Object> described = new LinkedHashMap<>();
+            described.put("type", type);
+            described.put("id", "API_KEY".equals(type) ? maskKey(id) : id);
+            described.put("count", entry.getCount());
+            described.put("error", entry.getError());
+            items.add(described);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", Instant.ofEpochMilli(window.startedAtMillis).toString());
+        result.put("items", items);
+        return result;
+    }
+
+    private static String maskKey(String apiKey) {
+        // 운영자가 어떤 키인지 구분할 수 있도록 앞 4자리만 노출
+        return apiKey.length() > 8 ? apiKey.substring(0, 4) + "***" : "***";
+    }
+
+    private static final class HotWindow {
+        private final long startedAtMillis;
+        private final SpaceSavingTopK<String> topK;
+
+        HotWindow(long startedAtMillis, int capacity) {
+            this.startedAtMillis = startedAtMillis;
+            this.topK = new SpaceSavingTopK<>(capacity);
+        }
+    }
+}
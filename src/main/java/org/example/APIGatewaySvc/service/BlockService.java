@@ -1,23 +1,77 @@
 package org.example.APIGatewaySvc.service;
 
+import org.example.APIGatewaySvc.util.IpPrefixTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 차단 관리 서비스
  * Redis 기반 차단 기능의 비즈니스 로직을 처리
+ * 차단 조회 결과는 BlockDecisionCache에 캐싱되며, 차단/해제 시 모든 노드의 캐시를 무효화
+ *
+ * 조회 경로:
+ * - IP는 먼저 CIDR 대역 차단 목록(노드 메모리 radix 트라이)에서 최장 프리픽스 일치 검색
+ * - 로컬 캐시 확인 후, Bloom Filter가 "확실히 없음"으로 판정한 키는 제외
+ * - 남은 키만 block_lookup.lua 스크립트(EVALSHA)로 한 번에 조회
+ * - BlockCheckFilter, InternalBlockController 모두 동일한 스크립트 기반 조회 경로 사용
+ * - 요청 경로의 스크립트 호출은 RedisHealthTracker로 짧은 기한과 서킷 브레이커를 적용
+ * - 조회 지연 시간은 식별자 조합과 로컬 판정/Redis 호출 여부별로 BlockMetrics에 기록
+ *
+ * 목록 인덱스:
+ * - 차단/해제 시 타입별 정렬 집합 blocked:index:{type} (점수 = 만료 epoch millis, 영구차단은 +inf)를 함께 갱신
+ * - 목록 조회는 KEYS 대신 인덱스를 ZSCAN 커서로 페이지 단위 조회하고, 만료 항목은 조회 시 인덱스에서 제거
  */
 @Service
 public class BlockService {
     
+    public static final String USER_KEY_PREFIX = "blocked:user:";
+    public static final String IP_KEY_PREFIX = "blocked:ip:";
+    public static final String API_KEY_KEY_PREFIX = "blocked:key:";
+    public static final String INDEX_KEY_PREFIX = "blocked:index:";
+    
+    private static final Logger log = LoggerFactory.getLogger(BlockService.class);
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Object>> BLOCK_LOOKUP_SCRIPT =
+        (RedisScript) RedisScript.of(new ClassPathResource("scripts/block_lookup.lua"), List.class);
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Object>> BLOCK_INDEX_PAGE_SCRIPT =
+        (RedisScript) RedisScript.of(new ClassPathResource("scripts/block_index_page.lua"), List.class);
+    
     private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final BlockDecisionCache blockDecisionCache;
+    private final BlockBloomFilter blockBloomFilter;
+    private final CidrBlockList cidrBlockList;
+    private final RedisHealthTracker redisHealthTracker;
+    private final BlockMetrics blockMetrics;
     
-    public BlockService(ReactiveRedisTemplate<String, String> redisTemplate) {
+    public BlockService(ReactiveRedisTemplate<String, String> redisTemplate, BlockDecisionCache blockDecisionCache,
+                        BlockBloomFilter blockBloomFilter, CidrBlockList cidrBlockList,
+                        RedisHealthTracker redisHealthTracker, BlockMetrics blockMetrics) {
         this.redisTemplate = redisTemplate;
+        this.blockDecisionCache = blockDecisionCache;
+        this.blockBloomFilter = blockBloomFilter;
+        this.cidrBlockList = cidrBlockList;
+        this.redisHealthTracker = redisHealthTracker;
+        this.blockMetrics = blockMetrics;
     }
     
     /**
@@ -27,31 +81,17 @@ public class BlockService {
      * @param reason 차단 사유
      */
     public Mono<Void> blockUser(String userId, Duration duration, String reason) {
-        String key = "blocked:user:" + userId;
-        String value = reason != null ? reason : "차단됨";
-        
-        if (duration != null) {
-            return redisTemplate.opsForValue().set(key, value, duration).then();
-        } else {
-            return redisTemplate.opsForValue().set(key, value).then();
-        }
+        return setBlock("user", userId, reasonOrDefault(reason), duration).then();
     }
     
     /**
      * IP 차단
-     * @param ipAddress IP 주소
+     * @param ipAddress IP 주소 또는 CIDR 대역 (예: 10.0.0.0/8)
      * @param duration 차단 기간 (null이면 영구차단)
      * @param reason 차단 사유
      */
     public Mono<Void> blockIp(String ipAddress, Duration duration, String reason) {
-        String key = "blocked:ip:" + ipAddress;
-        String value = reason != null ? reason : "차단됨";
-        
-        if (duration != null) {
-            return redisTemplate.opsForValue().set(key, value, duration).then();
-        } else {
-            return redisTemplate.opsForValue().set(key, value).then();
-        }
+        return block("ip", ipAddress, duration, reasonOrDefault(reason)).then();
     }
     
     /**
@@ -61,14 +101,22 @@ public class BlockService {
      * @param reason 차단 사유
      */
     public Mono<Void> blockApiKey(String apiKey, Duration duration, String reason) {
-        String key = "blocked:key:" + apiKey;
-        String value = reason != null ? reason : "차단됨";
-        
-        if (duration != null) {
-            return redisTemplate.opsForValue().set(key, value, duration).then();
-        } else {
-            return redisTemplate.opsForValue().set(key, value).then();
+        return setBlock("key", apiKey, reasonOrDefault(reason), duration).then();
+    }
+    
+    /**
+     * 타입별 차단 (관리 API용)
+     * @param type 차단 타입 (user, ip, key)
+     * @param id 차단 대상 ID
+     * @param duration 차단 기간 (null이면 영구차단)
+     * @param reason 차단 사유
+     * @return Redis 저장 성공 여부
+     */
+    public Mono<Boolean> block(String type, String id, Duration duration, String reason) {
+        if (isCidr(type, id)) {
+            return parseCidr(id).flatMap(cidr -> cidrBlockList.block(cidr, duration, reason));
         }
+        return setBlock(type, id, reason, duration);
     }
     
     /**
@@ -76,17 +124,15 @@ public class BlockService {
      * @param userId 사용자 ID
      */
     public Mono<Boolean> unblockUser(String userId) {
-        String key = "blocked:user:" + userId;
-        return redisTemplate.delete(key).map(deleted -> deleted > 0);
+        return deleteBlock("user", userId);
     }
     
     /**
      * IP 차단 해제
-     * @param ipAddress IP 주소
+     * @param ipAddress IP 주소 또는 CIDR 대역
      */
     public Mono<Boolean> unblockIp(String ipAddress) {
-        String key = "blocked:ip:" + ipAddress;
-        return redisTemplate.delete(key).map(deleted -> deleted > 0);
+        return unblock("ip", ipAddress);
     }
     
     /**
@@ -94,8 +140,20 @@ public class BlockService {
      * @param apiKey API 키
      */
     public Mono<Boolean> unblockApiKey(String apiKey) {
-        String key = "blocked:key:" + apiKey;
-        return redisTemplate.delete(key).map(deleted -> deleted > 0);
+        return deleteBlock("key", apiKey);
+    }
+    
+    /**
+     * 타입별 차단 해제 (관리 API용)
+     * @param type 차단 타입 (user, ip, key)
+     * @param id 해제 대상 ID
+     * @return 실제로 삭제된 차단이 있었는지 여부
+     */
+    public Mono<Boolean> unblock(String type, String id) {
+        if (isCidr(type, id)) {
+            return parseCidr(id).flatMap(cidrBlockList::unblock);
+        }
+        return deleteBlock(type, id);
     }
     
     /**
@@ -104,8 +162,7 @@ public class BlockService {
      * @return 차단 정보 (차단되지 않으면 null)
      */
     public Mono<BlockInfo> checkUserBlock(String userId) {
-        String key = "blocked:user:" + userId;
-        return checkBlock(key, "USER");
+        return findFirstBlock(null, null, userId);
     }
     
     /**
@@ -114,8 +171,7 @@ public class BlockService {
      * @return 차단 정보 (차단되지 않으면 null)
      */
     public Mono<BlockInfo> checkIpBlock(String ipAddress) {
-        String key = "blocked:ip:" + ipAddress;
-        return checkBlock(key, "IP");
+        return findFirstBlock(ipAddress, null, null);
     }
     
     /**
@@ -124,33 +180,493 @@ public class BlockService {
      * @return 차단 정보 (차단되지 않으면 null)
      */
     public Mono<BlockInfo> checkApiKeyBlock(String apiKey) {
-        String key = "blocked:key:" + apiKey;
-        return checkBlock(key, "API_KEY");
+        return findFirstBlock(null, apiKey, null);
     }
     
-    private Mono<BlockInfo> checkBlock(String key, String type) {
-        return redisTemplate.hasKey(key)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.empty();
+    /**
+     * IP → API 키 → 사용자 순으로 첫 번째 차단 정보 조회
+     * 로컬 캐시로 판정할 수 없는 경우에만 Redis 스크립트를 한 번 실행
+     * @param ipAddress IP 주소 (null 가능)
+     * @param apiKey API 키 (null 가능)
+     * @param userId 사용자 ID (null 가능)
+     * @return 차단 정보 (차단되지 않으면 empty, Redis 호출 기한 초과 또는 서킷 개방 시 error)
+     */
+    public Mono<BlockInfo> findFirstBlock(String ipAddress, String apiKey, String userId) {
+        long startNanos = System.nanoTime();
+        int identifiers = identifierMask(ipAddress, apiKey, userId);
+        
+        // CIDR 대역 차단은 노드 메모리에서 바로 판정
+        if (ipAddress != null) {
+            BlockInfo rangeBlock = cidrBlockList.match(ipAddress);
+            if (rangeBlock != null) {
+                blockMetrics.recordLookup(identifiers, true, startNanos);
+                return Mono.just(rangeBlock);
+            }
+        }
+        
+        List<BlockTarget> targets = new ArrayList<>(3);
+        addTarget(targets, IP_KEY_PREFIX, ipAddress, "IP");
+        addTarget(targets, API_KEY_KEY_PREFIX, apiKey, "API_KEY");
+        addTarget(targets, USER_KEY_PREFIX, userId, "USER");
+        
+        // 로컬 캐시 우선 조회 (차단되지 않음 판정도 캐싱됨)
+        List<BlockTarget> uncached = new ArrayList<>(targets.size());
+        for (BlockTarget target : targets) {
+            BlockDecisionCache.Decision cached = blockDecisionCache.get(target.key);
+            if (cached == null) {
+                // Bloom Filter 음성 판정은 확실히 차단되지 않음을 의미하므로 Redis 조회 생략
+                if (blockBloomFilter.mightBeBlocked(target.key)) {
+                    // 조회 중 도착한 무효화로 지워진 판정이 다시 캐싱되지 않도록 조회 전 세대 기록
+                    target.stamp = blockDecisionCache.stamp(target.key);
+                    uncached.add(target);
+                }
+            } else if (cached.isBlocked()) {
+                blockMetrics.recordLookup(identifiers, true, startNanos);
+                return Mono.just(cached.getBlockInfo());
+            }
+        }
+        if (uncached.isEmpty()) {
+            blockMetrics.recordLookup(identifiers, true, startNanos);
+            return Mono.empty();
+        }
+        
+        // Redis 경로는 구독 시점부터 완료(또는 기한 초과)까지 측정
+        return Mono.defer(() -> {
+                long redisStartNanos = System.nanoTime();
+                return redisHealthTracker.protect(lookup(uncached))
+                    .doFinally(signal -> blockMetrics.recordLookup(identifiers, false, redisStartNanos));
+            })
+            .doOnNext(match -> {
+                // 매칭된 키 이전의 키는 스크립트가 확인했으므로 "차단되지 않음"으로 캐싱
+                for (int i = 0; i < match.index; i++) {
+                    BlockTarget target = uncached.get(i);
+                    blockDecisionCache.putNotBlocked(target.key, target.stamp);
+                }
+                BlockTarget matched = uncached.get(match.index);
+                blockDecisionCache.putBlocked(matched.key, match.blockInfo, matched.stamp);
+            })
+            .map(match -> match.blockInfo)
+            .switchIfEmpty(Mono.fromRunnable(() -> uncached.forEach(
+                target -> blockDecisionCache.putNotBlocked(target.key, target.stamp))));
+    }
+    
+    /**
+     * Redis 없이 노드 로컬 상태만으로 차단 판정 (Redis 장애 시 LAST_KNOWN 정책용)
+     * CIDR 대역, 캐시 TTL이 지난 판정을 포함한 마지막 캐시 판정 순으로 확인하고, 알려진 차단이 없으면 empty
+     */
+    public Mono<BlockInfo> findLastKnownBlock(String ipAddress, String apiKey, String userId) {
+        if (ipAddress != null) {
+            BlockInfo rangeBlock = cidrBlockList.match(ipAddress);
+            if (rangeBlock != null) {
+                return Mono.just(rangeBlock);
+            }
+        }
+        
+        List<BlockTarget> targets = new ArrayList<>(3);
+        addTarget(targets, IP_KEY_PREFIX, ipAddress, "IP");
+        addTarget(targets, API_KEY_KEY_PREFIX, apiKey, "API_KEY");
+        addTarget(targets, USER_KEY_PREFIX, userId, "USER");
+        for (BlockTarget target : targets) {
+            BlockDecisionCache.Decision decision = blockDecisionCache.getLastKnown(target.key);
+            if (decision != null && decision.isBlocked()) {
+                return Mono.just(decision.getBlockInfo());
+            }
+        }
+        return Mono.empty();
+    }
+    
+    /**
+     * Redis에서 직접 차단 상태 조회 (로컬 캐시 미사용, 관리 API용)
+     * @param type 차단 타입 (user, ip, key)
+     * @param id 조회 대상 ID
+     * @return 차단 정보 (차단되지 않으면 empty)
+     */
+    public Mono<BlockInfo> lookupBlock(String type, String id) {
+        if (isCidr(type, id)) {
+            return parseCidr(id).flatMap(cidrBlockList::lookup);
+        }
+        BlockTarget target = new BlockTarget(toKey(type, id), toBlockType(type));
+        return lookup(List.of(target)).map(match -> match.blockInfo);
+    }
+    
+    /**
+     * CIDR 대역 차단 목록 조회 (만료 항목 제외)
+     * @return CIDR → 차단 정보
+     */
+    public Flux<Map.Entry<String, BlockInfo>> listRangeBlocks() {
+        return cidrBlockList.list();
+    }
+    
+    /**
+     * 타입별 차단 목록 페이지 조회 (관리 API용)
+     * 인덱스 ZSCAN 한 번과 MGET 한 번으로 처리하므로 전체 키 공간을 순회하지 않음
+     * @param type 차단 타입 (user, ip, key)
+     * @param cursor 이전 페이지의 nextCursor (첫 페이지는 "0")
+     * @param count 페이지 크기 힌트 (ZSCAN COUNT, 실제 결과 수는 다를 수 있음)
+     * @return 차단 목록 페이지 (CIDR 대역 차단은 포함하지 않음)
+     */
+    public Mono<BlockPage> listBlocks(String type, String cursor, int count) {
+        String indexKey = INDEX_KEY_PREFIX + type;
+        List<String> args = List.of(cursor, String.valueOf(count), String.valueOf(System.currentTimeMillis()));
+        
+        return redisTemplate.execute(BLOCK_INDEX_PAGE_SCRIPT, List.of(indexKey), args)
+            .reduce(new ArrayList<Object>(), (result, part) -> {
+                result.addAll(part);
+                return result;
+            })
+            .flatMap(result -> {
+                String nextCursor = String.valueOf(result.get(0));
+                List<String> ids = new ArrayList<>();
+                List<Long> expiries = new ArrayList<>();
+                for (int i = 1; i + 1 < result.size(); i += 2) {
+                    ids.add(String.valueOf(result.get(i)));
+                    expiries.add((long) Double.parseDouble(String.valueOf(result.get(i + 1))));
+                }
+                if (ids.isEmpty()) {
+                    return Mono.just(new BlockPage(List.of(), nextCursor));
                 }
                 
-                return redisTemplate.opsForValue().get(key)
-                    .zipWith(redisTemplate.getExpire(key))
-                    .map(tuple -> {
-                        String reason = tuple.getT1();
-                        Duration ttl = tuple.getT2();
-                        
-                        Instant expiresAt = null;
-                        if (!ttl.isNegative() && !ttl.isZero()) {
-                            expiresAt = Instant.now().plus(ttl);
+                List<String> keys = new ArrayList<>(ids.size());
+                for (String id : ids) {
+                    keys.add(toKey(type, id));
+                }
+                return redisTemplate.opsForValue().multiGet(keys)
+                    .flatMap(reasons -> {
+                        List<Map.Entry<String, BlockInfo>> entries = new ArrayList<>(ids.size());
+                        List<Object> stale = new ArrayList<>();
+                        String blockType = toBlockType(type);
+                        for (int i = 0; i < ids.size(); i++) {
+                            String reason = reasons.get(i);
+                            if (reason == null) {
+                                // 키는 만료/삭제되었지만 인덱스에 남은 항목
+                                stale.add(ids.get(i));
+                                continue;
+                            }
+                            long expiresAtMillis = expiries.get(i);
+                            Instant expiresAt = expiresAtMillis > 0 ? Instant.ofEpochMilli(expiresAtMillis) : null;
+                            entries.add(Map.entry(ids.get(i), new BlockInfo(blockType, reason, expiresAt)));
                         }
-                        
-                        return new BlockInfo(type, reason, expiresAt);
+                        BlockPage page = new BlockPage(entries, nextCursor);
+                        return stale.isEmpty()
+                            ? Mono.just(page)
+                            : redisTemplate.opsForZSet().remove(indexKey, stale.toArray()).thenReturn(page);
                     });
             });
     }
     
+    /**
+     * 기존 차단 키로 타입별 인덱스 재구성 (인덱스 도입 이전에 생성된 차단 이관용)
+     * SCAN으로 키를 순회하며 남은 TTL 기준으로 인덱스에 추가
+     * @param type 차단 타입 (user, ip, key)
+     * @return 인덱스에 추가한 키 수
+     */
+    public Mono<Long> rebuildIndex(String type) {
+        String prefix = "blocked:" + type + ":";
+        return redisTemplate.scan(ScanOptions.scanOptions().match(prefix + "*").count(1000).build())
+            .flatMap(key -> redisTemplate.getExpire(key)
+                .flatMap(ttl -> redisTemplate.opsForZSet().add(INDEX_KEY_PREFIX + type, key.substring(prefix.length()),
+                    toIndexScore(!ttl.isNegative() && !ttl.isZero() ? ttl : null))), 64)
+            .count();
+    }
+    
+    /**
+     * 대량 차단/해제 (관리 API용)
+     * 배치 내 명령은 응답을 기다리지 않고 연속 전송되어 Lettuce 공유 연결에서 파이프라이닝되며,
+     * 배치 처리 후 로컬 캐시 무효화, Bloom Filter, CIDR 변경 알림을 각각 한 번씩만 발행
+     * @param operations 검증된 작업 목록
+     * @return 작업별 결과 (입력 순서 유지)
+     */
+    public Mono<List<BulkResult>> applyBulk(List<BulkOperation> operations) {
+        if (operations.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        
+        return Flux.fromIterable(operations)
+            .flatMapSequential(operation -> applyWithoutNotify(operation)
+                .map(success -> success
+                    ? BulkResult.SUCCESS
+                    : new BulkResult(false, operation.block ? "Failed to block" : "Block not found"))
+                .onErrorResume(e -> Mono.just(new BulkResult(false, e.getMessage()))),
+                operations.size())
+            .collectList()
+            .flatMap(results -> {
+                List<String> changedKeys = new ArrayList<>();
+                List<String> addedKeys = new ArrayList<>();
+                List<String> removedKeys = new ArrayList<>();
+                Map<String, Set<ZSetOperations.TypedTuple<String>>> indexAdds = new HashMap<>();
+                Map<String, List<Object>> indexRemoves = new HashMap<>();
+                List<String> changedRanges = new ArrayList<>();
+                for (int i = 0; i < operations.size(); i++) {
+                    BulkOperation operation = operations.get(i);
+                    if (!results.get(i).success) {
+                        continue;
+                    }
+                    if (isCidr(operation.type, operation.id)) {
+                        changedRanges.add(IpPrefixTrie.Cidr.parse(operation.id).toString());
+                        continue;
+                    }
+                    String key = toKey(operation.type, operation.id);
+                    changedKeys.add(key);
+                    String indexKey = INDEX_KEY_PREFIX + operation.type;
+                    if (operation.block) {
+                        addedKeys.add(key);
+                        indexAdds.computeIfAbsent(indexKey, k -> new HashSet<>())
+                            .add(ZSetOperations.TypedTuple.of(operation.id, toIndexScore(operation.duration)));
+                    } else {
+                        removedKeys.add(key);
+                        indexRemoves.computeIfAbsent(indexKey, k -> new ArrayList<>()).add(operation.id);
+                    }
+                }
+                
+                // 인덱스는 타입별로 ZADD/ZREM 한 번씩만 실행
+                Flux<Long> indexUpdates = Flux.merge(
+                    Flux.fromIterable(indexAdds.entrySet())
+                        .flatMap(entry -> redisTemplate.opsForZSet().addAll(entry.getKey(), entry.getValue())),
+                    Flux.fromIterable(indexRemoves.entrySet())
+                        .flatMap(entry -> redisTemplate.opsForZSet().remove(entry.getKey(), entry.getValue().toArray())));
+                
+                return indexUpdates
+                    .onErrorResume(e -> {
+                        log.warn("Failed to update block index for bulk batch: {}", e.getMessage());
+                        return Mono.empty();
+                    })
+                    .then(blockBloomFilter.changedAll(addedKeys, removedKeys))
+                    .then(blockDecisionCache.invalidateAll(changedKeys))
+                    .then(cidrBlockList.publishChange(changedRanges))
+                    .thenReturn(results);
+            });
+    }
+    
+    private Mono<Boolean> applyWithoutNotify(BulkOperation operation) {
+        if (isCidr(operation.type, operation.id)) {
+            return parseCidr(operation.id).flatMap(cidr -> operation.block
+                ? cidrBlockList.store(cidr, operation.duration, operation.reason)
+                : cidrBlockList.remove(cidr));
+        }
+        String key = toKey(operation.type, operation.id);
+        if (!operation.block) {
+            return redisTemplate.delete(key).map(deleted -> deleted > 0);
+        }
+        return operation.duration != null
+            ? redisTemplate.opsForValue().set(key, operation.reason, operation.duration)
+            : redisTemplate.opsForValue().set(key, operation.reason);
+    }
+    
+    private Mono<Boolean> setBlock(String type, String id, String value, Duration duration) {
+        String key = toKey(type, id);
+        Mono<Boolean> setResult = duration != null
+            ? redisTemplate.opsForValue().set(key, value, duration)
+            : redisTemplate.opsForValue().set(key, value);
+        return setResult.flatMap(success -> success
+            ? updateIndex(redisTemplate.opsForZSet().add(INDEX_KEY_PREFIX + type, id, toIndexScore(duration)))
+                .then(blockWritten(key))
+                .thenReturn(true)
+            : Mono.just(false));
+    }
+    
+    /**
+     * Redis에 이미 기록된 차단(키와 인덱스)을 Bloom Filter와 모든 노드의 판정 캐시에 반영
+     * 로그인 실패 스크립트처럼 차단 키를 직접 기록하는 경로에서 사용
+     * @param key Redis 차단 키 (예: blocked:user:alice)
+     */
+    Mono<Void> blockWritten(String key) {
+        return blockBloomFilter.added(key).then(blockDecisionCache.invalidate(key));
+    }
+    
+    private Mono<Boolean> deleteBlock(String type, String id) {
+        String key = toKey(type, id);
+        // Bloom Filter 카운터는 실제로 존재하던 키에 대해서만 감소
+        return redisTemplate.delete(key)
+            .flatMap(deleted -> updateIndex(redisTemplate.opsForZSet().remove(INDEX_KEY_PREFIX + type, id))
+                .then(deleted > 0 ? blockBloomFilter.removed(key) : Mono.<Void>empty())
+                .then(blockDecisionCache.invalidate(key))
+                .thenReturn(deleted > 0));
+    }
+    
+    /**
+     * 인덱스 갱신 실패는 차단/해제 자체를 실패시키지 않음 (목록 조회 시 정리되거나 rebuildIndex로 복구)
+     */
+    private Mono<Void> updateIndex(Mono<?> update) {
+        return update
+            .onErrorResume(e -> {
+                log.warn("Failed to update block index: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+    
+    private static double toIndexScore(Duration duration) {
+        return duration != null
+            ? System.currentTimeMillis() + duration.toMillis()
+            : Double.POSITIVE_INFINITY;
+    }
+    
+    /**
+     * block_lookup.lua 실행 (EVALSHA, 스크립트 캐시 미스 시 EVAL로 자동 재시도)
+     */
+    private Mono<Match> lookup(List<BlockTarget> targets) {
+        List<String> keys = new ArrayList<>(targets.size());
+        for (BlockTarget target : targets) {
+            keys.add(target.key);
+        }
+        
+        return redisTemplate.execute(BLOCK_LOOKUP_SCRIPT, keys, List.of())
+            .reduce(new ArrayList<Object>(), (result, part) -> {
+                result.addAll(part);
+                return result;
+            })
+            .flatMap(result -> {
+                if (result.size() < 3) {
+                    return Mono.empty();
+                }
+                int index = ((Number) result.get(0)).intValue() - 1;
+                String reason = String.valueOf(result.get(1));
+                long ttlMillis = ((Number) result.get(2)).longValue();
+                
+                Instant expiresAt = ttlMillis > 0 ? Instant.now().plusMillis(ttlMillis) : null;
+                return Mono.just(new Match(index, new BlockInfo(targets.get(index).type, reason, expiresAt)));
+            });
+    }
+    
+    private static int identifierMask(String ipAddress, String apiKey, String userId) {
+        int identifiers = 0;
+        if (ipAddress != null && !ipAddress.isEmpty()) {
+            identifiers |= BlockMetrics.IP;
+        }
+        if (apiKey != null && !apiKey.isEmpty()) {
+            identifiers |= BlockMetrics.API_KEY;
+        }
+        if (userId != null && !userId.isEmpty()) {
+            identifiers |= BlockMetrics.USER;
+        }
+        return identifiers;
+    }
+    
+    private static void addTarget(List<BlockTarget> targets, String prefix, String id, String type) {
+        if (id != null && !id.isEmpty()) {
+            targets.add(new BlockTarget(prefix + id, type));
+        }
+    }
+    
+    /**
+     * IP 타입이고 "/"가 포함된 ID는 CIDR 대역 차단으로 처리
+     */
+    public static boolean isCidr(String type, String id) {
+        return "ip".equals(type) && id != null && id.indexOf('/') >= 0;
+    }
+    
+    private static Mono<IpPrefixTrie.Cidr> parseCidr(String id) {
+        IpPrefixTrie.Cidr cidr = IpPrefixTrie.Cidr.parse(id);
+        return cidr != null
+            ? Mono.just(cidr)
+            : Mono.error(new IllegalArgumentException("Invalid CIDR: " + id));
+    }
+    
+    private static String toKey(String type, String id) {
+        return "blocked:" + type + ":" + id;
+    }
+    
+    private static String toBlockType(String type) {
+        switch (type) {
+            case "user": return "USER";
+            case "ip": return "IP";
+            case "key": return "API_KEY";
+            default: return type.toUpperCase();
+        }
+    }
+    
+    private static String reasonOrDefault(String reason) {
+        return reason != null ? reason : "차단됨";
+    }
+    
+    private static final class BlockTarget {
+        private final String key;
+        private final String type;
+        private long stamp;
+        
+        BlockTarget(String key, String type) {
+            this.key = key;
+            this.type = type;
+        }
+    }
+    
+    private static final class Match {
+        private final int index;
+        private final BlockInfo blockInfo;
+        
+        Match(int index, BlockInfo blockInfo) {
+            this.index = index;
+            this.blockInfo = blockInfo;
+        }
+    }
+    
+    /**
+     * 차단 목록 페이지
+     */
+    public static final class BlockPage {
+        private final List<Map.Entry<String, BlockInfo>> entries;
+        private final String nextCursor;
+        
+        public BlockPage(List<Map.Entry<String, BlockInfo>> entries, String nextCursor) {
+            this.entries = entries;
+            this.nextCursor = nextCursor;
+        }
+        
+        public List<Map.Entry<String, BlockInfo>> getEntries() { return entries; }
+        
+        /**
+         * 다음 페이지 커서 ("0"이면 마지막 페이지)
+         */
+        public String getNextCursor() { return nextCursor; }
+        
+        public boolean isLastPage() { return "0".equals(nextCursor); }
+    }
+    
+    /**
+     * 대량 처리 작업 단위
+     */
+    public static final class BulkOperation {
+        private final boolean block;
+        private final String type;
+        private final String id;
+        private final Duration duration;
+        private final String reason;
+        
+        private BulkOperation(boolean block, String type, String id, Duration duration, String reason) {
+            this.block = block;
+            this.type = type;
+            this.id = id;
+            this.duration = duration;
+            this.reason = reason;
+        }
+        
+        public static BulkOperation block(String type, String id, Duration duration, String reason) {
+            return new BulkOperation(true, type, id, duration, reason);
+        }
+        
+        public static BulkOperation unblock(String type, String id) {
+            return new BulkOperation(false, type, id, null, null);
+        }
+    }
+    
+    /**
+     * 대량 처리 작업 결과
+     */
+    public static final class BulkResult {
+        private static final BulkResult SUCCESS = new BulkResult(true, null);
+        
+        private final boolean success;
+        private final String error;
+        
+        private BulkResult(boolean success, String error) {
+            this.success = success;
+            this.error = error;
+        }
+        
+        public boolean isSuccess() { return success; }
+        public String getError() { return error; }
+    }
+    
     /**
      * 차단 정보를 담는 클래스
      */
@@ -170,4 +686,4 @@ public class BlockService {
         public Instant getExpiresAt() { return expiresAt; }
         public boolean isPermanent() { return expiresAt == null; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,352 @@
+package org.example.APIGatewaySvc.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.APIGatewaySvc.util.IpPrefixTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CIDR 대역 차단 목록
+ * 대역 단위 차단(예: 10.0.0.0/8, 2001:db8::/32)을 Redis 해시 하나에 저장하고,
+ * 각 노드는 이를 radix 트라이로 적재하여 요청마다 I/O 없이 최장 프리픽스 일치 검색
+ *
+ * 저장 형식:
+ * - Redis 해시 blocked:cidr, 필드 = 정규화된 CIDR, 값 = "{만료 epoch millis, 영구차단은 0}|{차단 사유}"
+ * - 변경 시 gateway:block:cidr 채널로 바뀐 CIDR 목록(줄바꿈 구분)을 발행하면, 각 노드는 해당 필드만 HMGET으로 읽어
+ *   노드 로컬 목록에 반영한 뒤 메모리에서 트라이를 다시 구성 (해시 전체 적재는 구독 (재)연결 시에만)
+ * - 만료된 항목은 조회 시 무시하고, 적재 중 발견하면 cidr_expire.lua로 Redis에서 제거
+ *   (저장된 만료 시각을 다시 확인하므로 다른 노드가 그 사이 다시 차단한 대역은 지우지 않음)
+ * - 기동 직후 첫 적재 전에는 로컬 스냅샷(BlockListSnapshot)의 대역 목록 사용
+ */
+@Component
+public class CidrBlockList {
+
+    private static final Logger log = LoggerFactory.getLogger(CidrBlockList.class);
+
+    public static final String CIDR_KEY = "blocked:cidr";
+    public static final String CHANGE_CHANNEL = "gateway:block:cidr";
+    private static final String VALUE_SEPARATOR = "|";
+    private static final String MESSAGE_SEPARATOR = "\n";
+
+    private static final RedisScript<Long> EXPIRE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/cidr_expire.lua"), Long.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+
+    // 노드 로컬 대역 목록 (CIDR → 차단 정보, this로 동기화), 바뀔 때마다 트라이를 새로 구성하여 교체
+    private final Map<String, Entry> ranges = new HashMap<>();
+    private volatile IpPrefixTrie<Entry> trie = new IpPrefixTrie<>();
+    private boolean loaded = false;
+    private Disposable subscription;
+
+    public CidrBlockList(ReactiveRedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 변경 알림 구독 (구독이 (재)연결될 때마다 전체 적재)
+     */
+    @PostConstruct
+    public void subscribe() {
+        subscription = redisTemplate.listenToChannel(CHANGE_CHANNEL)
+                .doOnSubscribe(s -> reload().subscribe())
+                .map(ReactiveSubscription.Message::getMessage)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("CIDR block subscription lost, retrying: {}",
+                                signal.failure().getMessage())))
+                .concatMap(this::applyChange)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * IP 주소가 속한 가장 구체적인 차단 대역 조회 (Redis 호출 없음)
+     * @return 차단 정보 (일치하는 대역이 없거나 만료되었으면 null)
+     */
+    public BlockService.BlockInfo match(String ipAddress) {
+        IpPrefixTrie<Entry> current = trie;
+        if (current.isEmpty()) {
+            return null;
+        }
+        Entry entry = current.longestMatch(ipAddress);
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return entry.toBlockInfo();
+    }
+
+    /**
+     * 대역 차단
+     * @param cidr 정규화된 CIDR
+     * @param duration 차단 기간 (null이면 영구차단)
+     * @param reason 차단 사유
+     */
+    public Mono<Boolean> block(IpPrefixTrie.Cidr cidr, Duration duration, String reason) {
+        return store(cidr, duration, reason)
+                .flatMap(success -> publishChange(List.of(cidr.toString())).thenReturn(true));
+    }
+
+    /**
+     * Redis 해시에만 저장 (변경 알림 없음, 대량 처리용)
+     */
+    Mono<Boolean> store(IpPrefixTrie.Cidr cidr, Duration duration, String reason) {
+        long expiresAt = duration != null ? System.currentTimeMillis() + duration.toMillis() : 0;
+        // HSET은 기존 필드 갱신 시 false를 반환하므로 결과와 무관하게 성공으로 처리
+        return redisTemplate.opsForHash().put(CIDR_KEY, cidr.toString(), expiresAt + VALUE_SEPARATOR + reason)
+                .thenReturn(true);
+    }
+
+    /**
+     * 대역 차단 해제
+     * @return 실제로 삭제된 항목이 있었는지 여부
+     */
+    public Mono<Boolean> unblock(IpPrefixTrie.Cidr cidr) {
+        return remove(cidr)
+                .flatMap(removed -> removed
+                        ? publishChange(List.of(cidr.toString())).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    /**
+     * Redis 해시에서만 삭제 (변경 알림 없음, 대량 처리용)
+     */
+    Mono<Boolean> remove(IpPrefixTrie.Cidr cidr) {
+        return redisTemplate.opsForHash().remove(CIDR_KEY, cidr.toString())
+                .map(removed -> removed > 0);
+    }
+
+    /**
+     * Redis에서 대역 차단 정보 직접 조회 (관리 API용, 정확히 같은 CIDR만)
+     */
+    public Mono<BlockService.BlockInfo> lookup(IpPrefixTrie.Cidr cidr) {
+        return redisTemplate.<String, String>opsForHash().get(CIDR_KEY, cidr.toString())
+                .mapNotNull(Entry::parse)
+                .filter(entry -> !entry.isExpired(System.currentTimeMillis()))
+                .map(Entry::toBlockInfo);
+    }
+
+    /**
+     * 전체 대역 차단 목록 (만료 항목 제외)
+     * @return CIDR → 차단 정보
+     */
+    public Flux<Map.Entry<String, BlockService.BlockInfo>> list() {
+        long now = System.currentTimeMillis();
+        return redisTemplate.<String, String>opsForHash().entries(CIDR_KEY)
+                .filter(field -> {
+                    Entry entry = Entry.parse(field.getValue());
+                    return entry != null && !entry.isExpired(now);
+                })
+                .map(field -> Map.entry(field.getKey(), Entry.parse(field.getValue()).toBlockInfo()));
+    }
+
+    /**
+     * Redis 해시 전체를 읽어 노드 로컬 목록과 트라이를 교체
+     */
+    public Mono<Void> reload() {
+        long now = System.currentTimeMillis();
+        return redisTemplate.<String, String>opsForHash().entries(CIDR_KEY)
+                .collectList()
+                .flatMap(fields -> {
+                    Map<String, Entry> next = new HashMap<>();
+                    List<String> expired = new ArrayList<>();
+                    for (Map.Entry<String, String> field : fields) {
+                        Entry entry = Entry.parse(field.getValue());
+                        if (IpPrefixTrie.Cidr.parse(field.getKey()) == null || entry == null) {
+                            log.warn("Ignoring malformed CIDR block entry: {}", field.getKey());
+                        } else if (entry.isExpired(now)) {
+                            expired.add(field.getKey());
+                        } else {
+                            next.put(field.getKey(), entry);
+                        }
+                    }
+                    synchronized (this) {
+                        ranges.clear();
+                        ranges.putAll(next);
+                        rebuildTrie();
+                        loaded = true;
+                    }
+                    log.debug("CIDR block list loaded: {} ranges", next.size());
+                    return removeExpired(expired, now);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to load CIDR block list, keeping previous state: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 바뀐 대역만 Redis에서 다시 읽어 노드 로컬 목록에 반영
+     * @param cidrs 정규화된 CIDR 목록
+     */
+    Mono<Void> refresh(List<String> cidrs) {
+        long now = System.currentTimeMillis();
+        return redisTemplate.<String, String>opsForHash().multiGet(CIDR_KEY, cidrs)
+                .flatMap(values -> {
+                    List<String> expired = new ArrayList<>();
+                    synchronized (this) {
+                        for (int i = 0; i < cidrs.size(); i++) {
+                            String field = cidrs.get(i);
+                            Entry entry = i < values.size() ? Entry.parse(values.get(i)) : null;
+                            if (entry == null) {
+                                ranges.remove(field);
+                            } else if (entry.isExpired(now)) {
+                                ranges.remove(field);
+                                expired.add(field);
+                            } else {
+                                ranges.put(field, entry);
+                            }
+                        }
+                        rebuildTrie();
+                    }
+                    return removeExpired(expired, now);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to refresh CIDR block ranges {}, keeping previous state: {}", cidrs, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> applyChange(String message) {
+        if (CIDR_KEY.equals(message)) {
+            // 바뀐 대역을 알 수 없는 알림은 전체 적재
+            return reload();
+        }
+        List<String> cidrs = new ArrayList<>();
+        for (String line : message.split(MESSAGE_SEPARATOR)) {
+            IpPrefixTrie.Cidr cidr = IpPrefixTrie.Cidr.parse(line);
+            if (cidr != null) {
+                cidrs.add(cidr.toString());
+            }
+        }
+        return cidrs.isEmpty() ? Mono.empty() : refresh(cidrs);
+    }
+
+    private void rebuildTrie() {
+        IpPrefixTrie<Entry> next = new IpPrefixTrie<>();
+        for (Map.Entry<String, Entry> range : ranges.entrySet()) {
+            IpPrefixTrie.Cidr cidr = IpPrefixTrie.Cidr.parse(range.getKey());
+            if (cidr != null) {
+                next.put(cidr, range.getValue());
+            }
+        }
+        trie = next;
+    }
+
+    /**
+     * 만료 항목 삭제 (Redis에 저장된 만료 시각을 다시 확인하여 여전히 만료된 항목만)
+     */
+    private Mono<Void> removeExpired(List<String> expired, long now) {
+        if (expired.isEmpty()) {
+            return Mono.empty();
+        }
+        List<String> args = new ArrayList<>(expired.size() + 1);
+        args.add(String.valueOf(now));
+        args.addAll(expired);
+        return redisTemplate.execute(EXPIRE_SCRIPT, List.of(CIDR_KEY), args)
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to remove expired CIDR block entries: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 로컬 스냅샷의 대역 목록으로 트라이를 미리 채움 (Redis에서 한 번도 적재하지 않은 경우에만 적용)
+     * @param snapshotRanges CIDR → 차단 정보 (list()와 같은 형식)
+     * @return 적용 여부
+     */
+    public synchronized boolean seed(List<Map.Entry<String, BlockService.BlockInfo>> snapshotRanges) {
+        if (loaded) {
+            return false;
+        }
+        for (Map.Entry<String, BlockService.BlockInfo> range : snapshotRanges) {
+            IpPrefixTrie.Cidr cidr = IpPrefixTrie.Cidr.parse(range.getKey());
+            if (cidr != null) {
+                BlockService.BlockInfo blockInfo = range.getValue();
+                long expiresAtMillis = blockInfo.getExpiresAt() != null ? blockInfo.getExpiresAt().toEpochMilli() : 0;
+                ranges.put(cidr.toString(), new Entry(expiresAtMillis, blockInfo.getReason()));
+            }
+        }
+        rebuildTrie();
+        return true;
+    }
+
+    public int size() {
+        return trie.size();
+    }
+
+    /**
+     * 대역 차단 목록 변경 알림 (대량 처리 후 한 번만 호출)
+     * @param cidrs 바뀐(차단 또는 해제된) 정규화된 CIDR 목록
+     */
+    public Mono<Void> publishChange(Collection<String> cidrs) {
+        if (cidrs.isEmpty()) {
+            return Mono.empty();
+        }
+        // 현재 노드는 알림 수신을 기다리지 않고 즉시 반영
+        return refresh(List.copyOf(cidrs)).then(redisTemplate.convertAndSend(CHANGE_CHANNEL, String.join(MESSAGE_SEPARATOR, cidrs))
+                .onErrorResume(e -> {
+                    log.warn("Failed to publish CIDR block change: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then());
+    }
+
+    private static final class Entry {
+        private final long expiresAtMillis;
+        private final String reason;
+
+        private Entry(long expiresAtMillis, String reason) {
+            this.expiresAtMillis = expiresAtMillis;
+            this.reason = reason;
+        }
+
+        static Entry parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            int separator = value.indexOf(VALUE_SEPARATOR);
+            if (separator < 0) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean isExpired(long nowMillis) {
+            return expiresAtMillis > 0 && nowMillis >= expiresAtMillis;
+        }
+
+        BlockService.BlockInfo toBlockInfo() {
+            Instant expiresAt = expiresAtMillis > 0 ? Instant.ofEpochMilli(expiresAtMillis) : null;
+            return new BlockService.BlockInfo("IP", reason, expiresAt);
+        }
+    }
+}
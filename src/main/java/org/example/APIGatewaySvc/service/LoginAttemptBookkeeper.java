@@ -0,0 +1,302 @@
+package org.example.APIGatewaySvc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 로그인 시도 부가 기록(Redis 쓰기)을 응답과 분리해 처리하는 제한된 비동기 작업 대기열
+ * 요청 경로는 작업을 대기열에 넣기만 하고, 작업은 최대 concurrency개씩 Redis 서킷 브레이커를 거쳐 실행
+ *
+ * 동작 방식:
+ * - 대기열이 queue-capacity를 넘으면 새 작업을 버림 (부가 기록이므로 유실 허용, 메트릭으로 집계)
+ * - 로그인 성공 시 실패 횟수 초기화(HDEL)는 이 노드에서 해당 사용자의 실패를 기록한 적이 있을 때만 수행
+ *   (대부분의 인증 요청은 실패 기록이 없으므로 Redis 호출을 생략)
+ * - 실패 기록 힌트는 hint-ttl 동안 유지하며, max-hints를 넘으면 hint-ttl 동안 힌트 없이 항상 초기화
+ * - 실패를 기록한 노드와 성공한 노드가 달라도 초기화되도록, 새로 기록한 힌트는 hint-publish-interval마다 모아
+ *   gateway:login:failure-hints 채널로 발행(이 대기열을 거쳐 응답과 분리)하고 모든 노드가 수신하여 힌트로 추가
+ *   (발행 대기 힌트가 max-hints를 넘으면 목록 대신 "*"를 발행해 모든 노드가 hint-ttl 동안 항상 초기화)
+ */
+@Component
+public class LoginAttemptBookkeeper {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptBookkeeper.class);
+
+    static final String SUCCESS = "success";
+    static final String HINT = "hint";
+    public static final String PROMOTION = "promotion";
+
+    public static final String HINT_CHANNEL = "gateway:login:failure-hints";
+    private static final String MESSAGE_SEPARATOR = "\n";
+    private static final String ALL_USERS = "*";
+
+    @Value("${login-attempt.bookkeeping.queue-capacity:10000}")
+    private int queueCapacity = 10_000;
+
+    @Value("${login-attempt.bookkeeping.concurrency:32}")
+    private int concurrency = 32;
+
+    @Value("${login-attempt.bookkeeping.hint-ttl:30m}")
+    private Duration hintTtl = Duration.ofMinutes(30);
+
+    @Value("${login-attempt.bookkeeping.max-hints:100000}")
+    private int maxHints = 100_000;
+
+    @Value("${login-attempt.bookkeeping.hint-publish-interval:1s}")
+    private Duration hintPublishInterval = Duration.ofSeconds(1);
+
+    private final LoginAttemptService loginAttemptService;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RedisHealthTracker redisHealthTracker;
+    private final MeterRegistry meterRegistry;
+
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private volatile boolean drainRequested = false;
+    private final Map<String, Long> failureHints = new ConcurrentHashMap<>();
+    private volatile long hintsUnreliableUntil = 0;
+    private final Set<String> unpublishedHints = ConcurrentHashMap.newKeySet();
+    private volatile boolean unpublishedOverflow = false;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Counter successSkipped;
+
+    private Disposable sweepTask;
+    private Disposable publishTask;
+    private Disposable subscription;
+
+    public LoginAttemptBookkeeper(LoginAttemptService loginAttemptService,
+                                  ReactiveRedisTemplate<String, String> redisTemplate,
+                                  RedisHealthTracker redisHealthTracker, MeterRegistry meterRegistry) {
+        this.loginAttemptService = loginAttemptService;
+        this.redisTemplate = redisTemplate;
+        this.redisHealthTracker = redisHealthTracker;
+        this.meterRegistry = meterRegistry;
+        this.successSkipped = counter(SUCCESS, "skipped");
+        Gauge.builder("gateway.login.bookkeeping.queued", queued, AtomicInteger::get)
+                .description("실행 대기 중인 로그인 부가 기록 작업 수")
+                .register(meterRegistry);
+        Gauge.builder("gateway.login.bookkeeping.hints", failureHints, Map::size)
+                .description("실패 기록 힌트가 있는 사용자 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        sweepTask = Flux.interval(Duration.ofMinutes(1), Duration.ofMinutes(1), Schedulers.parallel())
+                .subscribe(tick -> sweepHints());
+        publishTask = Flux.interval(hintPublishInterval, hintPublishInterval, Schedulers.parallel())
+                .subscribe(tick -> publishHints());
+        subscription = redisTemplate.listenToChannel(HINT_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Login failure hint subscription lost, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe(this::hintsReceived);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweepTask != null) {
+            sweepTask.dispose();
+        }
+        if (publishTask != null) {
+            publishTask.dispose();
+        }
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * 로그인 실패 기록 힌트 (이후 성공 시 실패 횟수 초기화 대상)
+     */
+    public void failureRecorded(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return;
+        }
+        addHint(userId, System.currentTimeMillis());
+        if (unpublishedHints.size() >= maxHints) {
+            unpublishedOverflow = true;
+        } else {
+            unpublishedHints.add(userId);
+        }
+    }
+
+    private void addHint(String userId, long now) {
+        if (failureHints.size() >= maxHints && !failureHints.containsKey(userId)) {
+            // 힌트를 더 기록할 수 없으면 한동안 모든 성공에서 초기화
+            hintsUnreliableUntil = now + hintTtl.toMillis();
+            return;
+        }
+        failureHints.put(userId, now + hintTtl.toMillis());
+    }
+
+    /**
+     * 로그인 성공 기록 (실패 기록 힌트가 있을 때만 실패 횟수 초기화 작업 등록)
+     */
+    public void successRecorded(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long hintExpiry = failureHints.remove(userId);
+        if ((hintExpiry == null || hintExpiry < now) && now >= hintsUnreliableUntil) {
+            successSkipped.increment();
+            return;
+        }
+        submit(SUCCESS, () -> loginAttemptService.recordLoginSuccess(userId));
+    }
+
+    /**
+     * 부가 기록 작업 등록 (대기열이 가득 차거나 Redis 서킷이 열려 있으면 버림)
+     * @param operation 메트릭 태그용 작업 이름
+     * @param work 실행할 Redis 작업 (실행 시점에 생성)
+     */
+    public void submit(String operation, Supplier<Mono<Void>> work) {
+        if (!redisHealthTracker.isAvailable()) {
+            counter(operation, "dropped").increment();
+            return;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            counter(operation, "dropped").increment();
+            return;
+        }
+        queue.offer(new Task(operation, work));
+        counter(operation, "queued").increment();
+        drain();
+    }
+
+    /**
+     * 빈 실행 슬롯만큼 작업 실행 (한 스레드만 실행하며, 실행 중 요청이 오면 끝난 뒤 한 번 더 확인)
+     */
+    private void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            drainRequested = true;
+            return;
+        }
+        try {
+            do {
+                drainRequested = false;
+                Task task;
+                while (inFlight.get() < concurrency && (task = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    inFlight.incrementAndGet();
+                    run(task);
+                }
+            } while (drainRequested);
+        } finally {
+            draining.set(false);
+        }
+        if (drainRequested) {
+            drain();
+        }
+    }
+
+    private void run(Task task) {
+        Mono<Void> work;
+        try {
+            work = task.work.get();
+        } catch (RuntimeException e) {
+            work = Mono.error(e);
+        }
+        redisHealthTracker.protect(work)
+                .doFinally(signal -> {
+                    inFlight.decrementAndGet();
+                    drain();
+                })
+                .subscribe(null, e -> {
+                    counter(task.operation, "failed").increment();
+                    log.debug("Login bookkeeping '{}' failed: {}", task.operation, e.toString());
+                });
+    }
+
+    /**
+     * 이 노드에서 새로 기록한 힌트를 다른 노드에 발행 (한 메시지에 줄바꿈으로 구분)
+     */
+    void publishHints() {
+        String message;
+        if (unpublishedOverflow) {
+            unpublishedOverflow = false;
+            unpublishedHints.clear();
+            message = ALL_USERS;
+        } else {
+            if (unpublishedHints.isEmpty()) {
+                return;
+            }
+            List<String> batch = new ArrayList<>(unpublishedHints);
+            unpublishedHints.removeAll(batch);
+            message = String.join(MESSAGE_SEPARATOR, batch);
+        }
+        submit(HINT, () -> redisTemplate.convertAndSend(HINT_CHANNEL, message).then());
+    }
+
+    /**
+     * 다른 노드(자신 포함)가 발행한 힌트 반영
+     */
+    void hintsReceived(String message) {
+        long now = System.currentTimeMillis();
+        if (ALL_USERS.equals(message)) {
+            hintsUnreliableUntil = now + hintTtl.toMillis();
+            return;
+        }
+        for (String userId : message.split(MESSAGE_SEPARATOR)) {
+            if (!userId.isEmpty()) {
+                addHint(userId, now);
+            }
+        }
+    }
+
+    private void sweepHints() {
+        long now = System.currentTimeMillis();
+        failureHints.values().removeIf(expiry -> expiry < now);
+    }
+
+    private Counter counter(String operation, String result) {
+        return counters.computeIfAbsent(operation + "|" + result, k -> Counter.builder("gateway.login.bookkeeping")
+                .tag("operation", operation).tag("result", result)
+                .description("로그인 부가 기록 작업 수")
+                .register(meterRegistry));
+    }
+
+    int queuedTasks() {
+        return queued.get();
+    }
+
+    private static final class Task {
+        private final String operation;
+        private final Supplier<Mono<Void>> work;
+
+        Task(String operation, Supplier<Mono<Void>> work) {
+            this.operation = operation;
+            this.work = work;
+        }
+    }
+}
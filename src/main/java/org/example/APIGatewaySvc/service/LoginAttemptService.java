@@ -1,39 +1,114 @@
 package org.example.APIGatewaySvc.service;
 
+import org.example.APIGatewaySvc.config.LoginAttemptProperties;
+import org.example.APIGatewaySvc.util.CountMinSketch;
+import org.example.APIGatewaySvc.util.SpaceSavingTopK;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 로그인 시도 모니터링 및 차단 서비스
  * Redis를 사용하여 로그인 실패 횟수를 캐싱하고 임계값 초과 시 자동 차단
  * 
  * 캐싱 전략:
- * - 로그인 실패 횟수: 15분 윈도우로 캐싱
- * - IP 실패 횟수: 15분 윈도우로 캐싱  
+ * - 로그인 실패 횟수: 슬라이딩 윈도우 (가중 2버킷 근사, 해시 하나에 필드 4개)로 캐싱
+ * - IP 실패 횟수: 슬라이딩 윈도우로 캐싱
+ * - 임계값, 윈도우, 차단 기간은 라우트 그룹별 정책(login-attempt.groups)으로 설정
+ * - 반복 위반 시 차단 기간을 배수만큼 늘림 (상한 적용, 위반 횟수는 위반 기억 기간 동안 유지)
  * - 메모리 효율성을 위한 자동 만료 설정
- * - 파이프라이닝을 통한 성능 최적화
+ * - 실패 IP와 /24 대역은 노드 메모리의 Count-Min Sketch + Space-Saving 상위 K로 고정 메모리 집계하고,
+ *   구간 임계값을 넘은 최상위 대상만 Redis 차단으로 승격 (IP를 바꿔 가며 시도하는 봇넷 대응)
+ * - IP와 /24 대역별로 실패한 고유 사용자 수를 HyperLogLog로 같은 스크립트 호출에서 집계하고,
+ *   임계값 이상이면 크리덴셜 스터핑으로 보고 실패 횟수와 관계없이 길게 차단 (차단한 대상의 집계는 스크립트가 초기화하고,
+ *   노드는 차단 기간 동안 같은 대역을 다시 차단하지 않음)
+ * - 실패 횟수 증가, 윈도우 TTL, 임계값 확인, 차단 기록, 횟수 초기화를 login_failure.lua로 원자적으로 처리
+ *   (사용자와 IP를 한 번의 EVALSHA로 기록하므로 TTL 유실 경쟁 없이 단일 왕복)
+ * - 실패 횟수 해시는 login_attempts:v2: 접두사 사용 (이전 버전의 문자열 카운터 login_attempts:{id}와 형식이 달라
+ *   배포 시점에 남아 있는 키에 해시 명령을 실행하면 WRONGTYPE으로 일괄 기록 전체가 실패하므로 키 이름을 분리)
  */
 @Service
 public class LoginAttemptService {
     
-    private static final int MAX_ATTEMPTS = 5;
-    private static final int MAX_IP_ATTEMPTS = 10; // IP는 더 높은 임계값
-    private static final Duration ATTEMPT_WINDOW = Duration.ofMinutes(15); // 15분 윈도우
-    private static final Duration BLOCK_DURATION = Duration.ofMinutes(30); // 30분 차단
-    private static final String ATTEMPT_KEY_PREFIX = "login_attempts:";
-    private static final String IP_ATTEMPT_KEY_PREFIX = "login_attempts:ip:";
-    private static final String BLOCK_KEY_PREFIX = "blocked:user:";
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptService.class);
+    
+    private static final String ATTEMPT_KEY_PREFIX = "login_attempts:v2:";
+    private static final String IP_ATTEMPT_KEY_PREFIX = ATTEMPT_KEY_PREFIX + "ip:";
+    private static final String DISTINCT_KEY_PREFIX = "login_distinct:";
+    private static final List<String> WINDOW_FIELDS = List.of("s", "c", "p");
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Object>> LOGIN_FAILURE_SCRIPT =
+        (RedisScript) RedisScript.of(new ClassPathResource("scripts/login_failure.lua"), List.class);
     
     private final ReactiveRedisTemplate<String, String> redisTemplate;
     private final BlockService blockService;
+    private final LoginAttemptProperties properties;
+    
+    private volatile FailureWindow currentFailures;
+    private volatile FailureWindow previousFailures;
     
-    public LoginAttemptService(ReactiveRedisTemplate<String, String> redisTemplate, BlockService blockService) {
+    // 고유 사용자 수로 차단한 CIDR 대역 → 차단 만료 시각 (차단 기간 중 대역 재차단과 전체 노드 재적재 방지)
+    private final Map<String, Long> promotedRanges = new ConcurrentHashMap<>();
+    
+    public LoginAttemptService(ReactiveRedisTemplate<String, String> redisTemplate, BlockService blockService,
+                               LoginAttemptProperties properties) {
         this.redisTemplate = redisTemplate;
         this.blockService = blockService;
+        this.properties = properties;
+        this.currentFailures = new FailureWindow(System.currentTimeMillis(), properties.getHeavyHitters());
+    }
+    
+    /**
+     * 사용자와 IP의 로그인 실패를 한 번의 스크립트 호출로 기록
+     * @param userId 사용자 ID (null이면 IP만 기록)
+     * @param ipAddress IP 주소
+     * @return 대상별 차단 여부
+     */
+    public Mono<FailureResult> recordFailure(String userId, String ipAddress) {
+        return recordFailure(LoginAttemptProperties.DEFAULT_GROUP, userId, ipAddress);
+    }
+    
+    /**
+     * 라우트 그룹 정책으로 사용자와 IP의 로그인 실패를 한 번의 스크립트 호출로 기록
+     * @param group 라우트 그룹 (login-attempt.groups 키)
+     * @param userId 사용자 ID (null이면 IP만 기록)
+     * @param ipAddress IP 주소
+     * @return 대상별 차단 여부
+     */
+    public Mono<FailureResult> recordFailure(String group, String userId, String ipAddress) {
+        LoginAttemptProperties.Policy policy = properties.getPolicy(group);
+        List<FailureTarget> targets = new ArrayList<>(2);
+        if (userId != null && !userId.isEmpty()) {
+            targets.add(userTarget(group, policy, userId, ipAddress, 1));
+        }
+        targets.add(ipTarget(group, policy, ipAddress, 1));
+        List<DistinctTarget> distinct = userId != null && !userId.isEmpty()
+            ? distinctTargets(properties.getDistinctUsers(), ipAddress, List.of(userId))
+            : List.of();
+        
+        return applyFailures(targets, distinct)
+            .map(outcomes -> {
+                int ipIndex = targets.size() - 1;
+                // IP 실패 횟수 또는 IP 고유 사용자 수 중 하나라도 임계값에 도달하면 IP 차단
+                boolean ipBlocked = outcomes.get(ipIndex).isBlocked()
+                    || (!distinct.isEmpty() && outcomes.get(targets.size()).isBlocked());
+                return new FailureResult(ipIndex == 1 && outcomes.get(0).isBlocked(), ipBlocked);
+            });
     }
     
     /**
@@ -43,37 +118,20 @@ public class LoginAttemptService {
      * @return 차단 여부
      */
     public Mono<Boolean> recordLoginFailure(String userId, String ipAddress) {
-        String attemptKey = ATTEMPT_KEY_PREFIX + userId;
-        
-        return redisTemplate.opsForValue()
-            .increment(attemptKey)
-            .flatMap(attempts -> {
-                // 첫 번째 실패 시 TTL 설정
-                if (attempts == 1) {
-                    return redisTemplate.expire(attemptKey, ATTEMPT_WINDOW)
-                        .thenReturn(attempts);
-                }
-                return Mono.just(attempts);
-            })
-            .flatMap(attempts -> {
-                if (attempts >= MAX_ATTEMPTS) {
-                    // 최대 시도 횟수 초과 시 사용자 차단
-                    String reason = String.format("로그인 %d회 실패 (IP: %s)", attempts, ipAddress);
-                    return blockService.blockUser(userId, BLOCK_DURATION, reason)
-                        .then(redisTemplate.delete(attemptKey)) // 차단 후 시도 횟수 초기화
-                        .thenReturn(true);
-                }
-                return Mono.just(false);
-            });
+        return applyFailures(List.of(userTarget(LoginAttemptProperties.DEFAULT_GROUP, defaultPolicy(), userId, ipAddress, 1)))
+            .map(outcomes -> outcomes.get(0).isBlocked());
     }
     
     /**
-     * 로그인 성공 시 실패 횟수 초기화
+     * 로그인 성공 시 실패 횟수 초기화 (모든 그룹)
+     * 반복 위반 이력(o)은 남겨 성공 직후 다시 공격해도 차단 기간 배수가 유지되도록 함
      * @param userId 사용자 ID
      */
     public Mono<Void> recordLoginSuccess(String userId) {
-        String attemptKey = ATTEMPT_KEY_PREFIX + userId;
-        return redisTemplate.delete(attemptKey).then();
+        return Flux.fromIterable(properties.getGroupNames())
+            .flatMap(group -> redisTemplate.<String, String>opsForHash()
+                .remove(attemptKeyPrefix(group) + userId, "s", "c", "p"))
+            .then();
     }
     
     /**
@@ -82,11 +140,7 @@ public class LoginAttemptService {
      * @return 현재 시도 횟수
      */
     public Mono<Integer> getAttemptCount(String userId) {
-        String attemptKey = ATTEMPT_KEY_PREFIX + userId;
-        return redisTemplate.opsForValue()
-            .get(attemptKey)
-            .map(Integer::parseInt)
-            .defaultIfEmpty(0);
+        return estimateAttempts(ATTEMPT_KEY_PREFIX + userId);
     }
     
     /**
@@ -96,20 +150,19 @@ public class LoginAttemptService {
      */
     public Mono<Integer> getRemainingAttempts(String userId) {
         return getAttemptCount(userId)
-            .map(attempts -> Math.max(0, MAX_ATTEMPTS - attempts));
+            .map(attempts -> Math.max(0, getMaxAttempts() - attempts));
     }
     
     /**
-     * 시도 윈도우 만료 시간 조회
+     * 시도 윈도우 만료 시간 조회 (기록된 실패가 슬라이딩 윈도우에서 모두 빠지는 시각)
+     * 해시 TTL은 윈도우의 2배 또는 위반 기억 기간이므로 사용하지 않음
      * @param userId 사용자 ID
-     * @return 만료 시간 (없으면 null)
+     * @return 만료 시간 (윈도우 안에 실패가 없으면 empty)
      */
     public Mono<Instant> getAttemptWindowExpiry(String userId) {
-        String attemptKey = ATTEMPT_KEY_PREFIX + userId;
-        return redisTemplate.getExpire(attemptKey)
-            .filter(ttl -> !ttl.isNegative())
-            .map(ttl -> Instant.now().plus(ttl))
-            .defaultIfEmpty(null);
+        long window = defaultPolicy().getWindow().toMillis();
+        return windowState(ATTEMPT_KEY_PREFIX + userId)
+            .flatMap(state -> Mono.justOrEmpty(windowExpiry(state, window, System.currentTimeMillis())));
     }
     
     /**
@@ -118,39 +171,234 @@ public class LoginAttemptService {
      * @return 차단 여부
      */
     public Mono<Boolean> recordIpLoginFailure(String ipAddress) {
-        String attemptKey = IP_ATTEMPT_KEY_PREFIX + ipAddress;
-        
-        return redisTemplate.opsForValue()
-            .increment(attemptKey)
-            .flatMap(attempts -> {
-                if (attempts == 1) {
-                    return redisTemplate.expire(attemptKey, ATTEMPT_WINDOW)
-                        .thenReturn(attempts);
-                }
-                return Mono.just(attempts);
+        return applyFailures(List.of(ipTarget(LoginAttemptProperties.DEFAULT_GROUP, defaultPolicy(), ipAddress, 1)))
+            .map(outcomes -> outcomes.get(0).isBlocked());
+    }
+    
+    Mono<List<FailureOutcome>> applyFailures(List<FailureTarget> targets) {
+        return applyFailures(targets, List.of());
+    }
+    
+    /**
+     * login_failure.lua 실행 (EVALSHA, 스크립트 캐시 미스 시 EVAL로 자동 재시도)
+     * 여러 대상의 실패 증가량과 고유 사용자를 한 번에 반영하며, 임계값을 넘은 대상은 스크립트가 차단 키와 인덱스를 기록하므로
+     * 이후 Bloom Filter와 판정 캐시에만 반영 (CIDR 대역 차단은 별도 저장소이므로 BlockService로 기록)
+     * @return 실패 횟수 대상 순서대로 차단 여부와 반영 후 실패 횟수, 이어서 고유 사용자 대상 순서대로 차단 여부와 고유 사용자 수
+     */
+    Mono<List<FailureOutcome>> applyFailures(List<FailureTarget> targets, List<DistinctTarget> distinct) {
+        List<String> keys = new ArrayList<>((targets.size() + distinct.size()) * 3);
+        List<String> args = new ArrayList<>(2 + targets.size() * 9 + distinct.size() * 8);
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.add(String.valueOf(targets.size()));
+        for (FailureTarget target : targets) {
+            LoginAttemptProperties.Policy policy = target.policy;
+            keys.add(target.attemptKey);
+            keys.add(target.blockKey);
+            keys.add(BlockService.INDEX_KEY_PREFIX + target.type);
+            args.add(String.valueOf(target.maxAttempts));
+            args.add(target.id);
+            args.add(target.reasonTemplate);
+            args.add(String.valueOf(target.delta));
+            args.add(String.valueOf(policy.getWindow().toMillis()));
+            args.add(String.valueOf(policy.getBlockDuration().toMillis()));
+            args.add(String.valueOf(policy.getMaxBlockDuration().toMillis()));
+            args.add(String.valueOf(policy.getBackoffMultiplier()));
+            args.add(String.valueOf(policy.getOffenseTtl().toMillis()));
+        }
+        for (DistinctTarget target : distinct) {
+            keys.add(target.hllKey);
+            keys.add(target.blockKey);
+            keys.add(BlockService.INDEX_KEY_PREFIX + "ip");
+            args.add(String.valueOf(target.threshold));
+            args.add(target.id);
+            args.add(target.reasonTemplate);
+            args.add(String.valueOf(target.settings.getBlockDuration().toMillis()));
+            args.add(String.valueOf(target.settings.getWindow().toMillis()));
+            args.add(target.writeBlock ? "1" : "0");
+            args.add(String.valueOf(target.userIds.size()));
+            args.addAll(target.userIds);
+        }
+        
+        return redisTemplate.execute(LOGIN_FAILURE_SCRIPT, keys, args)
+            .reduce(new ArrayList<Object>(), (result, part) -> {
+                result.addAll(part);
+                return result;
             })
-            .flatMap(attempts -> {
-                if (attempts >= MAX_IP_ATTEMPTS) {
-                    String reason = String.format("IP에서 로그인 %d회 실패", attempts);
-                    return blockService.blockIp(ipAddress, BLOCK_DURATION, reason)
-                        .then(redisTemplate.delete(attemptKey))
-                        .thenReturn(true);
+            .flatMap(result -> {
+                List<FailureOutcome> outcomes = new ArrayList<>(targets.size() + distinct.size());
+                Mono<Void> notifications = Mono.empty();
+                for (int i = 0; i < targets.size() + distinct.size(); i++) {
+                    boolean blocked = result.size() > i * 2 + 1 && ((Number) result.get(i * 2)).intValue() == 1;
+                    long count = result.size() > i * 2 + 1 ? ((Number) result.get(i * 2 + 1)).longValue() : 0;
+                    outcomes.add(new FailureOutcome(blocked, count));
+                    if (!blocked) {
+                        continue;
+                    }
+                    if (i < targets.size()) {
+                        notifications = notifications.then(blockService.blockWritten(targets.get(i).blockKey));
+                        continue;
+                    }
+                    DistinctTarget target = distinct.get(i - targets.size());
+                    if (target.writeBlock) {
+                        notifications = notifications.then(blockService.blockWritten(target.blockKey));
+                    } else if (promoteRange(target.id, target.settings.getBlockDuration())) {
+                        notifications = notifications.then(blockService.blockIp(target.id,
+                                target.settings.getBlockDuration(),
+                                target.reasonTemplate.replace("{distinct}", String.valueOf(count)))
+                            .doOnError(e -> promotedRanges.remove(target.id)));
+                    }
                 }
-                return Mono.just(false);
+                return notifications.thenReturn(outcomes);
             });
     }
     
+    /**
+     * 차단 기간 중 이미 차단한 대역이 아니면 차단 기록
+     * @return 새로 차단해야 하면 true
+     */
+    private boolean promoteRange(String range, Duration blockDuration) {
+        long now = System.currentTimeMillis();
+        Long previous = promotedRanges.get(range);
+        if (previous != null && previous > now) {
+            return false;
+        }
+        if (previous == null) {
+            promotedRanges.values().removeIf(expiry -> expiry <= now);
+        }
+        Long expiry = now + blockDuration.toMillis();
+        return previous == null ? promotedRanges.putIfAbsent(range, expiry) == null
+            : promotedRanges.replace(range, previous, expiry);
+    }
+    
+    static FailureTarget userTarget(String group, LoginAttemptProperties.Policy policy, String userId, String ipAddress,
+                                    long delta) {
+        return new FailureTarget("user", userId, attemptKeyPrefix(group) + userId, BlockService.USER_KEY_PREFIX + userId,
+            policy.getUserMaxAttempts(), "로그인 {attempts}회 실패 (IP: " + ipAddress + ")", policy, delta);
+    }
+    
+    static FailureTarget ipTarget(String group, LoginAttemptProperties.Policy policy, String ipAddress, long delta) {
+        return new FailureTarget("ip", ipAddress, attemptKeyPrefix(group) + "ip:" + ipAddress,
+            BlockService.IP_KEY_PREFIX + ipAddress, policy.getIpMaxAttempts(), "IP에서 로그인 {attempts}회 실패", policy, delta);
+    }
+    
+    /**
+     * IP와 /24 대역의 고유 사용자 집계 대상 (비활성화되었거나 사용자가 없으면 빈 목록)
+     * IP 차단 키는 스크립트가 기록하고, CIDR 대역 차단은 스크립트 결과를 보고 BlockService로 기록
+     */
+    static List<DistinctTarget> distinctTargets(LoginAttemptProperties.DistinctUsers settings, String ipAddress,
+                                                List<String> userIds) {
+        if (!settings.isEnabled() || userIds.isEmpty() || ipAddress == null || "unknown".equals(ipAddress)) {
+            return List.of();
+        }
+        List<DistinctTarget> targets = new ArrayList<>(2);
+        targets.add(new DistinctTarget(ipAddress, DISTINCT_KEY_PREFIX + "ip:" + ipAddress, BlockService.IP_KEY_PREFIX + ipAddress,
+            settings.getIpThreshold(), "IP에서 고유 사용자 {distinct}명 로그인 실패 (크리덴셜 스터핑 의심)", true, settings, userIds));
+        String subnet = subnetOf(ipAddress);
+        if (subnet != null) {
+            targets.add(new DistinctTarget(subnet, DISTINCT_KEY_PREFIX + "subnet:" + subnet, BlockService.IP_KEY_PREFIX + subnet,
+                settings.getSubnetThreshold(), "대역에서 고유 사용자 {distinct}명 로그인 실패 (크리덴셜 스터핑 의심)", false, settings,
+                userIds));
+        }
+        return targets;
+    }
+    
+    /**
+     * 그룹별 실패 횟수 키 접두사 (default 그룹은 login_attempts:v2:{id}, 그 외 login_attempts:v2:{group}:{id})
+     */
+    private static String attemptKeyPrefix(String group) {
+        return group == null || LoginAttemptProperties.DEFAULT_GROUP.equals(group)
+            ? ATTEMPT_KEY_PREFIX
+            : ATTEMPT_KEY_PREFIX + group + ":";
+    }
+    
+    private LoginAttemptProperties.Policy defaultPolicy() {
+        return properties.getPolicy(LoginAttemptProperties.DEFAULT_GROUP);
+    }
+    
+    /**
+     * default 그룹의 사용자별 최대 실패 횟수
+     */
+    public int getMaxAttempts() {
+        return defaultPolicy().getUserMaxAttempts();
+    }
+    
+    /**
+     * default 그룹의 IP별 최대 실패 횟수
+     */
+    public int getMaxIpAttempts() {
+        return defaultPolicy().getIpMaxAttempts();
+    }
+    
+    /**
+     * 슬라이딩 윈도우 추정 실패 횟수 조회 (default 그룹 정책 기준, login_failure.lua와 같은 계산)
+     */
+    private Mono<Integer> estimateAttempts(String attemptKey) {
+        long window = defaultPolicy().getWindow().toMillis();
+        return windowState(attemptKey)
+            .map(state -> estimate(state, window, System.currentTimeMillis()))
+            .defaultIfEmpty(0);
+    }
+    
+    private Mono<List<String>> windowState(String attemptKey) {
+        return redisTemplate.<String, String>opsForHash().multiGet(attemptKey, WINDOW_FIELDS);
+    }
+    
+    /**
+     * 기록된 실패가 윈도우에서 모두 빠지는 시각 (현재 버킷 횟수는 다음 버킷 끝까지, 직전 버킷 횟수는 현재 버킷 끝까지 반영)
+     * @param state 해시 필드 {s, c, p} 값 (없으면 null)
+     * @return 만료 시각 (윈도우 안에 실패가 없으면 null)
+     */
+    static Instant windowExpiry(List<String> state, long windowMillis, long nowMillis) {
+        if (state == null || state.size() < 3 || state.get(0) == null) {
+            return null;
+        }
+        long start = Long.parseLong(state.get(0));
+        long current = state.get(1) != null ? Long.parseLong(state.get(1)) : 0;
+        long previous = state.get(2) != null ? Long.parseLong(state.get(2)) : 0;
+        long bucket = nowMillis / windowMillis;
+        if (bucket > start + 1) {
+            return null;
+        }
+        if (bucket == start + 1) {
+            previous = current;
+            current = 0;
+        }
+        if (current > 0) {
+            return Instant.ofEpochMilli((bucket + 2) * windowMillis);
+        }
+        return previous > 0 ? Instant.ofEpochMilli((bucket + 1) * windowMillis) : null;
+    }
+    
+    /**
+     * 가중 2버킷 추정: 현재 버킷 횟수 + 직전 버킷 횟수 * 현재 버킷의 남은 비율
+     * @param state 해시 필드 {s, c, p} 값 (없으면 null)
+     */
+    static int estimate(List<String> state, long windowMillis, long nowMillis) {
+        if (state == null || state.size() < 3 || state.get(0) == null) {
+            return 0;
+        }
+        long start = Long.parseLong(state.get(0));
+        long current = state.get(1) != null ? Long.parseLong(state.get(1)) : 0;
+        long previous = state.get(2) != null ? Long.parseLong(state.get(2)) : 0;
+        long bucket = nowMillis / windowMillis;
+        if (bucket > start + 1) {
+            return 0;
+        }
+        if (bucket == start + 1) {
+            previous = current;
+            current = 0;
+        }
+        double remaining = 1 - (double) (nowMillis - bucket * windowMillis) / windowMillis;
+        return (int) Math.floor(current + previous * remaining);
+    }
+    
     /**
      * IP별 현재 로그인 시도 횟수 조회 (캐시에서)
      * @param ipAddress IP 주소
      * @return 현재 시도 횟수
      */
     public Mono<Integer> getIpAttemptCount(String ipAddress) {
-        String attemptKey = IP_ATTEMPT_KEY_PREFIX + ipAddress;
-        return redisTemplate.opsForValue()
-            .get(attemptKey)
-            .map(Integer::parseInt)
-            .defaultIfEmpty(0);
+        return estimateAttempts(IP_ATTEMPT_KEY_PREFIX + ipAddress);
     }
     
     /**
@@ -159,18 +407,266 @@ public class LoginAttemptService {
      * @return 시도 통계 정보
      */
     public Mono<LoginAttemptStats> getLoginAttemptStats(String userId) {
-        String attemptKey = ATTEMPT_KEY_PREFIX + userId;
-        
-        return Mono.zip(
-            redisTemplate.opsForValue().get(attemptKey).map(Integer::parseInt).defaultIfEmpty(0),
-            redisTemplate.getExpire(attemptKey).defaultIfEmpty(Duration.ZERO),
-            getRemainingAttempts(userId)
-        ).map(tuple -> new LoginAttemptStats(
-            userId,
-            tuple.getT1(), // current attempts
-            tuple.getT3(), // remaining attempts
-            (!tuple.getT2().isNegative() && !tuple.getT2().isZero()) ? Instant.now().plus(tuple.getT2()) : null // window expiry
-        ));
+        long window = defaultPolicy().getWindow().toMillis();
+        
+        return windowState(ATTEMPT_KEY_PREFIX + userId)
+            .defaultIfEmpty(List.of())
+            .map(state -> {
+                long now = System.currentTimeMillis();
+                int attempts = estimate(state, window, now);
+                return new LoginAttemptStats(
+                    userId,
+                    attempts,
+                    Math.max(0, getMaxAttempts() - attempts),
+                    windowExpiry(state, window, now)
+                );
+            });
+    }
+    
+    /**
+     * 실패한 IP와 /24 대역을 노드 메모리 상위 빈도 집계에 반영 (Redis 호출 없음)
+     * 구간 내 빈도가 임계값에 처음 도달한 대상만 반환하며, 반환된 대상은 promoteHeavyHitters()로 차단
+     * @param ipAddress IP 주소
+     * @return 차단으로 승격할 IP 또는 CIDR 대역 (없으면 빈 목록)
+     */
+    public List<String> observeFailingClient(String ipAddress) {
+        LoginAttemptProperties.HeavyHitters settings = properties.getHeavyHitters();
+        if (!settings.isEnabled() || ipAddress == null || ipAddress.isEmpty() || "unknown".equals(ipAddress)) {
+            return List.of();
+        }
+        FailureWindow window = failureWindow(System.currentTimeMillis());
+        List<String> promoted = List.of();
+        if (window.ips.observe(ipAddress) >= settings.getIpThreshold() && window.promoted.add(ipAddress)) {
+            promoted = new ArrayList<>(2);
+            promoted.add(ipAddress);
+        }
+        String subnet = subnetOf(ipAddress);
+        if (subnet != null && window.subnets.observe(subnet) >= settings.getSubnetThreshold() && window.promoted.add(subnet)) {
+            promoted = promoted.isEmpty() ? new ArrayList<>(1) : promoted;
+            promoted.add(subnet);
+        }
+        return promoted;
+    }
+    
+    /**
+     * 상위 실패 IP / 대역을 Redis 차단으로 승격
+     * 실패하면 다음 실패 때 다시 승격하도록 승격 기록을 되돌림
+     */
+    public Mono<Void> promoteHeavyHitters(List<String> targets) {
+        LoginAttemptProperties.HeavyHitters settings = properties.getHeavyHitters();
+        FailureWindow window = currentFailures;
+        return Flux.fromIterable(targets)
+            .flatMap(target -> blockService.blockIp(target, settings.getBlockDuration(),
+                    target.indexOf('/') >= 0 ? "로그인 실패 급증 대역" : "로그인 실패 급증 IP")
+                .doOnSuccess(ignored -> log.warn("[BLOCK EVENT] Type: IP, ID: {}, Reason: 로그인 실패 상위 빈도 ({} 내 임계값 초과)",
+                    target, settings.getWindow()))
+                .doOnError(e -> window.promoted.remove(target)))
+            .then();
+    }
+    
+    /**
+     * 현재 / 직전 구간의 로그인 실패 상위 IP와 /24 대역
+     * @param limit 구간별 최대 항목 수
+     */
+    public Map<String, Object> getTopOffenders(int limit) {
+        LoginAttemptProperties.HeavyHitters settings = properties.getHeavyHitters();
+        FailureWindow current = failureWindow(System.currentTimeMillis());
+        FailureWindow previous = previousFailures;
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("window", settings.getWindow().toString());
+        result.put("ipThreshold", settings.getIpThreshold());
+        result.put("subnetThreshold", settings.getSubnetThreshold());
+        result.put("current", current.describe(limit));
+        result.put("previous", previous != null ? previous.describe(limit) : null);
+        return result;
+    }
+    
+    private FailureWindow failureWindow(long now) {
+        FailureWindow current = currentFailures;
+        long windowMillis = current.settings.getWindow().toMillis();
+        if (now - current.startedAtMillis < windowMillis) {
+            return current;
+        }
+        synchronized (this) {
+            current = currentFailures;
+            if (now - current.startedAtMillis >= windowMillis) {
+                // 한 구간 이상 실패가 없었다면 직전 구간도 비어 있는 것으로 봄
+                previousFailures = now - current.startedAtMillis < windowMillis * 2 ? current : null;
+                current = new FailureWindow(now, properties.getHeavyHitters());
+                currentFailures = current;
+            }
+            return current;
+        }
+    }
+    
+    /**
+     * IPv4 주소의 /24 대역 (IPv6는 대역 집계하지 않음)
+     */
+    static String subnetOf(String ipAddress) {
+        int lastDot = ipAddress.lastIndexOf('.');
+        if (lastDot <= 0 || ipAddress.indexOf(':') >= 0) {
+            return null;
+        }
+        return ipAddress.substring(0, lastDot) + ".0/24";
+    }
+    
+    /**
+     * 집계 구간 하나의 IP / 대역 빈도
+     */
+    private static final class FailureWindow {
+        private final long startedAtMillis;
+        private final LoginAttemptProperties.HeavyHitters settings;
+        private final HeavyHitterCounter ips;
+        private final HeavyHitterCounter subnets;
+        private final Set<String> promoted = ConcurrentHashMap.newKeySet();
+        
+        FailureWindow(long startedAtMillis, LoginAttemptProperties.HeavyHitters settings) {
+            this.startedAtMillis = startedAtMillis;
+            this.settings = settings;
+            this.ips = new HeavyHitterCounter(settings);
+            this.subnets = new HeavyHitterCounter(settings);
+        }
+        
+        Map<String, Object> describe(int limit) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("startedAt", Instant.ofEpochMilli(startedAtMillis).toString());
+            result.put("ips", ips.describe(limit));
+            result.put("subnets", subnets.describe(limit));
+            return result;
+        }
+    }
+    
+    /**
+     * Count-Min Sketch(전체 항목 빈도 상한) + Space-Saving(상위 후보와 빈도 하한)
+     * 상위 후보 교체는 Sketch 추정값이 최소 카운트보다 큰 항목만 허용하여, IP를 바꿔 가며 시도해도 후보가 밀려나지 않음
+     * 차단 판단에는 과대 추정이 없는 Space-Saving 하한(count - error)을 사용
+     */
+    private static final class HeavyHitterCounter {
+        private final CountMinSketch sketch;
+        private final SpaceSavingTopK<String> topK;
+        
+        HeavyHitterCounter(LoginAttemptProperties.HeavyHitters settings) {
+            this.sketch = new CountMinSketch(settings.getEpsilon(), settings.getConfidence());
+            this.topK = new SpaceSavingTopK<>(settings.getCapacity());
+        }
+        
+        /**
+         * @return 증가 후 빈도 하한
+         */
+        long observe(String item) {
+            return topK.add(item, sketch.add(item, 1));
+        }
+        
+        List<Map<String, Object>> describe(int limit) {
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (SpaceSavingTopK.Entry<String> entry : topK.top(limit)) {
+                Map<String, Object> described = new LinkedHashMap<>();
+                described.put("id", entry.getItem());
+                described.put("estimate", sketch.estimate(entry.getItem()));
+                described.put("guaranteed", entry.getCount() - entry.getError());
+                items.add(described);
+            }
+            return items;
+        }
+    }
+    
+    /**
+     * 로그인 실패 반영 대상 (실패 횟수 키, 차단 키, 임계값, 그룹 정책, 증가량)
+     */
+    static final class FailureTarget {
+        private final String type;
+        private final String id;
+        private final String attemptKey;
+        private final String blockKey;
+        private final int maxAttempts;
+        private final String reasonTemplate;
+        private final LoginAttemptProperties.Policy policy;
+        private final long delta;
+        
+        FailureTarget(String type, String id, String attemptKey, String blockKey, int maxAttempts, String reasonTemplate,
+                      LoginAttemptProperties.Policy policy, long delta) {
+            this.type = type;
+            this.id = id;
+            this.attemptKey = attemptKey;
+            this.blockKey = blockKey;
+            this.maxAttempts = maxAttempts;
+            this.reasonTemplate = reasonTemplate;
+            this.policy = policy;
+            this.delta = delta;
+        }
+        
+        FailureTarget withDelta(long delta) {
+            return new FailureTarget(type, id, attemptKey, blockKey, maxAttempts, reasonTemplate, policy, delta);
+        }
+        
+        String getType() { return type; }
+        String getId() { return id; }
+        String getAttemptKey() { return attemptKey; }
+        int getMaxAttempts() { return maxAttempts; }
+        long getDelta() { return delta; }
+    }
+    
+    /**
+     * 고유 사용자 집계 대상 (HyperLogLog 키, 차단 키, 임계값, 이번에 반영할 사용자 ID)
+     */
+    static final class DistinctTarget {
+        private final String id;
+        private final String hllKey;
+        private final String blockKey;
+        private final int threshold;
+        private final String reasonTemplate;
+        private final boolean writeBlock;
+        private final LoginAttemptProperties.DistinctUsers settings;
+        private final List<String> userIds;
+        
+        DistinctTarget(String id, String hllKey, String blockKey, int threshold, String reasonTemplate, boolean writeBlock,
+                       LoginAttemptProperties.DistinctUsers settings, List<String> userIds) {
+            this.id = id;
+            this.hllKey = hllKey;
+            this.blockKey = blockKey;
+            this.threshold = threshold;
+            this.reasonTemplate = reasonTemplate;
+            this.writeBlock = writeBlock;
+            this.settings = settings;
+            this.userIds = userIds;
+        }
+        
+        String getId() { return id; }
+        String getHllKey() { return hllKey; }
+        List<String> getUserIds() { return userIds; }
+    }
+    
+    /**
+     * 대상별 반영 결과
+     */
+    static final class FailureOutcome {
+        private final boolean blocked;
+        private final long attempts;
+        
+        FailureOutcome(boolean blocked, long attempts) {
+            this.blocked = blocked;
+            this.attempts = attempts;
+        }
+        
+        boolean isBlocked() { return blocked; }
+        long getAttempts() { return attempts; }
+    }
+    
+    /**
+     * 로그인 실패 기록 결과
+     */
+    public static class FailureResult {
+        private final boolean userBlocked;
+        private final boolean ipBlocked;
+        
+        public FailureResult(boolean userBlocked, boolean ipBlocked) {
+            this.userBlocked = userBlocked;
+            this.ipBlocked = ipBlocked;
+        }
+        
+        public boolean isUserBlocked() { return userBlocked; }
+        public boolean isIpBlocked() { return ipBlocked; }
     }
     
     /**
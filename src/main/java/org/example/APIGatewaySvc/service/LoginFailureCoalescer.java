@@ -0,0 +1,369 @@
+package org.example.APIGatewaySvc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.APIGatewaySvc.config.LoginAttemptProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 로그인 실패 횟수 노드 로컬 합산 (쓰기 병합)
+ * 크리덴셜 스터핑 공격 중 401 응답마다 Redis에 쓰지 않도록, 사용자/IP별 실패 횟수를 노드 메모리에 합산한 뒤
+ * login-attempt.coalesce.flush-interval마다 증가량만 login_failure.lua로 일괄 반영
+ *
+ * 동작 방식:
+ * - 키(그룹별 실패 횟수 키)별 카운터는 ConcurrentHashMap으로 분산되고, 증가는 CAS 한 번 (요청 경로에서 I/O 없음)
+ * - 0에서 증가한 카운터만 플러시 대기열에 넣어 플러시 비용은 변경된 키 수에 비례
+ * - 플러시는 최대 max-batch개 대상씩 스크립트를 동시에 호출 (Lettuce가 파이프라인으로 전송)
+ * - 마지막으로 확인한 Redis 횟수 + 미반영 증가량이 임계값에 도달하면 주기를 기다리지 않고 즉시 플러시
+ * - IP 카운터는 실패한 사용자 ID도 모아 같은 스크립트 호출에서 고유 사용자 수(HyperLogLog)에 반영
+ * - Redis에 전달되지 못한 증가량(서킷 개방, 연결 실패)은 카운터에 되돌려 다음 플러시에 재시도
+ *   호출 기한 초과 등 스크립트가 이미 실행되었을 수 있는 실패는 재시도하지 않음
+ *   (login_failure.lua는 비멱등이므로 재시도하면 실패 횟수가 두 번 반영되어 조기 차단)
+ * - 한동안 변경이 없는 카운터는 정리 주기마다 제거하고, 추적 키 수는 max-keys로 제한
+ */
+@Component
+public class LoginFailureCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginFailureCoalescer.class);
+
+    private static final long RETIRED = Long.MIN_VALUE;
+    private static final int SWEEP_EVERY_FLUSHES = 1000;
+    private static final int MAX_PENDING_USERS = 64;
+
+    @Value("${login-attempt.coalesce.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${login-attempt.coalesce.flush-interval:5ms}")
+    private Duration flushInterval = Duration.ofMillis(5);
+
+    @Value("${login-attempt.coalesce.max-batch:200}")
+    private int maxBatch = 200;
+
+    @Value("${login-attempt.coalesce.max-keys:100000}")
+    private int maxKeys = 100_000;
+
+    private final LoginAttemptService loginAttemptService;
+    private final LoginAttemptProperties loginAttemptProperties;
+    private final RedisHealthTracker redisHealthTracker;
+
+    private final Map<String, PendingCounter> counters = new ConcurrentHashMap<>();
+    private final Queue<PendingCounter> dirty = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private volatile boolean flushRequested = false;
+    private long flushCount = 0;
+
+    private final Counter recordedCounter;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter unconfirmedCounter;
+
+    private Disposable flushTask;
+
+    public LoginFailureCoalescer(LoginAttemptService loginAttemptService, LoginAttemptProperties loginAttemptProperties,
+                                 RedisHealthTracker redisHealthTracker, MeterRegistry meterRegistry) {
+        this.loginAttemptService = loginAttemptService;
+        this.loginAttemptProperties = loginAttemptProperties;
+        this.redisHealthTracker = redisHealthTracker;
+        this.recordedCounter = Counter.builder("gateway.login.failures")
+                .tag("result", "recorded")
+                .description("노드에서 합산한 로그인 실패 횟수")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("gateway.login.failures")
+                .tag("result", "dropped")
+                .description("추적 키 수 제한으로 합산하지 못한 로그인 실패 횟수")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("gateway.login.failure.writes")
+                .description("Redis에 반영한 대상(키) 수")
+                .register(meterRegistry);
+        this.unconfirmedCounter = Counter.builder("gateway.login.failures")
+                .tag("result", "unconfirmed")
+                .description("반영 여부를 알 수 없어 재시도하지 않은 로그인 실패 횟수 (호출 기한 초과 등)")
+                .register(meterRegistry);
+        Gauge.builder("gateway.login.failure.pending", counters, Map::size)
+                .description("합산 중인 로그인 실패 키 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flushTask = Flux.interval(flushInterval, flushInterval, Schedulers.parallel())
+                .subscribe(tick -> triggerFlush());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.dispose();
+        }
+        // 종료 직전 남은 증가량 반영 (실패 시 유실)
+        try {
+            flush().block(Duration.ofSeconds(1));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush pending login failures on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * default 그룹 정책으로 로그인 실패 기록
+     * @param userId 사용자 ID (null 또는 빈 값이면 IP만 기록)
+     * @param ipAddress IP 주소
+     */
+    public void record(String userId, String ipAddress) {
+        record(LoginAttemptProperties.DEFAULT_GROUP, userId, ipAddress);
+    }
+
+    /**
+     * 로그인 실패 기록 (노드 메모리에 합산, Redis 호출 없음)
+     * 비활성화된 경우 즉시 Redis에 반영
+     * @param group 라우트 그룹 (login-attempt.groups 키)
+     * @param userId 사용자 ID (null 또는 빈 값이면 IP만 기록)
+     * @param ipAddress IP 주소
+     */
+    public void record(String group, String userId, String ipAddress) {
+        if (!enabled) {
+            redisHealthTracker.protect(loginAttemptService.recordFailure(group, userId, ipAddress))
+                    .onErrorResume(e -> Mono.empty())
+                    .subscribe();
+            return;
+        }
+        LoginAttemptProperties.Policy policy = loginAttemptProperties.getPolicy(group);
+        boolean knownUser = userId != null && !userId.isEmpty();
+        if (knownUser) {
+            increment(LoginAttemptService.userTarget(group, policy, userId, ipAddress, 0), null);
+        }
+        increment(LoginAttemptService.ipTarget(group, policy, ipAddress, 0),
+                knownUser && loginAttemptProperties.getDistinctUsers().isEnabled() ? userId : null);
+    }
+
+    private void increment(LoginAttemptService.FailureTarget target, String userId) {
+        while (true) {
+            PendingCounter counter = counters.get(target.getAttemptKey());
+            if (counter == null) {
+                if (counters.size() >= maxKeys) {
+                    droppedCounter.increment();
+                    return;
+                }
+                counter = counters.computeIfAbsent(target.getAttemptKey(), key -> new PendingCounter(target));
+            }
+            long pending = counter.pending.get();
+            if (pending == RETIRED) {
+                // 정리 중인 카운터는 맵에서 제거되기를 기다렸다가 새 카운터로 다시 시도
+                counters.remove(target.getAttemptKey(), counter);
+                continue;
+            }
+            // 증가보다 먼저 기록해야 플러시가 증가량만 가져가고 사용자를 놓치지 않음
+            // (고유 사용자 수 임계값 판단에는 플러시 주기당 일부 사용자만으로 충분)
+            if (userId != null && counter.userIds.size() < MAX_PENDING_USERS) {
+                counter.userIds.add(userId);
+            }
+            if (!counter.pending.compareAndSet(pending, pending + 1)) {
+                continue;
+            }
+            counter.touched = true;
+            counter.target = target;
+            recordedCounter.increment();
+            if (pending == 0) {
+                dirty.offer(counter);
+            }
+            // 임계값에 도달하는 증가에서만 즉시 플러시 (이후 증가는 주기 플러시로 반영)
+            if (counter.lastKnownAttempts + pending + 1 == target.getMaxAttempts()) {
+                triggerFlush();
+            }
+            return;
+        }
+    }
+
+    /**
+     * 플러시 요청 (진행 중인 플러시가 있으면 완료 직후 한 번 더 실행)
+     */
+    void triggerFlush() {
+        if (!flushing.compareAndSet(false, true)) {
+            flushRequested = true;
+            return;
+        }
+        flushRequested = false;
+        flush().doFinally(signal -> {
+            flushing.set(false);
+            if (flushRequested) {
+                triggerFlush();
+            }
+        }).subscribe();
+    }
+
+    /**
+     * 대기 중인 증가량을 Redis에 반영
+     */
+    Mono<Void> flush() {
+        if (++flushCount % SWEEP_EVERY_FLUSHES == 0) {
+            sweep();
+        }
+        if (dirty.isEmpty() || !redisHealthTracker.isAvailable()) {
+            return Mono.empty();
+        }
+
+        List<List<Drained>> batches = new ArrayList<>();
+        List<Drained> batch = new ArrayList<>();
+        PendingCounter counter;
+        while ((counter = dirty.poll()) != null) {
+            long delta = counter.pending.getAndUpdate(pending -> pending == RETIRED ? RETIRED : 0);
+            if (delta <= 0) {
+                continue;
+            }
+            batch.add(new Drained(counter, counter.target.withDelta(delta), drainUserIds(counter)));
+            if (batch.size() >= maxBatch) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        return Flux.fromIterable(batches)
+                .flatMap(this::apply)
+                .then();
+    }
+
+    private Mono<Void> apply(List<Drained> batch) {
+        List<LoginAttemptService.FailureTarget> targets = new ArrayList<>(batch.size());
+        List<LoginAttemptService.DistinctTarget> distinct = new ArrayList<>();
+        for (Drained drained : batch) {
+            targets.add(drained.target);
+            if (!drained.userIds.isEmpty()) {
+                distinct.addAll(LoginAttemptService.distinctTargets(loginAttemptProperties.getDistinctUsers(),
+                        drained.target.getId(), drained.userIds));
+            }
+        }
+        return redisHealthTracker.protect(loginAttemptService.applyFailures(targets, distinct))
+                .doOnNext(outcomes -> {
+                    writtenCounter.increment(targets.size());
+                    for (int i = 0; i < targets.size() && i < outcomes.size(); i++) {
+                        LoginAttemptService.FailureOutcome outcome = outcomes.get(i);
+                        // 차단되면 Redis 실패 횟수가 초기화되므로 로컬 기준값도 초기화
+                        batch.get(i).counter.lastKnownAttempts = outcome.isBlocked() ? 0 : outcome.getAttempts();
+                        if (outcome.isBlocked()) {
+                            LoginAttemptService.FailureTarget target = targets.get(i);
+                            log.warn("[BLOCK EVENT] Type: {}, ID: {}, Reason: 로그인 실패 횟수 초과 ({}회)",
+                                    target.getType().toUpperCase(), target.getId(), outcome.getAttempts());
+                        }
+                    }
+                    for (int i = targets.size(); i < outcomes.size(); i++) {
+                        if (outcomes.get(i).isBlocked()) {
+                            log.warn("[BLOCK EVENT] Type: IP, ID: {}, Reason: 고유 사용자 {}명 로그인 실패 (크리덴셜 스터핑 의심)",
+                                    distinct.get(i - targets.size()).getId(), outcomes.get(i).getAttempts());
+                        }
+                    }
+                })
+                .onErrorResume(e -> {
+                    if (!RedisHealthTracker.isNotSent(e)) {
+                        // 스크립트가 이미 실행되었을 수 있으므로 되돌리지 않음 (중복 반영 방지)
+                        log.debug("Login failure flush outcome unknown, not retrying: {}", e.toString());
+                        for (Drained drained : batch) {
+                            unconfirmedCounter.increment(drained.target.getDelta());
+                        }
+                        return Mono.empty();
+                    }
+                    // Redis에 전달되지 않은 증가량은 되돌려 다음 플러시에 재시도
+                    log.debug("Failed to flush login failures, retrying later: {}", e.toString());
+                    for (Drained drained : batch) {
+                        drained.counter.userIds.addAll(drained.userIds);
+                        restore(drained.counter, drained.target.getDelta());
+                    }
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void restore(PendingCounter counter, long delta) {
+        while (true) {
+            long pending = counter.pending.get();
+            if (pending == RETIRED) {
+                return;
+            }
+            if (counter.pending.compareAndSet(pending, pending + delta)) {
+                if (pending == 0) {
+                    dirty.offer(counter);
+                }
+                return;
+            }
+        }
+    }
+
+    private static List<String> drainUserIds(PendingCounter counter) {
+        if (counter.userIds.isEmpty()) {
+            return List.of();
+        }
+        List<String> userIds = new ArrayList<>(counter.userIds.size());
+        for (String userId : counter.userIds) {
+            if (counter.userIds.remove(userId)) {
+                userIds.add(userId);
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * 지난 정리 이후 변경이 없고 미반영 증가량도 없는 카운터 제거
+     */
+    private void sweep() {
+        for (PendingCounter counter : counters.values()) {
+            if (counter.touched) {
+                counter.touched = false;
+            } else if (counter.pending.compareAndSet(0, RETIRED)) {
+                counters.remove(counter.target.getAttemptKey(), counter);
+            }
+        }
+    }
+
+    int pendingKeys() {
+        return counters.size();
+    }
+
+    private static final class PendingCounter {
+        private final AtomicLong pending = new AtomicLong();
+        private final Set<String> userIds = ConcurrentHashMap.newKeySet();
+        private volatile LoginAttemptService.FailureTarget target;
+        private volatile long lastKnownAttempts;
+        private volatile boolean touched = true;
+
+        PendingCounter(LoginAttemptService.FailureTarget target) {
+            this.target = target;
+        }
+    }
+
+    private static final class Drained {
+        private final PendingCounter counter;
+        private final LoginAttemptService.FailureTarget target;
+        private final List<String> userIds;
+
+        Drained(PendingCounter counter, LoginAttemptService.FailureTarget target, List<String> userIds) {
+            this.counter = counter;
+            this.target = target;
+            this.userIds = userIds;
+        }
+    }
+}
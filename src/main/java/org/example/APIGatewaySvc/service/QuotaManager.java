@@ -0,0 +1,556 @@
+package org.example.APIGatewaySvc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.APIGatewaySvc.config.QuotaProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 계층형 장기 할당량 (API 키 / 테넌트 / 요금제 × 일 / 월)
+ * 요청마다 Redis에 쓰지 않도록 기간 카운터를 노드 메모리에 합산하고, quota.sync-interval마다
+ * 증가분만 quota_sync.lua로 반영하면서 전체 노드 합계를 받아 로컬 기준값으로 사용
+ *
+ * 동작 방식:
+ * - 판정은 요청 경로에서 I/O 없이 수행: 마지막 Redis 합계 + 반영 중 증가분 + 미반영 증가분 + 1 <= 한도
+ * - 한 요청에 해당하는 모든 수준/기간 카운터를 한 번에 판정하고, 하나라도 초과하면 앞서 예약한 카운터를 되돌려 거부
+ * - 허용 시 남은 횟수가 가장 적은 카운터(가장 빡빡한 수준)를 응답 헤더용으로 반환
+ * - 카운터 키는 기간마다 달라지므로 (quota:{api-key:abc}:d:20261018) 일/월이 바뀌면 자동으로 새 카운터에서 시작 (UTC 기준)
+ * - 한도에 근접한(남은 횟수 1% 이하) 요청은 주기를 기다리지 않고 즉시 반영하여 다른 노드 사용량을 빨리 반영
+ * - 새 카운터는 다음 반영 주기에 다른 노드 사용량을 받음 (처음 보는 식별자마다 Redis를 호출하지 않도록 즉시 반영하지 않음)
+ * - Redis에 전달되지 못한 증가분(서킷 개방, 연결 실패)은 카운터에 되돌려 다음 반영에 재시도하고, 그동안은 마지막 합계 기준으로 로컬 판정
+ *   호출 기한 초과 등 스크립트가 이미 실행되었을 수 있는 실패는 재시도하지 않음 (quota_sync.lua는 비멱등 INCRBY이므로
+ *   재시도하면 사용량이 두 번 반영됨, 실제로 반영되었다면 다음 반영의 합계에 포함됨)
+ * - 노드 간 초과 허용량은 노드당 반영 주기(또는 즉시 반영 한 번) 동안 받은 요청 수 이내
+ * - 한동안 사용되지 않았거나 기간이 끝난 카운터는 정리하고, 추적 카운터 수는 수준별로 quota.max-keys까지 제한
+ *   (한 수준이 가득 차도 다른 수준은 계속 판정, 가득 찬 수준은 다음 반영 때 사용되지 않는 카운터를 앞당겨 정리하며
+ *   그동안 해당 수준의 새 식별자는 미적용)
+ *
+ * 초 단위 버스트 제한은 라우트의 RequestRateLimiter / CostRateLimit이 담당하고, 이 클래스는 일/월 할당량만 판정
+ */
+@Component
+public class QuotaManager {
+
+    private static final Logger log = LoggerFactory.getLogger(QuotaManager.class);
+
+    private static final RedisScript<Long> SYNC_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/quota_sync.lua"), Long.class);
+
+    private static final long RETIRED = Long.MIN_VALUE;
+    private static final long RETRY = Long.MIN_VALUE;
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+    private static final int SWEEP_EVERY_FLUSHES = 60;
+    private static final int NEAR_LIMIT_DIVISOR = 100;
+    private static final int MAX_COUNTERS_PER_REQUEST = 6;
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RedisHealthTracker redisHealthTracker;
+    private final QuotaProperties quotaProperties;
+
+    private final Map<String, QuotaCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger[] levelCounts = new AtomicInteger[Level.values().length];
+    private final Queue<QuotaCounter> dirty = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private volatile boolean flushRequested = false;
+    private volatile boolean sweepRequested = false;
+    private volatile Periods periods;
+    private long flushCount = 0;
+
+    private final Counter allowedCounter;
+    private final Counter rejectedCounter;
+    private final Counter untrackedCounter;
+    private final Counter syncedCounter;
+    private final Counter syncFailedCounter;
+    private final Counter syncUnconfirmedCounter;
+
+    private Disposable flushTask;
+
+    public QuotaManager(ReactiveRedisTemplate<String, String> redisTemplate, RedisHealthTracker redisHealthTracker,
+                        QuotaProperties quotaProperties, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.redisHealthTracker = redisHealthTracker;
+        this.quotaProperties = quotaProperties;
+        for (int i = 0; i < levelCounts.length; i++) {
+            levelCounts[i] = new AtomicInteger();
+        }
+        this.allowedCounter = decisionCounter(meterRegistry, "allowed", "할당량 이내로 허용한 요청 수");
+        this.rejectedCounter = decisionCounter(meterRegistry, "rejected", "할당량 초과로 거부한 요청 수");
+        this.untrackedCounter = decisionCounter(meterRegistry, "untracked", "적용할 할당량이 없거나 추적 키 수 제한으로 판정하지 않은 요청 수");
+        this.syncedCounter = Counter.builder("gateway.quota.syncs")
+                .tag("result", "success")
+                .description("Redis에 반영한 할당량 카운터 수")
+                .register(meterRegistry);
+        this.syncFailedCounter = Counter.builder("gateway.quota.syncs")
+                .tag("result", "failure")
+                .description("Redis 반영에 실패하여 재시도할 할당량 카운터 수")
+                .register(meterRegistry);
+        this.syncUnconfirmedCounter = Counter.builder("gateway.quota.syncs")
+                .tag("result", "unconfirmed")
+                .description("반영 여부를 알 수 없어 재시도하지 않은 할당량 카운터 수 (호출 기한 초과 등)")
+                .register(meterRegistry);
+        Gauge.builder("gateway.quota.counters", counters, Map::size)
+                .description("노드에서 추적 중인 할당량 카운터 수")
+                .register(meterRegistry);
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("gateway.quota.decisions")
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!quotaProperties.isEnabled()) {
+            return;
+        }
+        Duration interval = quotaProperties.getSyncInterval();
+        flushTask = Flux.interval(interval, interval, Schedulers.parallel())
+                .subscribe(tick -> triggerFlush());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.dispose();
+        }
+        // 종료 직전 남은 사용량 반영 (실패 시 유실되어 다른 노드에서 그만큼 더 허용될 수 있음)
+        try {
+            flush().block(Duration.ofSeconds(1));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush pending quota usage on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 요청 하나에 대한 할당량 판정 및 사용량 기록 (노드 메모리에서 판정, Redis 호출 없음)
+     * @param apiKey API 키 (null 또는 빈 값이면 API 키 수준 미적용)
+     * @param tenant 테넌트 ID (null 또는 빈 값이면 테넌트 수준 미적용)
+     * @param plan 요금제 이름 (정의되지 않은 요금제면 quota.default-plan)
+     * @return 판정 결과, 적용할 할당량이 없으면 제한 없음(Decision.isLimited() == false)
+     */
+    public Decision tryAcquire(String apiKey, String tenant, String plan) {
+        if (!quotaProperties.isEnabled() || (isEmpty(apiKey) && isEmpty(tenant))) {
+            untrackedCounter.increment();
+            return Decision.UNLIMITED;
+        }
+        String planName = quotaProperties.resolvePlanName(plan);
+        QuotaProperties.Plan limits = quotaProperties.getPlan(planName);
+
+        while (true) {
+            Periods current = currentPeriods();
+            QuotaCounter[] targets = new QuotaCounter[MAX_COUNTERS_PER_REQUEST];
+            int count = 0;
+            count = addCounters(targets, count, Level.API_KEY, apiKey, limits.getApiKey(), current);
+            count = addCounters(targets, count, Level.TENANT, tenant, limits.getTenant(), current);
+            count = addCounters(targets, count, Level.PLAN, planName, limits.getPlan(), current);
+            if (count == 0) {
+                untrackedCounter.increment();
+                return Decision.UNLIMITED;
+            }
+
+            QuotaCounter tightest = null;
+            long tightestRemaining = Long.MAX_VALUE;
+            boolean flushNeeded = false;
+            int reserved = 0;
+            long result = 0;
+            for (; reserved < count; reserved++) {
+                QuotaCounter counter = targets[reserved];
+                result = reserve(counter);
+                if (result < 0) {
+                    break;
+                }
+                if (result < tightestRemaining) {
+                    tightest = counter;
+                    tightestRemaining = result;
+                }
+                if (result <= counter.limit / NEAR_LIMIT_DIVISOR) {
+                    flushNeeded = true;
+                }
+            }
+            if (reserved < count) {
+                // 하나라도 초과하면 전체 거부 (앞서 예약한 카운터는 되돌림)
+                for (int i = 0; i < reserved; i++) {
+                    restore(targets[i], -1);
+                }
+                if (result == RETRY) {
+                    continue;
+                }
+                rejectedCounter.increment();
+                QuotaCounter exceeded = targets[reserved];
+                return new Decision(false, exceeded.limit, 0, exceeded.resetMillis / 1000, exceeded.scope);
+            }
+            if (flushNeeded) {
+                triggerFlush();
+            }
+            allowedCounter.increment();
+            return new Decision(true, tightest.limit, tightestRemaining, tightest.resetMillis / 1000, tightest.scope);
+        }
+    }
+
+    private int addCounters(QuotaCounter[] targets, int count, Level level, String id, QuotaProperties.Limits limits,
+                            Periods current) {
+        if (isEmpty(id)) {
+            return count;
+        }
+        count = addCounter(targets, count, level, id, Period.DAY, limits.getDaily(), current);
+        return addCounter(targets, count, level, id, Period.MONTH, limits.getMonthly(), current);
+    }
+
+    private int addCounter(QuotaCounter[] targets, int count, Level level, String id, Period period, long limit,
+                           Periods current) {
+        if (limit <= 0) {
+            return count;
+        }
+        String key = key(level, id, period, current);
+        QuotaCounter counter = counters.get(key);
+        if (counter == null) {
+            AtomicInteger levelCount = levelCounts[level.ordinal()];
+            if (levelCount.get() >= quotaProperties.getMaxKeys()) {
+                // 이 수준만 판정하지 않고, 다음 반영 때 사용되지 않는 카운터를 정리하여 자리 확보
+                sweepRequested = true;
+                untrackedCounter.increment();
+                return count;
+            }
+            long resetMillis = current.resetMillis(period);
+            counter = counters.computeIfAbsent(key, k -> {
+                levelCount.incrementAndGet();
+                return new QuotaCounter(k, level, level.tag + "/" + period.scope, resetMillis);
+            });
+        }
+        counter.limit = limit;
+        counter.touched = true;
+        targets[count] = counter;
+        return count + 1;
+    }
+
+    /**
+     * 카운터에 요청 하나 예약
+     * @return 예약 후 남은 횟수, 한도 초과면 -1, 정리된 카운터면 RETRY
+     */
+    private long reserve(QuotaCounter counter) {
+        while (true) {
+            long pending = counter.pending.get();
+            if (pending == RETIRED) {
+                // 정리 중인 카운터는 맵에서 제거하고 새 카운터로 다시 판정
+                untrack(counter);
+                return RETRY;
+            }
+            // 반영 중 증가분이 누락되지 않도록 미반영 → 반영 중 → 합계 순서로 읽음 (flush와 반대 순서)
+            long used = pending + counter.inFlight.get() + counter.synced;
+            if (used + 1 > counter.limit) {
+                return -1;
+            }
+            if (counter.pending.compareAndSet(pending, pending + 1)) {
+                if (pending == 0) {
+                    dirty.offer(counter);
+                }
+                return counter.limit - used - 1;
+            }
+        }
+    }
+
+    /**
+     * 반영 요청 (진행 중인 반영이 있으면 완료 직후 한 번 더 실행)
+     */
+    void triggerFlush() {
+        if (!flushing.compareAndSet(false, true)) {
+            flushRequested = true;
+            return;
+        }
+        flushRequested = false;
+        flush().doFinally(signal -> {
+            flushing.set(false);
+            if (flushRequested) {
+                triggerFlush();
+            }
+        }).subscribe();
+    }
+
+    /**
+     * 미반영 사용량을 Redis에 반영하고 전체 노드 합계로 기준값 갱신
+     */
+    Mono<Void> flush() {
+        if (++flushCount % SWEEP_EVERY_FLUSHES == 0 || sweepRequested) {
+            sweepRequested = false;
+            sweep();
+        }
+        if (dirty.isEmpty() || !redisHealthTracker.isAvailable()) {
+            return Mono.empty();
+        }
+
+        List<Drained> drained = new ArrayList<>();
+        QuotaCounter counter;
+        while ((counter = dirty.poll()) != null) {
+            long delta = drain(counter);
+            if (delta != 0) {
+                drained.add(new Drained(counter, delta));
+            }
+        }
+        // 카운터마다 스크립트를 동시에 호출 (Lettuce가 파이프라인으로 전송)
+        return Flux.fromIterable(drained)
+                .flatMap(this::sync, Math.max(1, quotaProperties.getMaxBatch()))
+                .then();
+    }
+
+    private long drain(QuotaCounter counter) {
+        while (true) {
+            long pending = counter.pending.get();
+            if (pending == 0 || pending == RETIRED) {
+                return 0;
+            }
+            // 판정에서 누락되지 않도록 반영 중 증가분을 먼저 올리고 미반영 증가분을 비움
+            counter.inFlight.addAndGet(pending);
+            if (counter.pending.compareAndSet(pending, 0)) {
+                return pending;
+            }
+            counter.inFlight.addAndGet(-pending);
+        }
+    }
+
+    private Mono<Void> sync(Drained drained) {
+        QuotaCounter counter = drained.counter;
+        List<String> args = List.of(String.valueOf(drained.delta), String.valueOf(counter.resetMillis + DAY_MILLIS));
+        return redisHealthTracker.protect(redisTemplate.execute(SYNC_SCRIPT, List.of(counter.key), args).single())
+                .doOnNext(total -> {
+                    // 합계에 이번 증가분이 포함되므로 합계를 먼저 갱신한 뒤 반영 중 증가분을 뺌
+                    counter.synced = total;
+                    counter.inFlight.addAndGet(-drained.delta);
+                    syncedCounter.increment();
+                })
+                .onErrorResume(e -> {
+                    if (!RedisHealthTracker.isNotSent(e)) {
+                        // 스크립트가 이미 실행되었을 수 있으므로 되돌리지 않음 (중복 반영 방지)
+                        log.debug("Quota counter {} sync outcome unknown, not retrying: {}", counter.key, e.toString());
+                        counter.inFlight.addAndGet(-drained.delta);
+                        syncUnconfirmedCounter.increment();
+                        return Mono.empty();
+                    }
+                    log.debug("Failed to sync quota counter {}, retrying later: {}", counter.key, e.toString());
+                    restore(counter, drained.delta);
+                    counter.inFlight.addAndGet(-drained.delta);
+                    syncFailedCounter.increment();
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void restore(QuotaCounter counter, long delta) {
+        while (true) {
+            long pending = counter.pending.get();
+            if (pending == RETIRED) {
+                return;
+            }
+            if (counter.pending.compareAndSet(pending, pending + delta)) {
+                if (pending == 0) {
+                    dirty.offer(counter);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 지난 정리 이후 사용되지 않았거나 기간이 끝났고, 미반영 사용량이 없는 카운터 제거
+     */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (QuotaCounter counter : counters.values()) {
+            boolean expired = counter.resetMillis <= now;
+            if (counter.touched && !expired) {
+                counter.touched = false;
+            } else if (counter.inFlight.get() == 0 && counter.pending.compareAndSet(0, RETIRED)) {
+                untrack(counter);
+            }
+        }
+    }
+
+    private void untrack(QuotaCounter counter) {
+        if (counters.remove(counter.key, counter)) {
+            levelCounts[counter.level.ordinal()].decrementAndGet();
+        }
+    }
+
+    private Periods currentPeriods() {
+        long now = System.currentTimeMillis();
+        Periods current = periods;
+        if (current == null || now >= current.dayResetMillis) {
+            current = Periods.at(now);
+            periods = current;
+        }
+        return current;
+    }
+
+    static String key(Level level, String id, Period period, Periods current) {
+        // Redis Cluster에서 해시 태그로 같은 식별자의 일/월 카운터를 같은 슬롯에 배치
+        return "quota:{" + level.tag + ":" + id + "}:" + period.code + ":" + current.label(period);
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    int trackedCounters() {
+        return counters.size();
+    }
+
+    enum Level {
+        API_KEY("api-key"),
+        TENANT("tenant"),
+        PLAN("plan");
+
+        private final String tag;
+
+        Level(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    enum Period {
+        DAY("d", "day"),
+        MONTH("m", "month");
+
+        private final String code;
+        private final String scope;
+
+        Period(String code, String scope) {
+            this.code = code;
+            this.scope = scope;
+        }
+    }
+
+    /**
+     * 현재 UTC 일/월 기간 (날짜가 바뀔 때만 다시 계산)
+     */
+    static final class Periods {
+        private final String day;
+        private final String month;
+        private final long dayResetMillis;
+        private final long monthResetMillis;
+
+        private Periods(LocalDate date) {
+            this.day = date.format(DateTimeFormatter.BASIC_ISO_DATE);
+            this.month = day.substring(0, 6);
+            this.dayResetMillis = date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            this.monthResetMillis = date.withDayOfMonth(1).plusMonths(1)
+                    .atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        }
+
+        static Periods at(long epochMillis) {
+            return new Periods(Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC).toLocalDate());
+        }
+
+        String label(Period period) {
+            return period == Period.DAY ? day : month;
+        }
+
+        long resetMillis(Period period) {
+            return period == Period.DAY ? dayResetMillis : monthResetMillis;
+        }
+    }
+
+    private static final class QuotaCounter {
+        private final String key;
+        private final Level level;
+        private final String scope;
+        private final long resetMillis;
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicLong inFlight = new AtomicLong();
+        private volatile long synced;
+        private volatile long limit;
+        private volatile boolean touched = true;
+
+        QuotaCounter(String key, Level level, String scope, long resetMillis) {
+            this.key = key;
+            this.level = level;
+            this.scope = scope;
+            this.resetMillis = resetMillis;
+        }
+    }
+
+    private static final class Drained {
+        private final QuotaCounter counter;
+        private final long delta;
+
+        Drained(QuotaCounter counter, long delta) {
+            this.counter = counter;
+            this.delta = delta;
+        }
+    }
+
+    /**
+     * 할당량 판정 결과 (가장 빡빡한 수준/기간 기준)
+     */
+    public static final class Decision {
+
+        static final Decision UNLIMITED = new Decision(true, -1, -1, 0, null);
+
+        private final boolean allowed;
+        private final long limit;
+        private final long remaining;
+        private final long resetEpochSeconds;
+        private final String scope;
+
+        public Decision(boolean allowed, long limit, long remaining, long resetEpochSeconds, String scope) {
+            this.allowed = allowed;
+            this.limit = limit;
+            this.remaining = remaining;
+            this.resetEpochSeconds = resetEpochSeconds;
+            this.scope = scope;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        /** 적용된 할당량이 있는지 (없으면 X-Quota-* 헤더 생략) */
+        public boolean isLimited() {
+            return scope != null;
+        }
+
+        public long getLimit() {
+            return limit;
+        }
+
+        public long getRemaining() {
+            return remaining;
+        }
+
+        /** 기간이 끝나 할당량이 초기화되는 시각 (Unix timestamp, 초) */
+        public long getResetEpochSeconds() {
+            return resetEpochSeconds;
+        }
+
+        /** 판정 기준 수준/기간 (예: api-key/day, tenant/month) */
+        public String getScope() {
+            return scope;
+        }
+    }
+}
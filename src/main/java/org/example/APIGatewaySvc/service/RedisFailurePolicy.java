@@ -0,0 +1,22 @@
+package org.example.APIGatewaySvc.service;
+
+/**
+ * Redis 장애(타임아웃, 서킷 오픈) 시 필터별 처리 정책
+ */
+public enum RedisFailurePolicy {
+
+    /**
+     * Redis 확인 없이 요청 통과 (가용성 우선)
+     */
+    FAIL_OPEN,
+
+    /**
+     * 요청 거부 (503 Service Unavailable, 보안 우선)
+     */
+    FAIL_CLOSED,
+
+    /**
+     * 노드 로컬에 마지막으로 알려진 상태로 판정하고, 알려진 상태가 없으면 통과
+     */
+    LAST_KNOWN
+}
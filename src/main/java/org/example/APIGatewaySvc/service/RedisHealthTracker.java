@@ -0,0 +1,74 @@
+package org.example.APIGatewaySvc.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 요청 경로 Redis 호출 상태 추적기
+ * 필터가 요청마다 호출하는 Redis 명령에 짧은 호출 기한을 적용하고, 실패/지연이 누적되면 서킷을 열어
+ * 이후 호출을 즉시 실패시킴 (spring.data.redis.timeout 5초를 요청마다 기다리지 않도록)
+ *
+ * 동작 방식:
+ * - 호출마다 gateway.redis.call-timeout(기본 50ms) 기한 적용, 초과 시 TimeoutException
+ * - resilience4j 서킷 브레이커 redisCb가 타임아웃/연결 오류 비율로 개방 여부 판단
+ * - 개방 상태에서는 Redis를 호출하지 않고 즉시 CallNotPermittedException
+ * - waitDurationInOpenState 경과 후 반개방 상태로 전환되어 일부 요청이 복구 여부를 확인
+ * - 실패 시 처리(통과/거부/로컬 상태)는 호출한 필터가 RedisFailurePolicy에 따라 결정
+ * - 호출 기한 초과는 이미 Redis에 전달된 명령(스크립트)을 멈추지 않으므로, 비멱등 쓰기를 재시도할 때는
+ *   isNotSent()로 명령이 전달되지 않았음이 확실한 실패만 재시도
+ */
+@Component
+public class RedisHealthTracker {
+
+    public static final String CIRCUIT_BREAKER_NAME = "redisCb";
+
+    @Value("${gateway.redis.call-timeout:50ms}")
+    private Duration callTimeout = Duration.ofMillis(50);
+
+    private final CircuitBreaker circuitBreaker;
+
+    public RedisHealthTracker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+    }
+
+    /**
+     * 호출 기한과 서킷 브레이커를 적용한 Redis 호출
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return call.timeout(callTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Redis에 명령이 전달되지 않았음이 확실한 실패인지 (서킷 개방, 연결 실패)
+     * 타임아웃 등 그 밖의 실패는 명령이 이미 실행되었을 수 있으므로 false
+     */
+    public static boolean isNotSent(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallNotPermittedException || cause instanceof RedisConnectionFailureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 서킷이 열려 있지 않으면 true (반개방 상태 포함)
+     */
+    public boolean isAvailable() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.APIGatewaySvc.util;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 차단 목록 스냅샷 파일 (메모리 매핑 바이너리 형식)
+ * 게이트웨이 노드가 재시작 직후 Redis 조회 없이 차단 목록을 적재할 수 있도록 로컬 디스크에 보관
+ *
+ * 파일 형식 (빅 엔디언):
+ * - 헤더: magic(4) "GBLS", version(4), 생성 epoch millis(8), 항목 수(4)
+ * - 항목: 종류(1), 만료 epoch millis(8, 영구차단은 0), ID 길이(2) + UTF-8 ID, 사유 길이(2) + UTF-8 사유
+ * - 트레일러: 헤더와 항목 전체의 CRC32(8)
+ *
+ * 쓰기는 임시 파일에 기록한 뒤 원자적으로 교체하므로, 읽는 쪽은 완전한 파일만 보게 됨
+ */
+public final class BlockSnapshotFile {
+
+    private static final int MAGIC = 0x47424C53; // "GBLS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    private static final int TRAILER_SIZE = 8;
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+
+    public static final byte KIND_USER = 0;
+    public static final byte KIND_IP = 1;
+    public static final byte KIND_API_KEY = 2;
+    public static final byte KIND_CIDR = 3;
+
+    private BlockSnapshotFile() {
+    }
+
+    /**
+     * 스냅샷 기록 (임시 파일 기록 후 원자적 교체)
+     * 길이 제한(65535바이트)을 넘는 ID/사유를 가진 항목은 제외
+     * @return 기록한 항목 수
+     */
+    public static int write(Path path, long createdAtMillis, List<Record> records) throws IOException {
+        List<byte[]> ids = new ArrayList<>(records.size());
+        List<byte[]> reasons = new ArrayList<>(records.size());
+        List<Record> written = new ArrayList<>(records.size());
+        long size = HEADER_SIZE + TRAILER_SIZE;
+        for (Record record : records) {
+            byte[] id = record.id.getBytes(StandardCharsets.UTF_8);
+            byte[] reason = record.reason.getBytes(StandardCharsets.UTF_8);
+            if (id.length > MAX_FIELD_BYTES || reason.length > MAX_FIELD_BYTES) {
+                continue;
+            }
+            ids.add(id);
+            reasons.add(reason);
+            written.add(record);
+            size += 1 + 8 + 2 + id.length + 2 + reason.length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Block snapshot too large: " + size + " bytes");
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(createdAtMillis).putInt(written.size());
+            for (int i = 0; i < written.size(); i++) {
+                Record record = written.get(i);
+                buffer.put(record.kind).putLong(record.expiresAtMillis);
+                buffer.putShort((short) ids.get(i).length).put(ids.get(i));
+                buffer.putShort((short) reasons.get(i).length).put(reasons.get(i));
+            }
+            buffer.putLong(checksum(buffer, (int) size - TRAILER_SIZE));
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written.size();
+    }
+
+    /**
+     * 스냅샷 읽기
+     * @return 스냅샷 (파일이 없으면 null)
+     * @throws IOException 형식이 맞지 않거나 체크섬이 일치하지 않는 경우
+     */
+    public static Snapshot read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid block snapshot size: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long expectedChecksum = buffer.getLong((int) size - TRAILER_SIZE);
+            if (checksum(buffer, (int) size - TRAILER_SIZE) != expectedChecksum) {
+                throw new IOException("Block snapshot checksum mismatch");
+            }
+
+            buffer.position(0);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported block snapshot format");
+            }
+            long createdAtMillis = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0) {
+                throw new IOException("Invalid block snapshot entry count: " + count);
+            }
+            try {
+                List<Record> records = new ArrayList<>(Math.min(count, (int) (size / 13)));
+                for (int i = 0; i < count; i++) {
+                    byte kind = buffer.get();
+                    long expiresAtMillis = buffer.getLong();
+                    String id = readString(buffer);
+                    String reason = readString(buffer);
+                    records.add(new Record(kind, id, expiresAtMillis, reason));
+                }
+                return new Snapshot(createdAtMillis, records);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated block snapshot", e);
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.position(0).limit(length);
+        crc.update(view);
+        return crc.getValue();
+    }
+
+    /**
+     * 스냅샷 항목
+     */
+    public static final class Record {
+        private final byte kind;
+        private final String id;
+        private final long expiresAtMillis;
+        private final String reason;
+
+        /**
+         * @param kind 항목 종류 (KIND_*)
+         * @param id 차단 대상 ID 또는 정규화된 CIDR
+         * @param expiresAtMillis 만료 epoch millis (영구차단은 0)
+         * @param reason 차단 사유
+         */
+        public Record(byte kind, String id, long expiresAtMillis, String reason) {
+            this.kind = kind;
+            this.id = id;
+            this.expiresAtMillis = expiresAtMillis;
+            this.reason = reason != null ? reason : "";
+        }
+
+        public byte getKind() { return kind; }
+        public String getId() { return id; }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+        public String getReason() { return reason; }
+
+        public boolean isExpired(long nowMillis) {
+            return expiresAtMillis > 0 && nowMillis >= expiresAtMillis;
+        }
+    }
+
+    /**
+     * 읽어 들인 스냅샷
+     */
+    public static final class Snapshot {
+        private final long createdAtMillis;
+        private final List<Record> records;
+
+        Snapshot(long createdAtMillis, List<Record> records) {
+            this.createdAtMillis = createdAtMillis;
+            this.records = records;
+        }
+
+        public long getCreatedAtMillis() { return createdAtMillis; }
+        public List<Record> getRecords() { return records; }
+    }
+}
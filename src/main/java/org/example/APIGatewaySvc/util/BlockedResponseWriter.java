@@ -0,0 +1,242 @@
+package org.example.APIGatewaySvc.util;
+
+import org.example.APIGatewaySvc.service.BlockService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 차단(403) 응답 JSON 작성 유틸리티
+ * 공격 상황에서는 초당 수만 건의 차단 응답을 만들어야 하므로,
+ * 고정 JSON 조각은 UTF-8 바이트로 미리 인코딩해 두고 가변 필드만 직접 바이트로 기록
+ *
+ * 특징:
+ * - String.format, UUID, DateTimeFormatter 미사용 (요청당 중간 문자열 생성 없음)
+ * - 스레드별 작업 버퍼에 조립한 뒤 응답의 DataBufferFactory(Netty 풀 버퍼)로 한 번만 복사
+ * - 응답 형식은 StandardResponseDTO와 동일한 success/data/error/meta 구조
+ */
+public final class BlockedResponseWriter {
+
+    private static final byte[] PREFIX = ascii("{\"success\":false,\"data\":null,\"error\":{\"code\":\"BLOCKED\",\"message\":\"");
+    private static final byte[] REASON_SUFFIX = ascii("\",\"expiresAt\":");
+    private static final byte[] REQUEST_ID_PREFIX = ascii("}},\"meta\":{\"requestId\":\"");
+    private static final byte[] TIMESTAMP_PREFIX = ascii("\",\"timestamp\":\"");
+    private static final byte[] SUFFIX = ascii("\",\"durationMs\":0}}");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private static final int INITIAL_SCRATCH_SIZE = 512;
+
+    // 타입별 "{TYPE} 차단됨","details":{"type":"{TYPE}","reason":" 조각 (타입 종류는 소수로 고정)
+    private static final ConcurrentHashMap<String, byte[]> TYPE_FRAGMENTS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[INITIAL_SCRATCH_SIZE]);
+
+    private BlockedResponseWriter() {
+    }
+
+    /**
+     * 403 차단 응답 작성
+     * @param response 응답 객체
+     * @param blockInfo 차단 정보
+     * @param requestId 요청 추적 ID (null이면 임의 생성)
+     */
+    public static Mono<Void> write(ServerHttpResponse response, BlockService.BlockInfo blockInfo, String requestId) {
+        response.setStatusCode(HttpStatus.FORBIDDEN);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        DataBuffer buffer = encode(response.bufferFactory(), blockInfo, requestId, System.currentTimeMillis());
+        response.getHeaders().setContentLength(buffer.readableByteCount());
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * 차단 응답 본문을 DataBuffer로 인코딩
+     */
+    public static DataBuffer encode(DataBufferFactory bufferFactory, BlockService.BlockInfo blockInfo,
+                                    String requestId, long nowMillis) {
+        Writer writer = new Writer(SCRATCH.get());
+        writer.write(PREFIX);
+        writer.write(TYPE_FRAGMENTS.computeIfAbsent(blockInfo.getType(), BlockedResponseWriter::typeFragment));
+        writer.writeEscaped(blockInfo.getReason());
+        writer.write(REASON_SUFFIX);
+        if (blockInfo.getExpiresAt() != null) {
+            writer.writeByte('"');
+            writer.writeIsoInstant(blockInfo.getExpiresAt().toEpochMilli());
+            writer.writeByte('"');
+        } else {
+            writer.write(NULL);
+        }
+        writer.write(REQUEST_ID_PREFIX);
+        if (requestId != null && !requestId.isEmpty()) {
+            writer.writeEscaped(requestId);
+        } else {
+            writer.writeRandomId();
+        }
+        writer.write(TIMESTAMP_PREFIX);
+        writer.writeIsoInstant(nowMillis);
+        writer.write(SUFFIX);
+
+        // 버퍼가 커졌다면 다음 요청에서 재사용
+        SCRATCH.set(writer.bytes);
+
+        DataBuffer buffer = bufferFactory.allocateBuffer(writer.length);
+        buffer.write(writer.bytes, 0, writer.length);
+        return buffer;
+    }
+
+    private static byte[] typeFragment(String type) {
+        Writer writer = new Writer(new byte[64]);
+        writer.writeEscaped(type + " 차단됨");
+        writer.write(ascii("\",\"details\":{\"type\":\""));
+        writer.writeEscaped(type);
+        writer.write(ascii("\",\"reason\":\""));
+        byte[] fragment = new byte[writer.length];
+        System.arraycopy(writer.bytes, 0, fragment, 0, writer.length);
+        return fragment;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 확장 가능한 바이트 배열에 JSON을 순차 기록
+     */
+    private static final class Writer {
+        private byte[] bytes;
+        private int length;
+
+        Writer(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        void write(byte[] fragment) {
+            ensureCapacity(fragment.length);
+            System.arraycopy(fragment, 0, bytes, length, fragment.length);
+            length += fragment.length;
+        }
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) b;
+        }
+
+        /**
+         * JSON 문자열 이스케이프와 UTF-8 인코딩을 한 번에 수행
+         */
+        void writeEscaped(String value) {
+            if (value == null) {
+                return;
+            }
+            // 최악의 경우 문자당 6바이트(\\uXXXX)
+            ensureCapacity(value.length() * 6);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    bytes[length++] = '\\';
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    bytes[length++] = '\\';
+                    bytes[length++] = 'u';
+                    bytes[length++] = '0';
+                    bytes[length++] = '0';
+                    bytes[length++] = HEX[c >> 4];
+                    bytes[length++] = HEX[c & 0xF];
+                } else if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        /**
+         * epoch millis를 ISO-8601 UTC 형식(yyyy-MM-ddTHH:mm:ss.SSSZ)으로 기록
+         */
+        void writeIsoInstant(long epochMillis) {
+            ensureCapacity(24);
+            long epochSeconds = Math.floorDiv(epochMillis, 1000L);
+            int millis = (int) Math.floorMod(epochMillis, 1000L);
+            long epochDay = Math.floorDiv(epochSeconds, 86_400L);
+            int secondOfDay = (int) Math.floorMod(epochSeconds, 86_400L);
+
+            // civil-from-days (Howard Hinnant 알고리즘)
+            long z = epochDay + 719_468;
+            long era = Math.floorDiv(z, 146_097);
+            long dayOfEra = z - era * 146_097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long mp = (5 * dayOfYear + 2) / 153;
+            int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+            int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+            int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+            writeDigits(year, 4);
+            bytes[length++] = '-';
+            writeDigits(month, 2);
+            bytes[length++] = '-';
+            writeDigits(day, 2);
+            bytes[length++] = 'T';
+            writeDigits(secondOfDay / 3600, 2);
+            bytes[length++] = ':';
+            writeDigits((secondOfDay / 60) % 60, 2);
+            bytes[length++] = ':';
+            writeDigits(secondOfDay % 60, 2);
+            bytes[length++] = '.';
+            writeDigits(millis, 3);
+            bytes[length++] = 'Z';
+        }
+
+        /**
+         * X-Request-ID가 없는 경우 사용할 임의 32자리 16진수 ID
+         */
+        void writeRandomId() {
+            ensureCapacity(32);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int part = 0; part < 2; part++) {
+                long value = random.nextLong();
+                for (int shift = 60; shift >= 0; shift -= 4) {
+                    bytes[length++] = HEX[(int) (value >>> shift) & 0xF];
+                }
+            }
+        }
+
+        private void writeDigits(int value, int width) {
+            for (int i = width - 1; i >= 0; i--) {
+                bytes[length + i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += width;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > bytes.length) {
+                byte[] grown = new byte[Math.max(bytes.length * 2, length + additional)];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+        }
+    }
+}
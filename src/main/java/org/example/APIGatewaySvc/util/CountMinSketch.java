@@ -0,0 +1,106 @@
+package org.example.APIGatewaySvc.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch 빈도 추정 (Cormode & Muthukrishnan)
+ * 고유 항목 수와 관계없이 depth * width개의 카운터만 사용하며, 여러 스레드에서 동시에 사용 가능 (CAS 기반 갱신)
+ *
+ * 특성:
+ * - estimate()는 실제 빈도 이상을 반환 (과소 추정 없음)
+ * - 확률 confidence 이상으로 과대 추정 오차가 epsilon * (전체 추가 횟수) 이하
+ * - 보수적 갱신(conservative update): 현재 추정값보다 작은 카운터만 올려 오차를 줄임
+ */
+public class CountMinSketch {
+
+    private final AtomicLongArray counters;
+    private final int width;
+    private final int depth;
+
+    /**
+     * @param epsilon 전체 추가 횟수 대비 허용 오차 비율 (예: 0.001)
+     * @param confidence 오차 범위를 보장할 확률 (예: 0.99)
+     */
+    public CountMinSketch(double epsilon, double confidence) {
+        if (epsilon <= 0 || epsilon >= 1) {
+            throw new IllegalArgumentException("epsilon must be between 0 and 1");
+        }
+        if (confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("confidence must be between 0 and 1");
+        }
+        // w = e / epsilon, d = ln(1 / (1 - confidence))
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = Math.max(1, (int) Math.ceil(Math.log(1 / (1 - confidence))));
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * 빈도 증가 후 추정값 반환
+     */
+    public long add(String value, long count) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = estimate(h1, h2) + count;
+        for (int row = 0; row < depth; row++) {
+            int index = index(h1, h2, row);
+            while (true) {
+                long current = counters.get(index);
+                if (current >= estimate || counters.compareAndSet(index, current, estimate)) {
+                    break;
+                }
+            }
+        }
+        return estimate;
+    }
+
+    public long estimate(String value) {
+        long hash = hash(value);
+        return estimate((int) hash, (int) (hash >>> 32));
+    }
+
+    /**
+     * 카운터 저장에 사용하는 메모리 크기 (바이트)
+     */
+    public long sizeInBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    private long estimate(int h1, int h2) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(h1, h2, row)));
+        }
+        return min;
+    }
+
+    private int index(int h1, int h2, int row) {
+        // 행마다 다른 해시 g_i(x) = h1(x) + i * h2(x)를 행 구간 안으로 매핑
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+
+    /**
+     * 문자열 64비트 해시 (FNV-1a + MurmurHash3 finalizer)
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
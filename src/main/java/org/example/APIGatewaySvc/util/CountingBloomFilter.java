@@ -0,0 +1,159 @@
+package org.example.APIGatewaySvc.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 4비트 카운터 기반 Counting Bloom Filter
+ * 일반 Bloom Filter와 달리 삭제를 지원하며, 여러 스레드에서 동시에 사용 가능 (CAS 기반 갱신)
+ *
+ * 특성:
+ * - mightContain()이 false면 "확실히 없음", true면 "있을 수도 있음" (오탐 가능, 미탐 없음)
+ * - 카운터가 최대값(15)에 도달하면 고정되어 더 이상 감소하지 않음 (미탐 방지)
+ * - 추가된 적 없는 항목을 remove()하면 다른 항목의 미탐을 유발할 수 있으므로
+ *   실제로 존재했던 항목에 대해서만 호출해야 함 ("확실히 없음"으로 판정되는 항목은 카운터를 건드리지 않고 무시)
+ */
+public class CountingBloomFilter {
+
+    private static final int BITS_PER_COUNTER = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / BITS_PER_COUNTER;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long MAX_COUNT = COUNTER_MASK;
+
+    private final AtomicLongArray words;
+    private final long counterCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 예상 항목 수
+     * @param falsePositiveRate 목표 오탐률 (예: 0.01)
+     */
+    public CountingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        // m = -n ln(p) / (ln 2)^2, k = (m / n) ln 2
+        long optimalCounters = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (optimalCounters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+        this.words = new AtomicLongArray(Math.max(1, wordCount));
+        this.counterCount = (long) words.length() * COUNTERS_PER_WORD;
+        this.hashCount = Math.max(1, (int) Math.round((double) counterCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            increment(index(h1, h2, i));
+        }
+    }
+
+    /**
+     * @return 카운터를 감소시켰으면 true, "확실히 없음"이라 무시했으면 false
+     */
+    public boolean remove(String value) {
+        if (!mightContain(value)) {
+            // 일부 카운터만 감소시키면 같은 카운터를 공유하는 다른 항목의 미탐이 생김
+            return false;
+        }
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            decrement(index(h1, h2, i));
+        }
+        return true;
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            if (counter(index(h1, h2, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 카운터 저장에 사용하는 메모리 크기 (바이트)
+     */
+    public long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private long index(int h1, int h2, int i) {
+        // Kirsch-Mitzenmacher 이중 해싱: g_i(x) = h1(x) + i * h2(x)
+        return Math.floorMod(h1 + (long) i * h2, counterCount);
+    }
+
+    private long counter(long index) {
+        int shift = shift(index);
+        return (words.get(word(index)) >>> shift) & COUNTER_MASK;
+    }
+
+    private void increment(long index) {
+        int word = word(index);
+        int shift = shift(index);
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & COUNTER_MASK;
+            if (count == MAX_COUNT) {
+                return;
+            }
+            if (words.compareAndSet(word, current, current + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(long index) {
+        int word = word(index);
+        int shift = shift(index);
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & COUNTER_MASK;
+            // 0은 이미 비어 있음, 최대값은 실제 개수를 알 수 없으므로 고정
+            if (count == 0 || count == MAX_COUNT) {
+                return;
+            }
+            if (words.compareAndSet(word, current, current - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private static int word(long index) {
+        return (int) (index / COUNTERS_PER_WORD);
+    }
+
+    private static int shift(long index) {
+        return (int) (index % COUNTERS_PER_WORD) * BITS_PER_COUNTER;
+    }
+
+    /**
+     * 문자열 64비트 해시 (FNV-1a + MurmurHash3 finalizer)
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,409 @@
+package org.example.APIGatewaySvc.util;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * X-Forwarded-For 헤더에서 신뢰할 수 있는 클라이언트 주소를 찾는 파서
+ * 신뢰 프록시 CIDR 목록을 기준으로 헤더를 오른쪽(게이트웨이에 가까운 홉)부터 거슬러 올라가며,
+ * 신뢰 프록시가 아닌 첫 주소를 클라이언트로 판단 (클라이언트가 헤더 왼쪽에 임의 주소를 넣어도 무시됨)
+ *
+ * 할당 없는 파싱:
+ * - split/trim/정규식 없이 헤더 문자열의 구간을 직접 읽어 IPv4/IPv6 주소를 두 개의 long(128비트)으로 변환
+ * - 신뢰 프록시 판정도 미리 계산한 네트워크/마스크 long 비교로 수행 (InetAddress, byte[] 생성 없음)
+ * - 결과 문자열만 클라이언트로 판정된 주소 하나에 대해 생성
+ *
+ * 지원 형식: IPv4, IPv6 (:: 축약, 끝 32비트 IPv4 표기), [IPv6]:포트, IPv4:포트, IPv6 zone(%eth0, 무시)
+ * 결과 표기는 InetAddress.getHostAddress()와 같음 (IPv6는 축약 없는 소문자, IPv4-mapped 주소는 IPv4)
+ * 같은 주소를 다른 표기로 보내 Rate Limit / 차단 키를 우회하지 못하도록 항상 정규화된 표기를 반환
+ *
+ * 스레드 안전성: 생성 후 불변이므로 동시 사용 안전
+ */
+public final class ForwardedForParser {
+
+    private final boolean[] ipv6;
+    private final long[] networkHi;
+    private final long[] networkLo;
+    private final long[] maskHi;
+    private final long[] maskLo;
+
+    /**
+     * @param trustedProxies 신뢰 프록시 CIDR 목록 (예: 10.0.0.0/8, ::1/128), 형식이 잘못된 항목은 IllegalArgumentException
+     */
+    public ForwardedForParser(List<String> trustedProxies) {
+        List<IpPrefixTrie.Cidr> cidrs = new ArrayList<>();
+        for (String value : trustedProxies) {
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            IpPrefixTrie.Cidr cidr = IpPrefixTrie.Cidr.parse(value);
+            if (cidr == null) {
+                throw new IllegalArgumentException("Invalid trusted proxy CIDR: " + value);
+            }
+            cidrs.add(cidr);
+        }
+        int size = cidrs.size();
+        this.ipv6 = new boolean[size];
+        this.networkHi = new long[size];
+        this.networkLo = new long[size];
+        this.maskHi = new long[size];
+        this.maskLo = new long[size];
+        Address network = new Address();
+        for (int i = 0; i < size; i++) {
+            IpPrefixTrie.Cidr cidr = cidrs.get(i);
+            network.set(cidr.getAddress());
+            int prefix = cidr.getPrefixLength();
+            ipv6[i] = network.ipv6;
+            if (network.ipv6) {
+                maskHi[i] = prefix >= 64 ? -1L : prefix == 0 ? 0 : -1L << (64 - prefix);
+                maskLo[i] = prefix <= 64 ? 0 : -1L << (128 - prefix);
+            } else {
+                maskLo[i] = prefix == 0 ? 0 : (0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL;
+            }
+            networkHi[i] = network.hi & maskHi[i];
+            networkLo[i] = network.lo & maskLo[i];
+        }
+    }
+
+    /**
+     * 신뢰 프록시 주소인지 확인
+     */
+    public boolean isTrusted(InetAddress address) {
+        if (address == null) {
+            return false;
+        }
+        Address parsed = new Address();
+        parsed.set(address.getAddress());
+        return isTrusted(parsed);
+    }
+
+    private boolean isTrusted(Address address) {
+        for (int i = 0; i < ipv6.length; i++) {
+            if (ipv6[i] == address.ipv6
+                    && (address.hi & maskHi[i]) == networkHi[i]
+                    && (address.lo & maskLo[i]) == networkLo[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * X-Forwarded-For 헤더 한 줄에서 클라이언트 주소 추출 (직접 연결한 주소가 신뢰 프록시일 때만 호출)
+     * - 신뢰 프록시가 아닌 첫 주소를 반환
+     * - 형식이 잘못된 항목을 만나면 그 오른쪽의 (신뢰 프록시) 주소를 반환
+     * - 모두 신뢰 프록시면 가장 왼쪽 주소를 반환
+     * @return 정규화된 클라이언트 주소, 유효한 항목이 없으면 null
+     */
+    public String clientAddress(String headerValue) {
+        if (headerValue == null) {
+            return null;
+        }
+        Address candidate = new Address();
+        walk(headerValue, candidate, new Address());
+        return candidate.valid ? candidate.format() : null;
+    }
+
+    /**
+     * 여러 줄의 X-Forwarded-For 헤더에서 클라이언트 주소 추출
+     * 마지막 줄(가장 가까운 프록시가 추가)부터 거슬러 올라가며, 판정 규칙은 clientAddress(String)과 같음
+     */
+    public String clientAddress(List<String> headerValues) {
+        if (headerValues == null) {
+            return null;
+        }
+        Address candidate = new Address();
+        Address current = new Address();
+        for (int line = headerValues.size() - 1; line >= 0; line--) {
+            String value = headerValues.get(line);
+            if (value != null && !walk(value, candidate, current)) {
+                break;
+            }
+        }
+        return candidate.valid ? candidate.format() : null;
+    }
+
+    /**
+     * 한 줄을 오른쪽부터 검사하여 candidate 갱신
+     * @return 모든 항목이 신뢰 프록시여서 왼쪽(이전 줄)으로 계속 진행해야 하면 true
+     */
+    private boolean walk(String value, Address candidate, Address current) {
+        int end = value.length();
+        while (end >= 0) {
+            int comma = value.lastIndexOf(',', end - 1);
+            if (!current.parse(value, comma + 1, end)) {
+                return false;
+            }
+            candidate.copyFrom(current);
+            if (!isTrusted(current)) {
+                return false;
+            }
+            end = comma;
+        }
+        return true;
+    }
+
+    /**
+     * 단일 주소 헤더(X-Real-IP 등) 값을 정규화
+     * @return 정규화된 주소, IP 형식이 아니면 null
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        Address address = new Address();
+        return address.parse(value, 0, value.length()) ? address.format() : null;
+    }
+
+    /**
+     * 파싱한 주소 (IPv4는 lo 하위 32비트, IPv6는 hi/lo 128비트)
+     */
+    private static final class Address {
+        private boolean valid;
+        private boolean ipv6;
+        private long hi;
+        private long lo;
+
+        void set(byte[] bytes) {
+            valid = true;
+            hi = 0;
+            lo = 0;
+            ipv6 = bytes.length == 16;
+            for (int i = 0; i < bytes.length; i++) {
+                long b = bytes[i] & 0xFF;
+                if (i < 8 && ipv6) {
+                    hi = (hi << 8) | b;
+                } else {
+                    lo = (lo << 8) | b;
+                }
+            }
+        }
+
+        void copyFrom(Address other) {
+            valid = other.valid;
+            ipv6 = other.ipv6;
+            hi = other.hi;
+            lo = other.lo;
+        }
+
+        /**
+         * value[start, end) 구간을 주소로 파싱 (앞뒤 공백 허용)
+         */
+        boolean parse(String value, int start, int end) {
+            while (start < end && isSpace(value.charAt(start))) {
+                start++;
+            }
+            while (end > start && isSpace(value.charAt(end - 1))) {
+                end--;
+            }
+            if (start >= end) {
+                return false;
+            }
+            if (value.charAt(start) == '[') {
+                // [IPv6] 또는 [IPv6]:포트
+                int close = value.indexOf(']', start);
+                if (close < 0 || close >= end || (close + 1 < end && !isPort(value, close + 1, end))) {
+                    return false;
+                }
+                return parseIpv6(value, start + 1, close);
+            }
+            int firstColon = indexOf(value, ':', start, end);
+            if (firstColon < 0) {
+                return parseIpv4(value, start, end);
+            }
+            if (indexOf(value, ':', firstColon + 1, end) < 0) {
+                // IPv4:포트
+                return isPort(value, firstColon, end) && parseIpv4(value, start, firstColon);
+            }
+            int zone = indexOf(value, '%', start, end);
+            return parseIpv6(value, start, zone < 0 ? end : zone);
+        }
+
+        private boolean parseIpv4(String value, int start, int end) {
+            long address = parseIpv4Bits(value, start, end);
+            if (address < 0) {
+                return false;
+            }
+            valid = true;
+            ipv6 = false;
+            hi = 0;
+            lo = address;
+            return true;
+        }
+
+        /**
+         * @return 32비트 주소, 형식이 잘못되었으면 -1
+         */
+        private static long parseIpv4Bits(String value, int start, int end) {
+            long address = 0;
+            int octets = 0;
+            int octet = -1;
+            int digits = 0;
+            for (int i = start; i <= end; i++) {
+                char c = i < end ? value.charAt(i) : '.';
+                if (c == '.') {
+                    if (octet < 0 || octets == 4) {
+                        return -1;
+                    }
+                    address = (address << 8) | octet;
+                    octets++;
+                    octet = -1;
+                    digits = 0;
+                } else if (c >= '0' && c <= '9' && digits < 3) {
+                    octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                    digits++;
+                    if (octet > 255) {
+                        return -1;
+                    }
+                } else {
+                    return -1;
+                }
+            }
+            return octets == 4 ? address : -1;
+        }
+
+        private boolean parseIpv6(String value, int start, int end) {
+            // "::" 앞 그룹은 위치가 정해져 있으므로 바로 기록하고, 뒤 그룹은 시프트 레지스터에 모은 뒤 끝에 합침
+            long headHi = 0;
+            long headLo = 0;
+            long tailHi = 0;
+            long tailLo = 0;
+            int headGroups = 0;
+            int tailGroups = 0;
+            boolean compressed = false;
+            int i = start;
+            if (end - start >= 2 && value.charAt(start) == ':' && value.charAt(start + 1) == ':') {
+                compressed = true;
+                i += 2;
+            } else if (start < end && value.charAt(start) == ':') {
+                return false;
+            }
+            while (i < end) {
+                int groupEnd = i;
+                long group = 0;
+                while (groupEnd < end && groupEnd - i < 5) {
+                    int digit = Character.digit(value.charAt(groupEnd), 16);
+                    if (digit < 0) {
+                        break;
+                    }
+                    group = (group << 4) | digit;
+                    groupEnd++;
+                }
+                int groups = headGroups + tailGroups;
+                if (groupEnd < end && value.charAt(groupEnd) == '.') {
+                    // 끝 32비트 IPv4 표기 (::ffff:192.0.2.1)
+                    long ipv4 = groups <= 6 ? parseIpv4Bits(value, i, end) : -1;
+                    if (ipv4 < 0) {
+                        return false;
+                    }
+                    if (compressed) {
+                        tailHi = (tailHi << 32) | (tailLo >>> 32);
+                        tailLo = (tailLo << 32) | ipv4;
+                        tailGroups += 2;
+                    } else {
+                        headLo |= ipv4;
+                        headGroups += 2;
+                    }
+                    i = end;
+                    break;
+                }
+                int digits = groupEnd - i;
+                if (digits == 0 || digits > 4 || groups >= 8) {
+                    return false;
+                }
+                if (compressed) {
+                    tailHi = (tailHi << 16) | (tailLo >>> 48);
+                    tailLo = (tailLo << 16) | group;
+                    tailGroups++;
+                } else {
+                    if (headGroups < 4) {
+                        headHi |= group << (16 * (3 - headGroups));
+                    } else {
+                        headLo |= group << (16 * (7 - headGroups));
+                    }
+                    headGroups++;
+                }
+                i = groupEnd;
+                if (i == end) {
+                    break;
+                }
+                if (value.charAt(i) != ':' || ++i == end) {
+                    // 구분자가 콜론이 아니거나 단일 콜론으로 끝남
+                    return false;
+                }
+                if (value.charAt(i) == ':') {
+                    if (compressed) {
+                        return false;
+                    }
+                    compressed = true;
+                    i++;
+                }
+            }
+            int total = headGroups + tailGroups;
+            if (compressed ? total > 7 : total != 8) {
+                return false;
+            }
+            long h = headHi | tailHi;
+            long l = headLo | tailLo;
+            if (h == 0 && (l >>> 32) == 0xFFFFL) {
+                // IPv4-mapped 주소는 IPv4로 취급 (InetAddress와 같음)
+                valid = true;
+                ipv6 = false;
+                hi = 0;
+                lo = l & 0xFFFFFFFFL;
+                return true;
+            }
+            valid = true;
+            ipv6 = true;
+            hi = h;
+            lo = l;
+            return true;
+        }
+
+        String format() {
+            StringBuilder builder = new StringBuilder(ipv6 ? 39 : 15);
+            if (!ipv6) {
+                builder.append((lo >>> 24) & 0xFF).append('.')
+                        .append((lo >>> 16) & 0xFF).append('.')
+                        .append((lo >>> 8) & 0xFF).append('.')
+                        .append(lo & 0xFF);
+                return builder.toString();
+            }
+            for (int group = 0; group < 8; group++) {
+                long bits = group < 4 ? hi >>> (16 * (3 - group)) : lo >>> (16 * (7 - group));
+                if (group > 0) {
+                    builder.append(':');
+                }
+                builder.append(Long.toHexString(bits & 0xFFFF));
+            }
+            return builder.toString();
+        }
+
+        private static boolean isPort(String value, int colon, int end) {
+            if (value.charAt(colon) != ':' || colon + 1 >= end || end - colon - 1 > 5) {
+                return false;
+            }
+            for (int i = colon + 1; i < end; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int indexOf(String value, char c, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (value.charAt(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\t';
+        }
+    }
+}
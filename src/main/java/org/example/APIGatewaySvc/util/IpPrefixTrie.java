@@ -0,0 +1,267 @@
+package org.example.APIGatewaySvc.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * IP 프리픽스(CIDR) 최장 일치 검색용 압축 radix(Patricia) 트라이
+ * IPv4와 IPv6를 각각 별도의 루트에서 관리하며, 조회는 주소 비트 수에 비례 (최대 32/128 단계)
+ *
+ * 스레드 안전성:
+ * - 삽입은 단일 스레드에서 구성 후, 완성된 트라이를 volatile 참조로 교체하여 공유하는 용도
+ * - 구성이 끝난 트라이에 대한 동시 조회는 안전
+ */
+public class IpPrefixTrie<V> {
+
+    private Node<V> ipv4Root;
+    private Node<V> ipv6Root;
+    private int size;
+
+    /**
+     * CIDR 추가 (같은 프리픽스가 이미 있으면 값을 교체)
+     */
+    public void put(Cidr cidr, V value) {
+        if (cidr.getAddress().length == 4) {
+            ipv4Root = insert(ipv4Root, cidr.getAddress(), cidr.getPrefixLength(), value);
+        } else {
+            ipv6Root = insert(ipv6Root, cidr.getAddress(), cidr.getPrefixLength(), value);
+        }
+    }
+
+    /**
+     * 최장 프리픽스 일치 검색
+     * @param address IP 주소 바이트 (4 또는 16바이트)
+     * @return 가장 구체적인 CIDR의 값 (일치하는 CIDR이 없으면 null)
+     */
+    public V longestMatch(byte[] address) {
+        Node<V> node = address.length == 4 ? ipv4Root : ipv6Root;
+        int maxBits = address.length * 8;
+        V best = null;
+        while (node != null) {
+            if (!prefixMatches(node.prefix, address, node.prefixLength)) {
+                break;
+            }
+            if (node.value != null) {
+                best = node.value;
+            }
+            if (node.prefixLength >= maxBits) {
+                break;
+            }
+            node = node.children[bit(address, node.prefixLength)];
+        }
+        return best;
+    }
+
+    /**
+     * 문자열 IP 주소로 최장 프리픽스 일치 검색 (IP 형식이 아니면 null)
+     */
+    public V longestMatch(String ipAddress) {
+        byte[] address = parseAddress(ipAddress);
+        return address != null ? longestMatch(address) : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private Node<V> insert(Node<V> node, byte[] address, int prefixLength, V value) {
+        if (node == null) {
+            size++;
+            return new Node<>(address, prefixLength, value);
+        }
+
+        int common = commonPrefixLength(node.prefix, address, Math.min(node.prefixLength, prefixLength));
+
+        if (common == node.prefixLength && common == prefixLength) {
+            // 동일한 프리픽스
+            if (node.value == null) {
+                size++;
+            }
+            node.value = value;
+            return node;
+        }
+        if (common == node.prefixLength) {
+            // 새 프리픽스가 현재 노드 아래에 위치
+            int branch = bit(address, common);
+            node.children[branch] = insert(node.children[branch], address, prefixLength, value);
+            return node;
+        }
+        if (common == prefixLength) {
+            // 새 프리픽스가 현재 노드를 포함
+            Node<V> parent = new Node<>(address, prefixLength, value);
+            parent.children[bit(node.prefix, common)] = node;
+            size++;
+            return parent;
+        }
+        // 공통 프리픽스 지점에서 분기하는 값 없는 중간 노드 생성
+        Node<V> split = new Node<>(mask(address, common), common, null);
+        split.children[bit(node.prefix, common)] = node;
+        split.children[bit(address, common)] = new Node<>(address, prefixLength, value);
+        size++;
+        return split;
+    }
+
+    private static int commonPrefixLength(byte[] a, byte[] b, int maxBits) {
+        int bits = 0;
+        for (int i = 0; i < a.length && bits < maxBits; i++) {
+            int diff = (a[i] ^ b[i]) & 0xFF;
+            if (diff != 0) {
+                return Math.min(maxBits, bits + Integer.numberOfLeadingZeros(diff) - 24);
+            }
+            bits += 8;
+        }
+        return Math.min(bits, maxBits);
+    }
+
+    private static boolean prefixMatches(byte[] prefix, byte[] address, int prefixLength) {
+        return commonPrefixLength(prefix, address, prefixLength) >= prefixLength;
+    }
+
+    private static int bit(byte[] address, int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static byte[] mask(byte[] address, int prefixLength) {
+        byte[] masked = new byte[address.length];
+        int fullBytes = prefixLength >>> 3;
+        System.arraycopy(address, 0, masked, 0, fullBytes);
+        int remainder = prefixLength & 7;
+        if (remainder != 0) {
+            masked[fullBytes] = (byte) (address[fullBytes] & (0xFF << (8 - remainder)));
+        }
+        return masked;
+    }
+
+    /**
+     * IP 문자열을 주소 바이트로 변환 (DNS 조회 없음)
+     * @return IPv4는 4바이트, IPv6는 16바이트 (IP 형식이 아니면 null)
+     */
+    public static byte[] parseAddress(String ipAddress) {
+        if (ipAddress == null || ipAddress.isEmpty()) {
+            return null;
+        }
+        if (ipAddress.indexOf(':') < 0) {
+            return parseIpv4(ipAddress);
+        }
+        // 콜론이 포함된 문자열은 IPv6 리터럴로만 해석되므로 DNS 조회가 발생하지 않음
+        for (int i = 0; i < ipAddress.length(); i++) {
+            char c = ipAddress.charAt(i);
+            if (Character.digit(c, 16) < 0 && c != ':' && c != '.') {
+                return null;
+            }
+        }
+        try {
+            // IPv4-mapped 주소(::ffff:a.b.c.d)는 4바이트 IPv4 주소로 반환됨
+            return InetAddress.getByName(ipAddress).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static byte[] parseIpv4(String ipAddress) {
+        byte[] address = new byte[4];
+        int octet = 0;
+        int value = -1;
+        for (int i = 0; i <= ipAddress.length(); i++) {
+            char c = i < ipAddress.length() ? ipAddress.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || octet >= 4) {
+                    return null;
+                }
+                address[octet++] = (byte) value;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return octet == 4 ? address : null;
+    }
+
+    private static final class Node<V> {
+        private final byte[] prefix;
+        private final int prefixLength;
+        private final Node<V>[] children;
+        private V value;
+
+        @SuppressWarnings("unchecked")
+        Node(byte[] address, int prefixLength, V value) {
+            this.prefix = mask(address, prefixLength);
+            this.prefixLength = prefixLength;
+            this.children = (Node<V>[]) new Node<?>[2];
+            this.value = value;
+        }
+    }
+
+    /**
+     * CIDR 표기 (예: 10.0.0.0/8, 2001:db8::/32)
+     * 프리픽스 이후의 호스트 비트는 0으로 정규화됨
+     */
+    public static final class Cidr {
+        private final byte[] address;
+        private final int prefixLength;
+
+        private Cidr(byte[] address, int prefixLength) {
+            this.address = mask(address, prefixLength);
+            this.prefixLength = prefixLength;
+        }
+
+        /**
+         * @param value CIDR 문자열 ("/"가 없으면 단일 주소로 간주)
+         * @return 파싱 결과 (형식이 잘못되었으면 null)
+         */
+        public static Cidr parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            int slash = value.indexOf('/');
+            byte[] address = parseAddress(slash < 0 ? value.trim() : value.substring(0, slash).trim());
+            if (address == null) {
+                return null;
+            }
+            int maxBits = address.length * 8;
+            int prefixLength = maxBits;
+            if (slash >= 0) {
+                try {
+                    prefixLength = Integer.parseInt(value.substring(slash + 1).trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                if (prefixLength < 0 || prefixLength > maxBits) {
+                    return null;
+                }
+            }
+            return new Cidr(address, prefixLength);
+        }
+
+        public byte[] getAddress() {
+            return address.clone();
+        }
+
+        public int getPrefixLength() {
+            return prefixLength;
+        }
+
+        public boolean contains(byte[] candidate) {
+            return candidate != null && candidate.length == address.length
+                    && prefixMatches(address, candidate, prefixLength);
+        }
+
+        @Override
+        public String toString() {
+            try {
+                return InetAddress.getByAddress(address).getHostAddress() + "/" + prefixLength;
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
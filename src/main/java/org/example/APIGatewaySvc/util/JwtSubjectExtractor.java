@@ -0,0 +1,330 @@
+package org.example.APIGatewaySvc.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * JWT 페이로드에서 sub 클레임을 추출하는 스트리밍 파서 (서명 검증 없음)
+ * 정규식 분할, 페이로드 전체 문자열 변환 없이 Base64URL 페이로드 구간을 스레드별 재사용 버퍼로 바로 디코딩하고,
+ * 최소한의 JSON 토크나이저로 최상위 객체의 "sub" 문자열 값만 꺼냄 (페이로드 문자열, 분할 배열 할당 없음)
+ * 디코딩은 토크나이저가 읽는 만큼만 진행하므로 sub 뒤의 클레임은 디코딩하지 않음
+ *
+ * 제한 사항:
+ * - 최상위 키만 확인하며, 이스케이프 문자가 포함된 키는 sub로 인식하지 않음
+ * - sub가 문자열이 아니거나 페이로드가 올바른 JSON 객체가 아니면 null
+ * - MAX_BUFFER_SIZE를 넘는 페이로드는 재사용 버퍼 대신 임시 버퍼 사용
+ */
+public final class JwtSubjectExtractor {
+
+    private static final int MAX_BUFFER_SIZE = 16 * 1024;
+    private static final int DECODE_CHUNK = 64; // 4의 배수
+    private static final byte[] DECODE_TABLE = new byte[128];
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[1024]);
+
+    static {
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private JwtSubjectExtractor() {
+    }
+
+    /**
+     * JWT 문자열에서 sub 클레임 추출
+     * @param token "Bearer " 접두사를 제외한 JWT (header.payload.signature)
+     * @return sub 값, 없거나 형식이 잘못되었으면 null
+     */
+    public static String extractSubject(String token) {
+        if (token == null) {
+            return null;
+        }
+        int payloadStart = token.indexOf('.') + 1;
+        if (payloadStart == 0) {
+            return null;
+        }
+        int payloadEnd = token.indexOf('.', payloadStart);
+        if (payloadEnd < 0) {
+            payloadEnd = token.length();
+        }
+        byte[] buffer = buffer((payloadEnd - payloadStart) * 3 / 4 + 3);
+        return new Parser(token, payloadStart, payloadEnd, buffer).findSubject();
+    }
+
+    private static byte[] buffer(int size) {
+        if (size > MAX_BUFFER_SIZE) {
+            return new byte[size];
+        }
+        byte[] buffer = BUFFER.get();
+        if (buffer.length < size) {
+            buffer = new byte[Math.min(MAX_BUFFER_SIZE, Math.max(size, buffer.length * 2))];
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * 페이로드를 필요한 만큼만 디코딩하며 한 번 훑는 최소 JSON 토크나이저
+     * sub를 찾으면 나머지 페이로드는 디코딩하지 않음
+     */
+    private static final class Parser {
+        private final String source;
+        private final int sourceEnd;
+        private final byte[] data;
+        private int sourcePos;
+        private int decoded;
+        private int pos;
+
+        Parser(String source, int sourceStart, int sourceEnd, byte[] data) {
+            this.source = source;
+            this.sourcePos = sourceStart;
+            this.sourceEnd = sourceEnd;
+            this.data = data;
+        }
+
+        /**
+         * index 위치 바이트
+         * @return 0~255, 페이로드 끝이거나 허용되지 않는 문자를 만나면 -1
+         */
+        private int at(int index) {
+            if (index < decoded) {
+                return data[index] & 0xFF;
+            }
+            return fill(index) ? data[index] & 0xFF : -1;
+        }
+
+        /**
+         * index 위치까지 Base64URL을 이어서 디코딩 (DECODE_CHUNK글자 단위, 패딩 '='이나 잘못된 문자에서 종료)
+         */
+        private boolean fill(int index) {
+            while (index >= decoded && sourcePos < sourceEnd) {
+                int chunkEnd = Math.min(sourceEnd, sourcePos + DECODE_CHUNK);
+                int i = sourcePos;
+                // 완전한 4글자 묶음은 분기 없이 3바이트로 변환
+                for (; i + 4 <= chunkEnd; i += 4) {
+                    int c0 = source.charAt(i);
+                    int c1 = source.charAt(i + 1);
+                    int c2 = source.charAt(i + 2);
+                    int c3 = source.charAt(i + 3);
+                    if ((c0 | c1 | c2 | c3) >= 128) {
+                        break;
+                    }
+                    int bits = (DECODE_TABLE[c0] << 18) | (DECODE_TABLE[c1] << 12) | (DECODE_TABLE[c2] << 6) | DECODE_TABLE[c3];
+                    if (bits < 0) {
+                        break;
+                    }
+                    data[decoded] = (byte) (bits >> 16);
+                    data[decoded + 1] = (byte) (bits >> 8);
+                    data[decoded + 2] = (byte) bits;
+                    decoded += 3;
+                }
+                sourcePos = i;
+                if (i < chunkEnd || chunkEnd == sourceEnd) {
+                    // 마지막 불완전 묶음, 패딩 또는 잘못된 문자가 있는 묶음
+                    decodeTail();
+                }
+            }
+            return index < decoded;
+        }
+
+        private void decodeTail() {
+            int bits = 0;
+            int count = 0;
+            while (count < 4 && sourcePos < sourceEnd) {
+                char c = source.charAt(sourcePos);
+                int value = c < 128 ? DECODE_TABLE[c] : -1;
+                if (value < 0) {
+                    break;
+                }
+                bits = (bits << 6) | value;
+                count++;
+                sourcePos++;
+            }
+            // 이후 구간은 디코딩하지 않음
+            sourcePos = sourceEnd;
+            if (count < 2) {
+                return;
+            }
+            bits <<= 6 * (4 - count);
+            data[decoded++] = (byte) (bits >> 16);
+            if (count > 2) {
+                data[decoded++] = (byte) (bits >> 8);
+            }
+            if (count > 3) {
+                data[decoded++] = (byte) bits;
+            }
+        }
+
+        String findSubject() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return null;
+            }
+            while (at(pos) >= 0) {
+                if (!consume('"')) {
+                    return null;
+                }
+                int keyStart = pos;
+                if (!skipStringBody()) {
+                    return null;
+                }
+                boolean isSubject = pos - keyStart == 4
+                        && data[keyStart] == 's' && data[keyStart + 1] == 'u' && data[keyStart + 2] == 'b';
+                skipWhitespace();
+                if (!consume(':')) {
+                    return null;
+                }
+                skipWhitespace();
+                if (isSubject) {
+                    return at(pos) == '"' ? readString() : null;
+                }
+                if (!skipValue()) {
+                    return null;
+                }
+                skipWhitespace();
+                if (!consume(',')) {
+                    return null;
+                }
+                skipWhitespace();
+            }
+            return null;
+        }
+
+        /**
+         * 여는 따옴표 다음부터 닫는 따옴표 다음까지 이동
+         */
+        private boolean skipStringBody() {
+            int b;
+            while ((b = at(pos++)) >= 0) {
+                if (b == '"') {
+                    return true;
+                }
+                if (b == '\\') {
+                    pos++;
+                }
+            }
+            return false;
+        }
+
+        private boolean skipValue() {
+            int first = at(pos);
+            if (first == '"') {
+                pos++;
+                return skipStringBody();
+            }
+            if (first == '{' || first == '[') {
+                int depth = 0;
+                int b;
+                while ((b = at(pos++)) >= 0) {
+                    if (b == '"') {
+                        if (!skipStringBody()) {
+                            return false;
+                        }
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if (b == '}' || b == ']') {
+                        if (--depth == 0) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            // 숫자, true, false, null
+            int start = pos;
+            int b;
+            while ((b = at(pos)) >= 0 && b != ',' && b != '}' && !isWhitespace(b)) {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        /**
+         * 문자열 값 읽기 (이스케이프가 없으면 UTF-8 구간을 그대로 변환)
+         */
+        private String readString() {
+            int start = ++pos;
+            boolean escaped = false;
+            int b;
+            while ((b = at(pos)) != '"') {
+                if (b < 0) {
+                    return null;
+                }
+                if (b == '\\') {
+                    escaped = true;
+                    pos++;
+                }
+                pos++;
+            }
+            if (!escaped) {
+                return new String(data, start, pos - start, StandardCharsets.UTF_8);
+            }
+            return unescape(start, pos);
+        }
+
+        private String unescape(int start, int end) {
+            StringBuilder builder = new StringBuilder(end - start);
+            int segmentStart = start;
+            int i = start;
+            while (i < end) {
+                if (data[i] != '\\') {
+                    i++;
+                    continue;
+                }
+                builder.append(new String(data, segmentStart, i - segmentStart, StandardCharsets.UTF_8));
+                char escape = (char) data[i + 1];
+                switch (escape) {
+                    case 'b': builder.append('\b'); break;
+                    case 'f': builder.append('\f'); break;
+                    case 'n': builder.append('\n'); break;
+                    case 'r': builder.append('\r'); break;
+                    case 't': builder.append('\t'); break;
+                    case 'u':
+                        if (i + 6 > end) {
+                            return null;
+                        }
+                        int code = 0;
+                        for (int k = i + 2; k < i + 6; k++) {
+                            int digit = Character.digit(data[k], 16);
+                            if (digit < 0) {
+                                return null;
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        builder.append((char) code);
+                        i += 4;
+                        break;
+                    default: builder.append(escape); break;
+                }
+                i += 2;
+                segmentStart = i;
+            }
+            builder.append(new String(data, segmentStart, end - segmentStart, StandardCharsets.UTF_8));
+            return builder.toString();
+        }
+
+        private boolean consume(char expected) {
+            if (at(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (isWhitespace(at(pos))) {
+                pos++;
+            }
+        }
+
+        private static boolean isWhitespace(int b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+    }
+}
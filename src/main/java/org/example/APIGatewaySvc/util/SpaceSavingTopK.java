@@ -0,0 +1,137 @@
+package org.example.APIGatewaySvc.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 알고리즘 기반 상위 K개 빈도 항목 추적 (Metwally et al.)
+ * 고유 항목이 아무리 많아도 capacity개의 카운터만 유지하므로 메모리가 고정됨
+ *
+ * 동작 방식:
+ * - 추적 중인 항목이면 카운트 증가
+ * - 빈 슬롯이 있으면 카운트 1로 추가
+ * - 슬롯이 가득 차면 카운트가 가장 작은 항목을 교체하고, 교체된 카운트를 새 항목의 오차 상한으로 기록
+ * - count - error는 실제 빈도의 하한이며, 실제 빈도가 N/capacity를 넘는 항목은 반드시 포함됨
+ *
+ * 최소 카운트 탐색은 O(capacity) 선형 검색이므로 capacity는 수백 이하로 사용 (최소 항목이 바뀔 때만 다시 탐색)
+ */
+public class SpaceSavingTopK<T> {
+
+    private final int capacity;
+    private final Map<T, Slot<T>> slots;
+    private Slot<T> minSlot;
+
+    public SpaceSavingTopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 항목 빈도 증가
+     * @return 증가 후 보장 카운트 (count - error, 실제 빈도 이하)
+     */
+    public synchronized long add(T item) {
+        return add(item, Long.MAX_VALUE);
+    }
+
+    /**
+     * 외부 빈도 추정값으로 교체를 제한하는 빈도 증가 (Count-Min Sketch와 함께 사용)
+     * 슬롯이 가득 찼을 때 추정값이 최소 카운트보다 큰 항목만 교체하므로, 한두 번 나타나고 사라지는 항목이
+     * 상위 항목을 밀어내거나 오차를 키우지 않음 (이 경우 count는 실제 빈도의 상한이 아니므로 상한은 추정값 사용)
+     * @param estimate 실제 빈도 이상인 추정값
+     * @return 증가 후 보장 카운트 (count - error, 실제 빈도 이하), 추적하지 않으면 0
+     */
+    public synchronized long add(T item, long estimate) {
+        Slot<T> slot = slots.get(item);
+        if (slot != null) {
+            if (slot == minSlot) {
+                minSlot = null;
+            }
+            return ++slot.count - slot.error;
+        }
+        if (slots.size() < capacity) {
+            slots.put(item, new Slot<>(item, 1, 0));
+            minSlot = null;
+            return 1;
+        }
+        Slot<T> min = minSlot();
+        if (estimate <= min.count) {
+            return 0;
+        }
+        slots.remove(min.item);
+        slots.put(item, new Slot<>(item, min.count + 1, min.count));
+        minSlot = null;
+        return 1;
+    }
+
+    private Slot<T> minSlot() {
+        if (minSlot == null) {
+            for (Slot<T> candidate : slots.values()) {
+                if (minSlot == null || candidate.count < minSlot.count) {
+                    minSlot = candidate;
+                }
+            }
+        }
+        return minSlot;
+    }
+
+    /**
+     * 카운트 내림차순 상위 항목
+     * @param limit 최대 반환 개수
+     */
+    public synchronized List<Entry<T>> top(int limit) {
+        List<Entry<T>> entries = new ArrayList<>(slots.size());
+        for (Slot<T> slot : slots.values()) {
+            entries.add(new Entry<>(slot.item, slot.count, slot.error));
+        }
+        entries.sort(Comparator.comparingLong((Entry<T> entry) -> entry.count).reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static final class Slot<T> {
+        private final T item;
+        private long count;
+        private final long error;
+
+        Slot(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 추적 결과 항목
+     */
+    public static final class Entry<T> {
+        private final T item;
+        private final long count;
+        private final long error;
+
+        Entry(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public T getItem() { return item; }
+        /** 추정 빈도 (실제 빈도 이상) */
+        public long getCount() { return count; }
+        /** 추정 빈도의 최대 과대 추정치 */
+        public long getError() { return error; }
+    }
+}
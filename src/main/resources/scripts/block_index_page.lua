@@ -0,0 +1,26 @@
+-- 차단 인덱스 페이지 조회 스크립트 (커서 기반, 단일 Redis 왕복)
+-- KEYS[1]: 타입별 차단 인덱스 (blocked:index:{type}, 점수 = 만료 epoch millis, 영구차단은 +inf)
+-- ARGV[1]: ZSCAN 커서 (첫 페이지는 0), ARGV[2]: COUNT 힌트, ARGV[3]: 현재 epoch millis
+-- 반환: {다음 커서(0이면 마지막 페이지), ID, 만료 epoch millis(영구차단은 0), ID, 만료, ...}
+--       이번 페이지에서 만난 만료 항목은 인덱스에서 제거하고 결과에서 제외
+local scanned = redis.call('ZSCAN', KEYS[1], ARGV[1], 'COUNT', ARGV[2])
+local now = tonumber(ARGV[3])
+local page = {scanned[1]}
+local expired = {}
+local entries = scanned[2]
+for i = 1, #entries, 2 do
+    local score = entries[i + 1]
+    if score == 'inf' then
+        page[#page + 1] = entries[i]
+        page[#page + 1] = '0'
+    elseif tonumber(score) <= now then
+        expired[#expired + 1] = entries[i]
+    else
+        page[#page + 1] = entries[i]
+        page[#page + 1] = score
+    end
+end
+if #expired > 0 then
+    redis.call('ZREM', KEYS[1], unpack(expired))
+end
+return page
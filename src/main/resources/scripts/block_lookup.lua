@@ -0,0 +1,11 @@
+-- 차단 조회 스크립트 (단일 Redis 왕복)
+-- KEYS: 우선순위 순으로 정렬된 차단 키 목록 (예: blocked:ip:*, blocked:key:*, blocked:user:*)
+-- 반환: 첫 번째로 존재하는 키의 {KEYS 인덱스(1부터), 차단 사유, 남은 TTL(ms, 영구차단은 -1)}
+--       차단된 키가 없으면 빈 배열
+for i, key in ipairs(KEYS) do
+    local reason = redis.call('GET', key)
+    if reason then
+        return {i, reason, redis.call('PTTL', key)}
+    end
+end
+return {}
@@ -0,0 +1,21 @@
+-- 만료된 CIDR 대역 차단 항목 삭제 스크립트 (CidrBlockList)
+-- 노드가 읽은 시점 이후 같은 대역이 다시 차단되었을 수 있으므로, 저장된 만료 시각을 다시 확인하여
+-- 여전히 만료된 항목만 삭제 (비교 후 삭제)
+--
+-- 값 형식: "{만료 epoch millis, 영구차단은 0}|{차단 사유}"
+--
+-- KEYS[1]: 대역 차단 해시 (blocked:cidr)
+-- ARGV[1]: 현재 시각 (epoch millis), ARGV[2..]: 만료된 것으로 읽은 CIDR 필드
+-- 반환: 삭제한 필드 수
+local now = tonumber(ARGV[1])
+local removed = 0
+for i = 2, #ARGV do
+    local value = redis.call('HGET', KEYS[1], ARGV[i])
+    if value then
+        local expiresAt = tonumber(string.match(value, '^(%d+)|'))
+        if expiresAt and expiresAt > 0 and expiresAt <= now then
+            removed = removed + redis.call('HDEL', KEYS[1], ARGV[i])
+        end
+    end
+end
+return removed
@@ -0,0 +1,127 @@
+-- 로그인 실패 기록 스크립트 (단일 Redis 왕복, 원자적 처리)
+-- 대상마다 슬라이딩 윈도우 실패 횟수 갱신, 임계값 확인, 차단 키 기록, 실패 횟수 초기화와
+-- IP / 대역별 고유 사용자 수 갱신을 한 번에 수행
+--
+-- 슬라이딩 윈도우 (가중 2버킷 근사):
+-- - 해시 하나에 현재 버킷 시작 번호(s), 현재 버킷 횟수(c), 직전 버킷 횟수(p), 누적 위반 횟수(o) 저장
+-- - 추정 횟수 = c + p * (현재 버킷의 남은 비율), 윈도우 경계에 몰아서 시도해도 직전 버킷이 반영됨
+-- - 차단 기간 = 기본 차단 기간 * 배수^o (상한 적용), 위반 횟수는 위반 기억 기간 동안 유지
+--
+-- 고유 사용자 수 (크리덴셜 스터핑 탐지):
+-- - IP / 대역마다 실패한 사용자(sub)를 HyperLogLog에 PFADD하고 PFCOUNT로 고유 사용자 수 추정 (키당 최대 약 12KB)
+-- - 고유 사용자 수가 임계값 이상이면 차단 (차단 키 기록 여부는 대상별 지정, CIDR 대역 차단은 호출 측에서 기록)
+--
+-- KEYS: 실패 횟수 대상마다 {실패 횟수 해시 키, 차단 키, 차단 목록 인덱스 키} 3개씩 (예: login_attempts:v2:alice, blocked:user:alice, blocked:index:user)
+--       이어서 고유 사용자 대상마다 {HyperLogLog 키, 차단 키, 차단 목록 인덱스 키} 3개씩 (예: login_distinct:ip:10.0.0.1, blocked:ip:10.0.0.1, blocked:index:ip)
+-- ARGV[1]: 현재 epoch millis
+-- ARGV[2]: 실패 횟수 대상 수 n
+-- ARGV[3..]: 실패 횟수 대상마다 9개씩
+--   {최대 실패 횟수, 인덱스 멤버 ID, 차단 사유 템플릿 ({attempts}는 실패 횟수로 치환), 증가량,
+--    윈도우(ms), 기본 차단 기간(ms), 차단 기간 상한(ms), 반복 위반 배수, 위반 기억 기간(ms)}
+--   (증가량은 노드에서 합산한 실패 횟수, LoginFailureCoalescer 참고)
+-- 이어서 고유 사용자 대상마다
+--   {임계값, 인덱스 멤버 ID, 차단 사유 템플릿 ({distinct}는 고유 사용자 수로 치환), 차단 기간(ms),
+--    집계 기간(ms), 차단 키 기록 여부(1/0), 사용자 수 m, 사용자 ID m개}
+-- 반환: 실패 횟수 대상마다 {차단 여부(1/0), 추정 실패 횟수}, 이어서 고유 사용자 대상마다 {임계값 도달 여부(1/0), 고유 사용자 수}
+local now = tonumber(ARGV[1])
+local n = tonumber(ARGV[2])
+local result = {}
+
+for i = 1, n do
+    local attemptKey = KEYS[i * 3 - 2]
+    local blockKey = KEYS[i * 3 - 1]
+    local indexKey = KEYS[i * 3]
+    local base = 2 + (i - 1) * 9
+    local maxAttempts = tonumber(ARGV[base + 1])
+    local id = ARGV[base + 2]
+    local reasonTemplate = ARGV[base + 3]
+    local delta = tonumber(ARGV[base + 4])
+    local window = tonumber(ARGV[base + 5])
+    local blockMillis = tonumber(ARGV[base + 6])
+    local maxBlockMillis = tonumber(ARGV[base + 7])
+    local multiplier = tonumber(ARGV[base + 8])
+    local offenseTtl = tonumber(ARGV[base + 9])
+
+    local state = redis.call('HMGET', attemptKey, 's', 'c', 'p', 'o')
+    local bucket = math.floor(now / window)
+    local start = tonumber(state[1])
+    local current = tonumber(state[2]) or 0
+    local previous = tonumber(state[3]) or 0
+    local offenses = tonumber(state[4]) or 0
+
+    -- 버킷 이동: 바로 다음 버킷이면 현재 버킷을 직전 버킷으로, 그 이후면 둘 다 초기화
+    if start == nil or bucket > start + 1 then
+        current = 0
+        previous = 0
+    elseif bucket == start + 1 then
+        previous = current
+        current = 0
+    end
+    current = current + delta
+
+    local remaining = 1 - (now - bucket * window) / window
+    local attempts = math.floor(current + previous * remaining)
+
+    local ttl = 2 * window
+    if attempts >= maxAttempts then
+        local duration = math.floor(math.min(blockMillis * multiplier ^ offenses, maxBlockMillis))
+        local reason = string.gsub(reasonTemplate, '{attempts}', tostring(attempts))
+        redis.call('SET', blockKey, reason, 'PX', duration)
+        redis.call('ZADD', indexKey, now + duration, id)
+        offenses = offenses + 1
+        current = 0
+        previous = 0
+        ttl = math.max(ttl, offenseTtl)
+        result[#result + 1] = 1
+    else
+        -- 위반 이력이 있으면 위반 기억 기간을 줄이지 않음
+        if offenses > 0 then
+            ttl = math.max(ttl, redis.call('PTTL', attemptKey))
+        end
+        result[#result + 1] = 0
+    end
+    redis.call('HSET', attemptKey, 's', bucket, 'c', current, 'p', previous, 'o', offenses)
+    redis.call('PEXPIRE', attemptKey, ttl)
+    result[#result + 1] = attempts
+end
+
+local argIndex = 2 + n * 9
+for j = n + 1, #KEYS / 3 do
+    local hllKey = KEYS[j * 3 - 2]
+    local blockKey = KEYS[j * 3 - 1]
+    local indexKey = KEYS[j * 3]
+    local threshold = tonumber(ARGV[argIndex + 1])
+    local id = ARGV[argIndex + 2]
+    local reasonTemplate = ARGV[argIndex + 3]
+    local blockMillis = tonumber(ARGV[argIndex + 4])
+    local window = tonumber(ARGV[argIndex + 5])
+    local writeBlock = ARGV[argIndex + 6] == '1'
+    local memberCount = tonumber(ARGV[argIndex + 7])
+    local members = {}
+    for m = 1, memberCount do
+        members[m] = ARGV[argIndex + 7 + m]
+    end
+    argIndex = argIndex + 7 + memberCount
+
+    redis.call('PFADD', hllKey, unpack(members))
+    -- 첫 실패 기준 고정 집계 기간
+    if redis.call('PTTL', hllKey) < 0 then
+        redis.call('PEXPIRE', hllKey, window)
+    end
+    local distinct = redis.call('PFCOUNT', hllKey)
+
+    if distinct >= threshold then
+        if writeBlock then
+            local reason = string.gsub(reasonTemplate, '{distinct}', tostring(distinct))
+            redis.call('SET', blockKey, reason, 'PX', blockMillis)
+            redis.call('ZADD', indexKey, now + blockMillis, id)
+        end
+        -- 차단한 대상은 집계를 새로 시작 (이후 실패마다 다시 차단하지 않도록)
+        redis.call('DEL', hllKey)
+        result[#result + 1] = 1
+    else
+        result[#result + 1] = 0
+    end
+    result[#result + 1] = distinct
+end
+return result
@@ -0,0 +1,13 @@
+-- 할당량 카운터 반영 스크립트 (QuotaManager)
+-- 노드가 합산한 사용량 증가분을 기간 카운터에 더하고 전체 노드 합계를 반환
+-- 노드는 반환된 합계를 기준값으로 삼아 다음 반영 전까지 로컬에서 한도를 판정
+--
+-- 카운터는 기간(일/월)마다 별도 키이므로 기간이 바뀌면 새 키에서 0부터 시작
+-- 만료는 기간 종료 후 하루 (조회/정산용 유예), 매 호출 같은 시각으로 설정하므로 멱등
+--
+-- KEYS[1]: 기간 카운터 키 (예: quota:{api-key:abc}:d:20261018)
+-- ARGV[1]: 증가분 (요청 거부로 인한 되돌림이면 음수 가능), ARGV[2]: 만료 시각 (epoch millis)
+-- 반환: 반영 후 전체 노드 합계
+local total = redis.call('INCRBY', KEYS[1], ARGV[1])
+redis.call('PEXPIREAT', KEYS[1], ARGV[2])
+return total
@@ -0,0 +1,48 @@
+-- 비용 가중 토큰 버킷 스크립트 (CostRateLimiter)
+-- 요청 전 추정 비용 선차감(acquire)과 응답 후 실제 비용과의 차이 정산(settle)을 같은 버킷에서 처리
+--
+-- 토큰 버킷: 해시 하나에 남은 토큰(t)과 마지막 보충 시각(ts, ms) 저장, 시각은 노드 시계 차이를 피하려고 Redis TIME 사용
+-- - 보충: t = min(용량, t + 경과 시간 * 초당 보충량)
+-- - acquire(모드 0): 남은 토큰이 비용 이상이면 차감하여 허용, 아니면 거부
+-- - settle(모드 1): 비용 차이를 무조건 반영 (음수면 환급), 실제 비용이 추정보다 크면 용량만큼까지 빚(음수 토큰)을 허용
+--   빚이 있는 식별자는 보충으로 빚을 갚을 때까지 거부됨
+--
+-- KEYS[1]: 버킷 해시 키 (예: rate_limit_cost:{route.user:alice})
+-- ARGV[1]: 초당 보충량, ARGV[2]: 버킷 용량, ARGV[3]: 비용 (settle은 실제 - 추정, 음수 가능), ARGV[4]: 모드 (0 acquire, 1 settle)
+-- 반환: {허용 여부, 남은 토큰 수(빚이면 0), 비용만큼 보충될 때까지 남은 시간(ms, 허용 시 0)}
+local key = KEYS[1]
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local cost = tonumber(ARGV[3])
+local settle = ARGV[4] == '1'
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', key, 't', 'ts')
+local tokens = tonumber(state[1])
+local last = tonumber(state[2])
+if tokens == nil or last == nil then
+    tokens = capacity
+    last = now
+end
+
+local elapsed = math.max(0, now - last)
+tokens = math.min(capacity, tokens + elapsed * rate / 1000)
+
+local allowed = 1
+local waitMillis = 0
+if settle then
+    tokens = math.max(-capacity, math.min(capacity, tokens - cost))
+elseif tokens >= cost then
+    tokens = tokens - cost
+else
+    allowed = 0
+    waitMillis = math.ceil((cost - tokens) * 1000 / rate)
+end
+
+-- 버킷이 가득 찰 때까지 유지 (가득 찬 버킷은 키가 없는 것과 같음)
+local ttl = math.ceil((capacity - tokens) * 1000 / rate) + 1000
+redis.call('HSET', key, 't', tostring(tokens), 'ts', now)
+redis.call('PEXPIRE', key, ttl)
+return {allowed, math.max(0, math.floor(tokens)), waitMillis}
@@ -0,0 +1,36 @@
+-- GCRA(Generic Cell Rate Algorithm) Rate Limit 스크립트 (GcraRateLimitEngine)
+-- 키 하나에 다음 요청의 이론적 도착 시각(TAT, 마이크로초)만 저장하는 토큰 버킷 등가 알고리즘
+--
+-- - 배출 간격: 1초 / 초당 보충량, 허용 오차: 배출 간격 * 버킷 용량
+-- - 요청 허용 조건: max(TAT, now) + 배출 간격 * 요청 토큰 - 허용 오차 <= now
+-- - 허용 시 TAT 갱신, 거부 시 키를 건드리지 않음 (GET 1회)
+-- - 키 만료 시간은 TAT까지 남은 시간 (만료되면 버킷이 가득 찬 상태와 같음)
+--
+-- KEYS[1]: TAT 키 (예: rate_limit_gcra:{route.user:alice})
+-- ARGV[1]: 초당 보충량, ARGV[2]: 버킷 용량, ARGV[3]: 요청 토큰 수
+-- 반환: {허용 여부(1/0), 남은 토큰 수, 재시도까지 남은 시간(ms, 허용 시 0)}
+local key = KEYS[1]
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+
+local interval = 1000000 / rate
+local tolerance = interval * capacity
+
+local tat = tonumber(redis.call('GET', key))
+if tat == nil or tat < now then
+    tat = now
+end
+
+local newTat = tat + interval * requested
+local allowAt = newTat - tolerance
+if now < allowAt then
+    local remaining = math.max(0, math.floor((now - (tat - tolerance)) / interval))
+    return {0, remaining, math.ceil((allowAt - now) / 1000)}
+end
+
+redis.call('SET', key, string.format('%.0f', newTat), 'PX', math.max(1, math.ceil((newTat - now) / 1000)))
+return {1, math.floor((now - (newTat - tolerance)) / interval), 0}
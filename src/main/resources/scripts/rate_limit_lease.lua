@@ -0,0 +1,49 @@
+-- 전역 토큰 버킷 임대 스크립트 (HybridRateLimiter)
+-- 노드가 쓰지 않은 토큰을 반납하고, 새 임대분을 한 번의 Redis 왕복으로 받아감
+--
+-- 토큰 버킷: 해시 하나에 남은 토큰(t)과 마지막 보충 시각(ts, ms) 저장, 시각은 노드 시계 차이를 피하려고 Redis TIME 사용
+-- - 보충: t = min(용량, t + 경과 시간 * 초당 보충량 + 반납 토큰)
+-- - 임대: 남은 토큰이 최소 임대량 이상이면 min(요청 임대량, 남은 토큰)만큼 차감하여 지급, 아니면 0
+--
+-- KEYS[1]: 버킷 해시 키 (예: rate_limit_lease:{route.user:alice})
+-- ARGV[1]: 초당 보충량, ARGV[2]: 버킷 용량, ARGV[3]: 반납 토큰 수, ARGV[4]: 요청 임대량, ARGV[5]: 최소 임대량
+-- ARGV[6]: 키 만료 시간(ms)
+-- 반환: {지급 토큰 수, 지급 후 전역 버킷 잔여 토큰 수, 최소 임대량까지 남은 시간(ms, 지급 시 0)}
+local key = KEYS[1]
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local returned = tonumber(ARGV[3])
+local desired = tonumber(ARGV[4])
+local minimum = tonumber(ARGV[5])
+local ttl = tonumber(ARGV[6])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', key, 't', 'ts')
+local tokens = tonumber(state[1])
+local last = tonumber(state[2])
+if tokens == nil or last == nil then
+    tokens = capacity
+    last = now
+end
+
+local elapsed = math.max(0, now - last)
+tokens = math.min(capacity, tokens + elapsed * rate / 1000 + returned)
+
+local granted = 0
+local waitMillis = 0
+if desired > 0 then
+    if tokens >= minimum then
+        granted = math.min(desired, math.floor(tokens))
+        tokens = tokens - granted
+    elseif rate > 0 then
+        waitMillis = math.ceil((minimum - tokens) * 1000 / rate)
+    else
+        waitMillis = ttl
+    end
+end
+
+redis.call('HSET', key, 't', tostring(tokens), 'ts', now)
+redis.call('PEXPIRE', key, ttl)
+return {granted, math.floor(tokens), waitMillis}
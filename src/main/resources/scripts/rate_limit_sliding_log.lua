@@ -0,0 +1,35 @@
+-- 슬라이딩 윈도우 로그 Rate Limit 스크립트 (SlidingLogRateLimitEngine)
+-- 허용한 요청 시각을 정렬 집합에 기록하여 임의의 window 구간에서 limit을 정확히 지킴 (경계 버스트 없음)
+--
+-- - window 이전 기록 삭제 후 남은 기록 수 + 요청 토큰이 limit 이하면 허용하고 토큰 수만큼 기록
+-- - 메모리는 키마다 최대 limit개 기록에 비례 (엄격한 할당량이 필요한 라우트용)
+--
+-- KEYS[1]: 요청 기록 정렬 집합 키 (예: rate_limit_log:{route.user:alice})
+-- ARGV[1]: window당 허용 토큰 수, ARGV[2]: window(ms), ARGV[3]: 요청 토큰 수
+-- 반환: {허용 여부(1/0), 남은 토큰 수, 재시도까지 남은 시간(ms, 허용 시 0)}
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2]) * 1000
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+
+redis.call('ZREMRANGEBYSCORE', key, '-inf', now - window)
+local count = redis.call('ZCARD', key)
+
+if count + requested > limit then
+    local retry = 0
+    if count > 0 then
+        -- 가장 오래된 기록이 window를 벗어나는 시각 (요청 토큰이 여러 개면 근사값)
+        local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+        retry = math.max(1, math.ceil((tonumber(oldest[2]) + window - now) / 1000))
+    end
+    return {0, math.max(0, limit - count), retry}
+end
+
+for i = 1, requested do
+    redis.call('ZADD', key, now, string.format('%.0f-%d', now, count + i))
+end
+redis.call('PEXPIRE', key, math.ceil(window / 1000))
+return {1, limit - count - requested, 0}
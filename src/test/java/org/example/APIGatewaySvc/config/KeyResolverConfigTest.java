@@ -1,5 +1,7 @@
 package org.example.APIGatewaySvc.config;
 
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
+import org.example.APIGatewaySvc.security.JwtSubjectResolver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,6 +10,8 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.server.ServerWebExchange;
@@ -35,7 +39,7 @@ class KeyResolverConfigTest {
 
     @BeforeEach
     void setUp() {
-        keyResolverConfig = new KeyResolverConfig();
+        keyResolverConfig = new KeyResolverConfig(new JwtSubjectResolver(), new ClientIdentityResolver());
         userKeyResolver = keyResolverConfig.userKeyResolver();
         ipKeyResolver = keyResolverConfig.ipKeyResolver();
     }
@@ -48,7 +52,7 @@ class KeyResolverConfigTest {
         ServerWebExchange exchange = createExchangeWithJWT(userId);
 
         // When
-        Mono<String> keyMono = userKeyResolver.resolve(exchange);
+        Mono<String> keyMono = resolveUserKey(exchange);
 
         // Then
         StepVerifier.create(keyMono)
@@ -64,7 +68,7 @@ class KeyResolverConfigTest {
         ServerWebExchange exchange = createExchangeWithoutJWT(clientIP);
 
         // When
-        Mono<String> keyMono = userKeyResolver.resolve(exchange);
+        Mono<String> keyMono = resolveUserKey(exchange);
 
         // Then
         StepVerifier.create(keyMono)
@@ -88,7 +92,7 @@ class KeyResolverConfigTest {
         ServerWebExchange exchange = MockServerWebExchange.from(request);
 
         // When
-        Mono<String> keyMono = userKeyResolver.resolve(exchange);
+        Mono<String> keyMono = resolveUserKey(exchange);
 
         // Then
         StepVerifier.create(keyMono)
@@ -110,7 +114,7 @@ class KeyResolverConfigTest {
         ServerWebExchange exchange = MockServerWebExchange.from(request);
 
         // When
-        Mono<String> keyMono = userKeyResolver.resolve(exchange);
+        Mono<String> keyMono = resolveUserKey(exchange);
 
         // Then
         StepVerifier.create(keyMono)
@@ -132,7 +136,7 @@ class KeyResolverConfigTest {
         ServerWebExchange exchange = MockServerWebExchange.from(request);
 
         // When
-        Mono<String> keyMono = userKeyResolver.resolve(exchange);
+        Mono<String> keyMono = resolveUserKey(exchange);
 
         // Then
         StepVerifier.create(keyMono)
@@ -155,7 +159,7 @@ class KeyResolverConfigTest {
         ServerWebExchange exchange = MockServerWebExchange.from(request);
 
         // When
-        Mono<String> keyMono = userKeyResolver.resolve(exchange);
+        Mono<String> keyMono = resolveUserKey(exchange);
 
         // Then
         StepVerifier.create(keyMono)
@@ -191,7 +195,7 @@ class KeyResolverConfigTest {
         ServerWebExchange exchange = MockServerWebExchange.from(request);
 
         // When
-        Mono<String> keyMono = userKeyResolver.resolve(exchange);
+        Mono<String> keyMono = resolveUserKey(exchange);
 
         // Then
         StepVerifier.create(keyMono)
@@ -207,7 +211,7 @@ class KeyResolverConfigTest {
         ServerWebExchange exchange = createExchangeWithEmptyJWT(clientIP);
 
         // When
-        Mono<String> keyMono = userKeyResolver.resolve(exchange);
+        Mono<String> keyMono = resolveUserKey(exchange);
 
         // Then
         StepVerifier.create(keyMono)
@@ -215,6 +219,15 @@ class KeyResolverConfigTest {
                 .verifyComplete();
     }
 
+    /**
+     * 사용자 Key Resolver 호출 (exchange의 인증 정보를 보안 컨텍스트로 전달, 테스트용)
+     */
+    private Mono<String> resolveUserKey(ServerWebExchange exchange) {
+        return userKeyResolver.resolve(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(exchange.getPrincipal()
+                        .map(principal -> new SecurityContextImpl((Authentication) principal))));
+    }
+
     /**
      * JWT 토큰이 있는 ServerWebExchange 생성 (테스트용)
      */
@@ -222,6 +235,7 @@ class KeyResolverConfigTest {
         // Mock JWT 생성
         Jwt jwt = mock(Jwt.class);
         when(jwt.getSubject()).thenReturn(userId);
+        when(jwt.getClaimAsString("sub")).thenReturn(userId);
 
         // Mock Authentication 생성
         JwtAuthenticationToken authToken = mock(JwtAuthenticationToken.class);
@@ -258,6 +272,7 @@ class KeyResolverConfigTest {
         // Mock JWT with empty subject
         Jwt jwt = mock(Jwt.class);
         when(jwt.getSubject()).thenReturn("");
+        when(jwt.getClaimAsString("sub")).thenReturn("");
 
         JwtAuthenticationToken authToken = mock(JwtAuthenticationToken.class);
         when(authToken.getToken()).thenReturn(jwt);
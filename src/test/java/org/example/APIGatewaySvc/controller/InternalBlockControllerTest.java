@@ -1,12 +1,24 @@
 package org.example.APIGatewaySvc.controller;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.dto.BulkBlockRequestDTO;
+import org.example.APIGatewaySvc.service.BlockBloomFilter;
+import org.example.APIGatewaySvc.service.BlockDecisionCache;
+import org.example.APIGatewaySvc.service.BlockMetrics;
+import org.example.APIGatewaySvc.service.BlockService;
+import org.example.APIGatewaySvc.service.CidrBlockList;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import reactor.core.publisher.Flux;
@@ -14,6 +26,8 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,12 +43,24 @@ class InternalBlockControllerTest {
     @Mock
     private ReactiveValueOperations<String, String> valueOperations;
 
+    @Mock
+    private ReactiveZSetOperations<String, String> zSetOperations;
+
     private InternalBlockController controller;
 
     @BeforeEach
     void setUp() {
-        controller = new InternalBlockController(redisTemplate);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        controller = new InternalBlockController(redisTemplate,
+            new BlockService(redisTemplate, new BlockDecisionCache(redisTemplate, new SimpleMeterRegistry()),
+                new BlockBloomFilter(redisTemplate), new CidrBlockList(redisTemplate),
+                new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()), new BlockMetrics(new SimpleMeterRegistry())));
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(Mono.just(true));
+        lenient().when(zSetOperations.addAll(anyString(), anySet())).thenReturn(Mono.just(1L));
+        lenient().when(zSetOperations.remove(anyString(), any())).thenReturn(Mono.just(1L));
+        lenient().when(redisTemplate.convertAndSend(anyString(), anyString()))
+            .thenReturn(Mono.just(1L));
     }
 
     @Test
@@ -86,6 +112,9 @@ class InternalBlockControllerTest {
                 assertNull(body.get("expiresAt"));
             })
             .verifyComplete();
+
+        // 영구차단은 목록 인덱스에 +inf 점수로 등록
+        verify(zSetOperations).add("blocked:index:ip", "192.168.1.100", Double.POSITIVE_INFINITY);
     }
 
     @Test
@@ -105,6 +134,72 @@ class InternalBlockControllerTest {
             .verifyComplete();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldBlockCidrRange() {
+        // Given
+        ReactiveHashOperations<String, Object, Object> hashOperations = mock(ReactiveHashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.put(eq(CidrBlockList.CIDR_KEY), eq("10.0.0.0/8"), anyString()))
+            .thenReturn(Mono.just(true));
+        when(hashOperations.multiGet(CidrBlockList.CIDR_KEY, List.of("10.0.0.0/8")))
+            .thenReturn(Mono.just(Arrays.asList((Object) "0|Abusive cloud provider")));
+
+        // When & Then - 호스트 비트는 정규화되어 저장
+        StepVerifier.create(controller.block("ip", "10.1.2.3/8", null, "Abusive cloud provider"))
+            .assertNext(response -> assertEquals(HttpStatus.OK, response.getStatusCode()))
+            .verifyComplete();
+
+        verify(hashOperations).put(eq(CidrBlockList.CIDR_KEY), eq("10.0.0.0/8"), eq("0|Abusive cloud provider"));
+        verify(redisTemplate).convertAndSend(CidrBlockList.CHANGE_CHANNEL, "10.0.0.0/8");
+    }
+
+    @Test
+    void shouldRejectInvalidCidr() {
+        StepVerifier.create(controller.block("ip", "10.0.0.0/33", null, null))
+            .assertNext(response -> assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()))
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldApplyBulkRequestsWithSingleInvalidation() {
+        // Given
+        when(valueOperations.set(eq("blocked:ip:203.0.113.7"), eq("Credential stuffing"), eq(Duration.ofSeconds(3600))))
+            .thenReturn(Mono.just(true));
+        when(redisTemplate.delete("blocked:user:user1")).thenReturn(Mono.just(1L));
+        when(redisTemplate.delete("blocked:user:ghost")).thenReturn(Mono.just(0L));
+
+        Flux<BulkBlockRequestDTO> requests = Flux.just(
+            new BulkBlockRequestDTO("block", "ip", "203.0.113.7", 3600L, "Credential stuffing"),
+            new BulkBlockRequestDTO("unblock", "user", "user1", null, null),
+            new BulkBlockRequestDTO("unblock", "user", "ghost", null, null),
+            new BulkBlockRequestDTO("block", "invalid", "x", null, null));
+
+        // When & Then - 결과는 요청 순서대로 스트리밍
+        StepVerifier.create(controller.bulk(requests))
+            .assertNext(result -> {
+                assertEquals(0L, result.get("index"));
+                assertTrue((Boolean) result.get("success"));
+            })
+            .assertNext(result -> assertTrue((Boolean) result.get("success")))
+            .assertNext(result -> {
+                assertFalse((Boolean) result.get("success"));
+                assertEquals("Block not found", result.get("error"));
+            })
+            .assertNext(result -> {
+                assertEquals(3L, result.get("index"));
+                assertFalse((Boolean) result.get("success"));
+            })
+            .verifyComplete();
+
+        // 배치당 무효화 메시지와 Bloom Filter 변경 메시지는 한 번씩만 발행
+        verify(redisTemplate).convertAndSend(BlockDecisionCache.INVALIDATION_CHANNEL,
+            "blocked:ip:203.0.113.7\nblocked:user:user1");
+        verify(redisTemplate).convertAndSend(BlockBloomFilter.UPDATE_CHANNEL,
+            "+blocked:ip:203.0.113.7\n-blocked:user:user1");
+        verify(redisTemplate, times(2)).convertAndSend(anyString(), anyString());
+    }
+
     @Test
     void shouldUnblockSuccessfully() {
         // Given
@@ -125,6 +220,10 @@ class InternalBlockControllerTest {
                 assertEquals("test-user-123", body.get("id"));
             })
             .verifyComplete();
+
+        // 다른 게이트웨이 노드의 로컬 캐시 무효화 및 Bloom Filter 삭제 메시지 발행
+        verify(redisTemplate).convertAndSend(BlockDecisionCache.INVALIDATION_CHANNEL, "blocked:user:test-user-123");
+        verify(redisTemplate).convertAndSend(BlockBloomFilter.UPDATE_CHANNEL, "-blocked:user:test-user-123");
     }
 
     @Test
@@ -148,25 +247,16 @@ class InternalBlockControllerTest {
     }
 
     @Test
-    void shouldListBlockedUsers() {
-        // Given
-        String type = "user";
-        
-        when(redisTemplate.keys("blocked:user:*"))
-            .thenReturn(Flux.just("blocked:user:user1", "blocked:user:user2"));
-        
-        when(valueOperations.get("blocked:user:user1"))
-            .thenReturn(Mono.just("Failed login attempts"));
-        when(redisTemplate.getExpire("blocked:user:user1"))
-            .thenReturn(Mono.just(Duration.ofSeconds(3600)));
-            
-        when(valueOperations.get("blocked:user:user2"))
-            .thenReturn(Mono.just("Suspicious behavior"));
-        when(redisTemplate.getExpire("blocked:user:user2"))
-            .thenReturn(Mono.just(Duration.ofSeconds(-1)));
+    void shouldListBlockedUsersFromIndexPage() {
+        // Given - 인덱스 페이지: 다음 커서와 (ID, 만료 epoch millis) 쌍, 영구차단은 0
+        long expiresAt = System.currentTimeMillis() + 3_600_000L;
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("blocked:index:user")), anyList()))
+            .thenReturn(Flux.just(List.of("1536", "user1", String.valueOf(expiresAt), "user2", "0", "user3", "0")));
+        when(valueOperations.multiGet(List.of("blocked:user:user1", "blocked:user:user2", "blocked:user:user3")))
+            .thenReturn(Mono.just(Arrays.asList("Failed login attempts", "Suspicious behavior", null)));
 
         // When & Then
-        StepVerifier.create(controller.listBlocked(type))
+        StepVerifier.create(controller.listBlocked("user", "0", 100))
             .assertNext(response -> {
                 assertEquals(HttpStatus.OK, response.getStatusCode());
                 Map<String, Object> body = response.getBody();
@@ -174,8 +264,20 @@ class InternalBlockControllerTest {
                 assertTrue((Boolean) body.get("success"));
                 assertEquals("user", body.get("type"));
                 assertEquals(2, body.get("count"));
+                assertEquals("1536", body.get("nextCursor"));
             })
             .verifyComplete();
+
+        // 키가 사라진 인덱스 항목은 조회 시 제거
+        verify(zSetOperations).remove("blocked:index:user", "user3");
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    void shouldRejectInvalidListCursor() {
+        StepVerifier.create(controller.listBlocked("user", "abc", 100))
+            .assertNext(response -> assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()))
+            .verifyComplete();
     }
 
     @Test
@@ -184,12 +286,8 @@ class InternalBlockControllerTest {
         String type = "user";
         String id = "test-user";
         
-        when(redisTemplate.hasKey("blocked:user:test-user"))
-            .thenReturn(Mono.just(true));
-        when(valueOperations.get("blocked:user:test-user"))
-            .thenReturn(Mono.just("Test reason"));
-        when(redisTemplate.getExpire("blocked:user:test-user"))
-            .thenReturn(Mono.just(Duration.ofSeconds(1800)));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("blocked:user:test-user")), anyList()))
+            .thenReturn(Flux.just(List.of(1L, "Test reason", 1_800_000L)));
 
         // When & Then
         StepVerifier.create(controller.checkBlocked(type, id))
@@ -213,8 +311,8 @@ class InternalBlockControllerTest {
         String type = "user";
         String id = "free-user";
         
-        when(redisTemplate.hasKey("blocked:user:free-user"))
-            .thenReturn(Mono.just(false));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("blocked:user:free-user")), anyList()))
+            .thenReturn(Flux.just(List.of()));
 
         // When & Then
         StepVerifier.create(controller.checkBlocked(type, id))
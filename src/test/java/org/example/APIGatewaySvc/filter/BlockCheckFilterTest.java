@@ -1,14 +1,31 @@
 package org.example.APIGatewaySvc.filter;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
+import org.example.APIGatewaySvc.security.JwtSubjectResolver;
+import org.example.APIGatewaySvc.service.BlockBloomFilter;
+import org.example.APIGatewaySvc.service.BlockDecisionCache;
+import org.example.APIGatewaySvc.service.BlockMetrics;
+import org.example.APIGatewaySvc.service.BlockService;
+import org.example.APIGatewaySvc.service.CidrBlockList;
+import org.example.APIGatewaySvc.service.RedisFailurePolicy;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -17,27 +34,31 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.net.InetSocketAddress;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
 class BlockCheckFilterTest {
 
     @Mock
     private ReactiveRedisTemplate<String, String> redisTemplate;
     
-    @Mock
-    private ReactiveValueOperations<String, String> valueOperations;
-    
     @Mock
     private ServerWebExchange exchange;
     
@@ -62,21 +83,28 @@ class BlockCheckFilterTest {
     @Mock
     private Jwt jwt;
     
-    @Mock
-    private DataBuffer dataBuffer;
-
+    private BlockDecisionCache blockDecisionCache;
+    private BlockBloomFilter blockBloomFilter;
+    private CidrBlockList cidrBlockList;
+    private SimpleMeterRegistry meterRegistry;
     private BlockCheckFilter filter;
 
     @BeforeEach
     void setUp() {
-        filter = new BlockCheckFilter(redisTemplate);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        blockDecisionCache = new BlockDecisionCache(redisTemplate, meterRegistry);
+        blockBloomFilter = new BlockBloomFilter(redisTemplate);
+        cidrBlockList = new CidrBlockList(redisTemplate);
+        BlockMetrics blockMetrics = new BlockMetrics(meterRegistry);
+        filter = new BlockCheckFilter(new BlockService(redisTemplate, blockDecisionCache, blockBloomFilter, cidrBlockList,
+            new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()), blockMetrics), blockMetrics, new JwtSubjectResolver(),
+            new ClientIdentityResolver());
         when(exchange.getRequest()).thenReturn(request);
         when(exchange.getResponse()).thenReturn(response);
         when(request.getHeaders()).thenReturn(headers);
         when(request.getRemoteAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 8080));
-        when(response.bufferFactory()).thenReturn(mock(org.springframework.core.io.buffer.DataBufferFactory.class));
-        when(response.bufferFactory().wrap(any(byte[].class))).thenReturn(dataBuffer);
+        when(response.getHeaders()).thenReturn(new HttpHeaders());
+        when(response.bufferFactory()).thenReturn(DefaultDataBufferFactory.sharedInstance);
         when(response.writeWith(any(Mono.class))).thenReturn(Mono.empty());
     }
 
@@ -86,7 +114,7 @@ class BlockCheckFilterTest {
         when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
         when(headers.getFirst("X-Real-IP")).thenReturn(null);
         when(headers.getFirst("X-Api-Key")).thenReturn(null);
-        when(redisTemplate.hasKey("blocked:ip:127.0.0.1")).thenReturn(Mono.just(false));
+        stubLookup(List.of("blocked:ip:127.0.0.1"), List.of());
         when(chain.filter(exchange)).thenReturn(Mono.empty());
 
         // Mock ReactiveSecurityContextHolder
@@ -98,7 +126,7 @@ class BlockCheckFilterTest {
             .verifyComplete();
 
         verify(chain).filter(exchange);
-        verify(redisTemplate).hasKey("blocked:ip:127.0.0.1");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("blocked:ip:127.0.0.1")), anyList());
     }
 
     @Test
@@ -107,8 +135,7 @@ class BlockCheckFilterTest {
         when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
         when(headers.getFirst("X-Real-IP")).thenReturn(null);
         when(headers.getFirst("X-Api-Key")).thenReturn(null);
-        when(redisTemplate.hasKey("blocked:ip:127.0.0.1")).thenReturn(Mono.just(true));
-        when(redisTemplate.getExpire("blocked:ip:127.0.0.1")).thenReturn(Mono.just(Duration.ofSeconds(3600)));
+        stubLookup(List.of("blocked:ip:127.0.0.1"), List.of(1L, "Suspicious activity", 3_600_000L));
         
         // Mock ReactiveSecurityContextHolder
         when(securityContext.getAuthentication()).thenReturn(null);
@@ -129,18 +156,16 @@ class BlockCheckFilterTest {
         when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
         when(headers.getFirst("X-Real-IP")).thenReturn(null);
         when(headers.getFirst("X-Api-Key")).thenReturn(null);
-        when(redisTemplate.hasKey("blocked:ip:127.0.0.1")).thenReturn(Mono.just(false));
-        when(redisTemplate.hasKey("blocked:user:" + userId)).thenReturn(Mono.just(true));
-        when(redisTemplate.getExpire("blocked:user:" + userId)).thenReturn(Mono.just(Duration.ofSeconds(-1)));
+        stubLookup(List.of("blocked:ip:127.0.0.1", "blocked:user:" + userId), List.of(2L, "Permanently blocked", -1L));
         
         // Mock JWT authentication
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(jwt);
         when(jwt.getClaimAsString("sub")).thenReturn(userId);
-        ReactiveSecurityContextHolder.withSecurityContext(Mono.just(securityContext));
 
         // When & Then
-        StepVerifier.create(filter.filter(exchange, chain))
+        StepVerifier.create(filter.filter(exchange, chain)
+                .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(securityContext))))
             .verifyComplete();
 
         verify(response).setStatusCode(HttpStatus.FORBIDDEN);
@@ -154,9 +179,7 @@ class BlockCheckFilterTest {
         when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
         when(headers.getFirst("X-Real-IP")).thenReturn(null);
         when(headers.getFirst("X-Api-Key")).thenReturn(apiKey);
-        when(redisTemplate.hasKey("blocked:ip:127.0.0.1")).thenReturn(Mono.just(false));
-        when(redisTemplate.hasKey("blocked:key:" + apiKey)).thenReturn(Mono.just(true));
-        when(redisTemplate.getExpire("blocked:key:" + apiKey)).thenReturn(Mono.just(Duration.ofSeconds(1800)));
+        stubLookup(List.of("blocked:ip:127.0.0.1", "blocked:key:" + apiKey), List.of(2L, "Leaked key", 1_800_000L));
         
         // Mock ReactiveSecurityContextHolder
         when(securityContext.getAuthentication()).thenReturn(null);
@@ -176,7 +199,7 @@ class BlockCheckFilterTest {
         when(headers.getFirst("X-Forwarded-For")).thenReturn("192.168.1.100, 10.0.0.1");
         when(headers.getFirst("X-Real-IP")).thenReturn(null);
         when(headers.getFirst("X-Api-Key")).thenReturn(null);
-        when(redisTemplate.hasKey("blocked:ip:192.168.1.100")).thenReturn(Mono.just(false));
+        stubLookup(List.of("blocked:ip:192.168.1.100"), List.of());
         when(chain.filter(exchange)).thenReturn(Mono.empty());
         
         // Mock ReactiveSecurityContextHolder
@@ -187,13 +210,213 @@ class BlockCheckFilterTest {
         StepVerifier.create(filter.filter(exchange, chain))
             .verifyComplete();
 
-        verify(redisTemplate).hasKey("blocked:ip:192.168.1.100");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("blocked:ip:192.168.1.100")), anyList());
+        verify(chain).filter(exchange);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromLocalCache() {
+        // Given
+        when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
+        when(headers.getFirst("X-Real-IP")).thenReturn(null);
+        when(headers.getFirst("X-Api-Key")).thenReturn(null);
+        stubLookup(List.of("blocked:ip:127.0.0.1"), List.of());
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+        // When - 같은 IP로 두 번 요청
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // Then - "차단되지 않음" 판정이 캐싱되어 Redis는 한 번만 조회
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), eq(List.of("blocked:ip:127.0.0.1")), anyList());
+        verify(chain, times(2)).filter(exchange);
+    }
+
+    @Test
+    void shouldRecordLookupLatencyAndRejections() {
+        // Given
+        when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
+        when(headers.getFirst("X-Real-IP")).thenReturn(null);
+        when(headers.getFirst("X-Api-Key")).thenReturn(null);
+        stubLookup(List.of("blocked:ip:127.0.0.1"), List.of(1L, "Suspicious activity", 3_600_000L));
+
+        // When - 첫 요청은 Redis 조회, 두 번째 요청은 캐시 적중
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // Then
+        assertEquals(1, meterRegistry.get("gateway.block.lookup")
+            .tag("identifiers", "ip").tag("cache", "miss").timer().count());
+        assertEquals(1, meterRegistry.get("gateway.block.lookup")
+            .tag("identifiers", "ip").tag("cache", "hit").timer().count());
+        assertEquals(2.0, meterRegistry.get("gateway.block.rejections")
+            .tag("type", "IP").tag("reason", "Suspicious activity").counter().count());
+    }
+
+    @Test
+    void shouldEvaluateAllIdentifiersInSingleScriptCall() {
+        // Given
+        String userId = "test-user-123";
+        String apiKey = "test-api-key";
+        when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
+        when(headers.getFirst("X-Real-IP")).thenReturn(null);
+        when(headers.getFirst("X-Api-Key")).thenReturn(apiKey);
+        stubLookup(List.of("blocked:ip:127.0.0.1", "blocked:key:" + apiKey, "blocked:user:" + userId), List.of());
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(jwt);
+        when(jwt.getClaimAsString("sub")).thenReturn(userId);
+
+        // When
+        StepVerifier.create(filter.filter(exchange, chain)
+                .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(securityContext))))
+            .verifyComplete();
+
+        // Then - IP, API 키, 사용자 키를 한 번의 스크립트 호출로 조회
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+        verify(redisTemplate, never()).hasKey(anyString());
         verify(chain).filter(exchange);
     }
 
+    @Test
+    void shouldSkipRedisWhenBloomFilterReportsDefiniteNegative() {
+        // Given - Redis에 차단 키가 하나도 없는 상태로 Bloom Filter 구성
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(Flux.empty());
+        StepVerifier.create(blockBloomFilter.rebuild()).verifyComplete();
+
+        when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
+        when(headers.getFirst("X-Real-IP")).thenReturn(null);
+        when(headers.getFirst("X-Api-Key")).thenReturn(null);
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+        // When
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // Then
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyList());
+        verify(chain).filter(exchange);
+    }
+
+    @Test
+    void shouldQueryRedisWhenBloomFilterMightContainKey() {
+        // Given - 차단된 IP가 포함된 Bloom Filter
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(Flux.just("blocked:ip:127.0.0.1"));
+        StepVerifier.create(blockBloomFilter.rebuild()).verifyComplete();
+
+        when(headers.getFirst("X-Forwarded-For")).thenReturn(null);
+        when(headers.getFirst("X-Real-IP")).thenReturn(null);
+        when(headers.getFirst("X-Api-Key")).thenReturn(null);
+        stubLookup(List.of("blocked:ip:127.0.0.1"), List.of(1L, "Scraper", -1L));
+
+        // When & Then
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        verify(response).setStatusCode(HttpStatus.FORBIDDEN);
+        verify(chain, never()).filter(exchange);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldBlockRequestFromBlockedCidrRangeWithoutRedisLookup() {
+        // Given - 10.0.0.0/8 대역 차단 적재
+        ReactiveHashOperations<String, Object, Object> hashOperations = mock(ReactiveHashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(CidrBlockList.CIDR_KEY))
+            .thenReturn(Flux.just(Map.entry("10.0.0.0/8", "0|Abusive cloud provider")));
+        StepVerifier.create(cidrBlockList.reload()).verifyComplete();
+
+        when(headers.getFirst("X-Forwarded-For")).thenReturn("10.20.30.40");
+        when(headers.getFirst("X-Api-Key")).thenReturn(null);
+
+        // When & Then
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        verify(response).setStatusCode(HttpStatus.FORBIDDEN);
+        verify(chain, never()).filter(exchange);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldIgnoreExpiredCidrRangeAndDeleteItOnlyIfStillExpired() {
+        // Given - 만료된 10.0.0.0/8 대역 적재
+        ReactiveHashOperations<String, Object, Object> hashOperations = mock(ReactiveHashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(CidrBlockList.CIDR_KEY))
+            .thenReturn(Flux.just(Map.entry("10.0.0.0/8", "1000|Expired ban")));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(CidrBlockList.CIDR_KEY)), anyList()))
+            .thenReturn(Flux.just(1L));
+
+        // When
+        StepVerifier.create(cidrBlockList.reload()).verifyComplete();
+
+        // Then - 트라이에서 빠지고, 다른 노드가 다시 차단했을 수 있으므로 HDEL 대신 만료 시각을 다시 확인하는 스크립트로 삭제
+        assertNull(cidrBlockList.match("10.20.30.40"));
+        verify(hashOperations, never()).remove(any(), any());
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(CidrBlockList.CIDR_KEY)), args.capture());
+        assertEquals("10.0.0.0/8", args.getValue().get(1));
+    }
+
+    @Test
+    void shouldPassRequestWhenRedisUnavailableAndPolicyIsFailOpen() {
+        // Given
+        ReflectionTestUtils.setField(filter, "failurePolicy", RedisFailurePolicy.FAIL_OPEN);
+        when(headers.getFirst("X-Api-Key")).thenReturn(null);
+        stubLookupFailure();
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        verify(chain).filter(exchange);
+    }
+
+    @Test
+    void shouldRejectRequestWhenRedisUnavailableAndPolicyIsFailClosed() {
+        // Given
+        ReflectionTestUtils.setField(filter, "failurePolicy", RedisFailurePolicy.FAIL_CLOSED);
+        when(headers.getFirst("X-Api-Key")).thenReturn(null);
+        stubLookupFailure();
+
+        // When & Then
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        verify(response).setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        verify(chain, never()).filter(exchange);
+    }
+
+    @Test
+    void shouldServeLastKnownBlockWhenRedisUnavailable() {
+        // Given - 캐시 TTL이 지난 차단 판정만 남아 있는 상태
+        ReflectionTestUtils.setField(blockDecisionCache, "blockedTtl", Duration.ZERO);
+        blockDecisionCache.putBlocked("blocked:ip:127.0.0.1",
+            new BlockService.BlockInfo("IP", "Scraper", Instant.now().plusSeconds(3600)));
+        when(headers.getFirst("X-Api-Key")).thenReturn(null);
+        stubLookupFailure();
+
+        // When & Then - 기본 정책(LAST_KNOWN)은 마지막 판정으로 차단
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        verify(response).setStatusCode(HttpStatus.FORBIDDEN);
+        verify(chain, never()).filter(exchange);
+    }
+
     @Test
     void shouldHaveHighestPrecedence() {
         // When & Then
         assert filter.getOrder() == org.springframework.core.Ordered.HIGHEST_PRECEDENCE;
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    private void stubLookup(List<String> keys, List<Object> result) {
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys), anyList()))
+            .thenReturn(Flux.just(result));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubLookupFailure() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenReturn(Flux.error(new RedisConnectionFailureException("Connection refused")));
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.APIGatewaySvc.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.ratelimit.CostRateLimiter;
+import org.example.APIGatewaySvc.ratelimit.RateLimitEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CostRateLimitGatewayFilterFactoryTest {
+
+    private static final String ID = "ai-feature-service.user:alice";
+
+    @Mock
+    private CostRateLimiter costRateLimiter;
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        CostRateLimitGatewayFilterFactory factory = new CostRateLimitGatewayFilterFactory(costRateLimiter,
+            exchange -> Mono.just("user:alice"), new SimpleMeterRegistry());
+        CostRateLimitGatewayFilterFactory.Config config = new CostRateLimitGatewayFilterFactory.Config()
+            .setReplenishRate(5)
+            .setBurstCapacity(10)
+            .setMinCost(2)
+            .setBytesPerUnit(1024)
+            .setUsageHeader("X-Usage-Tokens")
+            .setUsagePerUnit(100);
+        config.setRouteId("ai-feature-service");
+        filter = factory.apply(config);
+        when(costRateLimiter.settle(any(), anyInt(), anyLong(), anyLong()))
+            .thenReturn(Mono.just(new RateLimitEngine.Decision(true, 0, 0)));
+    }
+
+    private MockServerWebExchange exchange(long contentLength) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/gateway/aifeature/chat")
+            .contentLength(contentLength)
+            .build());
+    }
+
+    /**
+     * 응답 본문을 쓰는 업스트림
+     */
+    private GatewayFilterChain upstream(int responseBytes, String usage) {
+        return exchange -> {
+            if (usage != null) {
+                exchange.getResponse().getHeaders().set("X-Usage-Tokens", usage);
+            }
+            DataBuffer body = DefaultDataBufferFactory.sharedInstance.wrap(new byte[responseBytes]);
+            return exchange.getResponse().writeWith(Mono.just(body));
+        };
+    }
+
+    @Test
+    void shouldChargeEstimateFromContentLengthAndSettleFromResponseSize() {
+        // Given - 요청 5KB(추정 5단위), 응답 3KB
+        when(costRateLimiter.acquire(ID, 5, 10, 5))
+            .thenReturn(Mono.just(new RateLimitEngine.Decision(true, 5, 0)));
+        MockServerWebExchange exchange = exchange(5 * 1024);
+
+        // When
+        StepVerifier.create(filter.filter(exchange, upstream(3 * 1024, null)))
+            .verifyComplete();
+
+        // Then - 실제 비용 8단위, 3단위 추가 차감
+        verify(costRateLimiter).settle(ID, 5, 10, 3);
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertEquals("5", headers.getFirst(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals("5", headers.getFirst(RedisRateLimiter.REQUESTED_TOKENS_HEADER));
+    }
+
+    @Test
+    void shouldSettleFromUsageHeader() {
+        // Given - 작은 요청(최소 2단위), 업스트림 사용량 50 (1단위 = 100)
+        when(costRateLimiter.acquire(ID, 5, 10, 2))
+            .thenReturn(Mono.just(new RateLimitEngine.Decision(true, 8, 0)));
+
+        // When
+        StepVerifier.create(filter.filter(exchange(100), upstream(8 * 1024, "50")))
+            .verifyComplete();
+
+        // Then - 응답 크기 대신 사용량 기준, 최소 비용과 같으므로 정산 없음
+        verify(costRateLimiter, never()).settle(any(), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldRejectWhenCostExceedsRemainingTokens() {
+        // Given
+        when(costRateLimiter.acquire(ID, 5, 10, 10))
+            .thenReturn(Mono.just(new RateLimitEngine.Decision(false, 3, 1400)));
+        MockServerWebExchange exchange = exchange(64 * 1024);
+        GatewayFilterChain chain = mock(GatewayFilterChain.class);
+
+        // When
+        StepVerifier.create(filter.filter(exchange, chain))
+            .verifyComplete();
+
+        // Then - 용량보다 큰 요청은 용량만큼 추정, 업스트림 호출 없이 429
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        assertEquals("2", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(chain, never()).filter(any());
+        verify(costRateLimiter, never()).settle(any(), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldAllowWithoutSettlementWhenRedisFails() {
+        // Given
+        when(costRateLimiter.acquire(any(), anyInt(), anyLong(), anyLong()))
+            .thenReturn(Mono.error(new RedisConnectionFailureException("Redis down")));
+        MockServerWebExchange exchange = exchange(1024);
+
+        // When
+        StepVerifier.create(filter.filter(exchange, upstream(4 * 1024, null)))
+            .verifyComplete();
+
+        // Then - RedisRateLimiter와 같이 허용, 남은 토큰 -1
+        assertEquals("-1", exchange.getResponse().getHeaders().getFirst(RedisRateLimiter.REMAINING_HEADER));
+        verify(costRateLimiter, never()).settle(any(), anyInt(), anyLong(), anyLong());
+    }
+}
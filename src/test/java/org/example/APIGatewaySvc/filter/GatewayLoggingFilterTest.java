@@ -1,5 +1,7 @@
 package org.example.APIGatewaySvc.filter;
 
+import org.example.APIGatewaySvc.security.ClientIdentityResolver;
+import org.example.APIGatewaySvc.security.JwtSubjectResolver;
 import org.example.APIGatewaySvc.service.GatewayLogService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -56,7 +58,7 @@ class GatewayLoggingFilterTest {
 
     @BeforeEach
     void setUp() {
-        filter = new GatewayLoggingFilter(logService);
+        filter = new GatewayLoggingFilter(logService, new JwtSubjectResolver(), new ClientIdentityResolver());
 
         when(exchange.getRequest()).thenReturn(request);
         when(exchange.getResponse()).thenReturn(response);
@@ -0,0 +1,54 @@
+package org.example.APIGatewaySvc.filter;
+
+import org.example.APIGatewaySvc.config.QuotaProperties;
+import org.example.APIGatewaySvc.service.QuotaManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuotaGatewayFilterFactoryTest {
+
+    @Mock
+    private QuotaManager quotaManager;
+
+    private QuotaGatewayFilterFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new QuotaGatewayFilterFactory(quotaManager, new QuotaProperties());
+    }
+
+    private static Jwt jwt(String claim, Object value) {
+        Jwt.Builder builder = Jwt.withTokenValue("token").header("alg", "none").subject("alice");
+        return value != null ? builder.claim(claim, value).build() : builder.build();
+    }
+
+    @Test
+    void shouldChargeApiKeyBoundToToken() {
+        // Given - 토큰에 발급 키 목록이 있음
+        Jwt token = jwt("api_keys", List.of("key-a", "key-b"));
+
+        // When & Then
+        assertEquals("key-b", factory.boundApiKey(token, "key-b"));
+        assertEquals("key-a", factory.boundApiKey(jwt("api_keys", "key-a"), "key-a"));
+    }
+
+    @Test
+    void shouldIgnoreApiKeyNotBoundToToken() {
+        // Given - 다른 고객의 키 또는 임의 키
+        Jwt token = jwt("api_keys", List.of("key-a"));
+
+        // When & Then - API 키 수준 미적용
+        assertNull(factory.boundApiKey(token, "victim-key"));
+        assertNull(factory.boundApiKey(jwt("api_keys", null), "key-a"));
+        assertNull(factory.boundApiKey(token, null));
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import org.example.APIGatewaySvc.ratelimit.AdaptiveConcurrencyLimiter.Algorithm;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private AdaptiveConcurrencyLimiter aimd(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(Algorithm.AIMD, initialLimit, 1, 100, 100 * MILLIS, 0.9, 1.5, 0.2);
+    }
+
+    /**
+     * 한도만큼 동시에 처리한 뒤 모두 같은 결과로 완료 (표본 창 하나)
+     */
+    private void completeWindow(AdaptiveConcurrencyLimiter limiter, long rttNanos, boolean dropped) {
+        int count = Math.max(10, limiter.getLimit());
+        int[] inFlight = new int[count];
+        for (int i = 0; i < count; i++) {
+            inFlight[i] = Math.min(limiter.getLimit(), i + 1);
+        }
+        for (int i = 0; i < count; i++) {
+            limiter.onSample(rttNanos, inFlight[i], dropped);
+        }
+    }
+
+    @Test
+    void shouldRejectWhenLimitReached() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = aimd(2);
+
+        // When & Then
+        assertEquals(1, limiter.tryAcquire());
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(-1, limiter.tryAcquire());
+
+        limiter.onIgnore();
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void aimdShouldBackOffOncePerWindowOnFailures() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = aimd(20);
+
+        // When - 한 창의 요청 20개가 모두 실패
+        completeWindow(limiter, 10 * MILLIS, true);
+
+        // Then - 요청마다가 아니라 창마다 한 번만 감소
+        assertEquals(18, limiter.getLimit());
+    }
+
+    @Test
+    void aimdShouldBackOffOnSlowWindowAndGrowOnHealthyWindow() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = aimd(20);
+
+        // When & Then - 평균 지연이 임계값(100ms) 초과
+        completeWindow(limiter, 150 * MILLIS, false);
+        assertEquals(18, limiter.getLimit());
+
+        // When & Then - 정상 지연, 한도를 모두 사용
+        completeWindow(limiter, 10 * MILLIS, false);
+        assertEquals(19, limiter.getLimit());
+    }
+
+    @Test
+    void aimdShouldNotGrowWhenMostlyIdle() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = aimd(20);
+
+        // When - 동시 요청 1개씩만 처리
+        for (int i = 0; i < 40; i++) {
+            limiter.onSample(10 * MILLIS, 1, false);
+        }
+
+        // Then
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void gradientShouldProbeMinRttThenShrinkWhenLatencyRises() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(Algorithm.GRADIENT, 40, 1, 100, 0, 0.9, 1.5, 0.2);
+
+        // When & Then - 시작 시 초기 한도의 절반으로 무부하 지연 측정
+        assertEquals(20, limiter.getLimit());
+        for (int i = 0; i < AdaptiveConcurrencyLimiter.PROBE_SAMPLES; i++) {
+            limiter.onSample(10 * MILLIS, 1, false);
+        }
+        assertEquals(40, limiter.getLimit());
+
+        // When & Then - 기준선 근처 지연에서는 한도 증가
+        completeWindow(limiter, 12 * MILLIS, false);
+        int grown = limiter.getLimit();
+        assertTrue(grown > 40, "limit should grow near baseline latency: " + grown);
+
+        // When & Then - 지연이 기준선의 4배로 증가하면 한도 감소
+        completeWindow(limiter, 40 * MILLIS, false);
+        assertTrue(limiter.getLimit() < grown, "limit should shrink on latency rise: " + limiter.getLimit());
+    }
+
+    @Test
+    void gradientShouldDelayPeriodicProbeUntilIdleWindow() {
+        // Given - 시작 시 측정 완료
+        AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(Algorithm.GRADIENT, 40, 1, 100, 0, 0.9, 1.5, 0.2);
+        for (int i = 0; i < AdaptiveConcurrencyLimiter.PROBE_SAMPLES; i++) {
+            limiter.onSample(10 * MILLIS, 1, false);
+        }
+
+        // When - 측정 주기를 넘기는 동안 한도를 모두 사용
+        for (int i = 0; i < 150; i++) {
+            completeWindow(limiter, 10 * MILLIS, false);
+        }
+
+        // Then - 부하 중에는 측정하지 않아 한도 유지
+        assertEquals(100, limiter.getLimit());
+
+        // When & Then - 한가한 창이 오면 현재 한도의 절반으로 측정 후 복원
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(10 * MILLIS, 1, false);
+        }
+        assertEquals(50, limiter.getLimit());
+        for (int i = 0; i < AdaptiveConcurrencyLimiter.PROBE_SAMPLES; i++) {
+            limiter.onSample(10 * MILLIS, 1, false);
+        }
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void shouldRejectInvalidBounds() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new AdaptiveConcurrencyLimiter(Algorithm.AIMD, 10, 0, 100, MILLIS, 0.9, 1.5, 0.2));
+        assertThrows(IllegalArgumentException.class,
+            () -> new AdaptiveConcurrencyLimiter(Algorithm.AIMD, 10, 20, 10, MILLIS, 0.9, 1.5, 0.2));
+    }
+}
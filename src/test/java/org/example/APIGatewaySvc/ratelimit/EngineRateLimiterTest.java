@@ -0,0 +1,134 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EngineRateLimiterTest {
+
+    @Mock
+    private RateLimitEngine gcraEngine;
+
+    @Mock
+    private RateLimitEngine slidingLogEngine;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EngineRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        when(gcraEngine.getName()).thenReturn(GcraRateLimitEngine.NAME);
+        when(slidingLogEngine.getName()).thenReturn(SlidingLogRateLimitEngine.NAME);
+        meterRegistry = new SimpleMeterRegistry();
+        EngineRateLimiter.Config defaultConfig = new EngineRateLimiter.Config()
+            .setEngine(GcraRateLimitEngine.NAME)
+            .setReplenishRate(10)
+            .setBurstCapacity(20);
+        rateLimiter = new EngineRateLimiter(List.of(gcraEngine, slidingLogEngine), defaultConfig,
+            new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()), meterRegistry, null);
+    }
+
+    @Test
+    void shouldUseDefaultEngineWithoutRouteConfig() {
+        // Given
+        when(gcraEngine.check(eq("user-service.user:alice"), any()))
+            .thenReturn(Mono.just(new RateLimitEngine.Decision(true, 19, 0)));
+
+        // When & Then
+        StepVerifier.create(rateLimiter.isAllowed("user-service", "user:alice"))
+            .assertNext(response -> {
+                assertTrue(response.isAllowed());
+                assertEquals("19", response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+                assertEquals("20", response.getHeaders().get(RedisRateLimiter.BURST_CAPACITY_HEADER));
+            })
+            .verifyComplete();
+        verifyNoInteractions(slidingLogEngine);
+    }
+
+    @Test
+    void shouldUseEngineSelectedByRoute() {
+        // Given - 라우트 설정으로 sliding-log 선택
+        rateLimiter.getConfig().put("ai-service", new EngineRateLimiter.Config()
+            .setEngine(SlidingLogRateLimitEngine.NAME)
+            .setReplenishRate(5)
+            .setBurstCapacity(10)
+            .setRequestedTokens(2));
+        when(slidingLogEngine.check(eq("ai-service.user:bob"), any()))
+            .thenReturn(Mono.just(new RateLimitEngine.Decision(false, 1, 400)));
+
+        // When & Then
+        StepVerifier.create(rateLimiter.isAllowed("ai-service", "user:bob"))
+            .assertNext(response -> {
+                assertFalse(response.isAllowed());
+                assertEquals("2", response.getHeaders().get(RedisRateLimiter.REQUESTED_TOKENS_HEADER));
+            })
+            .verifyComplete();
+        verify(gcraEngine, never()).check(any(), any());
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.engine.decisions")
+            .tag("engine", "sliding-log").tag("result", "denied").counter().count());
+    }
+
+    @Test
+    void shouldRejectInvalidRouteArgsWhenBound() {
+        // Given - 라우트 args를 바인딩하는 Rate Limiter
+        ConfigurationService configurationService = new ConfigurationService(new DefaultListableBeanFactory(),
+            ApplicationConversionService::getSharedInstance, () -> null);
+        rateLimiter = new EngineRateLimiter(List.of(gcraEngine, slidingLogEngine), new EngineRateLimiter.Config()
+            .setReplenishRate(10)
+            .setBurstCapacity(20), new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()), meterRegistry,
+            configurationService);
+        rateLimiter.onApplicationEvent(new FilterArgsEvent(this, "ai-service", Map.of(
+            "engine-rate-limiter.engine", SlidingLogRateLimitEngine.NAME,
+            "engine-rate-limiter.replenish-rate", "5",
+            "engine-rate-limiter.burst-capacity", "10")));
+
+        // When & Then - 잘못된 엔진은 요청 처리 시가 아니라 라우트 적재 시 실패하고 이전 설정 유지
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.onApplicationEvent(
+            new FilterArgsEvent(this, "ai-service", Map.of("engine-rate-limiter.engine", "leaky-bucket"))));
+        assertEquals(SlidingLogRateLimitEngine.NAME, rateLimiter.loadConfiguration("ai-service").getEngine());
+
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.onApplicationEvent(
+            new FilterArgsEvent(this, "bad-route", Map.of("engine-rate-limiter.replenish-rate", "0"))));
+        assertFalse(rateLimiter.getConfig().containsKey("bad-route"));
+    }
+
+    @Test
+    void shouldAllowWhenEngineFails() {
+        // Given
+        when(gcraEngine.check(any(), any()))
+            .thenReturn(Mono.error(new RedisConnectionFailureException("Redis down")));
+
+        // When & Then - RedisRateLimiter와 같이 허용, 남은 토큰 -1
+        StepVerifier.create(rateLimiter.isAllowed("user-service", "user:alice"))
+            .assertNext(response -> {
+                assertTrue(response.isAllowed());
+                assertEquals("-1", response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+            })
+            .verifyComplete();
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HybridRateLimiterTest {
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private HybridRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        HybridRateLimiter.Config config = new HybridRateLimiter.Config()
+            .setReplenishRate(10)
+            .setBurstCapacity(20)
+            .setRequestedTokens(1)
+            .setLeaseTokens(5);
+        ConfigurationService configurationService = new ConfigurationService(new DefaultListableBeanFactory(),
+            ApplicationConversionService::getSharedInstance, () -> null);
+        rateLimiter = new HybridRateLimiter("testLimiter", config, redisTemplate,
+            new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()), meterRegistry, configurationService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenLeaseResults(List<Long>... results) {
+        var stubbing = when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()));
+        for (List<Long> result : results) {
+            stubbing = stubbing.thenReturn(Flux.just(result));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldServeRequestsFromLeaseWithSingleRedisCall() {
+        // Given - 5개 임대, 전역 잔여 15
+        givenLeaseResults(List.of(5L, 15L, 0L), List.of(5L, 10L, 0L));
+
+        // When & Then - 5건은 Redis 호출 1회로 허용
+        for (int i = 4; i >= 0; i--) {
+            long expectedRemaining = 15 + i;
+            StepVerifier.create(rateLimiter.isAllowed("user-service", "user:alice"))
+                .assertNext(response -> {
+                    assertTrue(response.isAllowed());
+                    assertEquals(String.valueOf(expectedRemaining),
+                        response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+                })
+                .verifyComplete();
+        }
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+
+        // 6번째 요청에서 다음 임대
+        StepVerifier.create(rateLimiter.isAllowed("user-service", "user:alice"))
+            .assertNext(response -> assertTrue(response.isAllowed()))
+            .verifyComplete();
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), keys.capture(), args.capture());
+        assertEquals(List.of("rate_limit_lease:{user-service.user:alice}"), keys.getValue());
+        // 보충량, 용량, 반납 0, 임대 요청 5, 최소 1
+        assertEquals(List.of("10", "20", "0", "5", "1"), args.getValue().subList(0, 5));
+        assertEquals(4.0, meterRegistry.get("gateway.ratelimit.hybrid.decisions")
+            .tag("source", "local").tag("result", "allowed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDenyLocallyWhileGlobalBucketIsEmpty() {
+        // Given - 전역 버킷이 비어 있음, 1초 후 재시도
+        givenLeaseResults(List.of(0L, 0L, 1000L));
+
+        // When & Then - 첫 요청은 임대 후 거부, 이후 요청은 Redis 호출 없이 거부
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(rateLimiter.isAllowed("ai-service", "user:bob"))
+                .assertNext(response -> assertFalse(response.isAllowed()))
+                .verifyComplete();
+        }
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+        assertEquals(2.0, meterRegistry.get("gateway.ratelimit.hybrid.decisions")
+            .tag("source", "local").tag("result", "denied").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldAllowWhenRedisFails() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenReturn(Flux.error(new RedisConnectionFailureException("Redis down")));
+
+        // When & Then - RedisRateLimiter와 같이 허용, 남은 토큰 -1
+        StepVerifier.create(rateLimiter.isAllowed("user-service", "user:alice"))
+            .assertNext(response -> {
+                assertTrue(response.isAllowed());
+                assertEquals("-1", response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+            })
+            .verifyComplete();
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.hybrid.leases")
+            .tag("result", "failed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReturnUnusedTokensWhenLeaseExpires() throws InterruptedException {
+        // Given - 임대 기간 1ms
+        rateLimiter.getDefaultConfig().setLeaseTtl(Duration.ofMillis(1));
+        givenLeaseResults(List.of(5L, 15L, 0L), List.of(0L, 19L, 0L));
+        RateLimiter.Response response = rateLimiter.isAllowed("user-service", "user:alice").block();
+        assertTrue(response.isAllowed());
+        Thread.sleep(5);
+
+        // When
+        rateLimiter.sweep();
+
+        // Then - 남은 4개 반납 (임대 요청 0)
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), args.capture());
+        assertEquals(List.of("4", "0", "0"), args.getValue().subList(2, 5));
+    }
+
+    @Test
+    void shouldBindRouteArgsAndRejectInvalidOnes() {
+        // Given & When - 라우트 args 바인딩
+        rateLimiter.onApplicationEvent(new FilterArgsEvent(this, "ai-service", Map.of(
+            "hybrid-rate-limiter.replenish-rate", "5",
+            "hybrid-rate-limiter.burst-capacity", "10",
+            "hybrid-rate-limiter.lease-ttl", "2s")));
+
+        // Then - 라우트 설정 사용
+        HybridRateLimiter.Config bound = rateLimiter.loadConfiguration("ai-service");
+        assertEquals(5, bound.getReplenishRate());
+        assertEquals(10, bound.getBurstCapacity());
+        assertEquals(Duration.ofSeconds(2), bound.getLeaseTtl());
+
+        // 잘못된 설정은 요청 처리 시가 아니라 라우트 적재 시 실패하고 이전 설정 유지
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.onApplicationEvent(
+            new FilterArgsEvent(this, "ai-service", Map.of("hybrid-rate-limiter.burst-capacity", "10"))));
+        assertSame(bound, rateLimiter.loadConfiguration("ai-service"));
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.onApplicationEvent(
+            new FilterArgsEvent(this, "bad-route", Map.of("hybrid-rate-limiter.replenish-rate", "0"))));
+        assertFalse(rateLimiter.getConfig().containsKey("bad-route"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldNotCreateBucketsBeyondMaxKeys() {
+        // Given - 로컬 버킷 1개 제한
+        rateLimiter.setMaxKeys(1);
+        givenLeaseResults(List.of(5L, 15L, 0L), List.of(1L, 14L, 0L));
+        rateLimiter.isAllowed("user-service", "user:alice").block();
+
+        // When - 처음 보는 키
+        RateLimiter.Response response = rateLimiter.isAllowed("user-service", "user:mallory").block();
+
+        // Then - 버킷을 만들지 않고 요청 토큰만 전역 버킷에서 차감
+        assertTrue(response.isAllowed());
+        assertEquals("14", response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals(1, rateLimiter.bucketCount());
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), args.capture());
+        assertEquals(List.of("0", "1", "1"), args.getValue().subList(2, 5));
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.APIGatewaySvc.ratelimit;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.service.RedisHealthTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RateLimitFallbackTest {
+
+    @Mock
+    private RateLimitEngine gcraEngine;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedisHealthTracker redisHealthTracker;
+    private RateLimitFallback fallback;
+    private EngineRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        when(gcraEngine.getName()).thenReturn(GcraRateLimitEngine.NAME);
+        meterRegistry = new SimpleMeterRegistry();
+        redisHealthTracker = new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults());
+        fallback = new RateLimitFallback(redisHealthTracker, meterRegistry);
+        fallback.setExpectedNodes(2);
+
+        // 노드 2개: 로컬 판정은 초당 1개, 용량 10
+        EngineRateLimiter.Config defaultConfig = new EngineRateLimiter.Config()
+            .setEngine(GcraRateLimitEngine.NAME)
+            .setReplenishRate(2)
+            .setBurstCapacity(20);
+        rateLimiter = new EngineRateLimiter(List.of(gcraEngine), defaultConfig, redisHealthTracker, meterRegistry, null);
+    }
+
+    private boolean allowed(String id) {
+        return rateLimiter.isAllowed("user-service", id).block().isAllowed();
+    }
+
+    private double modeGauge() {
+        return meterRegistry.get("gateway.ratelimit.mode").gauge().value();
+    }
+
+    private double localDecisions() {
+        return meterRegistry.get("gateway.ratelimit.fallback.decisions").counters().stream()
+            .mapToDouble(counter -> counter.count())
+            .sum();
+    }
+
+    @Test
+    void shouldEnforceNodeShareAfterConsecutiveFailures() {
+        // Given - Redis 장애, 복구 확인은 테스트 중 발생하지 않음
+        fallback.setProbeInterval(Duration.ofHours(1));
+        rateLimiter.setLocalFallback(fallback);
+        when(gcraEngine.check(any(), any()))
+            .thenReturn(Mono.error(new RedisConnectionFailureException("Redis down")));
+
+        // When
+        int allowedCount = 0;
+        for (int i = 0; i < 20; i++) {
+            if (allowed("user:alice")) {
+                allowedCount++;
+            }
+        }
+
+        // Then - 연속 3회 실패 후 Redis 호출 없이 용량 20 / 노드 2 = 10건만 허용, 다른 키는 별도 버킷
+        assertEquals(10, allowedCount);
+        assertTrue(allowed("user:bob"));
+        assertEquals(RateLimitFallback.Mode.LOCAL, fallback.getMode());
+        assertEquals(1.0, modeGauge());
+        verify(gcraEngine, times(3)).check(any(), any());
+    }
+
+    @Test
+    void shouldReturnToRedisAndKeepLocalDebtUntilRefilled() {
+        // Given - 첫 실패에 전환, 요청마다 복구 확인, 10번째 호출까지 실패
+        fallback.setFailureThreshold(1);
+        fallback.setProbeInterval(Duration.ZERO);
+        rateLimiter.setLocalFallback(fallback);
+        AtomicInteger calls = new AtomicInteger();
+        when(gcraEngine.check(any(), any())).thenAnswer(invocation -> calls.incrementAndGet() <= 10
+            ? Mono.error(new RedisConnectionFailureException("Redis down"))
+            : Mono.just(new RateLimitEngine.Decision(true, 19, 0)));
+
+        // When - 장애 중 alice가 로컬 한도 10건 소진
+        for (int i = 0; i < 10; i++) {
+            assertTrue(allowed("user:alice"));
+        }
+        assertFalse(allowed("user:alice"));
+        assertEquals(RateLimitFallback.Mode.LOCAL, fallback.getMode());
+
+        // Then - bob의 복구 확인 요청으로 Redis 복귀, alice는 로컬 버킷이 찰 때까지 Redis 호출 없이 거부
+        assertTrue(allowed("user:bob"));
+        assertEquals(RateLimitFallback.Mode.REDIS, fallback.getMode());
+        assertEquals(0.0, modeGauge());
+        assertFalse(allowed("user:alice"));
+        assertEquals(11, calls.get());
+    }
+
+    @Test
+    void shouldStopLocalCheckOnceBucketsRefillDespiteTraffic() throws InterruptedException {
+        // Given - 노드 2개, 로컬 판정은 초당 100개, 용량 10 (0.1초면 다시 가득 참)
+        EngineRateLimiter.Config fastConfig = new EngineRateLimiter.Config()
+            .setEngine(GcraRateLimitEngine.NAME)
+            .setReplenishRate(200)
+            .setBurstCapacity(20);
+        rateLimiter = new EngineRateLimiter(List.of(gcraEngine), fastConfig, redisHealthTracker, meterRegistry, null);
+        fallback.setFailureThreshold(1);
+        fallback.setProbeInterval(Duration.ZERO);
+        rateLimiter.setLocalFallback(fallback);
+        AtomicBoolean redisUp = new AtomicBoolean(false);
+        AtomicInteger calls = new AtomicInteger();
+        when(gcraEngine.check(any(), any())).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            return redisUp.get()
+                ? Mono.just(new RateLimitEngine.Decision(true, 19, 0))
+                : Mono.error(new RedisConnectionFailureException("Redis down"));
+        });
+
+        // 장애 중 alice가 로컬 한도 소진
+        boolean denied = false;
+        for (int i = 0; i < 100 && !denied; i++) {
+            denied = !allowed("user:alice");
+        }
+        assertTrue(denied);
+
+        // When - Redis 복귀 후 버킷이 다시 차는 시간(0.1초)보다 길게 alice와 bob 요청이 계속됨
+        redisUp.set(true);
+        long end = System.nanoTime() + Duration.ofMillis(300).toNanos();
+        while (System.nanoTime() < end) {
+            allowed("user:alice");
+            allowed("user:bob");
+            Thread.sleep(2);
+        }
+        assertEquals(RateLimitFallback.Mode.REDIS, fallback.getMode());
+
+        // Then - 복귀 후 트래픽으로 정산이 늘어나지 않아 로컬 판정 없이 Redis 판정만 사용
+        double decisionsBefore = localDecisions();
+        int callsBefore = calls.get();
+        for (int i = 0; i < 20; i++) {
+            assertTrue(allowed("user:alice"));
+        }
+        assertEquals(decisionsBefore, localDecisions());
+        assertEquals(callsBefore + 20, calls.get());
+    }
+
+    @Test
+    void shouldTreatSlowCallsAsFailures() {
+        // Given - 응답 지연이 기준(1ms)을 넘는 Redis
+        fallback.setSlowCallThreshold(Duration.ofMillis(1));
+        fallback.setProbeInterval(Duration.ofHours(1));
+        rateLimiter.setLocalFallback(fallback);
+        when(gcraEngine.check(any(), any())).thenReturn(
+            Mono.delay(Duration.ofMillis(20)).thenReturn(new RateLimitEngine.Decision(true, 19, 0)));
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertTrue(allowed("user:alice"));
+        }
+
+        // Then - 느린 응답 3회 후 로컬 판정으로 전환
+        assertEquals(RateLimitFallback.Mode.LOCAL, fallback.getMode());
+        verify(gcraEngine, times(3)).check(any(), any());
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.APIGatewaySvc.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JwtSubjectResolver 단위 테스트
+ * 보안 컨텍스트 sub 조회와 토큰 해시 캐시 검증
+ */
+class JwtSubjectResolverTest {
+
+    private JwtSubjectResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new JwtSubjectResolver();
+    }
+
+    @Test
+    @DisplayName("인증된 JWT의 sub를 반환해야 함")
+    void shouldResolveAuthenticatedSubject() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("auth0|user-1")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+
+        StepVerifier.create(resolver.authenticatedSubject()
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new JwtAuthenticationToken(jwt))))
+                .expectNext("auth0|user-1")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("JWT 인증이 아니거나 보안 컨텍스트가 없으면 비어 있어야 함")
+    void shouldBeEmptyWithoutJwtAuthentication() {
+        StepVerifier.create(resolver.authenticatedSubject()
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                                new TestingAuthenticationToken("user", "password"))))
+                .verifyComplete();
+        StepVerifier.create(resolver.authenticatedSubject())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("같은 토큰은 캐시된 sub를 반환하고, 서명이 다른 토큰은 따로 파싱해야 함")
+    void shouldCacheSubjectPerToken() {
+        String alice = token("alice", "signature-aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+        String bob = token("bob", "signature-bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb");
+
+        assertThat(resolver.fromToken(alice)).isEqualTo("alice");
+        assertThat(resolver.fromToken(new String(alice))).isEqualTo("alice");
+        assertThat(resolver.fromToken(bob)).isEqualTo("bob");
+        assertThat(resolver.fromToken("not-a-token")).isNull();
+        assertThat(resolver.fromToken(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("캐시 크기를 넘으면 오래된 항목을 제거해도 결과는 같아야 함")
+    void shouldEvictWhenCacheIsFull() {
+        ReflectionTestUtils.setField(resolver, "cacheSize", 16);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(resolver.fromToken(token("user-" + i, "sig-" + i))).isEqualTo("user-" + i);
+        }
+        assertThat(resolver.fromToken(token("user-0", "sig-0"))).isEqualTo("user-0");
+    }
+
+    private static String token(String subject, String signature) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(("{\"sub\":\"" + subject + "\"}").getBytes(StandardCharsets.UTF_8))
+                + "." + signature;
+    }
+}
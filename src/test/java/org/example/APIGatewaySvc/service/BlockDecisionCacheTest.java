@@ -0,0 +1,161 @@
+package org.example.APIGatewaySvc.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlockDecisionCacheTest {
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BlockDecisionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new BlockDecisionCache(redisTemplate, meterRegistry);
+    }
+
+    @Test
+    void shouldCacheNotBlockedDecision() {
+        // Given
+        cache.putNotBlocked("blocked:ip:10.0.0.1");
+
+        // When
+        BlockDecisionCache.Decision decision = cache.get("blocked:ip:10.0.0.1");
+
+        // Then
+        assertNotNull(decision);
+        assertFalse(decision.isBlocked());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void shouldCountMissForUnknownKey() {
+        assertNull(cache.get("blocked:user:unknown"));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void shouldNotServeBlockedDecisionPastBlockExpiry() {
+        // Given - 이미 만료된 차단
+        BlockService.BlockInfo expired = new BlockService.BlockInfo("IP", "Temporarily blocked", Instant.now().minusSeconds(1));
+        cache.putBlocked("blocked:ip:10.0.0.2", expired);
+
+        // When & Then
+        assertNull(cache.get("blocked:ip:10.0.0.2"));
+    }
+
+    @Test
+    void shouldEvictWhenMaxSizeExceeded() {
+        // Given
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+
+        // When
+        for (int i = 0; i < 11; i++) {
+            cache.putNotBlocked("blocked:ip:10.0.0." + i);
+        }
+
+        // Then
+        assertTrue(cache.size() <= 10);
+        assertTrue(meterRegistry.get("cache.evictions").counter().count() > 0);
+    }
+
+    @Test
+    void shouldKeepBlockedDecisionsWhenTrimming() {
+        // Given
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+        BlockService.BlockInfo blockInfo = new BlockService.BlockInfo("IP", "Abuse", null);
+        for (int i = 0; i < 5; i++) {
+            cache.putBlocked("blocked:ip:10.0.1." + i, blockInfo);
+        }
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            cache.putNotBlocked("blocked:ip:10.0.0." + i);
+        }
+
+        // Then - "차단되지 않음" 항목부터 제거
+        assertEquals(9, cache.size());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(cache.get("blocked:ip:10.0.1." + i).isBlocked());
+        }
+    }
+
+    @Test
+    void shouldNotCacheLookupResultAfterConcurrentInvalidation() {
+        // Given - Redis 조회 시작 전 세대 기록
+        String key = "blocked:user:test-user";
+        long stamp = cache.stamp(key);
+
+        // When - 조회가 끝나기 전에 차단으로 인한 무효화 도착
+        cache.evictLocal(key);
+        cache.putNotBlocked(key, stamp);
+
+        // Then - 무효화 전에 읽은 "차단되지 않음" 판정은 캐싱되지 않고, 새로 조회한 결과는 캐싱
+        assertNull(cache.get(key));
+        cache.putNotBlocked(key, cache.stamp(key));
+        assertNotNull(cache.get(key));
+    }
+
+    @Test
+    void shouldEvictLocallyAndPublishOnInvalidate() {
+        // Given
+        cache.putNotBlocked("blocked:user:test-user");
+        when(redisTemplate.convertAndSend(BlockDecisionCache.INVALIDATION_CHANNEL, "blocked:user:test-user"))
+            .thenReturn(Mono.just(2L));
+
+        // When
+        StepVerifier.create(cache.invalidate("blocked:user:test-user"))
+            .verifyComplete();
+
+        // Then
+        assertEquals(0, cache.size());
+        verify(redisTemplate).convertAndSend(BlockDecisionCache.INVALIDATION_CHANNEL, "blocked:user:test-user");
+    }
+
+    @Test
+    void shouldPublishSingleMessageForBatchedInvalidation() {
+        // Given
+        cache.putNotBlocked("blocked:ip:10.0.0.1");
+        cache.putNotBlocked("blocked:ip:10.0.0.2");
+        when(redisTemplate.convertAndSend(BlockDecisionCache.INVALIDATION_CHANNEL, "blocked:ip:10.0.0.1\nblocked:ip:10.0.0.2"))
+            .thenReturn(Mono.just(2L));
+
+        // When
+        StepVerifier.create(cache.invalidateAll(List.of("blocked:ip:10.0.0.1", "blocked:ip:10.0.0.2")))
+            .verifyComplete();
+
+        // Then
+        assertEquals(0, cache.size());
+        verify(redisTemplate, times(1)).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void shouldNotFailWhenPublishFails() {
+        // Given
+        when(redisTemplate.convertAndSend(BlockDecisionCache.INVALIDATION_CHANNEL, "blocked:key:abc"))
+            .thenReturn(Mono.error(new RuntimeException("Redis down")));
+
+        // When & Then - 발행 실패는 차단/해제 요청을 실패시키지 않음
+        StepVerifier.create(cache.invalidate("blocked:key:abc"))
+            .verifyComplete();
+    }
+}
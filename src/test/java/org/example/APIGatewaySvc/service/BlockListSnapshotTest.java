@@ -0,0 +1,78 @@
+package org.example.APIGatewaySvc.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.util.BlockSnapshotFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlockListSnapshotTest {
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    @TempDir
+    Path tempDir;
+
+    private BlockDecisionCache blockDecisionCache;
+    private CidrBlockList cidrBlockList;
+    private BlockListSnapshot snapshot;
+    private Path path;
+
+    @BeforeEach
+    void setUp() {
+        blockDecisionCache = new BlockDecisionCache(redisTemplate, new SimpleMeterRegistry());
+        cidrBlockList = new CidrBlockList(redisTemplate);
+        snapshot = new BlockListSnapshot(redisTemplate, blockDecisionCache, cidrBlockList);
+        path = tempDir.resolve("snapshot.bin");
+        ReflectionTestUtils.setField(snapshot, "path", path.toString());
+    }
+
+    @Test
+    void shouldSeedLocalStateFromSnapshotWithoutRedis() throws Exception {
+        // Given
+        long now = System.currentTimeMillis();
+        BlockSnapshotFile.write(path, now, List.of(
+            new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_IP, "203.0.113.7", now + 3_600_000L, "Scraper"),
+            new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_USER, "expired-user", now - 1000L, "Expired"),
+            new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_CIDR, "10.0.0.0/8", 0, "Cloud range")));
+
+        // When
+        List<String> cachedKeys = snapshot.load();
+
+        // Then - 만료 항목은 제외하고 차단 판정 캐시와 CIDR 트라이를 채움
+        assertEquals(List.of("blocked:ip:203.0.113.7"), cachedKeys);
+        BlockDecisionCache.Decision decision = blockDecisionCache.get("blocked:ip:203.0.113.7");
+        assertNotNull(decision);
+        assertTrue(decision.isBlocked());
+        assertEquals("Scraper", decision.getBlockInfo().getReason());
+        assertNotNull(cidrBlockList.match("10.1.2.3"));
+        // 스냅샷에 없는 식별자는 캐시하지 않음 (스냅샷 이후 차단되었을 수 있으므로 Redis 확인)
+        assertNull(blockDecisionCache.get("blocked:ip:198.51.100.1"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void shouldIgnoreStaleSnapshot() throws Exception {
+        // Given - max-age(1시간)보다 오래된 스냅샷
+        long createdAt = System.currentTimeMillis() - 2 * 3_600_000L;
+        BlockSnapshotFile.write(path, createdAt, List.of(
+            new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_IP, "203.0.113.7", 0, "Scraper")));
+
+        // When & Then
+        assertTrue(snapshot.load().isEmpty());
+        assertNull(blockDecisionCache.get("blocked:ip:203.0.113.7"));
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.APIGatewaySvc.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAttemptBookkeeperTest {
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginAttemptBookkeeper bookkeeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookkeeper = new LoginAttemptBookkeeper(loginAttemptService, redisTemplate,
+            new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()), meterRegistry);
+    }
+
+    @Test
+    void shouldSkipResetWhenNoFailureRecorded() {
+        // When
+        bookkeeper.successRecorded("alice");
+
+        // Then - 실패 기록이 없으면 Redis 호출 없음
+        verifyNoInteractions(loginAttemptService);
+        assertEquals(1.0, counter("success", "skipped"));
+    }
+
+    @Test
+    void shouldResetOnceAfterFailure() {
+        // Given
+        when(loginAttemptService.recordLoginSuccess("alice")).thenReturn(Mono.empty());
+        bookkeeper.failureRecorded("alice");
+
+        // When
+        bookkeeper.successRecorded("alice");
+        bookkeeper.successRecorded("alice");
+
+        // Then - 힌트는 초기화 후 제거
+        verify(loginAttemptService, times(1)).recordLoginSuccess("alice");
+        assertEquals(1.0, counter("success", "queued"));
+        assertEquals(1.0, counter("success", "skipped"));
+    }
+
+    @Test
+    void shouldResetAfterFailureRecordedOnAnotherNode() {
+        // Given - 이 노드에서 기록한 실패 힌트를 발행
+        when(redisTemplate.convertAndSend(LoginAttemptBookkeeper.HINT_CHANNEL, "alice")).thenReturn(Mono.just(1L));
+        bookkeeper.failureRecorded("alice");
+        bookkeeper.publishHints();
+        bookkeeper.publishHints();
+        verify(redisTemplate, times(1)).convertAndSend(LoginAttemptBookkeeper.HINT_CHANNEL, "alice");
+
+        // When - 다른 노드가 힌트를 수신한 뒤 그 노드에서 로그인 성공
+        LoginAttemptBookkeeper otherNode = new LoginAttemptBookkeeper(loginAttemptService, redisTemplate,
+            new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()), new SimpleMeterRegistry());
+        when(loginAttemptService.recordLoginSuccess("alice")).thenReturn(Mono.empty());
+        otherNode.hintsReceived("bob\nalice");
+        otherNode.successRecorded("alice");
+
+        // Then
+        verify(loginAttemptService).recordLoginSuccess("alice");
+    }
+
+    @Test
+    void shouldDropTasksWhenQueueIsFull() {
+        // Given - 실행 중인 작업이 끝나지 않아 대기열이 쌓이는 상황
+        ReflectionTestUtils.setField(bookkeeper, "concurrency", 1);
+        ReflectionTestUtils.setField(bookkeeper, "queueCapacity", 2);
+        Sinks.Empty<Void> pending = Sinks.empty();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            bookkeeper.submit("promotion", () -> pending.asMono());
+        }
+
+        // Then - 1개 실행, 2개 대기, 2개 버림
+        assertEquals(2, bookkeeper.queuedTasks());
+        assertEquals(3.0, counter("promotion", "queued"));
+        assertEquals(2.0, counter("promotion", "dropped"));
+
+        // 실행 중인 작업이 끝나면 대기 중인 작업 실행
+        pending.tryEmitEmpty();
+        assertEquals(0, bookkeeper.queuedTasks());
+    }
+
+    @Test
+    void shouldCountFailedTasks() {
+        // When
+        bookkeeper.submit("promotion", () -> Mono.error(new RedisConnectionFailureException("Connection refused")));
+
+        // Then
+        assertEquals(1.0, counter("promotion", "failed"));
+        assertEquals(0, bookkeeper.queuedTasks());
+    }
+
+    @Test
+    void shouldResetWhenHintsOverflow() {
+        // Given - 힌트 수 제한을 넘으면 힌트 없이 초기화
+        ReflectionTestUtils.setField(bookkeeper, "maxHints", 1);
+        when(loginAttemptService.recordLoginSuccess(anyString())).thenReturn(Mono.empty());
+        bookkeeper.failureRecorded("alice");
+        bookkeeper.failureRecorded("bob");
+
+        // When
+        bookkeeper.successRecorded("carol");
+
+        // Then
+        verify(loginAttemptService).recordLoginSuccess("carol");
+    }
+
+    private double counter(String operation, String result) {
+        return meterRegistry.get("gateway.login.bookkeeping")
+            .tag("operation", operation).tag("result", result).counter().count();
+    }
+}
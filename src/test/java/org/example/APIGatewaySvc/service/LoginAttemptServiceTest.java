@@ -1,17 +1,28 @@
 package org.example.APIGatewaySvc.service;
 
+import org.example.APIGatewaySvc.config.LoginAttemptProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
-
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -22,17 +33,19 @@ class LoginAttemptServiceTest {
     private ReactiveRedisTemplate<String, String> redisTemplate;
     
     @Mock
-    private ReactiveValueOperations<String, String> valueOperations;
+    private ReactiveHashOperations<String, String, String> hashOperations;
     
     @Mock
     private BlockService blockService;
 
+    private LoginAttemptProperties properties;
     private LoginAttemptService loginAttemptService;
 
     @BeforeEach
     void setUp() {
-        loginAttemptService = new LoginAttemptService(redisTemplate, blockService);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        properties = new LoginAttemptProperties();
+        loginAttemptService = new LoginAttemptService(redisTemplate, blockService, properties);
+        lenient().when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
     }
 
     @Test
@@ -41,16 +54,23 @@ class LoginAttemptServiceTest {
         String userId = "test-user";
         String ipAddress = "127.0.0.1";
         
-        when(valueOperations.increment("login_attempts:" + userId)).thenReturn(Mono.just(1L));
-        when(redisTemplate.expire("login_attempts:" + userId, Duration.ofMinutes(15))).thenReturn(Mono.just(true));
+        stubFailureScript(List.of(0L, 1L));
 
         // When & Then
         StepVerifier.create(loginAttemptService.recordLoginFailure(userId, ipAddress))
             .expectNext(false) // 첫 번째 실패는 차단하지 않음
             .verifyComplete();
 
-        verify(valueOperations).increment("login_attempts:" + userId);
-        verify(redisTemplate).expire("login_attempts:" + userId, Duration.ofMinutes(15));
+        // 슬라이딩 윈도우 갱신, TTL 설정, 임계값 확인이 한 번의 스크립트 호출로 처리됨 (default 그룹 정책)
+        verify(redisTemplate).execute(any(RedisScript.class),
+            eq(List.of("login_attempts:v2:" + userId, "blocked:user:" + userId, "blocked:index:user")),
+            argThat((List<String> args) -> args.get(1).equals("1")
+                && args.get(2).equals("5")
+                && args.get(6).equals(String.valueOf(Duration.ofMinutes(15).toMillis()))
+                && args.get(7).equals(String.valueOf(Duration.ofMinutes(30).toMillis()))
+                && args.get(8).equals(String.valueOf(Duration.ofHours(24).toMillis()))
+                && args.get(9).equals("2.0")));
+        verifyNoInteractions(hashOperations);
         verifyNoInteractions(blockService);
     }
 
@@ -60,31 +80,109 @@ class LoginAttemptServiceTest {
         String userId = "test-user";
         String ipAddress = "127.0.0.1";
         
-        when(valueOperations.increment("login_attempts:" + userId)).thenReturn(Mono.just(5L));
-        when(blockService.blockUser(eq(userId), eq(Duration.ofMinutes(30)), anyString())).thenReturn(Mono.empty());
-        when(redisTemplate.delete("login_attempts:" + userId)).thenReturn(Mono.just(1L));
+        stubFailureScript(List.of(1L, 5L));
+        when(blockService.blockWritten("blocked:user:" + userId)).thenReturn(Mono.empty());
 
         // When & Then
         StepVerifier.create(loginAttemptService.recordLoginFailure(userId, ipAddress))
             .expectNext(true) // 5번째 실패로 차단됨
             .verifyComplete();
 
-        verify(blockService).blockUser(eq(userId), eq(Duration.ofMinutes(30)), contains("로그인 5회 실패"));
-        verify(redisTemplate).delete("login_attempts:" + userId);
+        // 차단 키는 스크립트가 기록하고, Bloom Filter/판정 캐시에만 반영
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(),
+            argThat((List<String> args) -> args.get(4).equals("로그인 {attempts}회 실패 (IP: " + ipAddress + ")")));
+        verify(blockService).blockWritten("blocked:user:" + userId);
+        verify(blockService, never()).blockUser(anyString(), any(), anyString());
+    }
+    
+    @Test
+    void shouldRecordUserAndIpFailureInSingleScriptCall() {
+        // Given
+        String userId = "test-user";
+        String ipAddress = "192.168.1.100";
+        
+        stubFailureScript(List.of(0L, 2L, 1L, 10L, 0L, 1L, 0L, 1L));
+        when(blockService.blockWritten("blocked:ip:" + ipAddress)).thenReturn(Mono.empty());
+        
+        // When & Then
+        StepVerifier.create(loginAttemptService.recordFailure(userId, ipAddress))
+            .assertNext(result -> {
+                assertFalse(result.isUserBlocked());
+                assertTrue(result.isIpBlocked());
+            })
+            .verifyComplete();
+        
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class),
+            eq(List.of("login_attempts:v2:" + userId, "blocked:user:" + userId, "blocked:index:user",
+                "login_attempts:v2:ip:" + ipAddress, "blocked:ip:" + ipAddress, "blocked:index:ip",
+                "login_distinct:ip:" + ipAddress, "blocked:ip:" + ipAddress, "blocked:index:ip",
+                "login_distinct:subnet:192.168.1.0/24", "blocked:ip:192.168.1.0/24", "blocked:index:ip")),
+            anyList());
+        verify(blockService).blockWritten("blocked:ip:" + ipAddress);
+        verify(blockService, never()).blockWritten("blocked:user:" + userId);
+    }
+    
+    @Test
+    void shouldRecordOnlyIpFailureWhenUserUnknown() {
+        // Given
+        String ipAddress = "192.168.1.100";
+        
+        stubFailureScript(List.of(0L, 4L));
+        
+        // When & Then
+        StepVerifier.create(loginAttemptService.recordFailure("", ipAddress))
+            .assertNext(result -> {
+                assertFalse(result.isUserBlocked());
+                assertFalse(result.isIpBlocked());
+            })
+            .verifyComplete();
+        
+        verify(redisTemplate).execute(any(RedisScript.class),
+            eq(List.of("login_attempts:v2:ip:" + ipAddress, "blocked:ip:" + ipAddress, "blocked:index:ip")), anyList());
     }
 
+    @Test
+    void shouldApplyRouteGroupPolicy() {
+        // Given
+        LoginAttemptProperties.Policy admin = new LoginAttemptProperties.Policy();
+        admin.setUserMaxAttempts(3);
+        admin.setBlockDuration(Duration.ofHours(1));
+        admin.setBackoffMultiplier(4.0);
+        properties.getGroups().put("admin", admin);
+        
+        properties.getDistinctUsers().setEnabled(false);
+        stubFailureScript(List.of(0L, 1L, 0L, 1L));
+        
+        // When & Then
+        StepVerifier.create(loginAttemptService.recordFailure("admin", "test-user", "10.0.0.1"))
+            .expectNextCount(1)
+            .verifyComplete();
+        
+        // 그룹별 실패 횟수 키와 정책 값으로 기록
+        verify(redisTemplate).execute(any(RedisScript.class),
+            eq(List.of("login_attempts:v2:admin:test-user", "blocked:user:test-user", "blocked:index:user",
+                "login_attempts:v2:admin:ip:10.0.0.1", "blocked:ip:10.0.0.1", "blocked:index:ip")),
+            argThat((List<String> args) -> args.get(1).equals("2")
+                && args.get(2).equals("3")
+                && args.get(7).equals(String.valueOf(Duration.ofHours(1).toMillis()))
+                && args.get(9).equals("4.0")
+                && args.get(11).equals("10")));
+    }
+    
     @Test
     void shouldRecordLoginSuccess() {
         // Given
         String userId = "test-user";
         
-        when(redisTemplate.delete("login_attempts:" + userId)).thenReturn(Mono.just(1L));
+        when(hashOperations.remove("login_attempts:v2:" + userId, "s", "c", "p")).thenReturn(Mono.just(3L));
 
         // When & Then
         StepVerifier.create(loginAttemptService.recordLoginSuccess(userId))
             .verifyComplete();
 
-        verify(redisTemplate).delete("login_attempts:" + userId);
+        // 반복 위반 이력(o)은 남기고 윈도우 필드만 삭제
+        verify(hashOperations).remove("login_attempts:v2:" + userId, "s", "c", "p");
+        verify(redisTemplate, never()).delete(anyString());
     }
 
     @Test
@@ -92,7 +190,7 @@ class LoginAttemptServiceTest {
         // Given
         String userId = "test-user";
         
-        when(valueOperations.get("login_attempts:" + userId)).thenReturn(Mono.just("3"));
+        stubWindowState("login_attempts:v2:" + userId, 3, 0);
 
         // When & Then
         StepVerifier.create(loginAttemptService.getAttemptCount(userId))
@@ -105,7 +203,8 @@ class LoginAttemptServiceTest {
         // Given
         String userId = "test-user";
         
-        when(valueOperations.get("login_attempts:" + userId)).thenReturn(Mono.empty());
+        when(hashOperations.multiGet(eq("login_attempts:v2:" + userId), anyCollection()))
+            .thenReturn(Mono.just(Arrays.asList(null, null, null)));
 
         // When & Then
         StepVerifier.create(loginAttemptService.getAttemptCount(userId))
@@ -118,7 +217,7 @@ class LoginAttemptServiceTest {
         // Given
         String userId = "test-user";
         
-        when(valueOperations.get("login_attempts:" + userId)).thenReturn(Mono.just("2"));
+        stubWindowState("login_attempts:v2:" + userId, 2, 0);
 
         // When & Then
         StepVerifier.create(loginAttemptService.getRemainingAttempts(userId))
@@ -131,14 +230,16 @@ class LoginAttemptServiceTest {
         // Given
         String ipAddress = "192.168.1.100";
         
-        when(valueOperations.increment("login_attempts:ip:" + ipAddress)).thenReturn(Mono.just(3L));
+        stubFailureScript(List.of(0L, 3L));
 
         // When & Then
         StepVerifier.create(loginAttemptService.recordIpLoginFailure(ipAddress))
             .expectNext(false) // 3번째 시도는 차단하지 않음
             .verifyComplete();
 
-        verify(valueOperations).increment("login_attempts:ip:" + ipAddress);
+        verify(redisTemplate).execute(any(RedisScript.class),
+            eq(List.of("login_attempts:v2:ip:" + ipAddress, "blocked:ip:" + ipAddress, "blocked:index:ip")),
+            argThat((List<String> args) -> args.get(2).equals("10")));
     }
 
     @Test
@@ -146,16 +247,17 @@ class LoginAttemptServiceTest {
         // Given
         String ipAddress = "192.168.1.100";
         
-        when(valueOperations.increment("login_attempts:ip:" + ipAddress)).thenReturn(Mono.just(10L));
-        when(blockService.blockIp(eq(ipAddress), eq(Duration.ofMinutes(30)), anyString())).thenReturn(Mono.empty());
-        when(redisTemplate.delete("login_attempts:ip:" + ipAddress)).thenReturn(Mono.just(1L));
+        stubFailureScript(List.of(1L, 10L));
+        when(blockService.blockWritten("blocked:ip:" + ipAddress)).thenReturn(Mono.empty());
 
         // When & Then
         StepVerifier.create(loginAttemptService.recordIpLoginFailure(ipAddress))
             .expectNext(true) // 10번째 실패로 IP 차단됨
             .verifyComplete();
 
-        verify(blockService).blockIp(eq(ipAddress), eq(Duration.ofMinutes(30)), contains("IP에서 로그인 10회 실패"));
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(),
+            argThat((List<String> args) -> args.get(4).equals("IP에서 로그인 {attempts}회 실패")));
+        verify(blockService).blockWritten("blocked:ip:" + ipAddress);
     }
 
     @Test
@@ -163,8 +265,7 @@ class LoginAttemptServiceTest {
         // Given
         String userId = "test-user";
         
-        when(valueOperations.get("login_attempts:" + userId)).thenReturn(Mono.just("2"));
-        when(redisTemplate.getExpire("login_attempts:" + userId)).thenReturn(Mono.just(Duration.ofMinutes(10)));
+        stubWindowState("login_attempts:v2:" + userId, 2, 0);
 
         // When & Then
         StepVerifier.create(loginAttemptService.getLoginAttemptStats(userId))
@@ -176,6 +277,8 @@ class LoginAttemptServiceTest {
                 assert !stats.isBlocked();
             })
             .verifyComplete();
+        // 윈도우 만료는 해시 TTL(윈도우 2배 또는 위반 기억 기간)이 아니라 슬라이딩 윈도우 기준
+        verify(redisTemplate, never()).getExpire(anyString());
     }
 
     @Test
@@ -183,11 +286,160 @@ class LoginAttemptServiceTest {
         // Given
         String ipAddress = "192.168.1.100";
         
-        when(valueOperations.get("login_attempts:ip:" + ipAddress)).thenReturn(Mono.just("5"));
+        stubWindowState("login_attempts:v2:ip:" + ipAddress, 5, 0);
 
         // When & Then
         StepVerifier.create(loginAttemptService.getIpAttemptCount(ipAddress))
             .expectNext(5)
             .verifyComplete();
     }
-}
\ No newline at end of file
+    
+    @Test
+    void shouldBlockIpAndSubnetWhenDistinctUsersExceedThreshold() {
+        // Given - 실패 횟수는 임계값 미만이지만 IP / 대역의 고유 사용자 수가 임계값 도달
+        String ipAddress = "203.0.113.7";
+        
+        stubFailureScript(List.of(0L, 1L, 0L, 3L, 1L, 20L, 1L, 50L));
+        when(blockService.blockWritten("blocked:ip:" + ipAddress)).thenReturn(Mono.empty());
+        when(blockService.blockIp(eq("203.0.113.0/24"), eq(Duration.ofHours(6)), anyString())).thenReturn(Mono.empty());
+        
+        // When & Then
+        StepVerifier.create(loginAttemptService.recordFailure("user-20", ipAddress))
+            .assertNext(result -> {
+                assertFalse(result.isUserBlocked());
+                assertTrue(result.isIpBlocked());
+            })
+            .verifyComplete();
+        
+        // 고유 사용자는 같은 스크립트 호출에서 PFADD (IP 차단 키는 스크립트가 기록, 대역은 CIDR 차단으로 기록)
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(),
+            argThat((List<String> args) -> args.get(1).equals("2")
+                && args.subList(20, 28).equals(List.of("20", ipAddress,
+                    "IP에서 고유 사용자 {distinct}명 로그인 실패 (크리덴셜 스터핑 의심)",
+                    String.valueOf(Duration.ofHours(6).toMillis()), String.valueOf(Duration.ofHours(1).toMillis()),
+                    "1", "1", "user-20"))
+                && args.get(29).equals("203.0.113.0/24")
+                && args.get(33).equals("0")));
+        verify(blockService).blockWritten("blocked:ip:" + ipAddress);
+        verify(blockService).blockIp("203.0.113.0/24", Duration.ofHours(6),
+            "대역에서 고유 사용자 50명 로그인 실패 (크리덴셜 스터핑 의심)");
+    }
+    
+    @Test
+    void shouldNotReblockSubnetDuringBlockDuration() {
+        // Given - 대역 고유 사용자 수가 연속으로 임계값 이상
+        String ipAddress = "198.51.100.7";
+        
+        stubFailureScript(List.of(0L, 1L, 0L, 3L, 0L, 2L, 1L, 50L));
+        when(blockService.blockIp(eq("198.51.100.0/24"), eq(Duration.ofHours(6)), anyString())).thenReturn(Mono.empty());
+        
+        // When
+        loginAttemptService.recordFailure("user-21", ipAddress).block();
+        loginAttemptService.recordFailure("user-22", ipAddress).block();
+        
+        // Then - 차단 기간 중에는 대역을 한 번만 차단 (대역 차단마다 전체 노드가 다시 적재하지 않도록)
+        verify(blockService, times(1)).blockIp(eq("198.51.100.0/24"), eq(Duration.ofHours(6)), anyString());
+    }
+    
+    @Test
+    void shouldPromoteHeavyHittingIpAndSubnetOnce() {
+        // Given
+        properties.getHeavyHitters().setIpThreshold(3);
+        properties.getHeavyHitters().setSubnetThreshold(5);
+        
+        // When & Then - 임계값에 처음 도달할 때만 승격
+        assertTrue(loginAttemptService.observeFailingClient("203.0.113.7").isEmpty());
+        assertTrue(loginAttemptService.observeFailingClient("203.0.113.7").isEmpty());
+        assertEquals(List.of("203.0.113.7"), loginAttemptService.observeFailingClient("203.0.113.7"));
+        assertTrue(loginAttemptService.observeFailingClient("203.0.113.7").isEmpty());
+        // 같은 /24 대역의 다른 IP로 대역 임계값 도달
+        assertEquals(List.of("203.0.113.0/24"), loginAttemptService.observeFailingClient("203.0.113.8"));
+        assertTrue(loginAttemptService.observeFailingClient("unknown").isEmpty());
+        verifyNoInteractions(redisTemplate);
+    }
+    
+    @Test
+    void shouldBlockPromotedHeavyHitters() {
+        // Given
+        when(blockService.blockIp(anyString(), eq(Duration.ofHours(1)), anyString())).thenReturn(Mono.empty());
+        
+        // When & Then
+        StepVerifier.create(loginAttemptService.promoteHeavyHitters(List.of("203.0.113.7", "203.0.113.0/24")))
+            .verifyComplete();
+        
+        verify(blockService).blockIp("203.0.113.7", Duration.ofHours(1), "로그인 실패 급증 IP");
+        verify(blockService).blockIp("203.0.113.0/24", Duration.ofHours(1), "로그인 실패 급증 대역");
+    }
+    
+    @Test
+    void shouldExposeTopOffenders() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            loginAttemptService.observeFailingClient("198.51.100.1");
+        }
+        loginAttemptService.observeFailingClient("198.51.100.2");
+        
+        // When
+        Map<String, Object> topOffenders = loginAttemptService.getTopOffenders(10);
+        
+        // Then
+        @SuppressWarnings("unchecked")
+        Map<String, Object> current = (Map<String, Object>) topOffenders.get("current");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> ips = (List<Map<String, Object>>) current.get("ips");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> subnets = (List<Map<String, Object>>) current.get("subnets");
+        assertEquals("198.51.100.1", ips.get(0).get("id"));
+        assertEquals(4L, ips.get(0).get("guaranteed"));
+        assertEquals("198.51.100.0/24", subnets.get(0).get("id"));
+        assertEquals(5L, subnets.get(0).get("estimate"));
+        assertNull(topOffenders.get("previous"));
+    }
+    
+    @Test
+    void shouldWeightPreviousBucketBySlidingWindow() {
+        long window = Duration.ofMinutes(15).toMillis();
+        long bucket = 1000;
+        
+        // 다음 버킷 시작 시점: 이전 버킷 횟수 전부 반영
+        assertEquals(4, LoginAttemptService.estimate(List.of(String.valueOf(bucket - 1), "4", "0"), window, bucket * window));
+        // 버킷 중간: 현재 2 + 직전 4 * 0.5
+        assertEquals(4, LoginAttemptService.estimate(List.of(String.valueOf(bucket), "2", "4"), window,
+            bucket * window + window / 2));
+        // 다음 버킷으로 넘어가면 현재 버킷이 직전 버킷으로 이동
+        assertEquals(1, LoginAttemptService.estimate(List.of(String.valueOf(bucket), "2", "0"), window,
+            (bucket + 1) * window + window / 2));
+        // 두 버킷 이상 지나면 0
+        assertEquals(0, LoginAttemptService.estimate(List.of(String.valueOf(bucket), "5", "5"), window,
+            (bucket + 2) * window));
+    }
+    
+    @Test
+    void shouldExpireWindowWhenRecordedFailuresLeaveSlidingWindow() {
+        long window = Duration.ofMinutes(15).toMillis();
+        long bucket = 1000;
+        
+        // 현재 버킷 횟수는 다음 버킷 끝까지 반영
+        assertEquals(Instant.ofEpochMilli((bucket + 2) * window), LoginAttemptService.windowExpiry(
+            List.of(String.valueOf(bucket), "2", "4"), window, bucket * window + window / 2));
+        // 다음 버킷에서는 직전 버킷이 된 횟수만 남아 현재 버킷 끝까지
+        assertEquals(Instant.ofEpochMilli((bucket + 2) * window), LoginAttemptService.windowExpiry(
+            List.of(String.valueOf(bucket), "2", "0"), window, (bucket + 1) * window));
+        // 차단 후 초기화된 해시(위반 이력만 남음)나 윈도우가 지난 기록은 만료 시각 없음
+        assertNull(LoginAttemptService.windowExpiry(List.of(String.valueOf(bucket), "0", "0"), window, bucket * window));
+        assertNull(LoginAttemptService.windowExpiry(List.of(String.valueOf(bucket), "5", "5"), window,
+            (bucket + 2) * window));
+    }
+    
+    private void stubWindowState(String attemptKey, long current, long previous) {
+        String bucket = String.valueOf(System.currentTimeMillis() / Duration.ofMinutes(15).toMillis());
+        when(hashOperations.multiGet(eq(attemptKey), anyCollection()))
+            .thenReturn(Mono.just(List.of(bucket, String.valueOf(current), String.valueOf(previous))));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void stubFailureScript(List<Object> result) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenReturn(Flux.just(result));
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.APIGatewaySvc.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.config.LoginAttemptProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginFailureCoalescerTest {
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginFailureCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new LoginFailureCoalescer(loginAttemptService, new LoginAttemptProperties(),
+            new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()), meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceFailuresIntoSingleScriptCall() {
+        // Given - 같은 IP에서 알 수 없는 사용자로 9회 실패 (임계값 10 미만)
+        when(loginAttemptService.applyFailures(anyList(), anyList()))
+            .thenReturn(Mono.just(List.of(new LoginAttemptService.FailureOutcome(false, 9))));
+        for (int i = 0; i < 9; i++) {
+            coalescer.record("", "203.0.113.7");
+        }
+        verifyNoInteractions(loginAttemptService);
+
+        // When
+        coalescer.flush().block();
+
+        // Then - 증가량 9로 한 번만 반영
+        ArgumentCaptor<List<LoginAttemptService.FailureTarget>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loginAttemptService, times(1)).applyFailures(captor.capture(), anyList());
+        assertEquals(1, captor.getValue().size());
+        assertEquals("login_attempts:v2:ip:203.0.113.7", captor.getValue().get(0).getAttemptKey());
+        assertEquals(9, captor.getValue().get(0).getDelta());
+        assertEquals(9.0, meterRegistry.get("gateway.login.failures").tag("result", "recorded").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFlushImmediatelyWhenThresholdReached() {
+        // Given
+        when(loginAttemptService.applyFailures(anyList(), anyList()))
+            .thenReturn(Mono.just(List.of(
+                new LoginAttemptService.FailureOutcome(true, 5),
+                new LoginAttemptService.FailureOutcome(false, 5))));
+
+        // When - 사용자 임계값(5)에 도달하는 실패
+        for (int i = 0; i < 5; i++) {
+            coalescer.record("alice", "198.51.100.1");
+        }
+
+        // Then - 주기 플러시를 기다리지 않고 반영
+        ArgumentCaptor<List<LoginAttemptService.FailureTarget>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loginAttemptService, times(1)).applyFailures(captor.capture(), anyList());
+        assertEquals(5, captor.getValue().get(0).getDelta());
+        assertEquals("login_attempts:v2:alice", captor.getValue().get(0).getAttemptKey());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRetainDeltasWhenRedisWriteFails() {
+        // Given
+        when(loginAttemptService.applyFailures(anyList(), anyList()))
+            .thenReturn(Mono.error(new RedisConnectionFailureException("Connection refused")))
+            .thenReturn(Mono.just(List.of(new LoginAttemptService.FailureOutcome(false, 4))));
+        for (int i = 0; i < 3; i++) {
+            coalescer.record("", "192.0.2.10");
+        }
+        coalescer.flush().block();
+
+        // When - 실패 이후 추가 실패와 함께 재시도
+        coalescer.record("", "192.0.2.10");
+        coalescer.flush().block();
+
+        // Then - 유실 없이 누적된 증가량 반영
+        ArgumentCaptor<List<LoginAttemptService.FailureTarget>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loginAttemptService, times(2)).applyFailures(captor.capture(), anyList());
+        assertEquals(4, captor.getAllValues().get(1).get(0).getDelta());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldNotResendDeltasWhenWriteTimesOut() {
+        // Given - 스크립트가 실행되었을 수 있는 호출 기한 초과
+        when(loginAttemptService.applyFailures(anyList(), anyList()))
+            .thenReturn(Mono.error(new TimeoutException("Did not observe any item or terminal signal")))
+            .thenReturn(Mono.just(List.of(new LoginAttemptService.FailureOutcome(false, 4))));
+        for (int i = 0; i < 3; i++) {
+            coalescer.record("", "192.0.2.10");
+        }
+        coalescer.flush().block();
+
+        // When
+        coalescer.record("", "192.0.2.10");
+        coalescer.flush().block();
+
+        // Then - 기한 초과된 증가량은 다시 보내지 않음 (중복 반영 방지)
+        ArgumentCaptor<List<LoginAttemptService.FailureTarget>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loginAttemptService, times(2)).applyFailures(captor.capture(), anyList());
+        assertEquals(1, captor.getAllValues().get(1).get(0).getDelta());
+        assertEquals(3.0, meterRegistry.get("gateway.login.failures").tag("result", "unconfirmed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCollectDistinctUsersPerIp() {
+        // Given
+        when(loginAttemptService.applyFailures(anyList(), anyList()))
+            .thenReturn(Mono.just(List.of()));
+        coalescer.record("alice", "203.0.113.7");
+        coalescer.record("bob", "203.0.113.7");
+        coalescer.record("alice", "203.0.113.7");
+
+        // When
+        coalescer.flush().block();
+
+        // Then - IP와 대역의 고유 사용자 집계를 같은 호출로 반영
+        ArgumentCaptor<List<LoginAttemptService.DistinctTarget>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loginAttemptService, times(1)).applyFailures(anyList(), captor.capture());
+        List<LoginAttemptService.DistinctTarget> distinct = captor.getValue();
+        assertEquals(2, distinct.size());
+        assertEquals("login_distinct:ip:203.0.113.7", distinct.get(0).getHllKey());
+        assertEquals("login_distinct:subnet:203.0.113.0/24", distinct.get(1).getHllKey());
+        assertEquals(2, distinct.get(0).getUserIds().size());
+        assertTrue(distinct.get(0).getUserIds().containsAll(List.of("alice", "bob")));
+    }
+
+    @Test
+    void shouldDropNewKeysBeyondLimit() {
+        // Given
+        ReflectionTestUtils.setField(coalescer, "maxKeys", 1);
+
+        // When
+        coalescer.record("", "192.0.2.1");
+        coalescer.record("", "192.0.2.2");
+
+        // Then
+        assertEquals(1, coalescer.pendingKeys());
+        assertEquals(1.0, meterRegistry.get("gateway.login.failures").tag("result", "dropped").counter().count());
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.APIGatewaySvc.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.APIGatewaySvc.config.QuotaProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuotaManagerTest {
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    private final Map<String, Long> redisTotals = new HashMap<>();
+    private QuotaProperties properties;
+    private QuotaManager quotaManager;
+
+    @BeforeEach
+    void setUp() {
+        QuotaProperties.Plan free = new QuotaProperties.Plan();
+        free.getApiKey().setDaily(5);
+        free.getTenant().setDaily(3);
+        properties = new QuotaProperties();
+        properties.getPlans().put("free", free);
+        quotaManager = new QuotaManager(redisTemplate, new RedisHealthTracker(CircuitBreakerRegistry.ofDefaults()),
+            properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * quota_sync.lua와 같이 증가분을 더하고 합계 반환
+     */
+    @SuppressWarnings("unchecked")
+    private void stubRedisIncrBy() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(invocation -> {
+            String key = ((List<String>) invocation.getArgument(1)).get(0);
+            long delta = Long.parseLong(((List<String>) invocation.getArgument(2)).get(0));
+            return Flux.just(redisTotals.merge(key, delta, Long::sum));
+        });
+    }
+
+    private static String dailyKey(QuotaManager.Level level, String id) {
+        return QuotaManager.key(level, id, QuotaManager.Period.DAY,
+            QuotaManager.Periods.at(System.currentTimeMillis()));
+    }
+
+    @Test
+    void shouldEnforceDailyLimitWithoutRedisWritePerRequest() {
+        // Given
+        stubRedisIncrBy();
+
+        // When - API 키 일 한도 5
+        for (int i = 0; i < 5; i++) {
+            assertTrue(quotaManager.tryAcquire("key-1", null, null).isAllowed());
+        }
+        QuotaManager.Decision decision = quotaManager.tryAcquire("key-1", null, null);
+
+        // Then - 한도 도달 시에만 반영
+        assertFalse(decision.isAllowed());
+        assertEquals("api-key/day", decision.getScope());
+        assertEquals(5, decision.getLimit());
+        assertEquals(0, decision.getRemaining());
+        assertEquals(5L, (long) redisTotals.get(dailyKey(QuotaManager.Level.API_KEY, "key-1")));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+    }
+
+    @Test
+    void shouldReconcileWithUsageFromOtherNodes() {
+        // Given - 다른 노드가 이미 4회 사용
+        stubRedisIncrBy();
+        redisTotals.put(dailyKey(QuotaManager.Level.API_KEY, "key-2"), 4L);
+
+        // When - 첫 요청 후 반영 주기에 전체 합계 5를 받음
+        QuotaManager.Decision first = quotaManager.tryAcquire("key-2", null, null);
+        quotaManager.flush().block();
+        QuotaManager.Decision second = quotaManager.tryAcquire("key-2", null, null);
+
+        // Then
+        assertTrue(first.isAllowed());
+        assertFalse(second.isAllowed());
+        assertEquals(5L, (long) redisTotals.get(dailyKey(QuotaManager.Level.API_KEY, "key-2")));
+    }
+
+    @Test
+    void shouldReportTightestLevelAndRollBackOnRejection() {
+        // Given
+        stubRedisIncrBy();
+
+        // When - API 키 일 한도 5, 테넌트 일 한도 3
+        QuotaManager.Decision first = quotaManager.tryAcquire("key-3", "tenant-a", "free");
+        quotaManager.tryAcquire("key-3", "tenant-a", "free");
+        quotaManager.tryAcquire("key-3", "tenant-a", "free");
+        QuotaManager.Decision rejected = quotaManager.tryAcquire("key-3", "tenant-a", "free");
+        quotaManager.flush().block();
+
+        // Then - 응답은 남은 횟수가 가장 적은 테넌트 기준, 거부된 요청은 API 키 사용량에서도 제외
+        assertEquals("tenant/day", first.getScope());
+        assertEquals(2, first.getRemaining());
+        assertFalse(rejected.isAllowed());
+        assertEquals("tenant/day", rejected.getScope());
+        assertEquals(3L, (long) redisTotals.get(dailyKey(QuotaManager.Level.TENANT, "tenant-a")));
+        assertEquals(3L, (long) redisTotals.get(dailyKey(QuotaManager.Level.API_KEY, "key-3")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRetainUsageWhenRedisSyncFails() {
+        // Given - 첫 반영 실패
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenReturn(Flux.error(new RedisConnectionFailureException("Connection refused")))
+            .thenReturn(Flux.just(3L));
+
+        // When - 실패 중에도 로컬 판정 유지
+        assertTrue(quotaManager.tryAcquire("key-4", null, null).isAllowed());
+        quotaManager.flush().block();
+        for (int i = 0; i < 2; i++) {
+            assertTrue(quotaManager.tryAcquire("key-4", null, null).isAllowed());
+        }
+        quotaManager.flush().block();
+
+        // Then - 실패한 증가분까지 합쳐 한 번에 재반영
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class),
+            eq(List.of(dailyKey(QuotaManager.Level.API_KEY, "key-4"))), args.capture());
+        assertEquals("1", args.getAllValues().get(0).get(0));
+        assertEquals("3", args.getAllValues().get(1).get(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldNotResendUsageWhenRedisSyncTimesOut() {
+        // Given - 스크립트가 실행되었을 수 있는 호출 기한 초과
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenReturn(Flux.error(new TimeoutException("Did not observe any item or terminal signal")))
+            .thenReturn(Flux.just(3L));
+
+        // When
+        assertTrue(quotaManager.tryAcquire("key-5", null, null).isAllowed());
+        quotaManager.flush().block();
+        for (int i = 0; i < 2; i++) {
+            assertTrue(quotaManager.tryAcquire("key-5", null, null).isAllowed());
+        }
+        quotaManager.flush().block();
+
+        // Then - 기한 초과된 증가분은 다시 보내지 않음 (중복 반영 방지)
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class),
+            eq(List.of(dailyKey(QuotaManager.Level.API_KEY, "key-5"))), args.capture());
+        assertEquals("1", args.getAllValues().get(0).get(0));
+        assertEquals("2", args.getAllValues().get(1).get(0));
+    }
+
+    @Test
+    void shouldKeepTenantQuotaWhenApiKeyCountersAreFull() {
+        // Given - 수준별 추적 카운터 2개
+        stubRedisIncrBy();
+        properties.setMaxKeys(2);
+
+        // When - 처음 보는 API 키가 계속 들어옴
+        for (int i = 0; i < 3; i++) {
+            assertTrue(quotaManager.tryAcquire("random-" + i, "tenant-b", "free").isAllowed());
+        }
+        QuotaManager.Decision rejected = quotaManager.tryAcquire("random-3", "tenant-b", "free");
+
+        // Then - API 키 수준만 추적을 멈추고 테넌트 한도는 그대로 적용
+        assertFalse(rejected.isAllowed());
+        assertEquals("tenant/day", rejected.getScope());
+        assertEquals(3, quotaManager.trackedCounters());
+        assertFalse(redisTotals.containsKey(dailyKey(QuotaManager.Level.API_KEY, "random-2")));
+    }
+
+    @Test
+    void shouldSkipRequestsWithoutIdentity() {
+        // When
+        QuotaManager.Decision decision = quotaManager.tryAcquire(null, null, "free");
+
+        // Then
+        assertTrue(decision.isAllowed());
+        assertFalse(decision.isLimited());
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.APIGatewaySvc.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisHealthTrackerTest {
+
+    private RedisHealthTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build();
+        tracker = new RedisHealthTracker(CircuitBreakerRegistry.of(config));
+        ReflectionTestUtils.setField(tracker, "callTimeout", Duration.ofMillis(20));
+    }
+
+    @Test
+    void shouldFailSlowCallAfterDeadline() {
+        StepVerifier.create(tracker.protect(Mono.never()))
+            .expectError(TimeoutException.class)
+            .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldOpenCircuitAndSkipRedisAfterRepeatedFailures() {
+        // Given - 실패율 50% 이상
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(tracker.protect(Mono.error(new RedisConnectionFailureException("Connection refused"))))
+                .expectError(RedisConnectionFailureException.class)
+                .verify();
+        }
+        assertFalse(tracker.isAvailable());
+
+        // When - 서킷 개방 중 호출
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<String> call = Mono.fromSupplier(() -> {
+            subscriptions.incrementAndGet();
+            return "value";
+        });
+
+        // Then - Redis를 호출하지 않고 즉시 실패
+        StepVerifier.create(tracker.protect(call))
+            .expectError(CallNotPermittedException.class)
+            .verify();
+        assertEquals(0, subscriptions.get());
+    }
+
+    @Test
+    void shouldPassThroughSuccessfulCalls() {
+        StepVerifier.create(tracker.protect(Mono.just("value")))
+            .expectNext("value")
+            .verifyComplete();
+        assertTrue(tracker.isAvailable());
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.APIGatewaySvc.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * BlockSnapshotFile 단위 테스트
+ * 스냅샷 기록/읽기 왕복 및 손상된 파일 거부 검증
+ */
+class BlockSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("기록한 항목이 그대로 읽혀야 함")
+    void shouldRoundTripRecords() throws IOException {
+        Path path = tempDir.resolve("snapshot.bin");
+        List<BlockSnapshotFile.Record> records = List.of(
+            new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_USER, "user-1", 0, "영구 차단"),
+            new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_IP, "203.0.113.7", 1_900_000_000_000L, "Scraper"),
+            new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_CIDR, "10.0.0.0/8", 0, "Cloud range"));
+
+        int written = BlockSnapshotFile.write(path, 1_700_000_000_000L, records);
+        BlockSnapshotFile.Snapshot snapshot = BlockSnapshotFile.read(path);
+
+        assertThat(written).isEqualTo(3);
+        assertThat(snapshot.getCreatedAtMillis()).isEqualTo(1_700_000_000_000L);
+        assertThat(snapshot.getRecords()).hasSize(3);
+        BlockSnapshotFile.Record first = snapshot.getRecords().get(0);
+        assertThat(first.getKind()).isEqualTo(BlockSnapshotFile.KIND_USER);
+        assertThat(first.getId()).isEqualTo("user-1");
+        assertThat(first.getReason()).isEqualTo("영구 차단");
+        assertThat(snapshot.getRecords().get(1).getExpiresAtMillis()).isEqualTo(1_900_000_000_000L);
+        assertThat(snapshot.getRecords().get(2).getId()).isEqualTo("10.0.0.0/8");
+    }
+
+    @Test
+    @DisplayName("파일이 없으면 null을 반환해야 함")
+    void shouldReturnNullWhenFileMissing() throws IOException {
+        assertThat(BlockSnapshotFile.read(tempDir.resolve("missing.bin"))).isNull();
+    }
+
+    @Test
+    @DisplayName("내용이 손상된 파일은 체크섬 불일치로 거부되어야 함")
+    void shouldRejectCorruptedFile() throws IOException {
+        Path path = tempDir.resolve("snapshot.bin");
+        BlockSnapshotFile.write(path, System.currentTimeMillis(),
+            List.of(new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_IP, "203.0.113.7", 0, "Scraper")));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[30] ^= 0x01;
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> BlockSnapshotFile.read(path)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("다시 기록하면 기존 스냅샷을 교체해야 함")
+    void shouldReplaceExistingSnapshot() throws IOException {
+        Path path = tempDir.resolve("snapshot.bin");
+        List<BlockSnapshotFile.Record> large = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            large.add(new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_IP, "10.0." + (i / 256) + "." + (i % 256), 0, "bulk"));
+        }
+        BlockSnapshotFile.write(path, 1L, large);
+        BlockSnapshotFile.write(path, 2L,
+            List.of(new BlockSnapshotFile.Record(BlockSnapshotFile.KIND_API_KEY, "leaked-key", 0, "Leaked")));
+
+        BlockSnapshotFile.Snapshot snapshot = BlockSnapshotFile.read(path);
+
+        assertThat(snapshot.getCreatedAtMillis()).isEqualTo(2L);
+        assertThat(snapshot.getRecords()).hasSize(1);
+        assertThat(Files.exists(path.resolveSibling("snapshot.bin.tmp"))).isFalse();
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.APIGatewaySvc.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.APIGatewaySvc.service.BlockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BlockedResponseWriter 단위 테스트
+ * 미리 인코딩된 조각으로 조립한 응답이 올바른 JSON인지 검증
+ */
+class BlockedResponseWriterTest {
+
+    private MockServerHttpResponse response;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        response = new MockServerHttpResponse();
+        objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    @DisplayName("403 차단 응답이 표준 응답 형식으로 작성되어야 함")
+    void shouldWriteForbiddenResponse() throws Exception {
+        // Given
+        Instant expiresAt = Instant.parse("2030-01-15T10:30:00.123Z");
+        BlockService.BlockInfo blockInfo = new BlockService.BlockInfo("IP", "Suspicious activity", expiresAt);
+
+        // When
+        StepVerifier.create(BlockedResponseWriter.write(response, blockInfo, "req-123"))
+            .verifyComplete();
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+
+        String json = response.getBodyAsString().block();
+        JsonNode body = objectMapper.readTree(json);
+        assertThat(body.get("success").asBoolean()).isFalse();
+        assertThat(body.get("data").isNull()).isTrue();
+        assertThat(body.at("/error/code").asText()).isEqualTo("BLOCKED");
+        assertThat(body.at("/error/message").asText()).isEqualTo("IP 차단됨");
+        assertThat(body.at("/error/details/type").asText()).isEqualTo("IP");
+        assertThat(body.at("/error/details/reason").asText()).isEqualTo("Suspicious activity");
+        assertThat(body.at("/error/details/expiresAt").asText()).isEqualTo("2030-01-15T10:30:00.123Z");
+        assertThat(body.at("/meta/requestId").asText()).isEqualTo("req-123");
+        assertThat(body.at("/meta/durationMs").asInt()).isEqualTo(0);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(json.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @DisplayName("영구 차단은 expiresAt이 null이어야 함")
+    void shouldWriteNullExpiryForPermanentBlock() throws Exception {
+        BlockService.BlockInfo blockInfo = new BlockService.BlockInfo("USER", "Permanently blocked", null);
+
+        JsonNode body = encode(blockInfo, "req-1", 0L);
+
+        assertThat(body.at("/error/details/expiresAt").isNull()).isTrue();
+        assertThat(body.at("/meta/timestamp").asText()).isEqualTo("1970-01-01T00:00:00.000Z");
+    }
+
+    @Test
+    @DisplayName("차단 사유와 요청 ID의 특수문자 및 한글이 올바르게 이스케이프되어야 함")
+    void shouldEscapeVariableFields() throws Exception {
+        String reason = "악성 \"스크래퍼\" \\ 탐지\n\t😀";
+        BlockService.BlockInfo blockInfo = new BlockService.BlockInfo("API_KEY", reason, null);
+
+        JsonNode body = encode(blockInfo, "id-\"injected\"", System.currentTimeMillis());
+
+        assertThat(body.at("/error/details/reason").asText()).isEqualTo(reason);
+        assertThat(body.at("/meta/requestId").asText()).isEqualTo("id-\"injected\"");
+    }
+
+    @Test
+    @DisplayName("요청 ID가 없으면 임의 ID를 생성해야 함")
+    void shouldGenerateRequestIdWhenMissing() throws Exception {
+        BlockService.BlockInfo blockInfo = new BlockService.BlockInfo("IP", "blocked", null);
+
+        JsonNode body = encode(blockInfo, null, System.currentTimeMillis());
+
+        assertThat(body.at("/meta/requestId").asText()).hasSize(32);
+    }
+
+    @Test
+    @DisplayName("타임스탬프는 ISO-8601 UTC 형식이어야 함")
+    void shouldFormatTimestampAsIsoInstant() throws Exception {
+        long now = Instant.parse("2024-02-29T23:59:59.999Z").toEpochMilli();
+        BlockService.BlockInfo blockInfo = new BlockService.BlockInfo("IP", "blocked", null);
+
+        JsonNode body = encode(blockInfo, "req", now);
+
+        assertThat(body.at("/meta/timestamp").asText()).isEqualTo("2024-02-29T23:59:59.999Z");
+    }
+
+    private JsonNode encode(BlockService.BlockInfo blockInfo, String requestId, long nowMillis) throws Exception {
+        DataBuffer buffer = BlockedResponseWriter.encode(DefaultDataBufferFactory.sharedInstance, blockInfo, requestId, nowMillis);
+        return objectMapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+    }
+}
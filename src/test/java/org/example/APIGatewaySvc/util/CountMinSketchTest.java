@@ -0,0 +1,67 @@
+package org.example.APIGatewaySvc.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CountMinSketch 단위 테스트
+ * 과소 추정 없음, 오차 상한, 고정 메모리 검증
+ */
+class CountMinSketchTest {
+
+    @Test
+    @DisplayName("추정값은 실제 빈도보다 작지 않아야 함")
+    void shouldNeverUnderestimate() {
+        CountMinSketch sketch = new CountMinSketch(0.01, 0.99);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add("10.0." + (i % 20) + "." + (i % 7), 1);
+        }
+
+        for (int i = 0; i < 140; i++) {
+            String ip = "10.0." + (i % 20) + "." + (i % 7);
+            assertThat(sketch.estimate(ip)).isGreaterThanOrEqualTo(1L);
+        }
+        assertThat(sketch.estimate("10.0.0.0")).isGreaterThanOrEqualTo(5_000L / 140);
+    }
+
+    @Test
+    @DisplayName("고유 항목이 많아도 빈도가 높은 항목의 오차는 epsilon * N 이내여야 함")
+    void shouldKeepErrorWithinBoundUnderChurn() {
+        CountMinSketch sketch = new CountMinSketch(0.001, 0.99);
+        long total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add("198.51." + (i / 256 % 256) + "." + (i % 256), 1);
+            total++;
+            if (i % 10 == 0) {
+                sketch.add("203.0.113.7", 1);
+                total++;
+            }
+        }
+
+        assertThat(sketch.estimate("203.0.113.7")).isBetween(10_000L, 10_000L + (long) (0.001 * total));
+        assertThat(sketch.estimate("192.0.2.1")).isLessThanOrEqualTo((long) (0.001 * total));
+    }
+
+    @Test
+    @DisplayName("add는 증가 후 추정값을 반환해야 함")
+    void shouldReturnEstimateAfterAdd() {
+        CountMinSketch sketch = new CountMinSketch(0.01, 0.9);
+
+        assertThat(sketch.add("alice", 3)).isEqualTo(3);
+        assertThat(sketch.add("alice", 2)).isEqualTo(5);
+        assertThat(sketch.estimate("alice")).isEqualTo(5);
+        assertThat(sketch.sizeInBytes()).isEqualTo((long) sketch.getWidth() * sketch.getDepth() * Long.BYTES);
+    }
+
+    @Test
+    @DisplayName("잘못된 오차 비율이면 예외가 발생해야 함")
+    void shouldRejectInvalidParameters() {
+        assertThatThrownBy(() -> new CountMinSketch(0, 0.99))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(0.01, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
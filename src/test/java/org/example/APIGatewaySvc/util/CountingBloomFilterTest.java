@@ -0,0 +1,105 @@
+package org.example.APIGatewaySvc.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CountingBloomFilter 단위 테스트
+ * 미탐 없음, 삭제 지원, 목표 오탐률 근접 여부 검증
+ */
+class CountingBloomFilterTest {
+
+    @Test
+    @DisplayName("추가된 항목은 항상 포함으로 판정되어야 함")
+    void shouldNeverReportFalseNegative() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("blocked:ip:10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("blocked:ip:10.0." + (i / 256) + "." + (i % 256))).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("삭제된 항목은 더 이상 포함으로 판정되지 않아야 함")
+    void shouldSupportRemoval() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        filter.add("blocked:user:alice");
+        filter.add("blocked:user:bob");
+
+        filter.remove("blocked:user:alice");
+
+        assertThat(filter.mightContain("blocked:user:alice")).isFalse();
+        assertThat(filter.mightContain("blocked:user:bob")).isTrue();
+    }
+
+    @Test
+    @DisplayName("같은 항목을 두 번 추가하면 한 번 삭제해도 포함으로 판정되어야 함")
+    void shouldKeepItemAddedTwiceAfterSingleRemoval() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        filter.add("blocked:key:abc");
+        filter.add("blocked:key:abc");
+
+        filter.remove("blocked:key:abc");
+
+        assertThat(filter.mightContain("blocked:key:abc")).isTrue();
+    }
+
+    @Test
+    @DisplayName("추가된 적 없는 항목 삭제는 다른 항목의 카운터를 감소시키지 않아야 함")
+    void shouldIgnoreRemovalOfAbsentItem() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        filter.add("blocked:user:alice");
+
+        // When - 추가된 적 없는 항목을 반복 삭제
+        boolean removed = false;
+        for (int i = 0; i < 1_000; i++) {
+            removed |= filter.remove("blocked:user:never-" + i);
+        }
+
+        // Then
+        assertThat(removed).isFalse();
+        assertThat(filter.mightContain("blocked:user:alice")).isTrue();
+    }
+
+    @Test
+    @DisplayName("오탐률이 목표치 부근이어야 함")
+    void shouldKeepFalsePositiveRateNearTarget() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("blocked:ip:member-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("blocked:ip:other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("50만 건 기준 1% 오탐률 필터는 수 MB 이내여야 함")
+    void shouldFitLargeBlockListInFewMegabytes() {
+        CountingBloomFilter filter = new CountingBloomFilter(500_000, 0.01);
+
+        assertThat(filter.sizeInBytes()).isLessThan(4L * 1024 * 1024);
+        assertThat(filter.getHashCount()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("잘못된 크기 설정은 거부되어야 함")
+    void shouldRejectInvalidConfiguration() {
+        assertThatThrownBy(() -> new CountingBloomFilter(0, 0.01))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountingBloomFilter(1_000, 1.0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.APIGatewaySvc.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ForwardedForParser 단위 테스트
+ * 신뢰 프록시 기준 X-Forwarded-For 해석과 IPv4/IPv6 주소 정규화 검증
+ */
+class ForwardedForParserTest {
+
+    private final ForwardedForParser parser =
+            new ForwardedForParser(List.of("127.0.0.0/8", "10.0.0.0/8", "2001:db8:ffff::/48"));
+
+    @Test
+    @DisplayName("오른쪽부터 신뢰 프록시를 건너뛰고 첫 외부 주소를 반환해야 함")
+    void shouldSkipTrustedHopsFromRight() {
+        assertThat(parser.clientAddress("203.0.113.45, 10.0.0.1")).isEqualTo("203.0.113.45");
+        assertThat(parser.clientAddress("203.0.113.45,10.0.0.2 , 10.0.0.1")).isEqualTo("203.0.113.45");
+    }
+
+    @Test
+    @DisplayName("클라이언트가 위조한 왼쪽 항목은 무시되어야 함")
+    void shouldIgnoreSpoofedLeftEntries() {
+        // Given - 클라이언트가 1.2.3.4를 위조해 보내고 신뢰 프록시가 실제 주소를 덧붙임
+        String header = "1.2.3.4, 198.51.100.7, 10.0.0.1";
+
+        // When & Then
+        assertThat(parser.clientAddress(header)).isEqualTo("198.51.100.7");
+    }
+
+    @Test
+    @DisplayName("모든 항목이 신뢰 프록시면 가장 왼쪽 주소를 반환해야 함")
+    void shouldReturnLeftmostWhenAllTrusted() {
+        assertThat(parser.clientAddress("10.1.2.3, 10.0.0.1")).isEqualTo("10.1.2.3");
+    }
+
+    @Test
+    @DisplayName("잘못된 항목을 만나면 그 오른쪽의 신뢰 홉에서 멈춰야 함")
+    void shouldStopAtInvalidEntry() {
+        assertThat(parser.clientAddress("203.0.113.45, not-an-ip, 10.0.0.1")).isEqualTo("10.0.0.1");
+        assertThat(parser.clientAddress("not-an-ip")).isNull();
+        assertThat(parser.clientAddress(" , ")).isNull();
+    }
+
+    @Test
+    @DisplayName("여러 헤더 줄은 마지막 줄부터 이어서 해석해야 함")
+    void shouldWalkMultipleHeaderLines() {
+        assertThat(parser.clientAddress(List.of("1.2.3.4, 198.51.100.7", "10.0.0.2, 10.0.0.1")))
+                .isEqualTo("198.51.100.7");
+    }
+
+    @Test
+    @DisplayName("IPv6 주소는 압축 표기와 관계없이 같은 형태로 정규화되어야 함")
+    void shouldNormalizeIpv6() throws Exception {
+        String expected = InetAddress.getByName("2001:db8::1").getHostAddress();
+
+        assertThat(ForwardedForParser.normalize("2001:db8::1")).isEqualTo(expected);
+        assertThat(ForwardedForParser.normalize("2001:DB8:0:0:0:0:0:1")).isEqualTo(expected);
+        assertThat(ForwardedForParser.normalize("[2001:db8::1]:8443")).isEqualTo(expected);
+        assertThat(ForwardedForParser.normalize("fe80::1%eth0"))
+                .isEqualTo(InetAddress.getByName("fe80::1").getHostAddress());
+    }
+
+    @Test
+    @DisplayName("포트가 붙은 IPv4와 IPv4-mapped IPv6는 IPv4로 정규화되어야 함")
+    void shouldNormalizeIpv4Forms() {
+        assertThat(ForwardedForParser.normalize("203.0.113.45:51234")).isEqualTo("203.0.113.45");
+        assertThat(ForwardedForParser.normalize("::ffff:203.0.113.45")).isEqualTo("203.0.113.45");
+        assertThat(ForwardedForParser.normalize(" 203.0.113.45 ")).isEqualTo("203.0.113.45");
+    }
+
+    @Test
+    @DisplayName("형식이 잘못된 주소는 null을 반환해야 함")
+    void shouldRejectInvalidAddresses() {
+        assertThat(ForwardedForParser.normalize(null)).isNull();
+        assertThat(ForwardedForParser.normalize("256.1.1.1")).isNull();
+        assertThat(ForwardedForParser.normalize("1.2.3")).isNull();
+        assertThat(ForwardedForParser.normalize("2001:db8::1::2")).isNull();
+        assertThat(ForwardedForParser.normalize("1:2:3:4:5:6:7:8:9")).isNull();
+        assertThat(ForwardedForParser.normalize("<script>")).isNull();
+    }
+
+    @Test
+    @DisplayName("IPv6 신뢰 프록시 대역도 건너뛰어야 함")
+    void shouldTrustIpv6Ranges() throws Exception {
+        assertThat(parser.isTrusted(InetAddress.getByName("2001:db8:ffff::10"))).isTrue();
+        assertThat(parser.isTrusted(InetAddress.getByName("2001:db8:fffe::10"))).isFalse();
+        assertThat(parser.clientAddress("2001:db8:1::7, 2001:db8:ffff::10"))
+                .isEqualTo(InetAddress.getByName("2001:db8:1::7").getHostAddress());
+    }
+
+    @Test
+    @DisplayName("잘못된 신뢰 프록시 설정은 시작 시 거부되어야 함")
+    void shouldRejectInvalidTrustedProxy() {
+        assertThatThrownBy(() -> new ForwardedForParser(List.of("10.0.0.0/33")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
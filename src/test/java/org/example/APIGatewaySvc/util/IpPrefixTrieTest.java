@@ -0,0 +1,88 @@
+package org.example.APIGatewaySvc.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IpPrefixTrie 단위 테스트
+ * IPv4/IPv6 최장 프리픽스 일치 및 CIDR 파싱 검증
+ */
+class IpPrefixTrieTest {
+
+    private IpPrefixTrie<String> trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new IpPrefixTrie<>();
+        put("10.0.0.0/8");
+        put("10.1.0.0/16");
+        put("10.1.2.0/24");
+        put("203.0.113.7");
+        put("2001:db8::/32");
+        put("2001:db8:1::/48");
+    }
+
+    @Test
+    @DisplayName("가장 구체적인 IPv4 대역이 선택되어야 함")
+    void shouldReturnLongestIpv4Match() {
+        assertThat(trie.longestMatch("10.1.2.3")).isEqualTo("10.1.2.0/24");
+        assertThat(trie.longestMatch("10.1.3.3")).isEqualTo("10.1.0.0/16");
+        assertThat(trie.longestMatch("10.200.0.1")).isEqualTo("10.0.0.0/8");
+        assertThat(trie.longestMatch("11.0.0.1")).isNull();
+    }
+
+    @Test
+    @DisplayName("프리픽스 없는 주소는 /32 단일 주소로 취급되어야 함")
+    void shouldTreatPlainAddressAsHostRoute() {
+        assertThat(trie.longestMatch("203.0.113.7")).isEqualTo("203.0.113.7/32");
+        assertThat(trie.longestMatch("203.0.113.8")).isNull();
+    }
+
+    @Test
+    @DisplayName("IPv6 대역도 최장 일치로 검색되어야 함")
+    void shouldReturnLongestIpv6Match() {
+        assertThat(trie.longestMatch("2001:db8:1::5")).isEqualTo(IpPrefixTrie.Cidr.parse("2001:db8:1::/48").toString());
+        assertThat(trie.longestMatch("2001:db8:2::5")).isEqualTo(IpPrefixTrie.Cidr.parse("2001:db8::/32").toString());
+        assertThat(trie.longestMatch("2001:db9::1")).isNull();
+    }
+
+    @Test
+    @DisplayName("IPv4-mapped IPv6 주소는 IPv4 대역과 일치해야 함")
+    void shouldMatchIpv4MappedAddress() {
+        assertThat(trie.longestMatch("::ffff:10.1.2.3")).isEqualTo("10.1.2.0/24");
+    }
+
+    @Test
+    @DisplayName("같은 대역을 다시 추가하면 값만 교체되어야 함")
+    void shouldReplaceValueForSamePrefix() {
+        trie.put(IpPrefixTrie.Cidr.parse("10.1.2.99/16"), "replaced");
+
+        assertThat(trie.size()).isEqualTo(6);
+        assertThat(trie.longestMatch("10.1.3.3")).isEqualTo("replaced");
+    }
+
+    @Test
+    @DisplayName("CIDR 파싱 시 호스트 비트를 정규화하고 잘못된 형식은 거부해야 함")
+    void shouldParseAndNormalizeCidr() {
+        assertThat(IpPrefixTrie.Cidr.parse("10.1.2.3/8").toString()).isEqualTo("10.0.0.0/8");
+        assertThat(IpPrefixTrie.Cidr.parse("10.0.0.0/33")).isNull();
+        assertThat(IpPrefixTrie.Cidr.parse("10.0.0/8")).isNull();
+        assertThat(IpPrefixTrie.Cidr.parse("example.com/8")).isNull();
+        assertThat(IpPrefixTrie.Cidr.parse("10.0.0.0/abc")).isNull();
+    }
+
+    @Test
+    @DisplayName("IP 형식이 아닌 문자열은 일치하지 않아야 함")
+    void shouldIgnoreNonIpInput() {
+        assertThat(trie.longestMatch("unknown")).isNull();
+        assertThat(trie.longestMatch("256.1.1.1")).isNull();
+    }
+
+    private void put(String cidr) {
+        IpPrefixTrie.Cidr parsed = IpPrefixTrie.Cidr.parse(cidr);
+        trie.put(parsed, parsed.toString());
+    }
+}
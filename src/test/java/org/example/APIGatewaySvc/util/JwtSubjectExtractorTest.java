@@ -0,0 +1,70 @@
+package org.example.APIGatewaySvc.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JwtSubjectExtractor 단위 테스트
+ * Base64URL 직접 디코딩과 최상위 sub 클레임 추출 검증
+ */
+class JwtSubjectExtractorTest {
+
+    @Test
+    @DisplayName("페이로드의 sub 클레임을 추출해야 함")
+    void shouldExtractSubject() {
+        String token = token("{\"iss\":\"https://issuer/\",\"sub\":\"auth0|user-123\",\"exp\":1700000000}");
+
+        assertThat(JwtSubjectExtractor.extractSubject(token)).isEqualTo("auth0|user-123");
+    }
+
+    @Test
+    @DisplayName("중첩 객체나 문자열 안의 sub는 무시하고 최상위 sub만 사용해야 함")
+    void shouldIgnoreNestedSubject() {
+        String token = token("{ \"act\" : {\"sub\":\"impersonator\"}, \"note\":\"\\\"sub\\\":\\\"fake\\\"\","
+                + " \"roles\":[\"a\",{\"sub\":\"x\"}], \"admin\":false, \"sub\" : \"real-user\" }");
+
+        assertThat(JwtSubjectExtractor.extractSubject(token)).isEqualTo("real-user");
+    }
+
+    @Test
+    @DisplayName("이스케이프와 UTF-8 문자가 포함된 sub를 복원해야 함")
+    void shouldDecodeEscapedAndUtf8Subject() {
+        assertThat(JwtSubjectExtractor.extractSubject(token("{\"sub\":\"a\\\"b\\\\c\\u0041\"}")))
+                .isEqualTo("a\"b\\cA");
+        assertThat(JwtSubjectExtractor.extractSubject(token("{\"sub\":\"사용자\"}")))
+                .isEqualTo("사용자");
+    }
+
+    @Test
+    @DisplayName("sub가 없거나 형식이 잘못된 토큰은 null을 반환해야 함")
+    void shouldReturnNullForInvalidToken() {
+        assertThat(JwtSubjectExtractor.extractSubject(token("{\"iss\":\"x\"}"))).isNull();
+        assertThat(JwtSubjectExtractor.extractSubject(token("{\"sub\":12345}"))).isNull();
+        assertThat(JwtSubjectExtractor.extractSubject(token("[\"sub\"]"))).isNull();
+        assertThat(JwtSubjectExtractor.extractSubject("no-dots")).isNull();
+        assertThat(JwtSubjectExtractor.extractSubject("header.pay+load.sig")).isNull();
+        assertThat(JwtSubjectExtractor.extractSubject(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("재사용 버퍼보다 긴 페이로드도 처리해야 함")
+    void shouldHandleLargePayload() {
+        String padding = "x".repeat(40_000);
+        String token = token("{\"pad\":\"" + padding + "\",\"sub\":\"big\"}");
+
+        assertThat(JwtSubjectExtractor.extractSubject(token)).isEqualTo("big");
+        assertThat(JwtSubjectExtractor.extractSubject(token("{\"sub\":\"small\"}"))).isEqualTo("small");
+    }
+
+    private static String token(String payloadJson) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(payloadJson.getBytes(StandardCharsets.UTF_8))
+                + ".signature";
+    }
+}
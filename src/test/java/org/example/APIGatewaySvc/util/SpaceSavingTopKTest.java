@@ -0,0 +1,94 @@
+package org.example.APIGatewaySvc.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SpaceSavingTopK 단위 테스트
+ * 고정 용량 유지, 빈도가 높은 항목 보존, 오차 상한 기록 검증
+ */
+class SpaceSavingTopKTest {
+
+    @Test
+    @DisplayName("용량 이내에서는 정확한 빈도를 내림차순으로 반환해야 함")
+    void shouldCountExactlyWithinCapacity() {
+        SpaceSavingTopK<String> topK = new SpaceSavingTopK<>(10);
+        for (int i = 0; i < 5; i++) {
+            topK.add("IP:10.0.0.1");
+        }
+        topK.add("USER:alice");
+        topK.add("USER:alice");
+
+        List<SpaceSavingTopK.Entry<String>> top = topK.top(10);
+
+        assertThat(top).extracting(SpaceSavingTopK.Entry::getItem).containsExactly("IP:10.0.0.1", "USER:alice");
+        assertThat(top).extracting(SpaceSavingTopK.Entry::getCount).containsExactly(5L, 2L);
+        assertThat(top).extracting(SpaceSavingTopK.Entry::getError).containsExactly(0L, 0L);
+    }
+
+    @Test
+    @DisplayName("고유 항목이 많아도 용량을 넘지 않고 빈도가 높은 항목은 유지해야 함")
+    void shouldKeepHeavyHittersUnderChurn() {
+        SpaceSavingTopK<String> topK = new SpaceSavingTopK<>(20);
+        for (int i = 0; i < 10_000; i++) {
+            topK.add("IP:203.0.113.7");
+            if (i % 2 == 0) {
+                topK.add("IP:198.51.100.1");
+            }
+            topK.add("IP:10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        List<SpaceSavingTopK.Entry<String>> top = topK.top(2);
+
+        assertThat(topK.size()).isEqualTo(20);
+        assertThat(top).extracting(SpaceSavingTopK.Entry::getItem).containsExactly("IP:203.0.113.7", "IP:198.51.100.1");
+        assertThat(top.get(0).getCount() - top.get(0).getError()).isLessThanOrEqualTo(10_000L);
+        assertThat(top.get(0).getCount()).isGreaterThanOrEqualTo(10_000L);
+    }
+
+    @Test
+    @DisplayName("교체된 항목의 카운트를 새 항목의 오차로 기록해야 함")
+    void shouldRecordReplacementError() {
+        SpaceSavingTopK<String> topK = new SpaceSavingTopK<>(2);
+        topK.add("a");
+        topK.add("a");
+        topK.add("b");
+
+        topK.add("c");
+
+        List<SpaceSavingTopK.Entry<String>> top = topK.top(2);
+        assertThat(top).extracting(SpaceSavingTopK.Entry::getItem).containsExactlyInAnyOrder("a", "c");
+        SpaceSavingTopK.Entry<String> replaced = top.stream().filter(entry -> entry.getItem().equals("c")).findFirst().get();
+        assertThat(replaced.getCount()).isEqualTo(2);
+        assertThat(replaced.getError()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("추정값이 최소 카운트 이하인 항목은 상위 항목을 교체하지 않아야 함")
+    void shouldNotReplaceWhenEstimateIsLow() {
+        SpaceSavingTopK<String> topK = new SpaceSavingTopK<>(2);
+        topK.add("a", 1);
+        topK.add("a", 2);
+        topK.add("b", 1);
+        topK.add("b", 2);
+
+        assertThat(topK.add("c", 1)).isEqualTo(0);
+        assertThat(topK.add("c", 3)).isEqualTo(1);
+
+        List<SpaceSavingTopK.Entry<String>> top = topK.top(2);
+        assertThat(top).extracting(SpaceSavingTopK.Entry::getItem).contains("c");
+        assertThat(topK.add("c", 4)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("용량이 0 이하이면 예외가 발생해야 함")
+    void shouldRejectNonPositiveCapacity() {
+        assertThatThrownBy(() -> new SpaceSavingTopK<>(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}